@@ -0,0 +1,94 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Reservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ReservasColumnas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+
+/**
+ * Mide la memoria que ocupan 1.000.000 de reservas repartidas entre 300 aulas y 200 profesores cuando cada reserva
+ * llega con su propia copia del aula y del profesor, como al reproducir el diario. Compara guardarlas tal cual en
+ * Reservas con guardarlas a través del modelo, que las hace apuntar a las instancias canónicas de Aulas y
+ * Profesores, y con guardarlas por columnas en ReservasColumnas. No es un benchmark de JMH: se ejecuta con su método main y conviene darle al menos 3 GB de memoria.
+ * @see ModeloReservasAulas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public final class HuellaMemoria {
+
+	private static final int NUM_AULAS = 300;
+	private static final int NUM_PROFESORES = 200;
+	private static final int NUM_RESERVAS = 1000000;
+	private static final LocalDate INICIO = LocalDate.of(2018, 9, 15);
+	private static final double MB = 1024 * 1024;
+
+	/**
+	 * Constructor privado, ya que la clase sólo tiene métodos estáticos
+	 */
+	private HuellaMemoria() {
+	}
+
+	/**
+	 * Crea la reserva indicada con copias nuevas del aula, el profesor y sus cadenas
+	 * @param i el número de la reserva
+	 * @return la reserva creada
+	 */
+	private static Reserva copia(int i) {
+		int franja = i / NUM_AULAS;
+		int profesor = i % NUM_PROFESORES;
+		return new Reserva(new Profesor("Profesor " + profesor, "profesor" + profesor + "@iesalandalus.org"),
+				new Aula("Aula " + i % NUM_AULAS), new Permanencia(INICIO.plusDays(franja / 2), Tramo.values()[franja % 2]));
+	}
+
+	/**
+	 * Obtiene la memoria ocupada después de recolectar la basura
+	 * @return los bytes ocupados en el heap
+	 */
+	private static long ocupada() {
+		MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+		for(int i = 0; i < 3; i++)
+			System.gc();
+		return memoria.getHeapMemoryUsage().getUsed();
+	}
+
+	public static void main(String[] args) throws OperationNotSupportedException {
+		long base = ocupada();
+		Reservas copias = new Reservas();
+		for(int i = 0; i < NUM_RESERVAS; i++)
+			copias.insertar(copia(i));
+		long conCopias = ocupada() - base;
+		System.out.printf("Reservas con copias propias:      %8.1f MB (%d reservas)%n", conCopias / MB, copias.getNumReservas());
+		copias = null;
+
+		base = ocupada();
+		ModeloReservasAulas modelo = new ModeloReservasAulas();
+		for(int i = 0; i < NUM_AULAS; i++)
+			modelo.insertarAula(new Aula("Aula " + i));
+		for(int i = 0; i < NUM_PROFESORES; i++)
+			modelo.insertarProfesor(new Profesor("Profesor " + i, "profesor" + i + "@iesalandalus.org"));
+		for(int i = 0; i < NUM_RESERVAS; i++)
+			modelo.realizarReserva(copia(i));
+		long canonicas = ocupada() - base;
+		System.out.printf("Modelo con instancias canónicas:  %8.1f MB (%d reservas)%n", canonicas / MB, modelo.getNumReservas());
+		System.out.printf("Ahorro:                           %8.1f MB (%.0f bytes por reserva)%n", (conCopias - canonicas) / MB,
+				(double) (conCopias - canonicas) / NUM_RESERVAS);
+		modelo = null;
+
+		base = ocupada();
+		ReservasColumnas columnas = new ReservasColumnas();
+		for(int i = 0; i < NUM_RESERVAS; i++)
+			columnas.insertar(copia(i));
+		long porColumnas = ocupada() - base;
+		System.out.printf("ReservasColumnas:                 %8.1f MB (%d reservas, %.0f bytes por reserva)%n",
+				porColumnas / MB, columnas.getNumReservas(), (double) porColumnas / NUM_RESERVAS);
+	}
+}
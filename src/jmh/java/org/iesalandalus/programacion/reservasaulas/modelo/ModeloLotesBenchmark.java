@@ -0,0 +1,111 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compara la planificación de un trimestre reserva a reserva con realizarReserva y como un solo lote con
+ * realizarReservas, con y sin diario. Cada medida reserva 300 huecos de un aula y después se anulan fuera de la
+ * medida para dejar el modelo como estaba.
+ * @see ModeloReservasAulas#realizarReservas(java.util.Collection)
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModeloLotesBenchmark {
+
+	private static final int NUM_AULAS = 20;
+	private static final int TAMANO_LOTE = 300;
+
+	@Param({"false", "true"})
+	public boolean diario;
+
+	private Path carpeta;
+	private ModeloReservasAulas modelo;
+	private List<Reserva> lote;
+
+	/**
+	 * Crea el modelo, con su diario en una carpeta temporal si se usa, y prepara un lote de reservas sobre un aula
+	 * @throws IOException si no se puede crear el diario
+	 * @throws OperationNotSupportedException si se inserta un aula o un profesor repetido
+	 */
+	@Setup
+	public void preparar() throws IOException, OperationNotSupportedException {
+		if(diario) {
+			carpeta = Files.createTempDirectory("lotes");
+			modelo = new ModeloReservasAulas(carpeta.resolve("reservas.diario"));
+		} else {
+			modelo = new ModeloReservasAulas();
+		}
+		Profesor profesor = new Profesor("Profesor", "profesor@iesalandalus.org");
+		modelo.insertarProfesor(profesor);
+		for(int j = 0; j < NUM_AULAS; j++)
+			modelo.insertarAula(new Aula("Aula " + j));
+		Aula aula = new Aula("Aula 0");
+		LocalDate inicio = LocalDate.of(2019, 1, 7);
+		lote = new ArrayList<Reserva>(TAMANO_LOTE);
+		for(int j = 0; j < TAMANO_LOTE; j++)
+			lote.add(new Reserva(profesor, aula, new Permanencia(inicio.plusDays(j / 2), Tramo.values()[j % 2])));
+	}
+
+	/**
+	 * Anula las reservas del lote después de cada medida
+	 * @throws OperationNotSupportedException si alguna reserva del lote no se llegó a realizar
+	 */
+	@TearDown(Level.Invocation)
+	public void anular() throws OperationNotSupportedException {
+		for(Reserva r : lote)
+			modelo.anularReserva(r);
+	}
+
+	/**
+	 * Cierra el modelo y borra el diario
+	 * @throws IOException si no se puede cerrar o borrar el diario
+	 */
+	@TearDown
+	public void cerrar() throws IOException {
+		modelo.cerrar();
+		if(carpeta != null) {
+			Files.deleteIfExists(carpeta.resolve("reservas.diario"));
+			Files.deleteIfExists(carpeta);
+		}
+	}
+
+	@Benchmark
+	public int unaAUna() throws OperationNotSupportedException {
+		for(Reserva r : lote)
+			modelo.realizarReserva(r);
+		return lote.size();
+	}
+
+	@Benchmark
+	public int enLote() throws OperationNotSupportedException {
+		modelo.realizarReservas(lote);
+		return lote.size();
+	}
+}
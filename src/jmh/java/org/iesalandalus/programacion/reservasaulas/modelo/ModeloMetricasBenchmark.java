@@ -0,0 +1,123 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.metricas.Metricas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compara las operaciones del modelo con y sin métricas, para ver cuánto cuesta medirlas. El modelo tiene 100.000
+ * reservas repartidas entre 100 aulas y 50 profesores.
+ * @see ModeloReservasAulasMedido
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModeloMetricasBenchmark {
+
+	private static final int NUM_AULAS = 100;
+	private static final int NUM_PROFESORES = 50;
+	private static final int NUM_RESERVAS = 100000;
+	private static final int NUM_CONSULTAS = 1024;
+
+	@Param({"false", "true"})
+	public boolean medido;
+
+	private IModeloReservasAulas modelo;
+	private Reserva[] guardadas;
+	private Reserva[] libres;
+	private int i;
+
+	/**
+	 * Rellena el modelo y, si se mide, lo envuelve en un ModeloReservasAulasMedido
+	 * @throws OperationNotSupportedException si se genera una reserva repetida
+	 */
+	@Setup
+	public void preparar() throws OperationNotSupportedException {
+		ModeloReservasAulas lleno = new ModeloReservasAulas();
+		Aula[] aulas = new Aula[NUM_AULAS];
+		Profesor[] profesores = new Profesor[NUM_PROFESORES];
+		for(int j = 0; j < NUM_AULAS; j++) {
+			aulas[j] = new Aula("Aula " + j);
+			lleno.insertarAula(aulas[j]);
+		}
+		for(int j = 0; j < NUM_PROFESORES; j++) {
+			profesores[j] = new Profesor("Profesor " + j, "profesor" + j + "@iesalandalus.org");
+			lleno.insertarProfesor(profesores[j]);
+		}
+		LocalDate inicio = LocalDate.of(2018, 9, 15);
+		guardadas = new Reserva[NUM_CONSULTAS];
+		libres = new Reserva[NUM_CONSULTAS];
+		int franjas = NUM_RESERVAS / NUM_AULAS;
+		for(int j = 0; j < NUM_RESERVAS; j++) {
+			int franja = j / NUM_AULAS;
+			Reserva r = new Reserva(profesores[j % NUM_PROFESORES], aulas[j % NUM_AULAS],
+					new Permanencia(inicio.plusDays(franja / 2), Tramo.values()[franja % 2]));
+			lleno.realizarReserva(r);
+			if(j % (NUM_RESERVAS / NUM_CONSULTAS) == 0 && j / (NUM_RESERVAS / NUM_CONSULTAS) < NUM_CONSULTAS) {
+				int k = j / (NUM_RESERVAS / NUM_CONSULTAS);
+				guardadas[k] = r;
+				libres[k] = new Reserva(r.getProfesor(), r.getAula(),
+						new Permanencia(inicio.plusDays((franjas + k) / 2), Tramo.values()[(franjas + k) % 2]));
+			}
+		}
+		modelo = medido ? new ModeloReservasAulasMedido(lleno, new Metricas("Benchmark")) : lleno;
+	}
+
+	/**
+	 * Avanza circularmente por los datos a consultar
+	 * @return la posición a usar en la siguiente medida
+	 */
+	private int siguiente() {
+		i = (i + 1) & (NUM_CONSULTAS - 1);
+		return i;
+	}
+
+	@Benchmark
+	public Reserva buscarReserva() {
+		return modelo.buscarReserva(guardadas[siguiente()]);
+	}
+
+	@Benchmark
+	public boolean consultarDisponibilidad() {
+		Reserva r = guardadas[siguiente()];
+		return modelo.consultarDisponibilidad(r.getAula(), r.getPermanencia());
+	}
+
+	@Benchmark
+	public Aula buscarAula() {
+		return modelo.buscarAula(guardadas[siguiente()].getAula());
+	}
+
+	@Benchmark
+	public int realizarYAnular() throws OperationNotSupportedException {
+		Reserva r = libres[siguiente()];
+		modelo.realizarReserva(r);
+		modelo.anularReserva(r);
+		return 2;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Reserva> getReservasAula() {
+		return modelo.getReservasAula(guardadas[siguiente()].getAula());
+	}
+}
@@ -0,0 +1,72 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks de las operaciones de Aulas para distintos tamaños de la colección
+ * @see Aulas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AulasBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	public int numAulas;
+
+	private Aulas aulas;
+	private Aula[] buscadas;
+	private Aula nueva;
+	private int i;
+
+	/**
+	 * Rellena la colección y prepara copias de las aulas guardadas para buscarlas
+	 * @throws OperationNotSupportedException si se genera un aula repetida
+	 */
+	@Setup
+	public void preparar() throws OperationNotSupportedException {
+		aulas = new Aulas();
+		Aula[] guardadas = DatosBenchmark.aulas(numAulas);
+		for(Aula a : guardadas)
+			aulas.insertar(a);
+		buscadas = new Aula[1024];
+		for(int j = 0; j < buscadas.length; j++)
+			buscadas[j] = new Aula(guardadas[(int) ((long) j * numAulas / buscadas.length)].getNombre());
+		nueva = new Aula("Aula nueva");
+	}
+
+	@Benchmark
+	public Aula buscar() {
+		i = (i + 1) & (buscadas.length - 1);
+		return aulas.buscar(buscadas[i]);
+	}
+
+	@Benchmark
+	public int insertarYBorrar() throws OperationNotSupportedException {
+		aulas.insertar(nueva);
+		aulas.borrar(nueva);
+		return aulas.getNumAulas();
+	}
+
+	@Benchmark
+	public int borrarEInsertar() throws OperationNotSupportedException {
+		i = (i + 1) & (buscadas.length - 1);
+		aulas.borrar(buscadas[i]);
+		aulas.insertar(buscadas[i]);
+		return aulas.getNumAulas();
+	}
+}
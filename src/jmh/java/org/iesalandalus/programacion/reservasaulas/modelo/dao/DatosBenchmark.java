@@ -0,0 +1,80 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.time.LocalDate;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+
+/**
+ * Genera los datos de prueba comunes a los benchmarks de los dao
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+final class DatosBenchmark {
+
+	static final int NUM_AULAS_RESERVAS = 300;
+	static final int NUM_PROFESORES_RESERVAS = 200;
+	static final LocalDate INICIO = LocalDate.of(2018, 9, 15);
+
+	/**
+	 * Constructor privado para evitar que se instancien objetos de la clase.
+	 */
+	private DatosBenchmark() {
+	}
+
+	/**
+	 * Crea aulas con nombres distintos
+	 * @param numAulas el número de aulas a crear
+	 * @return las aulas creadas
+	 */
+	static Aula[] aulas(int numAulas) {
+		Aula[] aulas = new Aula[numAulas];
+		for(int i = 0; i < numAulas; i++)
+			aulas[i] = new Aula("Aula " + i);
+		return aulas;
+	}
+
+	/**
+	 * Crea profesores con nombres distintos
+	 * @param numProfesores el número de profesores a crear
+	 * @return los profesores creados
+	 */
+	static Profesor[] profesores(int numProfesores) {
+		Profesor[] profesores = new Profesor[numProfesores];
+		for(int i = 0; i < numProfesores; i++)
+			profesores[i] = new Profesor("Profesor " + i, "profesor" + i + "@iesalandalus.org");
+		return profesores;
+	}
+
+	/**
+	 * Obtiene la permanencia correspondiente a una franja: las franjas se reparten alternando
+	 * mañana y tarde a partir del día de inicio
+	 * @param franja el número de franja
+	 * @return la permanencia de la franja
+	 */
+	static Permanencia permanencia(int franja) {
+		return new Permanencia(INICIO.plusDays(franja / 2), Tramo.values()[franja % 2]);
+	}
+
+	/**
+	 * Crea reservas distintas repartidas circularmente entre las aulas y los profesores indicados;
+	 * cada vuelta completa a las aulas pasa a la siguiente franja
+	 * @param numReservas el número de reservas a crear
+	 * @param aulas las aulas a reservar
+	 * @param profesores los profesores que reservan
+	 * @return las reservas creadas
+	 */
+	static Reserva[] reservas(int numReservas, Aula[] aulas, Profesor[] profesores) {
+		Reserva[] reservas = new Reserva[numReservas];
+		Permanencia permanencia = null;
+		for(int i = 0; i < numReservas; i++) {
+			if(i % aulas.length == 0)
+				permanencia = permanencia(i / aulas.length);
+			reservas[i] = new Reserva(profesores[i % profesores.length], aulas[i % aulas.length], permanencia);
+		}
+		return reservas;
+	}
+}
@@ -0,0 +1,261 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Compara las pausas del recolector de basura con un histórico de 10.000.000 de reservas guardado en Reservas, en
+ * ReservasColumnas, en ReservasDirectas o en ReservasMapeadas, esta última en un fichero temporal y compactando
+ * cada segundo. Carga el histórico, mide varias recolecciones completas forzadas y después
+ * simula un funcionamiento normal, con consultas de disponibilidad que generan basura de vida corta y alguna reserva
+ * y anulación, anotando la duración de cada recolección.
+ * <p>
+ * No es un benchmark de JMH: se ejecuta con su método main, indicando como argumento objetos, columnas, directas o
+ * mapeadas.
+ * Cada colección debe medirse en una máquina virtual distinta y con el mismo heap, por ejemplo -Xmx3g, que es lo
+ * que necesita Reservas para 10.000.000 de reservas.
+ * @see ReservasDirectas
+ * @see ReservasMapeadas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public final class PausasRecoleccion {
+
+	private static final int NUM_AULAS = 300;
+	private static final int NUM_PROFESORES = 200;
+	private static final int NUM_RESERVAS = 10000000;
+	private static final int NUM_DIAS = NUM_RESERVAS / NUM_AULAS / 2 + 1;
+	private static final int RECOLECCIONES_COMPLETAS = 5;
+	private static final int OPERACIONES = 5000000;
+	private static final LocalDate INICIO = LocalDate.of(1980, 9, 15);
+
+	private static final List<Long> pausasMenores = new ArrayList<Long>();
+	private static final List<Long> pausasMayores = new ArrayList<Long>();
+
+	/**
+	 * Constructor privado, ya que la clase sólo tiene métodos estáticos
+	 */
+	private PausasRecoleccion() {
+	}
+
+	/**
+	 * Operaciones comunes de las cuatro colecciones que se usan en la medida
+	 */
+	private interface Almacen {
+		ResultadoReserva reservarSiDisponible(Reserva reserva);
+		boolean consultarDisponibilidad(Aula aula, Permanencia permanencia);
+		void borrar(Reserva reserva) throws OperationNotSupportedException;
+		int getNumReservas();
+	}
+
+	/**
+	 * Crea la colección indicada en el argumento del programa
+	 * @param tipo objetos, columnas, directas o mapeadas
+	 * @return la colección vacía
+	 */
+	private static Almacen crear(String tipo) {
+		switch(tipo) {
+		case "objetos":
+			final Reservas objetos = new Reservas();
+			return new Almacen() {
+				public ResultadoReserva reservarSiDisponible(Reserva reserva) {
+					return objetos.reservarSiDisponible(reserva);
+				}
+				public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) {
+					return objetos.consultarDisponibilidad(aula, permanencia);
+				}
+				public void borrar(Reserva reserva) throws OperationNotSupportedException {
+					objetos.borrar(reserva);
+				}
+				public int getNumReservas() {
+					return objetos.getNumReservas();
+				}
+			};
+		case "columnas":
+			final ReservasColumnas columnas = new ReservasColumnas();
+			return new Almacen() {
+				public ResultadoReserva reservarSiDisponible(Reserva reserva) {
+					return columnas.reservarSiDisponible(reserva);
+				}
+				public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) {
+					return columnas.consultarDisponibilidad(aula, permanencia);
+				}
+				public void borrar(Reserva reserva) throws OperationNotSupportedException {
+					columnas.borrar(reserva);
+				}
+				public int getNumReservas() {
+					return columnas.getNumReservas();
+				}
+			};
+		case "directas":
+			final ReservasDirectas directas = new ReservasDirectas(NUM_RESERVAS + OPERACIONES / 10);
+			return new Almacen() {
+				public ResultadoReserva reservarSiDisponible(Reserva reserva) {
+					return directas.reservarSiDisponible(reserva);
+				}
+				public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) {
+					return directas.consultarDisponibilidad(aula, permanencia);
+				}
+				public void borrar(Reserva reserva) throws OperationNotSupportedException {
+					directas.borrar(reserva);
+				}
+				public int getNumReservas() {
+					return directas.getNumReservas();
+				}
+			};
+		case "mapeadas":
+			final ReservasMapeadas mapeadas;
+			try {
+				Path fichero = Files.createTempFile("reservas", ".rsm");
+				fichero.toFile().deleteOnExit();
+				fichero.resolveSibling(fichero.getFileName() + ".diccionario").toFile().deleteOnExit();
+				mapeadas = new ReservasMapeadas(fichero);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			mapeadas.iniciarCompactacion(1, TimeUnit.SECONDS);
+			return new Almacen() {
+				public ResultadoReserva reservarSiDisponible(Reserva reserva) {
+					return mapeadas.reservarSiDisponible(reserva);
+				}
+				public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) {
+					return mapeadas.consultarDisponibilidad(aula, permanencia);
+				}
+				public void borrar(Reserva reserva) throws OperationNotSupportedException {
+					mapeadas.borrar(reserva);
+				}
+				public int getNumReservas() {
+					return mapeadas.getNumReservas();
+				}
+			};
+		default:
+			throw new IllegalArgumentException("El tipo debe ser objetos, columnas, directas o mapeadas.");
+		}
+	}
+
+	/**
+	 * Anota la duración de cada recolección que termina, separando las menores de las completas
+	 */
+	private static void escucharRecolecciones() {
+		NotificationListener oyente = new NotificationListener() {
+			public void handleNotification(Notification notificacion, Object contexto) {
+				if(!notificacion.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION))
+					return;
+				GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+						.from((CompositeData) notificacion.getUserData());
+				List<Long> pausas = info.getGcAction().contains("major") ? pausasMayores : pausasMenores;
+				synchronized(pausas) {
+					pausas.add(info.getGcInfo().getDuration());
+				}
+			}
+		};
+		for(GarbageCollectorMXBean recolector : ManagementFactory.getGarbageCollectorMXBeans())
+			((NotificationEmitter) recolector).addNotificationListener(oyente, null, null);
+	}
+
+	/**
+	 * Escribe el número, la suma, la media y la mayor de unas pausas y las olvida
+	 * @param nombre qué pausas son
+	 * @param pausas las duraciones en milisegundos
+	 */
+	private static void resumir(String nombre, List<Long> pausas) {
+		synchronized(pausas) {
+			long total = 0;
+			long maxima = 0;
+			for(long pausa : pausas) {
+				total += pausa;
+				maxima = Math.max(maxima, pausa);
+			}
+			System.out.printf("  %-26s %6d pausas, %8d ms en total, media %8.1f ms, máxima %6d ms%n", nombre, pausas.size(),
+					total, pausas.isEmpty() ? 0 : (double) total / pausas.size(), maxima);
+			pausas.clear();
+		}
+	}
+
+	public static void main(String[] args) throws OperationNotSupportedException {
+		if(args.length != 1)
+			throw new IllegalArgumentException("El tipo debe ser objetos, columnas, directas o mapeadas.");
+		Aula[] aulas = new Aula[NUM_AULAS];
+		for(int i = 0; i < NUM_AULAS; i++)
+			aulas[i] = new Aula("Aula " + i);
+		Profesor[] profesores = new Profesor[NUM_PROFESORES];
+		for(int i = 0; i < NUM_PROFESORES; i++)
+			profesores[i] = new Profesor("Profesor " + i, "profesor" + i + "@iesalandalus.org");
+		Tramo[] tramos = Tramo.values();
+		escucharRecolecciones();
+
+		Almacen almacen = crear(args[0]);
+		long inicio = System.nanoTime();
+		for(int i = 0; i < NUM_RESERVAS; i++) {
+			int franja = i / NUM_AULAS;
+			almacen.reservarSiDisponible(new Reserva(profesores[i % NUM_PROFESORES], aulas[i % NUM_AULAS],
+					new Permanencia(INICIO.plusDays(franja / 2), tramos[franja % 2])));
+		}
+		System.out.printf("%s: %d reservas cargadas en %.1f s%n", args[0], almacen.getNumReservas(),
+				(System.nanoTime() - inicio) / 1e9);
+		resumir("Carga, menores", pausasMenores);
+		resumir("Carga, completas", pausasMayores);
+
+		long total = 0;
+		long maxima = 0;
+		for(int i = 0; i < RECOLECCIONES_COMPLETAS; i++) {
+			long antes = System.nanoTime();
+			System.gc();
+			long duracion = System.nanoTime() - antes;
+			total += duracion;
+			maxima = Math.max(maxima, duracion);
+		}
+		System.out.printf("  %-26s %6d pausas, media %8.1f ms, máxima %6.1f ms%n", "System.gc()", RECOLECCIONES_COMPLETAS,
+				total / 1e6 / RECOLECCIONES_COMPLETAS, maxima / 1e6);
+		pausasMenores.clear();
+		pausasMayores.clear();
+
+		Random azar = new Random(1);
+		long basura = 0;
+		int libres = 0;
+		inicio = System.nanoTime();
+		for(int i = 0; i < OPERACIONES; i++) {
+			Aula aula = aulas[azar.nextInt(NUM_AULAS)];
+			Permanencia permanencia = new Permanencia(INICIO.plusDays(azar.nextInt(NUM_DIAS + 365)),
+					tramos[azar.nextInt(2)]);
+			byte[] peticion = new byte[512];
+			peticion[azar.nextInt(peticion.length)] = 1;
+			basura += peticion.length;
+			if(i % 10 != 0) {
+				if(almacen.consultarDisponibilidad(aula, permanencia))
+					libres++;
+			} else if(almacen.reservarSiDisponible(new Reserva(profesores[azar.nextInt(NUM_PROFESORES)], aula,
+					permanencia)) == ResultadoReserva.OCUPADA && i % 20 == 0) {
+				almacen.borrar(new Reserva(profesores[0], aula, permanencia));
+			}
+		}
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+		System.out.printf("  Funcionamiento: %d operaciones en %.1f s (%.0f op/s, %d MB de basura, %d libres), %d reservas%n",
+				OPERACIONES, segundos, OPERACIONES / segundos, basura >> 20, libres, almacen.getNumReservas());
+		resumir("Funcionamiento, menores", pausasMenores);
+		resumir("Funcionamiento, completas", pausasMayores);
+	}
+}
@@ -0,0 +1,65 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks de las operaciones de Profesores para distintos tamaños de la colección. Profesores se guarda en un
+ * LinkedHashMap por nombre, así que buscar e insertar no deberían depender del tamaño
+ * @see Profesores
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProfesoresBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	public int numProfesores;
+
+	private Profesores profesores;
+	private Profesor[] buscados;
+	private Profesor nuevo;
+	private int i;
+
+	/**
+	 * Rellena la colección y prepara profesores con el mismo nombre que los guardados para buscarlos
+	 * @throws OperationNotSupportedException si se genera un profesor repetido
+	 */
+	@Setup
+	public void preparar() throws OperationNotSupportedException {
+		profesores = new Profesores();
+		Profesor[] guardados = DatosBenchmark.profesores(numProfesores);
+		for(Profesor p : guardados)
+			profesores.insertar(p);
+		buscados = new Profesor[1024];
+		for(int j = 0; j < buscados.length; j++)
+			buscados[j] = new Profesor(guardados[(int) ((long) j * numProfesores / buscados.length)].getNombre(), "a@a.a");
+		nuevo = new Profesor("Profesor nuevo", "nuevo@iesalandalus.org");
+	}
+
+	@Benchmark
+	public Profesor buscar() {
+		i = (i + 1) & (buscados.length - 1);
+		return profesores.buscar(buscados[i]);
+	}
+
+	@Benchmark
+	public int insertarYBorrar() throws OperationNotSupportedException {
+		profesores.insertar(nuevo);
+		profesores.borrar(nuevo);
+		return profesores.getNumProfesores();
+	}
+}
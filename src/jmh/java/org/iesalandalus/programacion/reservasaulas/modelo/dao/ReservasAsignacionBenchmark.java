@@ -0,0 +1,72 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Mide la memoria asignada por los listados de Reservas sobre 100.000 reservas.
+ * Debe ejecutarse con el profiler de GC: gradlew jmh -Pjmh.include=ReservasAsignacion -Pjmh.profilers=gc
+ * y comparar la métrica gc.alloc.rate.norm (bytes por operación).
+ * @see Reservas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReservasAsignacionBenchmark {
+
+	private static final int NUM_RESERVAS = 100000;
+
+	private Reservas reservas;
+	private Aula aula;
+	private Profesor profesor;
+
+	/**
+	 * Rellena la colección de reservas repartiéndolas entre aulas, profesores y permanencias
+	 * @throws OperationNotSupportedException si se genera una reserva repetida
+	 */
+	@Setup
+	public void preparar() throws OperationNotSupportedException {
+		reservas = new Reservas();
+		Aula[] aulas = DatosBenchmark.aulas(DatosBenchmark.NUM_AULAS_RESERVAS);
+		Profesor[] profesores = DatosBenchmark.profesores(DatosBenchmark.NUM_PROFESORES_RESERVAS);
+		for(Reserva r : DatosBenchmark.reservas(NUM_RESERVAS, aulas, profesores))
+			reservas.insertar(r);
+		aula = aulas[0];
+		profesor = profesores[0];
+	}
+
+	@Benchmark
+	public List<Reserva> getReservas() {
+		return reservas.getReservas();
+	}
+
+	@Benchmark
+	public List<Reserva> getReservasAula() {
+		return reservas.getReservasAula(aula);
+	}
+
+	@Benchmark
+	public List<Reserva> getReservasProfesor() {
+		return reservas.getReservasProfesor(profesor);
+	}
+
+	@Benchmark
+	public Reservas constructorCopia() {
+		return new Reservas(reservas);
+	}
+}
@@ -0,0 +1,302 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks de las operaciones de Reservas para distintos tamaños de la colección. Las reservas se reparten
+ * entre 300 aulas y 200 profesores, por lo que las consultas por aula o por profesor devuelven una parte
+ * proporcional al tamaño y las consultas por permanencia devuelven como mucho 300 reservas.
+ * @see Reservas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReservasBenchmark {
+
+	private static final int NUM_CONSULTAS = 1024;
+	private static final int FRANJAS_TRIMESTRE = 180;
+	private static final int FRANJAS_MES = 60;
+
+	@Param({"1000", "100000", "1000000"})
+	public int numReservas;
+
+	private Reservas reservas;
+	private Reserva[] guardadas;
+	private Aula[] aulas;
+	private Profesor[] profesores;
+	private Permanencia[] permanencias;
+	private Permanencia libre;
+	private Permanencia inicioTrimestre;
+	private Permanencia finTrimestre;
+	private Permanencia inicioMes;
+	private Permanencia finMes;
+	private Reserva nueva;
+	private int i;
+
+	/**
+	 * Rellena la colección y prepara las reservas, aulas, profesores y permanencias a consultar
+	 * @throws OperationNotSupportedException si se genera una reserva repetida
+	 */
+	@Setup
+	public void preparar() throws OperationNotSupportedException {
+		aulas = DatosBenchmark.aulas(DatosBenchmark.NUM_AULAS_RESERVAS);
+		profesores = DatosBenchmark.profesores(DatosBenchmark.NUM_PROFESORES_RESERVAS);
+		Reserva[] todas = DatosBenchmark.reservas(numReservas, aulas, profesores);
+		reservas = new Reservas();
+		for(Reserva r : todas)
+			reservas.insertar(r);
+		guardadas = new Reserva[NUM_CONSULTAS];
+		permanencias = new Permanencia[NUM_CONSULTAS];
+		for(int j = 0; j < NUM_CONSULTAS; j++) {
+			guardadas[j] = todas[(int) ((long) j * numReservas / NUM_CONSULTAS)];
+			permanencias[j] = guardadas[j].getPermanencia();
+		}
+		int franjas = (numReservas + aulas.length - 1) / aulas.length;
+		libre = DatosBenchmark.permanencia(franjas + 1);
+		nueva = new Reserva(profesores[0], aulas[0], libre);
+		inicioTrimestre = DatosBenchmark.permanencia(0);
+		finTrimestre = DatosBenchmark.permanencia(FRANJAS_TRIMESTRE - 1);
+		int mitad = franjas / 2 / FRANJAS_MES * FRANJAS_MES;
+		inicioMes = DatosBenchmark.permanencia(mitad);
+		finMes = DatosBenchmark.permanencia(mitad + FRANJAS_MES - 1);
+	}
+
+	/**
+	 * Avanza circularmente por los datos a consultar
+	 * @return la posición a usar en la siguiente medida
+	 */
+	private int siguiente() {
+		i = (i + 1) & (NUM_CONSULTAS - 1);
+		return i;
+	}
+
+	@Benchmark
+	public Reserva buscar() {
+		return reservas.buscar(guardadas[siguiente()]);
+	}
+
+	@Benchmark
+	public boolean consultarDisponibilidadOcupada() {
+		Reserva r = guardadas[siguiente()];
+		return reservas.consultarDisponibilidad(r.getAula(), r.getPermanencia());
+	}
+
+	@Benchmark
+	public boolean consultarDisponibilidadLibre() {
+		return reservas.consultarDisponibilidad(aulas[siguiente() % aulas.length], libre);
+	}
+
+	@Benchmark
+	public boolean insertarOcupada() {
+		try {
+			reservas.insertar(guardadas[siguiente()]);
+			return true;
+		} catch (OperationNotSupportedException e) {
+			return false;
+		}
+	}
+
+	@Benchmark
+	public ResultadoReserva reservarSiDisponibleOcupada() {
+		return reservas.reservarSiDisponible(guardadas[siguiente()]);
+	}
+
+	@Benchmark
+	public int insertarYBorrar() throws OperationNotSupportedException {
+		reservas.insertar(nueva);
+		reservas.borrar(nueva);
+		return reservas.getNumReservas();
+	}
+
+	@Benchmark
+	public int borrarEInsertar() throws OperationNotSupportedException {
+		Reserva r = guardadas[siguiente()];
+		reservas.borrar(r);
+		reservas.insertar(r);
+		return reservas.getNumReservas();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Reserva> getReservasAula() {
+		return reservas.getReservasAula(aulas[siguiente() % aulas.length]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Reserva> getReservasProfesor() {
+		return reservas.getReservasProfesor(profesores[siguiente() % profesores.length]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Reserva> getReservasPermanencia() {
+		return reservas.getReservasPermanencia(permanencias[siguiente()]);
+	}
+
+	@Benchmark
+	public int libresTrimestrePorPermanencia() {
+		Aula aula = aulas[siguiente() % aulas.length];
+		int libres = 0;
+		for(long clave = inicioTrimestre.getClave(); clave <= finTrimestre.getClave(); clave++) {
+			if(reservas.consultarDisponibilidad(aula, new Permanencia(clave)))
+				libres++;
+		}
+		return libres;
+	}
+
+	@Benchmark
+	public long libresTrimestreCalendario() {
+		return reservas.getNumPermanenciasLibres(aulas[siguiente() % aulas.length], inicioTrimestre, finTrimestre);
+	}
+
+	@Benchmark
+	public Permanencia primeraLibreTrimestre() {
+		return reservas.getPrimeraPermanenciaLibre(aulas[siguiente() % aulas.length], inicioTrimestre, finTrimestre);
+	}
+
+	@Benchmark
+	public List<Permanencia> permanenciasLibresTrimestre() {
+		return reservas.getPermanenciasLibres(aulas[siguiente() % aulas.length], inicioTrimestre, finTrimestre);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Reserva> getReservasMesFiltrando() {
+		List<Reserva> mes = new ArrayList<Reserva>();
+		for(Reserva r : reservas.getReservas()) {
+			long clave = r.getPermanencia().getClave();
+			if(clave >= inicioMes.getClave() && clave <= finMes.getClave())
+				mes.add(r);
+		}
+		return mes;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Reserva> getReservasMes() {
+		return reservas.getReservas(inicioMes, finMes);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int iterarReservasMes() {
+		int n = 0;
+		for(Iterator<Reserva> it = reservas.iterarReservas(inicioMes, finMes); it.hasNext(); it.next())
+			n++;
+		return n;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Reserva> getReservasAulaMesFiltrando() {
+		List<Reserva> mes = new ArrayList<Reserva>();
+		for(Reserva r : reservas.getReservasAula(aulas[siguiente() % aulas.length])) {
+			long clave = r.getPermanencia().getClave();
+			if(clave >= inicioMes.getClave() && clave <= finMes.getClave())
+				mes.add(r);
+		}
+		return mes;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Reserva> getReservasAulaMes() {
+		return reservas.getReservasAula(aulas[siguiente() % aulas.length], inicioMes, finMes);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Reserva> getReservasProfesorMes() {
+		return reservas.getReservasProfesor(profesores[siguiente() % profesores.length], inicioMes, finMes);
+	}
+
+	/**
+	 * Borra una a una las reservas de un aula, como hacía antes el borrado en cascada del modelo, y las vuelve a
+	 * insertar para que la colección no cambie de tamaño
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int borrarAulaUnaAUna() throws OperationNotSupportedException {
+		List<Reserva> delAula = reservas.getReservasAula(aulas[siguiente() % aulas.length]);
+		for(Reserva r : delAula)
+			reservas.borrar(r);
+		for(Reserva r : delAula)
+			reservas.insertar(r);
+		return delAula.size();
+	}
+
+	/**
+	 * Borra de una vez las reservas de un aula y las vuelve a insertar, para comparar con borrarAulaUnaAUna
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int borrarReservasAula() throws OperationNotSupportedException {
+		Aula aula = aulas[siguiente() % aulas.length];
+		List<Reserva> delAula = reservas.getReservasAula(aula);
+		reservas.borrarReservas(aula);
+		for(Reserva r : delAula)
+			reservas.insertar(r);
+		return delAula.size();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public long representarLista() throws IOException {
+		Contador salida = new Contador();
+		for(String s : reservas.representar())
+			salida.append(s).append(System.lineSeparator());
+		return salida.longitud;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public long representarEnSalida() throws IOException {
+		Contador salida = new Contador();
+		reservas.representar(salida);
+		return salida.longitud;
+	}
+
+	/**
+	 * Salida que sólo cuenta los caracteres recibidos, para medir la representación sin el coste de escribirla
+	 */
+	private static final class Contador implements Appendable {
+		private long longitud;
+
+		public Appendable append(CharSequence csq) {
+			longitud += csq.length();
+			return this;
+		}
+
+		public Appendable append(CharSequence csq, int start, int end) {
+			longitud += end - start;
+			return this;
+		}
+
+		public Appendable append(char c) {
+			longitud++;
+			return this;
+		}
+	}
+}
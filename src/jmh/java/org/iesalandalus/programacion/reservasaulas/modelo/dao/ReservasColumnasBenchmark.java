@@ -0,0 +1,114 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compara ReservasColumnas con Reservas sobre los mismos datos que ReservasBenchmark: consultas puntuales, que ambas
+ * resuelven con una tabla hash, y consultas por profesor y por trimestre, que Reservas resuelve con sus índices y
+ * ReservasColumnas recorriendo sus columnas.
+ * @see ReservasColumnas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReservasColumnasBenchmark {
+
+	private static final int NUM_CONSULTAS = 1024;
+	private static final int FRANJAS_TRIMESTRE = 180;
+
+	@Param({"100000", "1000000"})
+	public int numReservas;
+
+	private Reservas reservas;
+	private ReservasColumnas columnas;
+	private Reserva[] guardadas;
+	private Profesor[] profesores;
+	private Permanencia inicioTrimestre;
+	private Permanencia finTrimestre;
+	private int i;
+
+	/**
+	 * Rellena las dos colecciones con las mismas reservas y prepara las reservas a consultar
+	 * @throws OperationNotSupportedException si se genera una reserva repetida
+	 */
+	@Setup
+	public void preparar() throws OperationNotSupportedException {
+		Aula[] aulas = DatosBenchmark.aulas(DatosBenchmark.NUM_AULAS_RESERVAS);
+		profesores = DatosBenchmark.profesores(DatosBenchmark.NUM_PROFESORES_RESERVAS);
+		Reserva[] todas = DatosBenchmark.reservas(numReservas, aulas, profesores);
+		reservas = new Reservas();
+		columnas = new ReservasColumnas();
+		for(Reserva r : todas) {
+			reservas.insertar(r);
+			columnas.insertar(r);
+		}
+		guardadas = new Reserva[NUM_CONSULTAS];
+		for(int j = 0; j < NUM_CONSULTAS; j++)
+			guardadas[j] = todas[(int) ((long) j * numReservas / NUM_CONSULTAS)];
+		inicioTrimestre = DatosBenchmark.permanencia(0);
+		finTrimestre = DatosBenchmark.permanencia(FRANJAS_TRIMESTRE - 1);
+	}
+
+	/**
+	 * Avanza circularmente por las reservas a consultar
+	 * @return la posición a usar en la siguiente medida
+	 */
+	private int siguiente() {
+		i = (i + 1) & (NUM_CONSULTAS - 1);
+		return i;
+	}
+
+	@Benchmark
+	public boolean consultarDisponibilidadObjetos() {
+		Reserva r = guardadas[siguiente()];
+		return reservas.consultarDisponibilidad(r.getAula(), r.getPermanencia());
+	}
+
+	@Benchmark
+	public boolean consultarDisponibilidadColumnas() {
+		Reserva r = guardadas[siguiente()];
+		return columnas.consultarDisponibilidad(r.getAula(), r.getPermanencia());
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Reserva> getReservasProfesorObjetos() {
+		return reservas.getReservasProfesor(profesores[siguiente() % profesores.length]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Reserva> getReservasProfesorColumnas() {
+		return columnas.getReservasProfesor(profesores[siguiente() % profesores.length]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int contarTrimestreObjetos() {
+		return reservas.getReservas(inicioTrimestre, finTrimestre).size();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int contarTrimestreColumnas() {
+		return columnas.contarReservas(inicioTrimestre, finTrimestre);
+	}
+}
@@ -0,0 +1,150 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compara la Permanencia con clave empaquetada con la implementación anterior (LocalDate más Tramo,
+ * con copia en getDia y Objects.hash en hashCode).
+ * @see Permanencia
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PermanenciaBenchmark {
+
+	private static final int NUM_PERMANENCIAS = 1024;
+	private static final LocalDate INICIO = LocalDate.of(2018, 9, 15);
+
+	private Permanencia[] actuales;
+	private Permanencia[] actualesCopia;
+	private PermanenciaAnterior[] anteriores;
+	private PermanenciaAnterior[] anterioresCopia;
+	private Map<Permanencia, Integer> mapaActual;
+	private Map<PermanenciaAnterior, Integer> mapaAnterior;
+	private int i;
+
+	/**
+	 * Crea las permanencias, sus copias y los mapas de búsqueda para ambas implementaciones
+	 */
+	@Setup
+	public void preparar() {
+		actuales = new Permanencia[NUM_PERMANENCIAS];
+		actualesCopia = new Permanencia[NUM_PERMANENCIAS];
+		anteriores = new PermanenciaAnterior[NUM_PERMANENCIAS];
+		anterioresCopia = new PermanenciaAnterior[NUM_PERMANENCIAS];
+		mapaActual = new HashMap<Permanencia, Integer>();
+		mapaAnterior = new HashMap<PermanenciaAnterior, Integer>();
+		for(int j = 0; j < NUM_PERMANENCIAS; j++) {
+			LocalDate dia = INICIO.plusDays(j / 2);
+			Tramo tramo = Tramo.values()[j % 2];
+			actuales[j] = new Permanencia(dia, tramo);
+			actualesCopia[j] = new Permanencia(LocalDate.of(dia.getYear(), dia.getMonth(), dia.getDayOfMonth()), tramo);
+			anteriores[j] = new PermanenciaAnterior(dia, tramo);
+			anterioresCopia[j] = new PermanenciaAnterior(dia, tramo);
+			mapaActual.put(actuales[j], j);
+			mapaAnterior.put(anteriores[j], j);
+		}
+	}
+
+	/**
+	 * Avanza circularmente por las permanencias
+	 * @return la posición a usar en la siguiente medida
+	 */
+	private int siguiente() {
+		i = (i + 1) & (NUM_PERMANENCIAS - 1);
+		return i;
+	}
+
+	@Benchmark
+	public LocalDate getDiaActual() {
+		return actuales[siguiente()].getDia();
+	}
+
+	@Benchmark
+	public LocalDate getDiaAnterior() {
+		return anteriores[siguiente()].getDia();
+	}
+
+	@Benchmark
+	public int hashCodeActual() {
+		return actuales[siguiente()].hashCode();
+	}
+
+	@Benchmark
+	public int hashCodeAnterior() {
+		return anteriores[siguiente()].hashCode();
+	}
+
+	@Benchmark
+	public boolean equalsActual() {
+		int j = siguiente();
+		return actuales[j].equals(actualesCopia[j]);
+	}
+
+	@Benchmark
+	public boolean equalsAnterior() {
+		int j = siguiente();
+		return anteriores[j].equals(anterioresCopia[j]);
+	}
+
+	@Benchmark
+	public Integer buscarEnMapaActual() {
+		return mapaActual.get(actualesCopia[siguiente()]);
+	}
+
+	@Benchmark
+	public Integer buscarEnMapaAnterior() {
+		return mapaAnterior.get(anterioresCopia[siguiente()]);
+	}
+
+	/**
+	 * Copia de la implementación de Permanencia anterior a la clave empaquetada, usada como referencia
+	 */
+	static final class PermanenciaAnterior {
+
+		private LocalDate dia;
+		private Tramo tramo;
+
+		PermanenciaAnterior(LocalDate dia, Tramo tramo) {
+			this.dia = LocalDate.of(dia.getYear(), dia.getMonth(), dia.getDayOfMonth());
+			this.tramo = tramo;
+		}
+
+		public LocalDate getDia() {
+			return LocalDate.of(dia.getYear(), dia.getMonth(), dia.getDayOfMonth());
+		}
+
+		public Tramo getTramo() {
+			return tramo;
+		}
+
+		public int hashCode() {
+			return Objects.hash(dia, tramo);
+		}
+
+		public boolean equals(Object o) {
+			if(o==null)
+				return false;
+			if(!(o instanceof PermanenciaAnterior))
+				return false;
+			PermanenciaAnterior otra = (PermanenciaAnterior) o;
+			if(this.getDia().equals(otra.getDia()) && this.getTramo().equals(otra.getTramo()))
+				return true;
+			return false;
+		}
+	}
+}
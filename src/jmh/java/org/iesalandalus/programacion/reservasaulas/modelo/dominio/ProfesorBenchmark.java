@@ -0,0 +1,60 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks de la creación de profesores, que valida el correo y el teléfono, y de su constructor copia
+ * @see Profesor
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProfesorBenchmark {
+
+	private static final int NUM_PROFESORES = 1024;
+
+	private Profesor[] profesores;
+	private String[] nombres;
+	private String[] correos;
+	private String[] telefonos;
+	private int i;
+
+	/**
+	 * Prepara los datos de los profesores a crear y a copiar
+	 */
+	@Setup
+	public void preparar() {
+		profesores = new Profesor[NUM_PROFESORES];
+		nombres = new String[NUM_PROFESORES];
+		correos = new String[NUM_PROFESORES];
+		telefonos = new String[NUM_PROFESORES];
+		for(int j = 0; j < NUM_PROFESORES; j++) {
+			nombres[j] = "Profesor " + j;
+			correos[j] = "profesor" + j + ".apellido@iesalandalus.org";
+			telefonos[j] = "950" + (100000 + j);
+			profesores[j] = new Profesor(nombres[j], correos[j], telefonos[j]);
+		}
+	}
+
+	@Benchmark
+	public Profesor crear() {
+		i = (i + 1) & (NUM_PROFESORES - 1);
+		return new Profesor(nombres[i], correos[i], telefonos[i]);
+	}
+
+	@Benchmark
+	public Profesor copiar() {
+		i = (i + 1) & (NUM_PROFESORES - 1);
+		return new Profesor(profesores[i]);
+	}
+}
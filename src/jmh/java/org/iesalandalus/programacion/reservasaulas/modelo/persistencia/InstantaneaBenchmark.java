@@ -0,0 +1,94 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Aulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Profesores;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Reservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Mide cuánto se tarda en recuperar el estado desde una instantánea, que es lo que cuesta arrancar el modelo tras
+ * guardarla. La instantánea se guarda una sola vez y cada medida la carga en colecciones vacías, igual que el
+ * constructor de ModeloReservasAulas. El objetivo es cargar un millón de reservas en menos de un segundo.
+ * @see Instantanea#cargar(Path, Aulas, Profesores, Reservas)
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InstantaneaBenchmark {
+
+	private static final int NUM_AULAS = 100;
+	private static final int NUM_PROFESORES = 200;
+
+	@Param({"1000000"})
+	public int numReservas;
+
+	private Path carpeta;
+	private Path fichero;
+
+	/**
+	 * Guarda en una carpeta temporal una instantánea con las reservas indicadas, repartidas entre las aulas en
+	 * permanencias consecutivas
+	 * @throws IOException si no se puede escribir la instantánea
+	 */
+	@Setup
+	public void preparar() throws IOException {
+		List<Aula> aulas = new ArrayList<Aula>(NUM_AULAS);
+		for(int j = 0; j < NUM_AULAS; j++)
+			aulas.add(new Aula("Aula " + j));
+		List<Profesor> profesores = new ArrayList<Profesor>(NUM_PROFESORES);
+		for(int j = 0; j < NUM_PROFESORES; j++)
+			profesores.add(new Profesor("Profesor " + j, "profesor" + j + "@iesalandalus.org"));
+		LocalDate inicio = LocalDate.of(2000, 1, 1);
+		List<Reserva> reservas = new ArrayList<Reserva>(numReservas);
+		Permanencia permanencia = null;
+		for(int j = 0; j < numReservas; j++) {
+			int franja = j / NUM_AULAS;
+			if(j % NUM_AULAS == 0)
+				permanencia = new Permanencia(inicio.plusDays(franja / 2), Tramo.values()[franja % 2]);
+			reservas.add(new Reserva(profesores.get(j % NUM_PROFESORES), aulas.get(j % NUM_AULAS), permanencia));
+		}
+		carpeta = Files.createTempDirectory("instantanea");
+		fichero = carpeta.resolve("reservas.instantanea");
+		Instantanea.guardar(fichero, 1, aulas, profesores, reservas);
+	}
+
+	/**
+	 * Borra la instantánea
+	 * @throws IOException si no se puede borrar
+	 */
+	@TearDown
+	public void borrar() throws IOException {
+		Files.deleteIfExists(fichero);
+		Files.deleteIfExists(carpeta);
+	}
+
+	@Benchmark
+	public Reservas cargar() throws IOException {
+		Reservas reservas = new Reservas();
+		Instantanea.cargar(fichero, new Aulas(), new Profesores(), reservas);
+		return reservas;
+	}
+}
@@ -0,0 +1,123 @@
+package org.iesalandalus.programacion.reservasaulas.vista.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.metricas.Histograma;
+
+/**
+ * Genera carga sobre ServidorHttp con muchos clientes simultáneos que consultan la disponibilidad y hacen y anulan
+ * reservas, y muestra las peticiones por segundo y los percentiles 50 y 99 de la latencia vista por los clientes.
+ * <p>
+ * No es un benchmark de JMH: se ejecuta con su método main, que levanta el servidor en un puerto libre con un modelo
+ * en memoria. Con Java 21 o posterior el servidor atiende cada petición en un hilo virtual, así que conviene
+ * comparar la misma carga con las dos versiones de Java.
+ * @see ServidorHttp
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public final class CargaHttp {
+
+	private static final int NUM_CLIENTES = 200;
+	private static final int PETICIONES_POR_CLIENTE = 25;
+
+	/**
+	 * Constructor privado, ya que la clase sólo tiene métodos estáticos
+	 */
+	private CargaHttp() {
+	}
+
+	/**
+	 * Hace una petición al servidor y descarta el cuerpo de la respuesta
+	 * @param puerto el puerto del servidor
+	 * @param metodo el método HTTP
+	 * @param ruta la ruta, con su consulta
+	 * @param cuerpo el cuerpo JSON de la petición, o null si no tiene
+	 * @return el código HTTP de la respuesta
+	 * @throws IOException si falla la conexión
+	 */
+	private static int pedir(int puerto, String metodo, String ruta, String cuerpo) throws IOException {
+		HttpURLConnection conexion = (HttpURLConnection) new URL("http://localhost:" + puerto + ruta).openConnection();
+		conexion.setRequestMethod(metodo);
+		if(cuerpo != null) {
+			conexion.setDoOutput(true);
+			try (OutputStream salida = conexion.getOutputStream()) {
+				salida.write(cuerpo.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		int codigo = conexion.getResponseCode();
+		InputStream entrada = codigo < 400 ? conexion.getInputStream() : conexion.getErrorStream();
+		if(entrada != null) {
+			try (InputStream e = entrada) {
+				byte[] bloque = new byte[4096];
+				while(e.read(bloque) > 0)
+					;
+			}
+		}
+		return codigo;
+	}
+
+	public static void main(String[] args) throws Exception {
+		ModeloReservasAulas modelo = new ModeloReservasAulas();
+		ServidorHttp servidor = new ServidorHttp(modelo, 0);
+		servidor.iniciar();
+		int puerto = servidor.getPuerto();
+		try {
+			pedir(puerto, "POST", "/aulas", "{\"nombre\":\"Aula 1\"}");
+			pedir(puerto, "POST", "/profesores", "{\"nombre\":\"José Ramón\",\"correo\":\"a@b.cc\"}");
+			Histograma latencias = new Histograma();
+			ExecutorService clientes = Executors.newFixedThreadPool(NUM_CLIENTES);
+			CyclicBarrier salida = new CyclicBarrier(NUM_CLIENTES + 1);
+			List<Future<Integer>> pendientes = new ArrayList<Future<Integer>>();
+			for(int c = 0; c < NUM_CLIENTES; c++) {
+				final String dia = String.format("%02d/%02d/2019", 1 + c % 28, 1 + c / 28);
+				pendientes.add(clientes.submit(new Callable<Integer>() {
+					public Integer call() throws Exception {
+						salida.await();
+						int fallos = 0;
+						for(int i = 0; i < PETICIONES_POR_CLIENTE; i++) {
+							long inicio = System.nanoTime();
+							int codigo;
+							if(i % 5 == 1)
+								codigo = pedir(puerto, "POST", "/reservas", "{\"profesor\":\"José Ramón\",\"aula\":\"Aula 1\",\"dia\":\""
+										+ dia + "\",\"tramo\":\"TARDE\"}");
+							else if(i % 5 == 3)
+								codigo = pedir(puerto, "DELETE", "/reservas?aula=Aula+1&dia=" + dia + "&tramo=TARDE", null);
+							else
+								codigo = pedir(puerto, "GET", "/disponibilidad?aula=Aula+1&dia=" + dia + "&tramo=TARDE", null);
+							latencias.anotar(System.nanoTime() - inicio);
+							if(codigo >= 300)
+								fallos++;
+						}
+						return fallos;
+					}
+				}));
+			}
+			salida.await();
+			long inicio = System.nanoTime();
+			int fallos = 0;
+			for(Future<Integer> pendiente : pendientes)
+				fallos += pendiente.get();
+			double segundos = (System.nanoTime() - inicio) / 1e9;
+			clientes.shutdown();
+			long total = (long) NUM_CLIENTES * PETICIONES_POR_CLIENTE;
+			System.out.printf("Carga HTTP (%s): %d clientes, %d peticiones en %.2f s, %.0f peticiones/s, p50 %.2f ms, p99 %.2f ms, %d fallos%n",
+					servidor.usaHilosVirtuales() ? "hilos virtuales" : "conjunto de hilos", NUM_CLIENTES, total, segundos,
+					total / segundos, latencias.getPercentil(50) / 1e6, latencias.getPercentil(99) / 1e6, fallos);
+		} finally {
+			servidor.detener(0);
+		}
+	}
+}
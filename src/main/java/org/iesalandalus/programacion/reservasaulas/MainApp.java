@@ -1,10 +1,33 @@
 package org.iesalandalus.programacion.reservasaulas;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulasMedido;
+import org.iesalandalus.programacion.reservasaulas.modelo.metricas.Metricas;
 import org.iesalandalus.programacion.reservasaulas.vista.IUTextual;
+import org.iesalandalus.programacion.reservasaulas.vista.http.ServidorHttp;
 
 /**
  * 
- * Clase principal del programa. Se encarga de hacer la primera llamada y comenzar la ejecucin.
+ * Clase principal del programa. Se encarga de hacer la primera llamada y comenzar la ejecución.
+ * Si se indica la propiedad del sistema reservasaulas.metricas con un número de segundos, las operaciones del
+ * modelo se miden, se publican por JMX y se vuelcan con ese periodo al fichero reservasAulas.metricas.
+ * Si se indica la propiedad reservasaulas.http con un puerto, el modelo se sirve además por HTTP en ese puerto
+ * mientras dura la sesión de la consola.
+ * Si se indica la propiedad reservasaulas.archivo con un número de días, las reservas anteriores a ese número de
+ * días se archivan en el directorio reservasAulas.archivo al empezar y después una vez al día.
  * @see IUTextual
  * @author Juan Antonio Manzano Plaza
  * @version 1
@@ -12,10 +35,130 @@ import org.iesalandalus.programacion.reservasaulas.vista.IUTextual;
  */
 public class MainApp {
 
+	private static final String FICHERO_DIARIO = "reservasAulas.diario";
+	private static final String FICHERO_INSTANTANEA = "reservasAulas.instantanea";
+	private static final String FICHERO_METRICAS = "reservasAulas.metricas";
+	private static final String PROPIEDAD_METRICAS = "reservasaulas.metricas";
+	private static final String PROPIEDAD_HTTP = "reservasaulas.http";
+	private static final String DIRECTORIO_ARCHIVO = "reservasAulas.archivo";
+	private static final String PROPIEDAD_ARCHIVO = "reservasaulas.archivo";
+	private static final int ESPERA_DETENCION_HTTP = 2;
+
 	public static void main(String[] args) {
-		System.out.println("Programa para la gestin de reservas de espacios del IES Al-ndalus.");
-		IUTextual a = new IUTextual();
-		a.comenzar();
+		System.out.println("Programa para la gestión de reservas de espacios del IES Al-Ándalus.");
+		ModeloReservasAulas modelo;
+		try {
+			modelo = new ModeloReservasAulas(Paths.get(FICHERO_DIARIO), Paths.get(FICHERO_INSTANTANEA));
+		} catch (IOException e) {
+			System.out.println("No se pudo abrir el diario " + FICHERO_DIARIO + ": " + e.getMessage());
+			System.out.println("Los cambios de esta sesión no se guardarán.");
+			modelo = new ModeloReservasAulas();
+		}
+		ScheduledExecutorService archivado = archivar(modelo, System.getProperty(PROPIEDAD_ARCHIVO));
+		ServidorHttp servidor = servir(modelo, System.getProperty(PROPIEDAD_HTTP));
+		String periodo = System.getProperty(PROPIEDAD_METRICAS);
+		if(periodo == null) {
+			new IUTextual(modelo).comenzar();
+		} else {
+			medir(modelo, periodo);
+		}
+		if(servidor != null)
+			servidor.detener(ESPERA_DETENCION_HTTP);
+		if(archivado != null)
+			archivado.shutdown();
+	}
+
+	/**
+	 * Archiva las reservas pasadas si se ha indicado cuántos días se conservan en memoria: abre el archivo, archiva
+	 * una vez al empezar y programa un archivado diario en un hilo aparte. Si los días no son válidos o no se puede
+	 * abrir el archivo, se avisa y se sigue sin archivar
+	 * @param modelo el modelo cuyas reservas se archivan
+	 * @param dias los días que se conservan en memoria, o null si no se ha indicado ninguno
+	 * @return el planificador del archivado diario, o null si no se archiva
+	 */
+	private static ScheduledExecutorService archivar(ModeloReservasAulas modelo, String dias) {
+		if(dias == null)
+			return null;
+		final long conservados;
+		try {
+			conservados = Long.parseLong(dias.trim());
+			if(conservados < 0)
+				throw new IllegalArgumentException("Los días a conservar no pueden ser negativos.");
+			modelo.abrirArchivo(Paths.get(DIRECTORIO_ARCHIVO));
+		} catch (IllegalArgumentException | IOException e) {
+			System.out.println("No se pudo abrir el archivo " + DIRECTORIO_ARCHIVO + ": " + e.getMessage());
+			return null;
+		}
+		ScheduledExecutorService archivado = Executors.newSingleThreadScheduledExecutor(tarea -> {
+			Thread hilo = new Thread(tarea, "archivado-reservas");
+			hilo.setDaemon(true);
+			return hilo;
+		});
+		archivado.scheduleAtFixedRate(() -> {
+			LocalDate corte = LocalDate.now().minusDays(conservados);
+			try {
+				if(modelo.getCorteArchivo() == null || corte.isAfter(modelo.getCorteArchivo()))
+					modelo.archivar(corte);
+			} catch (IOException | RuntimeException e) {
+				System.out.println("No se pudieron archivar las reservas anteriores al " + corte + ": " + e.getMessage());
+			}
+		}, 0, 1, TimeUnit.DAYS);
+		return archivado;
+	}
+
+	/**
+	 * Sirve el modelo por HTTP si se ha indicado un puerto. Si el puerto no es válido o no se puede abrir, se
+	 * avisa y se sigue sólo con la consola
+	 * @param modelo el modelo a servir
+	 * @param puerto el puerto indicado, o null si no se ha indicado ninguno
+	 * @return el servidor iniciado, o null si no se ha iniciado
+	 */
+	private static ServidorHttp servir(ModeloReservasAulas modelo, String puerto) {
+		if(puerto == null)
+			return null;
+		try {
+			ServidorHttp servidor = new ServidorHttp(modelo, Integer.parseInt(puerto.trim()));
+			servidor.iniciar();
+			System.out.println("Sirviendo el modelo por HTTP en el puerto " + servidor.getPuerto()
+					+ (servidor.usaHilosVirtuales() ? " con hilos virtuales." : "."));
+			return servidor;
+		} catch (IllegalArgumentException | IOException e) {
+			System.out.println("No se pudo servir el modelo por HTTP en el puerto " + puerto + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Ejecuta el programa midiendo las operaciones del modelo, con un volcado final al terminar. Si no se puede
+	 * abrir el fichero de métricas, se ejecuta sin medir
+	 * @param modelo el modelo a medir
+	 * @param periodo los segundos entre volcados de las métricas
+	 */
+	private static void medir(ModeloReservasAulas modelo, String periodo) {
+		Writer salida;
+		try {
+			salida = Files.newBufferedWriter(Paths.get(FICHERO_METRICAS), StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			System.out.println("No se pudo abrir el fichero de métricas " + FICHERO_METRICAS + ": " + e.getMessage());
+			new IUTextual(modelo).comenzar();
+			return;
+		}
+		Metricas metricas = new Metricas(ModeloReservasAulas.class.getSimpleName());
+		try {
+			metricas.registrarJmx();
+			metricas.iniciarVolcado(salida, Long.parseLong(periodo), TimeUnit.SECONDS);
+		} catch (JMException | IllegalArgumentException e) {
+			System.out.println("No se pudieron publicar o volcar las métricas: " + e.getMessage());
+		}
+		new IUTextual(new ModeloReservasAulasMedido(modelo, metricas)).comenzar();
+		try {
+			metricas.close();
+			metricas.volcar(salida);
+			salida.close();
+		} catch (IOException e) {
+			System.out.println("No se pudieron guardar las métricas en " + FICHERO_METRICAS + ": " + e.getMessage());
+		}
 	}
 
 }
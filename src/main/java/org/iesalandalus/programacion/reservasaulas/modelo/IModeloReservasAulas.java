@@ -0,0 +1,359 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ResultadoReserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+
+/**
+ * Operaciones del modelo de reservas de aulas que usan las vistas. Las implementa ModeloReservasAulas, que guarda
+ * el estado, y ModeloReservasAulasMedido, que mide las llamadas a otro modelo sin guardar estado propio.
+ * @see ModeloReservasAulas
+ * @see ModeloReservasAulasMedido
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public interface IModeloReservasAulas {
+
+	/**
+	 * Guarda una instantánea con el estado actual del modelo y vacía el diario, de modo que la siguiente recuperación
+	 * solo tenga que reproducir las operaciones posteriores
+	 * @throws IOException si falla la escritura de la instantánea o del diario
+	 * @throws IllegalStateException si el modelo no se creó con un fichero de instantánea
+	 */
+	void guardarInstantanea() throws IOException;
+
+	/**
+	 * Cierra el diario del modelo, si lo tiene, guardando antes una instantánea si el modelo usa instantáneas. Las
+	 * operaciones posteriores ya no se registran
+	 * @throws IOException si falla la instantánea o el cierre del diario
+	 */
+	void cerrar() throws IOException;
+
+	/**
+	 * Abre el archivo de reservas pasadas del modelo. Si ya hay reservas archivadas, quita de memoria las anteriores a
+	 * su corte, que son las que el diario vuelve a crear al reproducirse o las que quedaron en memoria si se
+	 * interrumpió un archivado después de escribir su segmento
+	 * @param directorio el directorio de los segmentos, que se crea si no existe
+	 * @throws IOException si no se puede abrir el archivo
+	 * @throws IllegalStateException si el modelo ya tiene un archivo
+	 */
+	void abrirArchivo(Path directorio) throws IOException;
+
+	/**
+	 * Mueve al archivo las reservas anteriores a una fecha de corte, en un segmento nuevo, y las quita de memoria. Si
+	 * el modelo usa instantáneas, guarda después una, de modo que el diario deja de contener las reservas archivadas
+	 * @param corte el primer día cuyas reservas se quedan en memoria
+	 * @return el número de reservas archivadas
+	 * @throws IllegalArgumentException si el corte es nulo o no es posterior al corte anterior
+	 * @throws IOException si falla la escritura del segmento o de la instantánea
+	 * @throws IllegalStateException si el modelo no tiene archivo
+	 */
+	int archivar(LocalDate corte) throws IOException, IllegalArgumentException;
+
+	/**
+	 * Método get para la fecha de corte del archivo
+	 * @return el primer día cuyas reservas no están archivadas, o null si el modelo no tiene archivo o todavía no
+	 * ha archivado nada
+	 */
+	LocalDate getCorteArchivo();
+
+	/**
+	 * Obtiene todas las aulas registradas
+	 * @return todas las aulas guardadas
+	 */
+	List<Aula> getAulas();
+
+	/**
+	 * Obtiene el número de aulas registradas
+	 * @return el número de aulas guardadas
+	 */
+	int getNumAulas();
+
+	/**
+	 * Obtiene la salida de todas las aulas registradas
+	 * @return un array con la representación de cada aula en forma de cadena
+	 */
+	List<String> representarAulas();
+
+	/**
+	 * Escribe la salida de todas las aulas, una por línea, sin construir la lista de cadenas
+	 * @param salida donde escribir las aulas, por ejemplo System.out o un Writer
+	 * @return el número de aulas escritas
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	int representarAulas(Appendable salida) throws IOException, IllegalArgumentException;
+
+	/**
+	 * Busca el aula indicada entre las que han sido registradas
+	 * @param buscar el aula que estamos buscando
+	 * @return el aula buscada o null si no la encuentra
+	 */
+	Aula buscarAula(Aula buscar);
+
+	/**
+	 * Guarda el aula indicada
+	 * @param insertar el aula que queremos guardar
+	 * @throws OperationNotSupportedException si se intenta insertar un aula nula, ya existente o se ha superado la capacidad
+	 */
+	void insertarAula(Aula insertar) throws OperationNotSupportedException, IllegalArgumentException;
+
+	/**
+	 * Borra el aula indicada si existe entre las guardadas, junto con todas sus reservas
+	 * @param borrar el aula que queremos borrar
+	 * @throws OperationNotSupportedException si se intenta borrar un aula nula o que no existe
+	 */
+	void borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException;
+
+	/**
+	 * Obtiene todos los profesores registrados
+	 * @return todos los profesores guardados
+	 */
+	List<Profesor> getProfesores();
+
+	/**
+	 * Obtiene el número de profesores registrados
+	 * @return el número de profesores guardados
+	 */
+	int getNumProfesores();
+
+	/**
+	 * Obtiene la salida de todos los profesores registrados
+	 * @return un array con la representación de cada profesor en forma de cadena
+	 */
+	List<String> representarProfesores();
+
+	/**
+	 * Escribe la salida de todos los profesores, una por línea, sin construir la lista de cadenas
+	 * @param salida donde escribir los profesores, por ejemplo System.out o un Writer
+	 * @return el número de profesores escritos
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	int representarProfesores(Appendable salida) throws IOException, IllegalArgumentException;
+
+	/**
+	 * Busca el profesor indicado entre los que han sido registrados
+	 * @param buscar el profesor que buscamos
+	 * @return el profesor buscado o null si no lo encuentra
+	 */
+	Profesor buscarProfesor(Profesor buscar);
+
+	/**
+	 * Guarda el profesor indicado
+	 * @param insertar el profesor que queremos guardar
+	 * @throws OperationNotSupportedException si se intenta insertar un profesor nulo, ya existente o se ha superado la capacidad
+	 */
+	void insertarProfesor(Profesor insertar) throws OperationNotSupportedException, IllegalArgumentException;
+
+	/**
+	 * Borra el profesor indicado si existe entre los que han sido registrados, junto con todas sus reservas
+	 * @param borrar el profesor que queremos borrar
+	 * @throws OperationNotSupportedException si se intenta borrar un profesor nulo o que no existe
+	 */
+	void borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException;
+
+	/**
+	 * Obtiene todas las reservas realizadas
+	 * @return todas las reservas realizadas
+	 */
+	List<Reserva> getReservas();
+
+	/**
+	 * Obtiene el número de reservas realizadas
+	 * @return el número de reservas guardadas
+	 */
+	int getNumReservas();
+
+	/**
+	 * Obtiene la salida de todas las reservas realizadas
+	 * @return un array con la representación de cada reserva en forma de cadena
+	 */
+	List<String> representarReservas();
+
+	/**
+	 * Escribe la salida de todas las reservas, una por línea, sin construir la lista de cadenas
+	 * @param salida donde escribir las reservas, por ejemplo System.out o un Writer
+	 * @return el número de reservas escritas
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	int representarReservas(Appendable salida) throws IOException, IllegalArgumentException;
+
+	/**
+	 * Busca la reserva indicada entre las que se han realizado
+	 * @param buscar la reserva que buscamos
+	 * @return la reserva buscada o null si no la encuentra
+	 */
+	Reserva buscarReserva(Reserva buscar);
+
+	/**
+	 * Guarda la reserva indicada
+	 * @param realizar la reserva a realizar
+	 * @throws OperationNotSupportedException si se intenta realizar una reserva nula, ya existente o se ha superado la capacidad
+	 */
+	void realizarReserva(Reserva realizar) throws OperationNotSupportedException, IllegalArgumentException;
+
+	/**
+	 * Guarda la reserva indicada si el aula está libre en su permanencia, en una sola operación atómica
+	 * @param realizar la reserva a realizar
+	 * @return RESERVADA si se ha realizado la reserva, OCUPADA si el aula ya estaba reservada, ARCHIVADA si la
+	 * permanencia es anterior al corte del archivo
+	 * @throws IllegalArgumentException si la reserva es nula
+	 */
+	ResultadoReserva reservarSiDisponible(Reserva realizar) throws IllegalArgumentException;
+
+	/**
+	 * Guarda un lote de reservas: todas o ninguna
+	 * @param realizar las reservas a realizar
+	 * @throws IllegalArgumentException si el lote o alguna de sus reservas es nula, o si el lote es demasiado
+	 * grande para el diario; en ese caso no se realiza ninguna
+	 * @throws OperationNotSupportedException si alguna reserva ya existe o está repetida en el lote; en ese caso
+	 * no se realiza ninguna
+	 */
+	void realizarReservas(Collection<Reserva> realizar) throws OperationNotSupportedException, IllegalArgumentException;
+
+	/**
+	 * Guarda un lote de reservas, cada una sólo si su aula está libre, como si se llamara a reservarSiDisponible con
+	 * cada una en orden. Las reservas anteriores al corte del archivo se rechazan con ARCHIVADA sin interrumpir el
+	 * resto
+	 * @param realizar las reservas a realizar
+	 * @return el resultado de cada reserva, en el mismo orden
+	 * @throws IllegalArgumentException si la lista o alguna de sus reservas es nula
+	 */
+	ResultadoReserva[] reservarSiDisponibles(List<Reserva> realizar) throws IllegalArgumentException;
+
+	/**
+	 * Borra la reserva indicada si existe entre las realizadas
+	 * @param anular la reserva a anular
+	 * @throws OperationNotSupportedException si se intenta anular una reserva nula o que no existe
+	 */
+	void anularReserva(Reserva anular) throws OperationNotSupportedException, IllegalArgumentException;
+
+	/**
+	 * Obtiene todas las reservas correspondientes al aula indicada, incluidas las archivadas
+	 * @param aula el aula sobre la que están hechas las reservas
+	 * @return un array con todas las reservas sobre el aula indicada
+	 */
+	List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException;
+
+	/**
+	 * Obtiene todas las reservas realizadas por el profesor indicado, incluidas las archivadas
+	 * @param profesor el profesor a nombre del que están hechas las reservas
+	 * @return un array con todas las reservas a nombre del profesor indicado
+	 */
+	List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException;
+
+	/**
+	 * Obtiene todas las reservas realizadas en un día y tramo indicados
+	 * @param permanencia la fecha de las reservas
+	 * @return un array con todas las reservas de ese día y tramo
+	 */
+	List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException;
+
+	/**
+	 * Obtiene las reservas realizadas entre dos permanencias, en orden cronológico
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del intervalo
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	List<Reserva> getReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException;
+
+	/**
+	 * Recorre las reservas realizadas entre dos permanencias sin copiarlas todas a la vez. El recorrido puede reflejar
+	 * cambios hechos mientras tanto
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return un iterador sobre las reservas del intervalo, en orden cronológico
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	Iterator<Reserva> iterarReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException;
+
+	/**
+	 * Obtiene las reservas de un aula realizadas entre dos permanencias, en orden cronológico
+	 * @param aula el aula reservada
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del aula en el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	List<Reserva> getReservasAula(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException;
+
+	/**
+	 * Obtiene las reservas de un profesor realizadas entre dos permanencias, en orden cronológico
+	 * @param profesor el profesor que ha reservado
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del profesor en el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	List<Reserva> getReservasProfesor(Profesor profesor, Permanencia desde, Permanencia hasta) throws IllegalArgumentException;
+
+	/**
+	 * Comprueba si hay alguna reserva realizada sobre un aula en una permanencia indicadas
+	 * @param aula el aula sobre la que queremos consultar la disponibilidad
+	 * @param permanencia el día que queremos comprobar si está reservada el aula
+	 * @return True si está disponible (no está reservada) y False si no está disponible (está reservada)
+	 */
+	boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException;
+
+	/**
+	 * Obtiene las aulas que no tienen ninguna reserva en un día y tramo indicados
+	 * @param permanencia el día y tramo a consultar
+	 * @return las aulas disponibles, en el orden en que se insertaron
+	 * @throws IllegalArgumentException si la permanencia es nula
+	 */
+	List<Aula> getAulasDisponibles(Permanencia permanencia) throws IllegalArgumentException;
+
+	/**
+	 * Comprueba si un aula está disponible en todas las permanencias de un intervalo
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return True si el aula no tiene ninguna reserva en el intervalo, False si tiene alguna
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	boolean consultarDisponibilidad(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException;
+
+	/**
+	 * Busca la primera permanencia de un intervalo en la que un aula está disponible
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return la primera permanencia libre, o null si el aula está reservada en todo el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	Permanencia getPrimeraPermanenciaLibre(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException;
+
+	/**
+	 * Cuenta las permanencias de un intervalo en las que un aula está disponible
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return el número de permanencias libres
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	long getNumPermanenciasLibres(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException;
+
+	/**
+	 * Obtiene, en orden cronológico, las permanencias de un intervalo en las que un aula está disponible
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las permanencias libres
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	List<Permanencia> getPermanenciasLibres(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException;
+}
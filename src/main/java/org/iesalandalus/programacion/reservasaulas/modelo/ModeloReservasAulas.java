@@ -1,240 +1,1113 @@
-package org.iesalandalus.programacion.reservasaulas.modelo;
-
-import java.util.List;
-
-import javax.naming.OperationNotSupportedException;
-
-import org.iesalandalus.programacion.reservasaulas.modelo.dao.Aulas;
-import org.iesalandalus.programacion.reservasaulas.modelo.dao.Profesores;
-import org.iesalandalus.programacion.reservasaulas.modelo.dao.Reservas;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
-import org.iesalandalus.programacion.reservasaulas.vista.IUTextual;
-
-/**
- *
- * Clase modelo utilizada como intermediaria entre IUTextual, que accede a todas las funciones de la aplicacin.
- * @see IUTextual
- * @see Profesores
- * @see Aulas
- * @see Reservas
- * @author Juan Antonio Manzano Plaza
- * @version 1
- *
- */
-public class ModeloReservasAulas {
-
-	private Profesores profesores;
-	private Aulas aulas;
-	private Reservas reservas;
-
-	/**
-	 * Constructor de la clase. Crea los distintos atributos de la clase.
-	 */
-	public ModeloReservasAulas() {
-		this.profesores = new Profesores();
-		this.aulas = new Aulas();
-		this.reservas = new Reservas();
-	}
-
-	/**
-	 * Obtiene todas las aulas registradas. Llama al mtodo getAulas de Aulas
-	 * @return todas las aulas guardadas
-	 */
-	public List<Aula> getAulas() {
-		return aulas.getAulas();
-	}
-
-	/**
-	 * Obtiene el nmero de aulas registradas. Llama al mtodo getNumAulas de Aulas
-	 * @return el nmero de aulas guardadas
-	 */
-	public int getNumAulas() {
-		return aulas.getNumAulas();
-	}
-
-	/**
-	 * Obtiene la salida de todas las aulas registradas. Llama al mtodo representar de Aulas
-	 * @return un array con la representacin de cada aula en forma de cadena
-	 */
-	public List<String> representarAulas() {
-		return aulas.representar();
-	}
-
-	/**
-	 * Busca el aula indicada entre las que han sido registradas. Llama al mtodo buscar de Aulas
-	 * @param buscar el aula que estamos buscando
-	 * @return el aula buscada o null si no la encuentra
-	 */
-	public Aula buscarAula(Aula buscar) {
-		return aulas.buscar(buscar);
-	}
-
-	/**
-	 * Guarda el aula indicada. Llama al mtodo insertar de Aulas
-	 * @param insertar el aula que queremos guardar
-	 * @throws OperationNotSupportedException si se intenta insertar un aula nula, ya existente o se ha superado la capacidad
-	 */
-	public void insertarAula(Aula insertar) throws OperationNotSupportedException, IllegalArgumentException {
-		aulas.insertar(insertar);
-	}
-
-	/**
-	 * Borra el aula indicada si existe entre las guardadas. Llama al mtodo borrar de Aulas
-	 * @param borrar el aula que queremos borrar
-	 * @throws OperationNotSupportedException si se intenta borrar un aula nula o que no existe
-	 */
-	public void borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException {
-		aulas.borrar(borrar);
-		//borrar reservas sobre ese aula
-		List<Reserva> reservasAula = reservas.getReservasAula(borrar);
-		for(Reserva r : reservasAula)
-			reservas.borrar(r);
-	}
-
-	/**
-	 * Obtiene todos los profesores registrados. Llama al mtodo getProfesores de Profesores
-	 * @return todos los profesores guardados
-	 */
-	public List<Profesor> getProfesores() {
-		return profesores.getProfesores();
-	}
-
-	/**
-	 * Obtiene el nmero de profesores registrados. Llama al mtodo getNumProfesores de Profesores
-	 * @return el nmero de profesores guardados
-	 */
-	public int getNumProfesores() {
-		return profesores.getNumProfesores();
-	}
-
-	/**
-	 * Obtiene la salida de todos los profesores registrados. Llama al mtodo representar de Profesores
-	 * @return un array con la representacin de cada profesor en forma de cadena
-	 */
-	public List<String> representarProfesores() {
-		return profesores.representar();
-	}
-
-	/**
-	 * Busca el profesor indicado entre los que han sido registrados. Llama al mtodo buscar de Profesores
-	 * @param buscar el profesor que buscamos
-	 * @return el profesor buscado o null si no lo encuentra
-	 */
-	public Profesor buscarProfesor(Profesor buscar) {
-		return profesores.buscar(buscar);
-	}
-
-	/**
-	 * Guarda el profesor indicado. Llama al mtodo insertar de Profesores
-	 * @param insertar el profesor que queremos guardar
-	 * @throws OperationNotSupportedException si se intenta insertar un profesor nulo, ya existente o se ha superado la capacidad
-	 */
-	public void insertarProfesor(Profesor insertar) throws OperationNotSupportedException, IllegalArgumentException {
-		profesores.insertar(insertar);
-	}
-
-	/**
-	 * Borra el profesor indicado si existe entre los que han sido registrados. Llama al mtodo borrar de Profesores
-	 * @param borrar el profesor que queremos borrar
-	 * @throws OperationNotSupportedException si se intenta borrar un profesor nulo o que no existe
-	 */
-	public void borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException {
-		profesores.borrar(borrar);
-		//borrar reservas a nombre de ese profesor
-		List<Reserva> reservasProfesor = reservas.getReservasProfesor(borrar);
-		for(Reserva r : reservasProfesor)
-			reservas.borrar(r);
-	}
-
-	/**
-	 * Obtiene todas las reservas realizadas. Llama al mtodo getReservas de Reservas
-	 * @return todas las reservas realizadas
-	 */
-	public List<Reserva> getReservas() {
-		return reservas.getReservas();
-	}
-
-	/**
-	 * Obtiene el nmero de reservas realizadas. Llama al mtodo getNumReservas de Reservas
-	 * @return el nmero de reservas guardadas
-	 */
-	public int getNumReservas() {
-		return reservas.getNumReservas();
-	}
-
-	/**
-	 * Obtiene la salida de todas las reservas realizadas. Llama al mtodo representar de Reservas
-	 * @return un array con la representacin de cada reserva en forma de cadena
-	 */
-	public List<String> representarReservas() {
-		return reservas.representar();
-	}
-
-	/**
-	 * Busca la reserva indicada entre las que se han realizado. Llama al mtodo buscar de Reservas
-	 * @param buscar la reserva que buscamos
-	 * @return la reserva buscada o null si no la encuentra
-	 */
-	public Reserva buscarReserva(Reserva buscar) {
-		return reservas.buscar(buscar);
-	}
-
-	/**
-	 * Guarda la reserva indicada. Llama al mtodo insertar de Reservas
-	 * @param realizar la reserva a realizar
-	 * @throws OperationNotSupportedException si se intenta realizar una reserva nula, ya existente o se ha superado la capacidad
-	 */
-	public void realizarReserva(Reserva realizar) throws OperationNotSupportedException, IllegalArgumentException {
-		reservas.insertar(realizar);
-	}
-
-	/**
-	 * Borra la reserva indicada si existe entre las realizadas. Llama al mtodo borrar de Reserva
-	 * @param anular la reserva a anular
-	 * @throws OperationNotSupportedException si se intenta anular una reserva nula o que no existe
-	 */
-	public void anularReserva(Reserva anular) throws OperationNotSupportedException, IllegalArgumentException {
-		reservas.borrar(anular);
-	}
-
-	/**
-	 * Obtiene todas las reservas correspondientes al aula indicada. Llama al mtodo getReservasAula de Reservas
-	 * @param aula el aula sobre la que estn hechas las reservas
-	 * @return un array con todas las reservas sobre el aula indicada
-	 */
-	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
-		return reservas.getReservasAula(aula);
-	}
-
-	/**
-	 * Obtiene todas las reservas realizadas por el profesor indicado. Llama al mtodo getReservasProfesor de Reservas
-	 * @param profesor el profesor a nombre del que estn hechas las reservas
-	 * @return un array con todas las reservas a nombre del profesor indicado
-	 */
-	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
-		return reservas.getReservasProfesor(profesor);
-	}
-
-	/**
-	 * Obtiene todas las reservas realizadas en un da y tramo indicados. Llama al mtodo getReservasPermanencia de Reservas
-	 * @param permanencia la fecha de las reservas
-	 * @return un array con todas las reservas de ese da y tramo
-	 */
-	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
-		return reservas.getReservasPermanencia(permanencia);
-	}
-
-	/**
-	 * Comprueba si hay alguna reserva realizada sobre un aula en una permanencia indicadas. Llama al mtodo consultarDisponibilidad de Reservas
-	 * @param aula el aula sobre la que queremos consultar la disponibilidad
-	 * @param permanencia el da que queremos comprobar si est reservada el aula
-	 * @return True si est disponible (no est reservada) y False si no est disponible (est reservada)
-	 */
-	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
-		return reservas.consultarDisponibilidad(aula, permanencia);
-	}
-
-}
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Aulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Profesores;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Reservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ResultadoReserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.Archivo;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.Diario;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.Instantanea;
+import org.iesalandalus.programacion.reservasaulas.vista.IUTextual;
+
+/**
+ *
+ * Clase modelo utilizada como intermediaria entre IUTextual, que accede a todas las funciones de la aplicación.
+ * Si se crea con un fichero de diario, cada operación que modifica el modelo queda registrada en disco antes de
+ * terminar, y al crearlo de nuevo con el mismo fichero se recupera el estado anterior. Con un fichero de
+ * instantánea, el estado completo puede volcarse a disco para que el diario no crezca sin límite.
+ * <p>
+ * El modelo puede usarse desde varios hilos a la vez. Las reservas y anulaciones toman el cerrojo de su aula,
+ * uno de entre un conjunto fijo de cerrojos repartidos por el nombre del aula, de modo que las operaciones sobre
+ * aulas distintas no esperan unas a otras. Las operaciones sobre aulas y profesores, con sus borrados en cascada,
+ * las instantáneas y el cierre toman un cerrojo exclusivo sobre todo el modelo, y las consultas el mismo cerrojo
+ * en modo compartido, por lo que nunca ven un borrado en cascada a medias.
+ * <p>
+ * Aulas y Profesores hacen de registros canónicos: al guardar una reserva, su aula y su profesor se sustituyen
+ * por las instancias registradas, de modo que las reservas comparten un único objeto por aula y por profesor
+ * aunque lleguen con copias propias, como las que crea el diario al reproducirse.
+ * <p>
+ * Con un archivo, las reservas anteriores a una fecha de corte pueden sacarse de memoria a segmentos comprimidos
+ * en disco, de modo que en memoria sólo quedan las de los días recientes y futuros. Las consultas de reservas
+ * por aula, por profesor, por permanencia y por intervalo incluyen las archivadas, delante de las que están en
+ * memoria, y sólo leen el archivo si el intervalo consultado empieza antes del corte. Las reservas archivadas
+ * no se pueden realizar ni anular, y no cuentan en getReservas, getNumReservas, las representaciones, las
+ * instantáneas ni las consultas de permanencias libres.
+ * @see IUTextual
+ * @see Diario
+ * @see Instantanea
+ * @see Archivo
+ * @see Profesores
+ * @see Aulas
+ * @see Reservas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ *
+ */
+public class ModeloReservasAulas implements IModeloReservasAulas {
+
+	private static final int NUM_CERROJOS_AULAS = 64;
+
+	private Profesores profesores;
+	private Aulas aulas;
+	private Reservas reservas;
+	private Diario diario;
+	private Path ficheroInstantanea;
+	private Archivo archivo;
+	private volatile long claveCorte = Long.MIN_VALUE;
+	private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+	private final ReentrantLock[] cerrojosAulas = new ReentrantLock[NUM_CERROJOS_AULAS];
+
+	/**
+	 * Constructor de la clase. Crea los distintos atributos de la clase.
+	 */
+	public ModeloReservasAulas() {
+		this.profesores = new Profesores();
+		this.aulas = new Aulas();
+		this.reservas = new Reservas();
+		for(int i = 0; i < NUM_CERROJOS_AULAS; i++)
+			cerrojosAulas[i] = new ReentrantLock();
+	}
+
+	/**
+	 * Constructor de un modelo persistente. Reproduce las operaciones guardadas en el diario indicado
+	 * y registra en él las operaciones siguientes.
+	 * @param ficheroDiario el fichero del diario, que se crea si no existe
+	 * @throws IOException si no se puede abrir o reproducir el diario
+	 */
+	public ModeloReservasAulas(Path ficheroDiario) throws IOException {
+		this(ficheroDiario, null);
+	}
+
+	/**
+	 * Constructor de un modelo persistente con instantáneas. Carga la instantánea indicada, si existe, y reproduce
+	 * después las operaciones del diario que son posteriores a ella. El diario se vacía al guardar cada instantánea.
+	 * @param ficheroDiario el fichero del diario, que se crea si no existe
+	 * @param ficheroInstantanea el fichero de la instantánea, o null si no se usan instantáneas
+	 * @throws IOException si no se puede cargar la instantánea o reproducir el diario
+	 */
+	public ModeloReservasAulas(Path ficheroDiario, Path ficheroInstantanea) throws IOException {
+		this();
+		long generacion = 0;
+		if(ficheroInstantanea != null && Files.exists(ficheroInstantanea))
+			generacion = Instantanea.cargar(ficheroInstantanea, aulas, profesores, reservas);
+		Diario abierto = new Diario(ficheroDiario);
+		try {
+			if(abierto.getGeneracion() < generacion)
+				abierto.vaciar(generacion);
+			else if(abierto.getGeneracion() > generacion)
+				throw new IOException("El diario es posterior a la instantánea: falta la instantánea de la generación "
+						+ abierto.getGeneracion() + ".");
+			else
+				abierto.reproducir(this);
+		} catch (IOException e) {
+			abierto.close();
+			throw e;
+		}
+		this.diario = abierto;
+		this.ficheroInstantanea = ficheroInstantanea;
+	}
+
+	/**
+	 * Guarda una instantánea con el estado actual del modelo y vacía el diario, de modo que la siguiente
+	 * recuperación solo tenga que reproducir las operaciones posteriores
+	 * @throws IOException si falla la escritura de la instantánea o del diario
+	 * @throws IllegalStateException si el modelo no se creó con un fichero de instantánea
+	 */
+	public void guardarInstantanea() throws IOException {
+		cerrojo.writeLock().lock();
+		try {
+			if(diario == null || ficheroInstantanea == null)
+				throw new IllegalStateException("El modelo no tiene fichero de instantánea.");
+			long generacion = diario.getGeneracion() + 1;
+			Instantanea.guardar(ficheroInstantanea, generacion, aulas.getAulas(), profesores.getProfesores(),
+					reservas.getReservas());
+			diario.vaciar(generacion);
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Cierra el diario del modelo, si lo tiene, guardando antes una instantánea si el modelo usa instantáneas.
+	 * Las operaciones posteriores ya no se registran.
+	 * @throws IOException si falla la instantánea o el cierre del diario
+	 */
+	public void cerrar() throws IOException {
+		cerrojo.writeLock().lock();
+		try {
+			if(diario != null) {
+				try {
+					if(ficheroInstantanea != null)
+						guardarInstantanea();
+				} finally {
+					diario.close();
+				}
+				diario = null;
+				ficheroInstantanea = null;
+			}
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Abre el archivo de reservas pasadas del modelo. Si ya hay reservas archivadas, quita de memoria las anteriores
+	 * a su corte, que son las que el diario vuelve a crear al reproducirse o las que quedaron en memoria si se
+	 * interrumpió un archivado después de escribir su segmento.
+	 * @param directorio el directorio de los segmentos, que se crea si no existe
+	 * @throws IOException si no se puede abrir el archivo
+	 * @throws IllegalStateException si el modelo ya tiene un archivo
+	 */
+	public void abrirArchivo(Path directorio) throws IOException {
+		cerrojo.writeLock().lock();
+		try {
+			if(archivo != null)
+				throw new IllegalStateException("El modelo ya tiene un archivo.");
+			Archivo abierto = new Archivo(directorio);
+			long corte = abierto.getCorte() == null ? Long.MIN_VALUE : claveCorte(abierto.getCorte());
+			reservas.borrarReservas(r -> r.getPermanencia().getClave() < corte);
+			archivo = abierto;
+			claveCorte = corte;
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Mueve al archivo las reservas anteriores a una fecha de corte, en un segmento nuevo, y las quita de memoria.
+	 * Si el modelo usa instantáneas, guarda después una, de modo que el diario deja de contener las reservas
+	 * archivadas; Archivo ya ha dejado en el disco el segmento y su entrada en el directorio antes de vaciarlo
+	 * @param corte el primer día cuyas reservas se quedan en memoria
+	 * @return el número de reservas archivadas
+	 * @throws IllegalArgumentException si el corte es nulo o no es posterior al corte anterior
+	 * @throws IOException si falla la escritura del segmento o de la instantánea
+	 * @throws IllegalStateException si el modelo no tiene archivo
+	 */
+	public int archivar(LocalDate corte) throws IOException, IllegalArgumentException {
+		if(corte==null)
+			throw new IllegalArgumentException("La fecha de corte no puede ser nula.");
+		cerrojo.writeLock().lock();
+		try {
+			if(archivo == null)
+				throw new IllegalStateException("El modelo no tiene archivo.");
+			long clave = claveCorte(corte);
+			List<Reserva> pasadas = reservas.getReservas();
+			pasadas.removeIf(r -> r.getPermanencia().getClave() >= clave);
+			archivo.archivar(corte, pasadas);
+			reservas.borrarReservas(r -> r.getPermanencia().getClave() < clave);
+			claveCorte = clave;
+			if(diario != null && ficheroInstantanea != null)
+				guardarInstantanea();
+			return pasadas.size();
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Método get para la fecha de corte del archivo
+	 * @return el primer día cuyas reservas no están archivadas, o null si el modelo no tiene archivo o todavía no
+	 * ha archivado nada
+	 */
+	public LocalDate getCorteArchivo() {
+		cerrojo.readLock().lock();
+		try {
+			return archivo == null ? null : archivo.getCorte();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Calcula la clave de la primera permanencia de un día, que separa las reservas archivadas de las que no
+	 * @param corte el día de corte
+	 * @return la clave de su primer tramo
+	 */
+	private static long claveCorte(LocalDate corte) {
+		return Permanencia.calcularClave(corte, Tramo.values()[0]);
+	}
+
+	/**
+	 * Comprueba si una reserva es anterior al corte del archivo, y por tanto no se puede realizar ni anular
+	 * @param reserva la reserva a comprobar
+	 * @return True si está en el periodo archivado
+	 */
+	private boolean archivada(Reserva reserva) {
+		return reserva != null && reserva.getPermanencia().getClave() < claveCorte;
+	}
+
+	/**
+	 * Crea el mensaje de error para una reserva del periodo archivado
+	 * @return el mensaje
+	 */
+	private String mensajeArchivada() {
+		return "No se pueden modificar las reservas anteriores al " + archivo.getCorte() + ", que ya están archivadas.";
+	}
+
+	/**
+	 * Consulta sobre el archivo, que puede fallar al leer un segmento
+	 */
+	private interface ConsultaArchivo {
+		List<Reserva> consultar(Archivo archivo) throws IOException;
+	}
+
+	/**
+	 * Añade delante de las reservas encontradas en memoria las que devuelve una consulta sobre el archivo, si el
+	 * modelo tiene archivo y el intervalo consultado empieza antes de su corte
+	 * @param enMemoria las reservas encontradas en memoria
+	 * @param desde la clave de la primera permanencia consultada
+	 * @param consulta la consulta sobre el archivo
+	 * @return las reservas archivadas seguidas de las de memoria
+	 */
+	private List<Reserva> anteponerArchivadas(List<Reserva> enMemoria, long desde, ConsultaArchivo consulta) {
+		if(archivo == null || desde >= claveCorte)
+			return enMemoria;
+		try {
+			List<Reserva> archivadas = consulta.consultar(archivo);
+			if(archivadas.isEmpty())
+				return enMemoria;
+			archivadas.addAll(enMemoria);
+			return archivadas;
+		} catch (IOException e) {
+			throw errorArchivo(e);
+		}
+	}
+
+	/**
+	 * Transforma un error de lectura del archivo en una excepción no comprobada, como los errores del diario
+	 * @param e el error de lectura
+	 * @return la excepción a lanzar
+	 */
+	private static UncheckedIOException errorArchivo(IOException e) {
+		return new UncheckedIOException("No se pudieron leer las reservas archivadas.", e);
+	}
+
+	/**
+	 * Obtiene el cerrojo que protege las reservas de un aula. Varias aulas comparten cada cerrojo,
+	 * repartidas según el hash de su nombre.
+	 * @param aula el aula de la reserva
+	 * @return el cerrojo del aula
+	 */
+	private ReentrantLock cerrojoAula(Aula aula) {
+		int hash = aula.getNombre().hashCode();
+		return cerrojosAulas[(hash ^ (hash >>> 16)) & (NUM_CERROJOS_AULAS - 1)];
+	}
+
+	/**
+	 * Sustituye el aula y el profesor de una reserva por sus instancias canónicas de Aulas y Profesores. Se llama
+	 * con algún cerrojo del modelo tomado, ya que las aulas y los profesores sólo cambian con el exclusivo.
+	 * @param reserva la reserva a guardar
+	 * @return la misma reserva si ya usa las instancias canónicas, o una igual que las usa
+	 */
+	private Reserva canonica(Reserva reserva) {
+		Aula aula = aulas.canonica(reserva.getAula());
+		Profesor profesor = profesores.canonico(reserva.getProfesor());
+		if(aula == reserva.getAula() && profesor == reserva.getProfesor())
+			return reserva;
+		return new Reserva(profesor, aula, reserva.getPermanencia());
+	}
+
+	/**
+	 * Transforma un error de escritura en el diario en una excepción no comprobada, ya que la operación
+	 * se ha aplicado en memoria pero no ha quedado registrada
+	 * @param e el error de escritura
+	 * @return la excepción a lanzar
+	 */
+	private static UncheckedIOException errorDiario(IOException e) {
+		return new UncheckedIOException("No se pudo registrar la operación en el diario.", e);
+	}
+
+	/**
+	 * Obtiene todas las aulas registradas. Llama al método getAulas de Aulas
+	 * @return todas las aulas guardadas
+	 */
+	public List<Aula> getAulas() {
+		cerrojo.readLock().lock();
+		try {
+			return aulas.getAulas();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene el número de aulas registradas. Llama al método getNumAulas de Aulas
+	 * @return el número de aulas guardadas
+	 */
+	public int getNumAulas() {
+		cerrojo.readLock().lock();
+		try {
+			return aulas.getNumAulas();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene la salida de todas las aulas registradas. Llama al método representar de Aulas
+	 * @return un array con la representación de cada aula en forma de cadena
+	 */
+	public List<String> representarAulas() {
+		cerrojo.readLock().lock();
+		try {
+			return aulas.representar();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Escribe la salida de todas las aulas, una por línea, sin construir la lista de cadenas. Llama al método
+	 * representar de Aulas
+	 * @param salida donde escribir las aulas, por ejemplo System.out o un Writer
+	 * @return el número de aulas escritas
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	public int representarAulas(Appendable salida) throws IOException, IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			return aulas.representar(salida);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Busca el aula indicada entre las que han sido registradas. Llama al método buscar de Aulas
+	 * @param buscar el aula que estamos buscando
+	 * @return el aula buscada o null si no la encuentra
+	 */
+	public Aula buscarAula(Aula buscar) {
+		cerrojo.readLock().lock();
+		try {
+			return aulas.buscar(buscar);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda el aula indicada. Llama al método insertar de Aulas
+	 * @param insertar el aula que queremos guardar
+	 * @throws OperationNotSupportedException si se intenta insertar un aula nula, ya existente o se ha superado la capacidad
+	 */
+	public void insertarAula(Aula insertar) throws OperationNotSupportedException, IllegalArgumentException {
+		cerrojo.writeLock().lock();
+		try {
+			aulas.insertar(insertar);
+			if(diario != null) {
+				try {
+					diario.registrarInsertarAula(insertar);
+				} catch (IOException e) {
+					throw errorDiario(e);
+				}
+			}
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra el aula indicada si existe entre las guardadas, junto con todas sus reservas. Llama al método borrar de
+	 * Aulas y al método borrarReservas de Reservas
+	 * @param borrar el aula que queremos borrar
+	 * @throws OperationNotSupportedException si se intenta borrar un aula nula o que no existe
+	 */
+	public void borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		cerrojo.writeLock().lock();
+		try {
+			aulas.borrar(borrar);
+			reservas.borrarReservas(borrar);
+			if(diario != null) {
+				try {
+					diario.registrarBorrarAula(borrar);
+				} catch (IOException e) {
+					throw errorDiario(e);
+				}
+			}
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene todos los profesores registrados. Llama al método getProfesores de Profesores
+	 * @return todos los profesores guardados
+	 */
+	public List<Profesor> getProfesores() {
+		cerrojo.readLock().lock();
+		try {
+			return profesores.getProfesores();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene el número de profesores registrados. Llama al método getNumProfesores de Profesores
+	 * @return el número de profesores guardados
+	 */
+	public int getNumProfesores() {
+		cerrojo.readLock().lock();
+		try {
+			return profesores.getNumProfesores();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene la salida de todos los profesores registrados. Llama al método representar de Profesores
+	 * @return un array con la representación de cada profesor en forma de cadena
+	 */
+	public List<String> representarProfesores() {
+		cerrojo.readLock().lock();
+		try {
+			return profesores.representar();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Escribe la salida de todos los profesores, una por línea, sin construir la lista de cadenas. Llama al método
+	 * representar de Profesores
+	 * @param salida donde escribir los profesores, por ejemplo System.out o un Writer
+	 * @return el número de profesores escritos
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	public int representarProfesores(Appendable salida) throws IOException, IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			return profesores.representar(salida);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Busca el profesor indicado entre los que han sido registrados. Llama al método buscar de Profesores
+	 * @param buscar el profesor que buscamos
+	 * @return el profesor buscado o null si no lo encuentra
+	 */
+	public Profesor buscarProfesor(Profesor buscar) {
+		cerrojo.readLock().lock();
+		try {
+			return profesores.buscar(buscar);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda el profesor indicado. Llama al método insertar de Profesores
+	 * @param insertar el profesor que queremos guardar
+	 * @throws OperationNotSupportedException si se intenta insertar un profesor nulo, ya existente o se ha superado la capacidad
+	 */
+	public void insertarProfesor(Profesor insertar) throws OperationNotSupportedException, IllegalArgumentException {
+		cerrojo.writeLock().lock();
+		try {
+			profesores.insertar(insertar);
+			if(diario != null) {
+				try {
+					diario.registrarInsertarProfesor(insertar);
+				} catch (IOException e) {
+					throw errorDiario(e);
+				}
+			}
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra el profesor indicado si existe entre los que han sido registrados, junto con todas sus reservas. Llama al
+	 * método borrar de Profesores y al método borrarReservas de Reservas
+	 * @param borrar el profesor que queremos borrar
+	 * @throws OperationNotSupportedException si se intenta borrar un profesor nulo o que no existe
+	 */
+	public void borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		cerrojo.writeLock().lock();
+		try {
+			profesores.borrar(borrar);
+			reservas.borrarReservas(borrar);
+			if(diario != null) {
+				try {
+					diario.registrarBorrarProfesor(borrar);
+				} catch (IOException e) {
+					throw errorDiario(e);
+				}
+			}
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene todas las reservas realizadas. Llama al método getReservas de Reservas
+	 * @return todas las reservas realizadas
+	 */
+	public List<Reserva> getReservas() {
+		cerrojo.readLock().lock();
+		try {
+			return reservas.getReservas();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene el número de reservas realizadas. Llama al método getNumReservas de Reservas
+	 * @return el número de reservas guardadas
+	 */
+	public int getNumReservas() {
+		cerrojo.readLock().lock();
+		try {
+			return reservas.getNumReservas();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene la salida de todas las reservas realizadas. Llama al método representar de Reservas
+	 * @return un array con la representación de cada reserva en forma de cadena
+	 */
+	public List<String> representarReservas() {
+		cerrojo.readLock().lock();
+		try {
+			return reservas.representar();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Escribe la salida de todas las reservas, una por línea, sin construir la lista de cadenas. Llama al método
+	 * representar de Reservas
+	 * @param salida donde escribir las reservas, por ejemplo System.out o un Writer
+	 * @return el número de reservas escritas
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	public int representarReservas(Appendable salida) throws IOException, IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			return reservas.representar(salida);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Busca la reserva indicada entre las que se han realizado. Llama al método buscar de Reservas
+	 * @param buscar la reserva que buscamos
+	 * @return la reserva buscada o null si no la encuentra
+	 */
+	public Reserva buscarReserva(Reserva buscar) {
+		cerrojo.readLock().lock();
+		try {
+			return reservas.buscar(buscar);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda la reserva indicada. Llama al método insertar de Reservas
+	 * @param realizar la reserva a realizar
+	 * @throws OperationNotSupportedException si se intenta realizar una reserva nula, ya existente o se ha superado la capacidad
+	 */
+	public void realizarReserva(Reserva realizar) throws OperationNotSupportedException, IllegalArgumentException {
+		if(realizar==null)
+			throw new IllegalArgumentException("No se puede realizar una reserva nula.");
+		ReentrantLock cerrojoAula = cerrojoAula(realizar.getAula());
+		cerrojo.readLock().lock();
+		cerrojoAula.lock();
+		try {
+			if(archivada(realizar))
+				throw new OperationNotSupportedException(mensajeArchivada());
+			Reserva guardar = canonica(realizar);
+			reservas.insertar(guardar);
+			if(diario != null) {
+				try {
+					diario.registrarRealizarReserva(guardar);
+				} catch (IOException e) {
+					throw errorDiario(e);
+				}
+			}
+		} finally {
+			cerrojoAula.unlock();
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda la reserva indicada si el aula está libre en su permanencia, en una sola operación atómica.
+	 * Llama al método reservarSiDisponible de Reservas. Si el aula ya está ocupada responde sin tomar ningún cerrojo.
+	 * @param realizar la reserva a realizar
+	 * @return RESERVADA si se ha realizado la reserva, OCUPADA si el aula ya estaba reservada, ARCHIVADA si la
+	 * permanencia es anterior al corte del archivo
+	 * @throws IllegalArgumentException si la reserva es nula
+	 */
+	public ResultadoReserva reservarSiDisponible(Reserva realizar) throws IllegalArgumentException {
+		if(realizar==null)
+			throw new IllegalArgumentException("No se puede realizar una reserva nula.");
+		if(!reservas.consultarDisponibilidad(realizar.getAula(), realizar.getPermanencia()))
+			return ResultadoReserva.OCUPADA;
+		ReentrantLock cerrojoAula = cerrojoAula(realizar.getAula());
+		cerrojo.readLock().lock();
+		cerrojoAula.lock();
+		try {
+			if(archivada(realizar))
+				return ResultadoReserva.ARCHIVADA;
+			Reserva guardar = canonica(realizar);
+			ResultadoReserva resultado = reservas.reservarSiDisponible(guardar);
+			if(resultado == ResultadoReserva.RESERVADA && diario != null) {
+				try {
+					diario.registrarRealizarReserva(guardar);
+				} catch (IOException e) {
+					throw errorDiario(e);
+				}
+			}
+			return resultado;
+		} finally {
+			cerrojoAula.unlock();
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda un lote de reservas: todas o ninguna. Llama al método insertarReservas de Reservas con el lote
+	 * completo, que comprueba todas las reservas contra la ocupación y entre sí antes de guardar ninguna. Toma una
+	 * sola vez el cerrojo exclusivo del modelo, de modo que ninguna otra operación ve el lote a medias ni puede
+	 * ocupar sus aulas mientras se guarda, y registra el lote en el diario como un único registro con una sola
+	 * sincronización.
+	 * @param realizar las reservas a realizar
+	 * @throws IllegalArgumentException si el lote o alguna de sus reservas es nula, o si el lote es demasiado
+	 * grande para el diario; en ese caso no se realiza ninguna
+	 * @throws OperationNotSupportedException si alguna reserva ya existe o está repetida en el lote; en ese caso
+	 * no se realiza ninguna
+	 */
+	public void realizarReservas(Collection<Reserva> realizar) throws OperationNotSupportedException, IllegalArgumentException {
+		if(realizar==null)
+			throw new IllegalArgumentException("No se puede realizar un lote de reservas nulo.");
+		cerrojo.writeLock().lock();
+		try {
+			List<Reserva> guardar = new ArrayList<Reserva>(realizar.size());
+			for(Reserva reserva : realizar) {
+				if(archivada(reserva))
+					throw new OperationNotSupportedException(mensajeArchivada());
+				guardar.add(reserva == null ? null : canonica(reserva));
+			}
+			if(reservas.insertarReservas(guardar) > 0 && diario != null) {
+				long registro;
+				try {
+					registro = diario.anotarRealizarReservas(guardar);
+				} catch (IllegalArgumentException e) {
+					Set<Reserva> lote = Collections.newSetFromMap(new IdentityHashMap<Reserva, Boolean>());
+					lote.addAll(guardar);
+					reservas.borrarReservas(lote::contains);
+					throw e;
+				}
+				try {
+					diario.confirmar(registro);
+				} catch (IOException e) {
+					throw errorDiario(e);
+				}
+			}
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda un lote de reservas, cada una sólo si su aula está libre, como si se llamara a reservarSiDisponible
+	 * con cada una en orden. Se toma el cerrojo compartido una vez para todo el lote y el diario se sincroniza una
+	 * sola vez al final, por lo que sirve para cargas masivas. Todo el lote se compara con el mismo corte del
+	 * archivo, y las reservas anteriores a él se rechazan con ARCHIVADA sin interrumpir el resto.
+	 * @param realizar las reservas a realizar
+	 * @return el resultado de cada reserva, en el mismo orden
+	 * @throws IllegalArgumentException si la lista o alguna de sus reservas es nula
+	 */
+	public ResultadoReserva[] reservarSiDisponibles(List<Reserva> realizar) throws IllegalArgumentException {
+		if(realizar==null)
+			throw new IllegalArgumentException("No se puede realizar una lista de reservas nula.");
+		for(Reserva r : realizar)
+			if(r==null)
+				throw new IllegalArgumentException("No se puede realizar una reserva nula.");
+		ResultadoReserva[] resultados = new ResultadoReserva[realizar.size()];
+		long ultimoRegistro = 0;
+		cerrojo.readLock().lock();
+		try {
+			long corte = claveCorte;
+			for(int i = 0; i < resultados.length; i++) {
+				if(realizar.get(i).getPermanencia().getClave() < corte) {
+					resultados[i] = ResultadoReserva.ARCHIVADA;
+					continue;
+				}
+				Reserva reserva = canonica(realizar.get(i));
+				ReentrantLock cerrojoAula = cerrojoAula(reserva.getAula());
+				cerrojoAula.lock();
+				try {
+					resultados[i] = reservas.reservarSiDisponible(reserva);
+					if(resultados[i] == ResultadoReserva.RESERVADA && diario != null)
+						ultimoRegistro = diario.anotarRealizarReserva(reserva);
+				} finally {
+					cerrojoAula.unlock();
+				}
+			}
+			if(ultimoRegistro != 0) {
+				try {
+					diario.confirmar(ultimoRegistro);
+				} catch (IOException e) {
+					throw errorDiario(e);
+				}
+			}
+			return resultados;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra la reserva indicada si existe entre las realizadas. Llama al método borrar de Reserva
+	 * @param anular la reserva a anular
+	 * @throws OperationNotSupportedException si se intenta anular una reserva nula o que no existe
+	 */
+	public void anularReserva(Reserva anular) throws OperationNotSupportedException, IllegalArgumentException {
+		if(anular==null)
+			throw new IllegalArgumentException("No se puede anular una reserva nula.");
+		ReentrantLock cerrojoAula = cerrojoAula(anular.getAula());
+		cerrojo.readLock().lock();
+		cerrojoAula.lock();
+		try {
+			if(archivada(anular))
+				throw new OperationNotSupportedException(mensajeArchivada());
+			reservas.borrar(anular);
+			if(diario != null) {
+				try {
+					diario.registrarAnularReserva(anular);
+				} catch (IOException e) {
+					throw errorDiario(e);
+				}
+			}
+		} finally {
+			cerrojoAula.unlock();
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene todas las reservas correspondientes al aula indicada, incluidas las archivadas. Llama al método
+	 * getReservasAula de Reservas y, si el modelo tiene archivo, al de Archivo
+	 * @param aula el aula sobre la que están hechas las reservas
+	 * @return un array con todas las reservas sobre el aula indicada
+	 */
+	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> enMemoria = reservas.getReservasAula(aula);
+			return anteponerArchivadas(enMemoria, Long.MIN_VALUE, a -> a.getReservasAula(aula));
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene todas las reservas realizadas por el profesor indicado, incluidas las archivadas. Llama al método
+	 * getReservasProfesor de Reservas y, si el modelo tiene archivo, al de Archivo
+	 * @param profesor el profesor a nombre del que están hechas las reservas
+	 * @return un array con todas las reservas a nombre del profesor indicado
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> enMemoria = reservas.getReservasProfesor(profesor);
+			return anteponerArchivadas(enMemoria, Long.MIN_VALUE, a -> a.getReservasProfesor(profesor));
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene todas las reservas realizadas en un día y tramo indicados. Llama al método getReservasPermanencia de Reservas
+	 * o, si la permanencia está archivada, al método getReservas de Archivo
+	 * @param permanencia la fecha de las reservas
+	 * @return un array con todas las reservas de ese día y tramo
+	 */
+	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> enMemoria = reservas.getReservasPermanencia(permanencia);
+			return anteponerArchivadas(enMemoria, permanencia.getClave(), a -> a.getReservas(permanencia, permanencia));
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas realizadas entre dos permanencias, en orden cronológico. Llama al método getReservas de Reservas
+	 * y, si el intervalo empieza antes del corte del archivo, al de Archivo
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del intervalo
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	public List<Reserva> getReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> enMemoria = reservas.getReservas(desde, hasta);
+			return anteponerArchivadas(enMemoria, desde.getClave(), a -> a.getReservas(desde, hasta));
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Recorre las reservas realizadas entre dos permanencias sin copiarlas todas a la vez. Llama al método
+	 * iterarReservas de Reservas. El recorrido se hace fuera del cerrojo del modelo, por lo que puede reflejar
+	 * cambios hechos mientras tanto
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return un iterador sobre las reservas del intervalo, en orden cronológico
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	public Iterator<Reserva> iterarReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			return reservas.iterarReservas(desde, hasta);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas de un aula realizadas entre dos permanencias, en orden cronológico. Llama al método
+	 * getReservasAula de Reservas y, si el intervalo empieza antes del corte del archivo, al de Archivo
+	 * @param aula el aula reservada
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del aula en el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public List<Reserva> getReservasAula(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> enMemoria = reservas.getReservasAula(aula, desde, hasta);
+			return anteponerArchivadas(enMemoria, desde.getClave(), a -> a.getReservasAula(aula, desde, hasta));
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas de un profesor realizadas entre dos permanencias, en orden cronológico. Llama al método
+	 * getReservasProfesor de Reservas y, si el intervalo empieza antes del corte del archivo, al de Archivo
+	 * @param profesor el profesor que ha reservado
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del profesor en el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> enMemoria = reservas.getReservasProfesor(profesor, desde, hasta);
+			return anteponerArchivadas(enMemoria, desde.getClave(), a -> a.getReservasProfesor(profesor, desde, hasta));
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Comprueba si hay alguna reserva realizada sobre un aula en una permanencia indicadas. Llama al método consultarDisponibilidad de Reservas
+	 * o, si la permanencia está archivada, al de Archivo
+	 * @param aula el aula sobre la que queremos consultar la disponibilidad
+	 * @param permanencia el día que queremos comprobar si está reservada el aula
+	 * @return True si está disponible (no está reservada) y False si no está disponible (está reservada)
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			boolean disponible = reservas.consultarDisponibilidad(aula, permanencia);
+			if(!disponible || archivo == null || permanencia.getClave() >= claveCorte)
+				return disponible;
+			return archivo.consultarDisponibilidad(aula, permanencia);
+		} catch (IOException e) {
+			throw errorArchivo(e);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las aulas que no tienen ninguna reserva en un día y tramo indicados. Resta a todas las aulas las que
+	 * aparecen en el índice por permanencia de Reservas, por lo que no consulta la disponibilidad aula por aula, y
+	 * si la permanencia está archivada también las de sus reservas en Archivo
+	 * @param permanencia el día y tramo a consultar
+	 * @return las aulas disponibles, en el orden en que se insertaron
+	 * @throws IllegalArgumentException si la permanencia es nula
+	 */
+	public List<Aula> getAulasDisponibles(Permanencia permanencia) throws IllegalArgumentException {
+		if(permanencia==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de una permanencia nula.");
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> ocupadas = reservas.getReservasPermanencia(permanencia);
+			Set<String> reservadas = new HashSet<String>(ocupadas.size() * 2);
+			for(Reserva r : ocupadas)
+				reservadas.add(r.getAula().getNombre());
+			if(archivo != null && permanencia.getClave() < claveCorte)
+				for(Reserva r : archivo.getReservas(permanencia, permanencia))
+					reservadas.add(r.getAula().getNombre());
+			List<Aula> disponibles = aulas.getAulas();
+			if(!reservadas.isEmpty())
+				disponibles.removeIf(a -> reservadas.contains(a.getNombre()));
+			return disponibles;
+		} catch (IOException e) {
+			throw errorArchivo(e);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Comprueba si un aula está disponible en todas las permanencias de un intervalo. Llama al método consultarDisponibilidad de Reservas
+	 * y, si el intervalo empieza antes del corte, busca también las reservas archivadas del aula
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return True si el aula no tiene ninguna reserva en el intervalo, False si tiene alguna
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			return reservas.consultarDisponibilidad(aula, desde, hasta) && clavesArchivadas(aula, desde, hasta).length == 0;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Busca la primera permanencia de un intervalo en la que un aula está disponible. Llama al método getPrimeraPermanenciaLibre de Reservas
+	 * y, si el intervalo empieza antes del corte, salta antes las permanencias archivadas en las que el aula está reservada
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return la primera permanencia libre, o null si el aula está reservada en todo el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public Permanencia getPrimeraPermanenciaLibre(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			Permanencia libre = reservas.getPrimeraPermanenciaLibre(aula, desde, hasta);
+			long[] archivadas = clavesArchivadas(aula, desde, hasta);
+			if(archivo == null || desde.getClave() >= claveCorte)
+				return libre;
+			long clave = desde.getClave();
+			for(long ocupada : archivadas)
+				if(ocupada == clave)
+					clave++;
+			if(clave < claveCorte && clave <= hasta.getClave())
+				return new Permanencia(clave);
+			if(clave > hasta.getClave())
+				return null;
+			return reservas.getPrimeraPermanenciaLibre(aula, new Permanencia(clave), hasta);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Cuenta las permanencias de un intervalo en las que un aula está disponible. Llama al método getNumPermanenciasLibres de Reservas
+	 * y descuenta las permanencias archivadas en las que el aula está reservada
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return el número de permanencias libres
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public long getNumPermanenciasLibres(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			return reservas.getNumPermanenciasLibres(aula, desde, hasta) - clavesArchivadas(aula, desde, hasta).length;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene, en orden cronológico, las permanencias de un intervalo en las que un aula está disponible. Llama al método getPermanenciasLibres de Reservas
+	 * y quita las permanencias archivadas en las que el aula está reservada
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las permanencias libres
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public List<Permanencia> getPermanenciasLibres(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		cerrojo.readLock().lock();
+		try {
+			List<Permanencia> libres = reservas.getPermanenciasLibres(aula, desde, hasta);
+			long[] archivadas = clavesArchivadas(aula, desde, hasta);
+			if(archivadas.length > 0)
+				libres.removeIf(p -> Arrays.binarySearch(archivadas, p.getClave()) >= 0);
+			return libres;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las claves de las permanencias archivadas de un intervalo en las que un aula está reservada. Las
+	 * reservas en memoria son todas posteriores al corte, así que estas claves nunca coinciden con las suyas
+	 * @param aula el aula a consultar, ya validada
+	 * @param desde la primera permanencia del intervalo, ya validada
+	 * @param hasta la última permanencia del intervalo, ya validada
+	 * @return las claves en orden creciente, vacío si el intervalo empieza después del corte
+	 * @throws UncheckedIOException si no se pueden leer las reservas archivadas
+	 */
+	private long[] clavesArchivadas(Aula aula, Permanencia desde, Permanencia hasta) throws UncheckedIOException {
+		if(archivo == null || desde.getClave() >= claveCorte)
+			return new long[0];
+		try {
+			Permanencia ultima = hasta.getClave() < claveCorte ? hasta : new Permanencia(claveCorte - 1);
+			List<Reserva> archivadas = archivo.getReservasAula(aula, desde, ultima);
+			long[] claves = new long[archivadas.size()];
+			for(int i = 0; i < claves.length; i++)
+				claves[i] = archivadas.get(i).getPermanencia().getClave();
+			return claves;
+		} catch (IOException e) {
+			throw errorArchivo(e);
+		}
+	}
+
+}
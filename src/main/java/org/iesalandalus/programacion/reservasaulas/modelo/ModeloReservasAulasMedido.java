@@ -0,0 +1,606 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ResultadoReserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.metricas.Metricas;
+import org.iesalandalus.programacion.reservasaulas.modelo.metricas.MetricasOperacion;
+
+/**
+ * Modelo que mide las operaciones de otro. Cada método de IModeloReservasAulas se redirige al modelo medido y
+ * cuenta la llamada, y si termina con una excepción también un error, en las métricas de la operación, que
+ * además miden la latencia de una muestra de las llamadas. Las métricas se crean una sola vez al construir el
+ * modelo, por lo que cada llamada sólo suma uno al contador de su hilo y, si entra en la muestra, lee dos veces el
+ * reloj.
+ * <p>
+ * Las métricas sólo cuestan algo cuando se usan: quien no quiera medir usa directamente el modelo medido. Esta
+ * clase no guarda más estado que las métricas; todo lo demás está en el modelo medido, que es el que reproduce el
+ * diario, de modo que la recuperación no cuenta como llamadas.
+ * @see Metricas
+ * @see IModeloReservasAulas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public class ModeloReservasAulasMedido implements IModeloReservasAulas {
+
+	/**
+	 * Llamada al modelo medido que devuelve un resultado
+	 * @param <T> el tipo del resultado
+	 * @param <E> la excepción comprobada que puede lanzar
+	 */
+	private interface Llamada<T, E extends Exception> {
+		T llamar() throws E;
+	}
+
+	/**
+	 * Llamada al modelo medido que no devuelve nada
+	 * @param <E> la excepción comprobada que puede lanzar
+	 */
+	private interface Orden<E extends Exception> {
+		void ejecutar() throws E;
+	}
+
+	private final IModeloReservasAulas modelo;
+	private final Metricas metricas;
+	private final MetricasOperacion guardarInstantanea;
+	private final MetricasOperacion cerrar;
+	private final MetricasOperacion abrirArchivo;
+	private final MetricasOperacion archivar;
+	private final MetricasOperacion getCorteArchivo;
+	private final MetricasOperacion getAulas;
+	private final MetricasOperacion getNumAulas;
+	private final MetricasOperacion representarAulas;
+	private final MetricasOperacion representarAulasEnSalida;
+	private final MetricasOperacion buscarAula;
+	private final MetricasOperacion insertarAula;
+	private final MetricasOperacion borrarAula;
+	private final MetricasOperacion getProfesores;
+	private final MetricasOperacion getNumProfesores;
+	private final MetricasOperacion representarProfesores;
+	private final MetricasOperacion representarProfesoresEnSalida;
+	private final MetricasOperacion buscarProfesor;
+	private final MetricasOperacion insertarProfesor;
+	private final MetricasOperacion borrarProfesor;
+	private final MetricasOperacion getReservas;
+	private final MetricasOperacion getNumReservas;
+	private final MetricasOperacion representarReservas;
+	private final MetricasOperacion representarReservasEnSalida;
+	private final MetricasOperacion buscarReserva;
+	private final MetricasOperacion realizarReserva;
+	private final MetricasOperacion reservarSiDisponible;
+	private final MetricasOperacion realizarReservas;
+	private final MetricasOperacion reservarSiDisponibles;
+	private final MetricasOperacion anularReserva;
+	private final MetricasOperacion getReservasAula;
+	private final MetricasOperacion getReservasProfesor;
+	private final MetricasOperacion getReservasPermanencia;
+	private final MetricasOperacion getReservasIntervalo;
+	private final MetricasOperacion iterarReservas;
+	private final MetricasOperacion getReservasAulaIntervalo;
+	private final MetricasOperacion getReservasProfesorIntervalo;
+	private final MetricasOperacion consultarDisponibilidad;
+	private final MetricasOperacion getAulasDisponibles;
+	private final MetricasOperacion consultarDisponibilidadIntervalo;
+	private final MetricasOperacion getPrimeraPermanenciaLibre;
+	private final MetricasOperacion getNumPermanenciasLibres;
+	private final MetricasOperacion getPermanenciasLibres;
+
+	/**
+	 * Constructor de la clase
+	 * @param modelo el modelo cuyas operaciones se miden
+	 * @param metricas donde anotar las métricas de cada operación
+	 * @throws IllegalArgumentException si el modelo o las métricas son nulos
+	 */
+	public ModeloReservasAulasMedido(IModeloReservasAulas modelo, Metricas metricas) throws IllegalArgumentException {
+		if(modelo==null || metricas==null)
+			throw new IllegalArgumentException("No se puede medir un modelo nulo ni anotar en unas métricas nulas.");
+		this.modelo = modelo;
+		this.metricas = metricas;
+		guardarInstantanea = metricas.operacion("guardarInstantanea");
+		cerrar = metricas.operacion("cerrar");
+		abrirArchivo = metricas.operacion("abrirArchivo");
+		archivar = metricas.operacion("archivar");
+		getCorteArchivo = metricas.operacion("getCorteArchivo");
+		getAulas = metricas.operacion("getAulas");
+		getNumAulas = metricas.operacion("getNumAulas");
+		representarAulas = metricas.operacion("representarAulas");
+		representarAulasEnSalida = metricas.operacion("representarAulasEnSalida");
+		buscarAula = metricas.operacion("buscarAula");
+		insertarAula = metricas.operacion("insertarAula");
+		borrarAula = metricas.operacion("borrarAula");
+		getProfesores = metricas.operacion("getProfesores");
+		getNumProfesores = metricas.operacion("getNumProfesores");
+		representarProfesores = metricas.operacion("representarProfesores");
+		representarProfesoresEnSalida = metricas.operacion("representarProfesoresEnSalida");
+		buscarProfesor = metricas.operacion("buscarProfesor");
+		insertarProfesor = metricas.operacion("insertarProfesor");
+		borrarProfesor = metricas.operacion("borrarProfesor");
+		getReservas = metricas.operacion("getReservas");
+		getNumReservas = metricas.operacion("getNumReservas");
+		representarReservas = metricas.operacion("representarReservas");
+		representarReservasEnSalida = metricas.operacion("representarReservasEnSalida");
+		buscarReserva = metricas.operacion("buscarReserva");
+		realizarReserva = metricas.operacion("realizarReserva");
+		reservarSiDisponible = metricas.operacion("reservarSiDisponible");
+		realizarReservas = metricas.operacion("realizarReservas");
+		reservarSiDisponibles = metricas.operacion("reservarSiDisponibles");
+		anularReserva = metricas.operacion("anularReserva");
+		getReservasAula = metricas.operacion("getReservasAula");
+		getReservasProfesor = metricas.operacion("getReservasProfesor");
+		getReservasPermanencia = metricas.operacion("getReservasPermanencia");
+		getReservasIntervalo = metricas.operacion("getReservasIntervalo");
+		iterarReservas = metricas.operacion("iterarReservas");
+		getReservasAulaIntervalo = metricas.operacion("getReservasAulaIntervalo");
+		getReservasProfesorIntervalo = metricas.operacion("getReservasProfesorIntervalo");
+		consultarDisponibilidad = metricas.operacion("consultarDisponibilidad");
+		getAulasDisponibles = metricas.operacion("getAulasDisponibles");
+		consultarDisponibilidadIntervalo = metricas.operacion("consultarDisponibilidadIntervalo");
+		getPrimeraPermanenciaLibre = metricas.operacion("getPrimeraPermanenciaLibre");
+		getNumPermanenciasLibres = metricas.operacion("getNumPermanenciasLibres");
+		getPermanenciasLibres = metricas.operacion("getPermanenciasLibres");
+	}
+
+	/**
+	 * Método get para las métricas de las operaciones
+	 * @return las métricas donde se anotan las operaciones
+	 */
+	public Metricas getMetricas() {
+		return metricas;
+	}
+
+	/**
+	 * Hace una llamada al modelo medido y la anota en las métricas de una operación. El error sólo se anota en el
+	 * camino de la excepción, así que una llamada que termina bien sólo cuenta y, si entra en la muestra, mide
+	 * @param <T> el tipo del resultado
+	 * @param <E> la excepción comprobada que puede lanzar la llamada
+	 * @param operacion las métricas de la operación
+	 * @param llamada la llamada al modelo medido
+	 * @return el resultado de la llamada
+	 * @throws E la excepción de la llamada, que se relanza tal cual
+	 */
+	private static <T, E extends Exception> T medir(MetricasOperacion operacion, Llamada<T, E> llamada) throws E {
+		long inicio = operacion.iniciar();
+		T resultado;
+		try {
+			resultado = llamada.llamar();
+		} catch (Throwable e) {
+			operacion.fallar(inicio);
+			throw e;
+		}
+		operacion.terminar(inicio);
+		return resultado;
+	}
+
+	/**
+	 * Hace una llamada sin resultado al modelo medido y la anota en las métricas de una operación, igual que medir
+	 * @param <E> la excepción comprobada que puede lanzar la llamada
+	 * @param operacion las métricas de la operación
+	 * @param orden la llamada al modelo medido
+	 * @throws E la excepción de la llamada, que se relanza tal cual
+	 */
+	private static <E extends Exception> void ejecutar(MetricasOperacion operacion, Orden<E> orden) throws E {
+		long inicio = operacion.iniciar();
+		try {
+			orden.ejecutar();
+		} catch (Throwable e) {
+			operacion.fallar(inicio);
+			throw e;
+		}
+		operacion.terminar(inicio);
+	}
+
+	/**
+	 * Llama a guardarInstantanea del modelo medido y lo anota en la operación guardarInstantanea
+	 * @throws IOException si falla la escritura de la instantánea o del diario
+	 * @throws IllegalStateException si el modelo no se creó con un fichero de instantánea
+	 */
+	public void guardarInstantanea() throws IOException {
+		ejecutar(guardarInstantanea, () -> modelo.guardarInstantanea());
+	}
+
+	/**
+	 * Llama a cerrar del modelo medido y lo anota en la operación cerrar
+	 * @throws IOException si falla la instantánea o el cierre del diario
+	 */
+	public void cerrar() throws IOException {
+		ejecutar(cerrar, () -> modelo.cerrar());
+	}
+
+	/**
+	 * Llama a abrirArchivo del modelo medido y lo anota en la operación abrirArchivo
+	 * @param directorio el directorio de los segmentos, que se crea si no existe
+	 * @throws IOException si no se puede abrir el archivo
+	 * @throws IllegalStateException si el modelo ya tiene un archivo
+	 */
+	public void abrirArchivo(Path directorio) throws IOException {
+		ejecutar(abrirArchivo, () -> modelo.abrirArchivo(directorio));
+	}
+
+	/**
+	 * Llama a archivar del modelo medido y lo anota en la operación archivar
+	 * @param corte el primer día cuyas reservas se quedan en memoria
+	 * @return el número de reservas archivadas
+	 * @throws IllegalArgumentException si el corte es nulo o no es posterior al corte anterior
+	 * @throws IOException si falla la escritura del segmento o de la instantánea
+	 * @throws IllegalStateException si el modelo no tiene archivo
+	 */
+	public int archivar(LocalDate corte) throws IOException, IllegalArgumentException {
+		return medir(archivar, () -> modelo.archivar(corte));
+	}
+
+	/**
+	 * Llama a getCorteArchivo del modelo medido y lo anota en la operación getCorteArchivo
+	 * @return el primer día cuyas reservas no están archivadas, o null si no hay nada archivado
+	 */
+	public LocalDate getCorteArchivo() {
+		return medir(getCorteArchivo, () -> modelo.getCorteArchivo());
+	}
+
+	/**
+	 * Llama a getAulas del modelo medido y lo anota en la operación getAulas
+	 * @return todas las aulas guardadas
+	 */
+	public List<Aula> getAulas() {
+		return medir(getAulas, () -> modelo.getAulas());
+	}
+
+	/**
+	 * Llama a getNumAulas del modelo medido y lo anota en la operación getNumAulas
+	 * @return el número de aulas guardadas
+	 */
+	public int getNumAulas() {
+		return medir(getNumAulas, () -> modelo.getNumAulas());
+	}
+
+	/**
+	 * Llama a representarAulas del modelo medido y lo anota en la operación representarAulas
+	 * @return un array con la representación de cada aula en forma de cadena
+	 */
+	public List<String> representarAulas() {
+		return medir(representarAulas, () -> modelo.representarAulas());
+	}
+
+	/**
+	 * Llama a representarAulas del modelo medido y lo anota en la operación representarAulasEnSalida
+	 * @param salida donde escribir las aulas, por ejemplo System.out o un Writer
+	 * @return el número de aulas escritas
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	public int representarAulas(Appendable salida) throws IOException, IllegalArgumentException {
+		return medir(representarAulasEnSalida, () -> modelo.representarAulas(salida));
+	}
+
+	/**
+	 * Llama a buscarAula del modelo medido y lo anota en la operación buscarAula
+	 * @param buscar el aula que estamos buscando
+	 * @return el aula buscada o null si no la encuentra
+	 */
+	public Aula buscarAula(Aula buscar) {
+		return medir(buscarAula, () -> modelo.buscarAula(buscar));
+	}
+
+	/**
+	 * Llama a insertarAula del modelo medido y lo anota en la operación insertarAula
+	 * @param insertar el aula que queremos guardar
+	 * @throws OperationNotSupportedException si se intenta insertar un aula nula, ya existente o se ha superado la capacidad
+	 */
+	public void insertarAula(Aula insertar) throws OperationNotSupportedException, IllegalArgumentException {
+		ejecutar(insertarAula, () -> modelo.insertarAula(insertar));
+	}
+
+	/**
+	 * Llama a borrarAula del modelo medido y lo anota en la operación borrarAula
+	 * @param borrar el aula que queremos borrar
+	 * @throws OperationNotSupportedException si se intenta borrar un aula nula o que no existe
+	 */
+	public void borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		ejecutar(borrarAula, () -> modelo.borrarAula(borrar));
+	}
+
+	/**
+	 * Llama a getProfesores del modelo medido y lo anota en la operación getProfesores
+	 * @return todos los profesores guardados
+	 */
+	public List<Profesor> getProfesores() {
+		return medir(getProfesores, () -> modelo.getProfesores());
+	}
+
+	/**
+	 * Llama a getNumProfesores del modelo medido y lo anota en la operación getNumProfesores
+	 * @return el número de profesores guardados
+	 */
+	public int getNumProfesores() {
+		return medir(getNumProfesores, () -> modelo.getNumProfesores());
+	}
+
+	/**
+	 * Llama a representarProfesores del modelo medido y lo anota en la operación representarProfesores
+	 * @return un array con la representación de cada profesor en forma de cadena
+	 */
+	public List<String> representarProfesores() {
+		return medir(representarProfesores, () -> modelo.representarProfesores());
+	}
+
+	/**
+	 * Llama a representarProfesores del modelo medido y lo anota en la operación representarProfesoresEnSalida
+	 * @param salida donde escribir los profesores, por ejemplo System.out o un Writer
+	 * @return el número de profesores escritos
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	public int representarProfesores(Appendable salida) throws IOException, IllegalArgumentException {
+		return medir(representarProfesoresEnSalida, () -> modelo.representarProfesores(salida));
+	}
+
+	/**
+	 * Llama a buscarProfesor del modelo medido y lo anota en la operación buscarProfesor
+	 * @param buscar el profesor que buscamos
+	 * @return el profesor buscado o null si no lo encuentra
+	 */
+	public Profesor buscarProfesor(Profesor buscar) {
+		return medir(buscarProfesor, () -> modelo.buscarProfesor(buscar));
+	}
+
+	/**
+	 * Llama a insertarProfesor del modelo medido y lo anota en la operación insertarProfesor
+	 * @param insertar el profesor que queremos guardar
+	 * @throws OperationNotSupportedException si se intenta insertar un profesor nulo, ya existente o se ha superado la capacidad
+	 */
+	public void insertarProfesor(Profesor insertar) throws OperationNotSupportedException, IllegalArgumentException {
+		ejecutar(insertarProfesor, () -> modelo.insertarProfesor(insertar));
+	}
+
+	/**
+	 * Llama a borrarProfesor del modelo medido y lo anota en la operación borrarProfesor
+	 * @param borrar el profesor que queremos borrar
+	 * @throws OperationNotSupportedException si se intenta borrar un profesor nulo o que no existe
+	 */
+	public void borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		ejecutar(borrarProfesor, () -> modelo.borrarProfesor(borrar));
+	}
+
+	/**
+	 * Llama a getReservas del modelo medido y lo anota en la operación getReservas
+	 * @return todas las reservas realizadas
+	 */
+	public List<Reserva> getReservas() {
+		return medir(getReservas, () -> modelo.getReservas());
+	}
+
+	/**
+	 * Llama a getNumReservas del modelo medido y lo anota en la operación getNumReservas
+	 * @return el número de reservas guardadas
+	 */
+	public int getNumReservas() {
+		return medir(getNumReservas, () -> modelo.getNumReservas());
+	}
+
+	/**
+	 * Llama a representarReservas del modelo medido y lo anota en la operación representarReservas
+	 * @return un array con la representación de cada reserva en forma de cadena
+	 */
+	public List<String> representarReservas() {
+		return medir(representarReservas, () -> modelo.representarReservas());
+	}
+
+	/**
+	 * Llama a representarReservas del modelo medido y lo anota en la operación representarReservasEnSalida
+	 * @param salida donde escribir las reservas, por ejemplo System.out o un Writer
+	 * @return el número de reservas escritas
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	public int representarReservas(Appendable salida) throws IOException, IllegalArgumentException {
+		return medir(representarReservasEnSalida, () -> modelo.representarReservas(salida));
+	}
+
+	/**
+	 * Llama a buscarReserva del modelo medido y lo anota en la operación buscarReserva
+	 * @param buscar la reserva que buscamos
+	 * @return la reserva buscada o null si no la encuentra
+	 */
+	public Reserva buscarReserva(Reserva buscar) {
+		return medir(buscarReserva, () -> modelo.buscarReserva(buscar));
+	}
+
+	/**
+	 * Llama a realizarReserva del modelo medido y lo anota en la operación realizarReserva
+	 * @param realizar la reserva a realizar
+	 * @throws OperationNotSupportedException si se intenta realizar una reserva nula, ya existente o se ha superado la capacidad
+	 */
+	public void realizarReserva(Reserva realizar) throws OperationNotSupportedException, IllegalArgumentException {
+		ejecutar(realizarReserva, () -> modelo.realizarReserva(realizar));
+	}
+
+	/**
+	 * Llama a reservarSiDisponible del modelo medido y lo anota en la operación reservarSiDisponible
+	 * @param realizar la reserva a realizar
+	 * @return RESERVADA si se ha realizado la reserva, OCUPADA si el aula ya estaba reservada, ARCHIVADA si la
+	 * permanencia es anterior al corte del archivo
+	 * @throws IllegalArgumentException si la reserva es nula
+	 */
+	public ResultadoReserva reservarSiDisponible(Reserva realizar) throws IllegalArgumentException {
+		return medir(reservarSiDisponible, () -> modelo.reservarSiDisponible(realizar));
+	}
+
+	/**
+	 * Llama a realizarReservas del modelo medido y lo anota en la operación realizarReservas
+	 * @param realizar las reservas a realizar
+	 * @throws OperationNotSupportedException si alguna reserva ya existe o está repetida en el lote
+	 */
+	public void realizarReservas(Collection<Reserva> realizar) throws OperationNotSupportedException, IllegalArgumentException {
+		ejecutar(realizarReservas, () -> modelo.realizarReservas(realizar));
+	}
+
+	/**
+	 * Llama a reservarSiDisponibles del modelo medido y lo anota en la operación reservarSiDisponibles
+	 * @param realizar las reservas a realizar
+	 * @return el resultado de cada reserva, en el mismo orden
+	 * @throws IllegalArgumentException si la lista o alguna de sus reservas es nula
+	 */
+	public ResultadoReserva[] reservarSiDisponibles(List<Reserva> realizar) throws IllegalArgumentException {
+		return medir(reservarSiDisponibles, () -> modelo.reservarSiDisponibles(realizar));
+	}
+
+	/**
+	 * Llama a anularReserva del modelo medido y lo anota en la operación anularReserva
+	 * @param anular la reserva a anular
+	 * @throws OperationNotSupportedException si se intenta anular una reserva nula o que no existe
+	 */
+	public void anularReserva(Reserva anular) throws OperationNotSupportedException, IllegalArgumentException {
+		ejecutar(anularReserva, () -> modelo.anularReserva(anular));
+	}
+
+	/**
+	 * Llama a getReservasAula del modelo medido y lo anota en la operación getReservasAula
+	 * @param aula el aula sobre la que están hechas las reservas
+	 * @return un array con todas las reservas sobre el aula indicada
+	 */
+	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
+		return medir(getReservasAula, () -> modelo.getReservasAula(aula));
+	}
+
+	/**
+	 * Llama a getReservasProfesor del modelo medido y lo anota en la operación getReservasProfesor
+	 * @param profesor el profesor a nombre del que están hechas las reservas
+	 * @return un array con todas las reservas a nombre del profesor indicado
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
+		return medir(getReservasProfesor, () -> modelo.getReservasProfesor(profesor));
+	}
+
+	/**
+	 * Llama a getReservasPermanencia del modelo medido y lo anota en la operación getReservasPermanencia
+	 * @param permanencia la fecha de las reservas
+	 * @return un array con todas las reservas de ese día y tramo
+	 */
+	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
+		return medir(getReservasPermanencia, () -> modelo.getReservasPermanencia(permanencia));
+	}
+
+	/**
+	 * Llama a getReservas del modelo medido y lo anota en la operación getReservasIntervalo
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del intervalo
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	public List<Reserva> getReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		return medir(getReservasIntervalo, () -> modelo.getReservas(desde, hasta));
+	}
+
+	/**
+	 * Llama a iterarReservas del modelo medido y lo anota en la operación iterarReservas
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return un iterador sobre las reservas del intervalo, en orden cronológico
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	public Iterator<Reserva> iterarReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		return medir(iterarReservas, () -> modelo.iterarReservas(desde, hasta));
+	}
+
+	/**
+	 * Llama a getReservasAula del modelo medido y lo anota en la operación getReservasAulaIntervalo
+	 * @param aula el aula reservada
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del aula en el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public List<Reserva> getReservasAula(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		return medir(getReservasAulaIntervalo, () -> modelo.getReservasAula(aula, desde, hasta));
+	}
+
+	/**
+	 * Llama a getReservasProfesor del modelo medido y lo anota en la operación getReservasProfesorIntervalo
+	 * @param profesor el profesor que ha reservado
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del profesor en el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		return medir(getReservasProfesorIntervalo, () -> modelo.getReservasProfesor(profesor, desde, hasta));
+	}
+
+	/**
+	 * Llama a consultarDisponibilidad del modelo medido y lo anota en la operación consultarDisponibilidad
+	 * @param aula el aula sobre la que queremos consultar la disponibilidad
+	 * @param permanencia el día que queremos comprobar si está reservada el aula
+	 * @return True si está disponible (no está reservada) y False si no está disponible (está reservada)
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		return medir(consultarDisponibilidad, () -> modelo.consultarDisponibilidad(aula, permanencia));
+	}
+
+	/**
+	 * Llama a getAulasDisponibles del modelo medido y lo anota en la operación getAulasDisponibles
+	 * @param permanencia el día y tramo a consultar
+	 * @return las aulas disponibles, en el orden en que se insertaron
+	 * @throws IllegalArgumentException si la permanencia es nula
+	 */
+	public List<Aula> getAulasDisponibles(Permanencia permanencia) throws IllegalArgumentException {
+		return medir(getAulasDisponibles, () -> modelo.getAulasDisponibles(permanencia));
+	}
+
+	/**
+	 * Llama a consultarDisponibilidad del modelo medido y lo anota en la operación consultarDisponibilidadIntervalo
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return True si el aula no tiene ninguna reserva en el intervalo, False si tiene alguna
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		return medir(consultarDisponibilidadIntervalo, () -> modelo.consultarDisponibilidad(aula, desde, hasta));
+	}
+
+	/**
+	 * Llama a getPrimeraPermanenciaLibre del modelo medido y lo anota en la operación getPrimeraPermanenciaLibre
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return la primera permanencia libre, o null si el aula está reservada en todo el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public Permanencia getPrimeraPermanenciaLibre(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		return medir(getPrimeraPermanenciaLibre, () -> modelo.getPrimeraPermanenciaLibre(aula, desde, hasta));
+	}
+
+	/**
+	 * Llama a getNumPermanenciasLibres del modelo medido y lo anota en la operación getNumPermanenciasLibres
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return el número de permanencias libres
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public long getNumPermanenciasLibres(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		return medir(getNumPermanenciasLibres, () -> modelo.getNumPermanenciasLibres(aula, desde, hasta));
+	}
+
+	/**
+	 * Llama a getPermanenciasLibres del modelo medido y lo anota en la operación getPermanenciasLibres
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las permanencias libres
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public List<Permanencia> getPermanenciasLibres(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		return medir(getPermanenciasLibres, () -> modelo.getPermanenciasLibres(aula, desde, hasta));
+	}
+}
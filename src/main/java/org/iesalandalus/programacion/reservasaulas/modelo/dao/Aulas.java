@@ -1,127 +1,160 @@
-package org.iesalandalus.programacion.reservasaulas.modelo.dao;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import javax.naming.OperationNotSupportedException;
-
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
-
-/**
- * Clase que guarda y define las operaciones que se pueden realizar sobre un conjunto de aulas.
- * @see Aula
- * @author Juan Antonio Manzano Plaza
- * @version 1
- *
- */
-public class Aulas {
-
-	private List<Aula> coleccionAulas;
-
-	/**
-	 * Constructor por defecto. Inicializa la coleccin.
-	 */
-	public Aulas() {
-
-		coleccionAulas = new ArrayList<Aula>();
-	}
-
-	/**
-	 * Constructor copia. Realiza copia profunda para evitar aliasing
-	 * @param aulas el objeto del que obtener los datos para inicializar
-	 */
-	public Aulas(Aulas aulas) {
-		setAulas(aulas);
-	}
-
-	/**
-	 * Guarda en la coleccin actual de aulas los que hay en la recibida como parmetro
-	 * @param aulas la coleccin a copiar
-	 * @throws IllegalArgumentException si se intenta copiar un conjunto de aulas nulas
-	 */
-	private void setAulas(Aulas aulas) throws IllegalArgumentException {
-		if(aulas==null)
-			throw new IllegalArgumentException("No se pueden copiar aulas nulas.");
-		this.coleccionAulas = copiaProfundaAulas(aulas.getAulas());
-	}
-
-	/**
-	 * Realiza la copia en profundidad de cada profesor para evitar aliasing
-	 * @param coleccionAulas la coleccin de aulas a copiar
-	 * @return una copia de la coleccin
-	 */
-	private List<Aula> copiaProfundaAulas(List<Aula> aulas) {
-		List<Aula> copia = new ArrayList<Aula>();
-		for(Aula a: aulas)
-			copia.add(new Aula(a));
-		return copia;
-	}
-
-	/**
-	 * Obtiene todas las aulas de la coleccin actual
-	 * @return una copia de la coleccin
-	 */
-	public List<Aula> getAulas() {
-		return copiaProfundaAulas(this.coleccionAulas);
-	}
-
-	/**
-	 * Obtiene el nmero de aulas que existen en la coleccin actual
-	 * @return el nmero de aulas
-	 */
-	public int getNumAulas() {
-		return this.coleccionAulas.size();
-	}
-
-	/**
-	 * Guarda un aula en la coleccin
-	 * @param aula el aula a guardar
-	 * @throws IllegalArgumentException si el aula es nula
-	 * @throws OperationNotSupportedException si el aula ya existe o se supera la capacidad
-	 */
-	public void insertar(Aula aula) throws OperationNotSupportedException, IllegalArgumentException {
-		if(aula==null)
-			throw new IllegalArgumentException("No se puede insertar un aula nula.");
-		if(this.coleccionAulas.contains(aula))
-			throw new OperationNotSupportedException("El aula ya existe.");
-		coleccionAulas.add(aula);
-	}
-
-	/**
-	 * Busca un aula en la coleccin
-	 * @param aula el aula a buscar
-	 * @return el aula buscada o null si no la encuentra
-	 */
-	public Aula buscar(Aula aula) {
-		if(aula==null)
-			return null;
-		if(this.coleccionAulas.indexOf(aula) == -1)
-			return null;
-		return this.coleccionAulas.get(this.coleccionAulas.indexOf(aula));
-	}
-
-	/**
-	 * Borra un aula de la coleccin
-	 * @param aula el aula a borrar
-	 * @throws IllegalArgumentException si el aula es nula
-	 * @throws OperationNotSupportedException si el aula no existe
-	 */
-	public void borrar(Aula aula) throws OperationNotSupportedException, IllegalArgumentException {
-		if(aula==null)
-			throw new IllegalArgumentException("No se puede borrar un aula nula.");
-		if(!this.coleccionAulas.remove(aula))
-			throw new OperationNotSupportedException("El aula a borrar no existe.");
-	}
-
-	/**
-	 * Obtiene las salidas de todas las aulas de la coleccin
-	 * @return la salida de las aulas
-	 */
-	public List<String> representar() {
-		List<String> representar = new ArrayList<String>();
-		for (Aula a : this.coleccionAulas)
-			representar.add(a.toString());
-		return representar;
-	}
-
-}
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+
+/**
+ * Clase que guarda y define las operaciones que se pueden realizar sobre un conjunto de aulas.
+ * Las aulas se guardan indexadas por su nombre, manteniendo el orden de inserción, de forma que
+ * insertar, buscar y borrar se realizan en tiempo constante. Las aulas guardadas son además las instancias
+ * canónicas que comparten las reservas.
+ * @see Aula
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ *
+ */
+public class Aulas {
+
+	private static final int TAMANO_BLOQUE = 8192;
+	private static final String SALTO_LINEA = System.lineSeparator();
+
+	private Map<String, Aula> coleccionAulas;
+
+	/**
+	 * Constructor por defecto. Inicializa la colección.
+	 */
+	public Aulas() {
+
+		coleccionAulas = new LinkedHashMap<String, Aula>();
+	}
+
+	/**
+	 * Constructor copia. Como las aulas son inmutables basta con copiar la colección, compartiendo sus elementos
+	 * @param aulas el objeto del que obtener los datos para inicializar
+	 */
+	public Aulas(Aulas aulas) {
+		setAulas(aulas);
+	}
+
+	/**
+	 * Guarda en la colección actual de aulas los que hay en la recibida como parámetro
+	 * @param aulas la colección a copiar
+	 * @throws IllegalArgumentException si se intenta copiar un conjunto de aulas nulas
+	 */
+	private void setAulas(Aulas aulas) throws IllegalArgumentException {
+		if(aulas==null)
+			throw new IllegalArgumentException("No se pueden copiar aulas nulas.");
+		this.coleccionAulas = new LinkedHashMap<String, Aula>(aulas.coleccionAulas);
+	}
+
+	/**
+	 * Obtiene todas las aulas de la colección actual
+	 * @return una copia de la colección, que comparte las aulas (inmutables) con la original
+	 */
+	public List<Aula> getAulas() {
+		return new ArrayList<Aula>(this.coleccionAulas.values());
+	}
+
+	/**
+	 * Obtiene el número de aulas que existen en la colección actual
+	 * @return el número de aulas
+	 */
+	public int getNumAulas() {
+		return this.coleccionAulas.size();
+	}
+
+	/**
+	 * Guarda un aula en la colección
+	 * @param aula el aula a guardar
+	 * @throws IllegalArgumentException si el aula es nula
+	 * @throws OperationNotSupportedException si el aula ya existe o se supera la capacidad
+	 */
+	public void insertar(Aula aula) throws OperationNotSupportedException, IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se puede insertar un aula nula.");
+		if(this.coleccionAulas.containsKey(aula.getNombre()))
+			throw new OperationNotSupportedException("El aula ya existe.");
+		coleccionAulas.put(aula.getNombre(), aula);
+	}
+
+	/**
+	 * Busca un aula en la colección
+	 * @param aula el aula a buscar
+	 * @return el aula buscada o null si no la encuentra
+	 */
+	public Aula buscar(Aula aula) {
+		if(aula==null)
+			return null;
+		return this.coleccionAulas.get(aula.getNombre());
+	}
+
+	/**
+	 * Obtiene la instancia canónica de un aula: la guardada en la colección con el mismo nombre, para que todas las
+	 * reservas de un aula compartan un único objeto en lugar de guardar cada una su copia
+	 * @param aula el aula de la que obtener la instancia canónica
+	 * @return el aula guardada con el mismo nombre o, si no hay ninguna, la misma aula recibida
+	 */
+	public Aula canonica(Aula aula) {
+		if(aula==null)
+			return null;
+		Aula guardada = this.coleccionAulas.get(aula.getNombre());
+		return guardada == null ? aula : guardada;
+	}
+
+	/**
+	 * Borra un aula de la colección
+	 * @param aula el aula a borrar
+	 * @throws IllegalArgumentException si el aula es nula
+	 * @throws OperationNotSupportedException si el aula no existe
+	 */
+	public void borrar(Aula aula) throws OperationNotSupportedException, IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se puede borrar un aula nula.");
+		if(this.coleccionAulas.remove(aula.getNombre()) == null)
+			throw new OperationNotSupportedException("El aula a borrar no existe.");
+	}
+
+	/**
+	 * Obtiene las salidas de todas las aulas de la colección
+	 * @return la salida de las aulas
+	 */
+	public List<String> representar() {
+		List<String> representar = new ArrayList<String>();
+		for (Aula a : this.coleccionAulas.values())
+			representar.add(a.toString());
+		return representar;
+	}
+
+	/**
+	 * Escribe la salida de todos las aulas de la colección, una por línea, sin construir la lista de cadenas.
+	 * Las líneas se acumulan en un único StringBuilder que se vuelca en la salida cada 8 KB
+	 * @param salida donde escribir las aulas
+	 * @return el número de aulas escritas
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	public int representar(Appendable salida) throws IOException, IllegalArgumentException {
+		if(salida==null)
+			throw new IllegalArgumentException("No se puede escribir en una salida nula.");
+		StringBuilder bloque = new StringBuilder(TAMANO_BLOQUE + 256);
+		int escritas = 0;
+		for(Aula a : this.coleccionAulas.values()) {
+			a.representar(bloque).append(SALTO_LINEA);
+			escritas++;
+			if(bloque.length() >= TAMANO_BLOQUE) {
+				salida.append(bloque);
+				bloque.setLength(0);
+			}
+		}
+		salida.append(bloque);
+		return escritas;
+	}
+
+}
@@ -0,0 +1,202 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+
+/**
+ * Calendario de ocupación de un aula, con un bit por permanencia. La posición de cada bit es la clave
+ * empaquetada de la permanencia, por lo que las permanencias consecutivas ocupan bits consecutivos y las
+ * consultas sobre un intervalo se resuelven de 64 en 64 permanencias con operaciones sobre palabras.
+ * <p>
+ * Los bits se guardan en páginas de 4096 permanencias (unos cinco años y medio) que se crean al ocupar la primera
+ * permanencia de la página y no se eliminan nunca; un intervalo sin páginas está libre. Cada palabra se actualiza
+ * de forma atómica, de modo que se puede consultar el calendario mientras otros hilos lo modifican.
+ * @see Reservas
+ * @see Permanencia#getClave()
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+final class Calendario {
+
+	/**
+	 * Valor devuelto por primeraLibre y primeraOcupada cuando no encuentran ninguna permanencia
+	 */
+	static final long NINGUNA = Long.MIN_VALUE;
+
+	private static final int BITS_PAGINA = 4096;
+	private static final int PALABRAS_PAGINA = BITS_PAGINA / Long.SIZE;
+
+	private final ConcurrentSkipListMap<Long, Pagina> paginas = new ConcurrentSkipListMap<Long, Pagina>();
+	private volatile Pagina ultima;
+
+	/**
+	 * Bits de un bloque de permanencias consecutivas
+	 */
+	private static final class Pagina {
+		private final long indice;
+		private final AtomicLongArray palabras = new AtomicLongArray(PALABRAS_PAGINA);
+
+		private Pagina(long indice) {
+			this.indice = indice;
+		}
+
+		/**
+		 * Cuenta los bits a uno entre dos posiciones de la página
+		 * @param inicio la primera posición, incluida
+		 * @param fin la última posición, incluida
+		 * @return el número de permanencias ocupadas
+		 */
+		private int contar(int inicio, int fin) {
+			int ocupadas = 0;
+			for(int w = inicio >>> 6; w <= fin >>> 6; w++)
+				ocupadas += Long.bitCount(palabras.get(w) & mascara(w, inicio, fin));
+			return ocupadas;
+		}
+
+		/**
+		 * Busca el primer bit con un valor entre dos posiciones de la página
+		 * @param inicio la primera posición, incluida
+		 * @param fin la última posición, incluida
+		 * @param ocupada True para buscar un bit a uno, False para buscar un bit a cero
+		 * @return la posición del primer bit con ese valor o -1 si no hay ninguno
+		 */
+		private int primera(int inicio, int fin, boolean ocupada) {
+			long invertir = ocupada ? 0 : -1L;
+			for(int w = inicio >>> 6; w <= fin >>> 6; w++) {
+				long buscados = (palabras.get(w) ^ invertir) & mascara(w, inicio, fin);
+				if(buscados != 0)
+					return (w << 6) + Long.numberOfTrailingZeros(buscados);
+			}
+			return -1;
+		}
+
+		/**
+		 * Calcula qué bits de una palabra quedan dentro de un intervalo de posiciones de la página
+		 * @param w el número de palabra
+		 * @param inicio la primera posición, incluida
+		 * @param fin la última posición, incluida
+		 * @return la máscara con los bits del intervalo a uno
+		 */
+		private static long mascara(int w, int inicio, int fin) {
+			long mascara = -1L;
+			if(w == inicio >>> 6)
+				mascara &= -1L << inicio;
+			if(w == fin >>> 6)
+				mascara &= -1L >>> (63 - (fin & 63));
+			return mascara;
+		}
+	}
+
+	/**
+	 * Marca una permanencia como ocupada
+	 * @param clave la clave de la permanencia
+	 */
+	void ocupar(long clave) {
+		Pagina pagina = pagina(Math.floorDiv(clave, BITS_PAGINA), true);
+		int bit = Math.toIntExact(Math.floorMod(clave, BITS_PAGINA));
+		pagina.palabras.getAndAccumulate(bit >>> 6, 1L << bit, (a, b) -> a | b);
+	}
+
+	/**
+	 * Marca una permanencia como libre
+	 * @param clave la clave de la permanencia
+	 */
+	void liberar(long clave) {
+		Pagina pagina = pagina(Math.floorDiv(clave, BITS_PAGINA), false);
+		if(pagina != null) {
+			int bit = Math.toIntExact(Math.floorMod(clave, BITS_PAGINA));
+			pagina.palabras.getAndAccumulate(bit >>> 6, ~(1L << bit), (a, b) -> a & b);
+		}
+	}
+
+	/**
+	 * Comprueba si una permanencia está ocupada
+	 * @param clave la clave de la permanencia
+	 * @return True si está ocupada, False si está libre
+	 */
+	boolean estaOcupada(long clave) {
+		Pagina pagina = pagina(Math.floorDiv(clave, BITS_PAGINA), false);
+		if(pagina == null)
+			return false;
+		int bit = Math.toIntExact(Math.floorMod(clave, BITS_PAGINA));
+		return (pagina.palabras.get(bit >>> 6) & (1L << bit)) != 0;
+	}
+
+	/**
+	 * Cuenta las permanencias ocupadas en un intervalo. Sólo recorre las páginas que existen dentro del intervalo
+	 * @param desde la clave de la primera permanencia, incluida
+	 * @param hasta la clave de la última permanencia, incluida
+	 * @return el número de permanencias ocupadas
+	 */
+	long contarOcupadas(long desde, long hasta) {
+		long ocupadas = 0;
+		for(Pagina pagina : paginas.subMap(Math.floorDiv(desde, BITS_PAGINA), true, Math.floorDiv(hasta, BITS_PAGINA), true).values()) {
+			long base = pagina.indice * BITS_PAGINA;
+			ocupadas += pagina.contar((int) Math.max(desde - base, 0), (int) Math.min(hasta - base, BITS_PAGINA - 1));
+		}
+		return ocupadas;
+	}
+
+	/**
+	 * Busca la primera permanencia libre de un intervalo. Como las páginas sólo existen donde ha habido reservas,
+	 * el recorrido termina como mucho en la primera página que falte
+	 * @param desde la clave de la primera permanencia, incluida
+	 * @param hasta la clave de la última permanencia, incluida
+	 * @return la clave de la primera permanencia libre o NINGUNA si todas están ocupadas
+	 */
+	long primeraLibre(long desde, long hasta) {
+		long posicion = desde;
+		while(posicion <= hasta) {
+			long indice = Math.floorDiv(posicion, BITS_PAGINA);
+			Pagina pagina = pagina(indice, false);
+			if(pagina == null)
+				return posicion;
+			long base = indice * BITS_PAGINA;
+			int libre = pagina.primera((int) (posicion - base), (int) Math.min(hasta - base, BITS_PAGINA - 1), false);
+			if(libre >= 0)
+				return base + libre;
+			posicion = base + BITS_PAGINA;
+		}
+		return NINGUNA;
+	}
+
+	/**
+	 * Busca la primera permanencia ocupada de un intervalo. Sólo recorre las páginas que existen dentro del intervalo
+	 * @param desde la clave de la primera permanencia, incluida
+	 * @param hasta la clave de la última permanencia, incluida
+	 * @return la clave de la primera permanencia ocupada o NINGUNA si todas están libres
+	 */
+	long primeraOcupada(long desde, long hasta) {
+		if(desde > hasta)
+			return NINGUNA;
+		for(Pagina pagina : paginas.subMap(Math.floorDiv(desde, BITS_PAGINA), true, Math.floorDiv(hasta, BITS_PAGINA), true).values()) {
+			long base = pagina.indice * BITS_PAGINA;
+			int ocupada = pagina.primera((int) Math.max(desde - base, 0), (int) Math.min(hasta - base, BITS_PAGINA - 1), true);
+			if(ocupada >= 0)
+				return base + ocupada;
+		}
+		return NINGUNA;
+	}
+
+	/**
+	 * Obtiene una página, usando la última consultada si es la misma, ya que las inserciones suelen ir seguidas
+	 * @param indice el índice de la página
+	 * @param crear True para crear la página si no existe
+	 * @return la página, o null si no existe y no se ha pedido crearla
+	 */
+	private Pagina pagina(long indice, boolean crear) {
+		Pagina pagina = ultima;
+		if(pagina != null && pagina.indice == indice)
+			return pagina;
+		pagina = paginas.get(indice);
+		if(pagina == null) {
+			if(!crear)
+				return null;
+			pagina = paginas.computeIfAbsent(indice, Pagina::new);
+		}
+		ultima = pagina;
+		return pagina;
+	}
+}
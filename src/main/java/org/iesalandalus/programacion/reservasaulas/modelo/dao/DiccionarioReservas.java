@@ -0,0 +1,162 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+
+/**
+ * Diccionario que asigna un identificador entero a cada aula y a cada profesor de las reservas, para que las
+ * colecciones que guardan las reservas como tipos primitivos guarden sólo los identificadores. Los identificadores
+ * son consecutivos desde cero y no se reutilizan. No está sincronizado: lo protege el cerrojo de la colección que
+ * lo usa.
+ * @see ReservasColumnas
+ * @see ReservasDirectas
+ * @see ReservasMapeadas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+final class DiccionarioReservas {
+
+	/**
+	 * Identificador que no corresponde a ningún aula ni profesor
+	 */
+	static final int NINGUNO = -1;
+
+	private final List<Aula> aulas = new ArrayList<Aula>();
+	private final Map<String, Integer> idsAulas = new HashMap<String, Integer>();
+	private final List<Profesor> profesores = new ArrayList<Profesor>();
+	private final Map<String, Integer> idsProfesores = new HashMap<String, Integer>();
+
+	/**
+	 * Método get para el aula de un identificador
+	 * @param id el identificador del aula
+	 * @return el aula
+	 */
+	Aula getAula(int id) {
+		return aulas.get(id);
+	}
+
+	/**
+	 * Método get para el profesor de un identificador
+	 * @param id el identificador del profesor
+	 * @return el profesor
+	 */
+	Profesor getProfesor(int id) {
+		return profesores.get(id);
+	}
+
+	/**
+	 * Método get para el número de aulas registradas
+	 * @return el número de aulas, que es también el siguiente identificador de aula
+	 */
+	int getNumAulas() {
+		return aulas.size();
+	}
+
+	/**
+	 * Método get para el número de profesores registrados
+	 * @return el número de profesores, que es también el siguiente identificador de profesor
+	 */
+	int getNumProfesores() {
+		return profesores.size();
+	}
+
+	/**
+	 * Obtiene el identificador de un aula, o NINGUNO si no se ha registrado
+	 * @param aula el aula a buscar
+	 * @return su identificador o NINGUNO
+	 */
+	int idAula(Aula aula) {
+		Integer id = idsAulas.get(aula.getNombre());
+		return id == null ? NINGUNO : id;
+	}
+
+	/**
+	 * Obtiene el identificador de un aula, registrándola si es la primera vez que aparece
+	 * @param aula el aula a registrar
+	 * @return su identificador
+	 */
+	int registrarAula(Aula aula) {
+		Integer id = idsAulas.get(aula.getNombre());
+		if(id == null) {
+			id = aulas.size();
+			aulas.add(aula);
+			idsAulas.put(aula.getNombre(), id);
+		}
+		return id;
+	}
+
+	/**
+	 * Obtiene el identificador que registrarProfesor daría a un profesor sin registrarlo: el del último registrado
+	 * con su nombre si tiene sus mismos datos, o NINGUNO si registrarlo crearía un identificador nuevo
+	 * @param profesor el profesor a buscar
+	 * @return su identificador o NINGUNO
+	 */
+	int idProfesor(Profesor profesor) {
+		Integer id = idsProfesores.get(profesor.getNombre());
+		if(id != null) {
+			Profesor registrado = profesores.get(id);
+			if(registrado == profesor || (registrado.getCorreo().equals(profesor.getCorreo())
+					&& (registrado.getTelefono() == null ? profesor.getTelefono() == null
+							: registrado.getTelefono().equals(profesor.getTelefono()))))
+				return id;
+		}
+		return NINGUNO;
+	}
+
+	/**
+	 * Obtiene el identificador de un profesor, registrándolo si es la primera vez que aparece. Un profesor con el
+	 * mismo nombre que otro ya registrado pero con otros datos recibe un identificador nuevo, para que sus reservas
+	 * se devuelvan con los datos con los que se hicieron
+	 * @param profesor el profesor a registrar
+	 * @return su identificador
+	 */
+	int registrarProfesor(Profesor profesor) {
+		int id = idProfesor(profesor);
+		if(id != NINGUNO)
+			return id;
+		id = profesores.size();
+		profesores.add(profesor);
+		idsProfesores.put(profesor.getNombre(), id);
+		return id;
+	}
+
+	/**
+	 * Obtiene los identificadores que corresponden a un profesor, que puede tener varios si sus reservas se hicieron
+	 * con datos distintos
+	 * @param profesor el profesor a buscar
+	 * @return los identificadores del profesor, que pueden ser ninguno
+	 */
+	int[] idsProfesor(Profesor profesor) {
+		Integer ultimo = idsProfesores.get(profesor.getNombre());
+		if(ultimo == null)
+			return new int[0];
+		int[] ids = new int[] { ultimo };
+		for(int id = 0; id < ultimo; id++) {
+			if(profesores.get(id).getNombre().equals(profesor.getNombre())) {
+				ids = Arrays.copyOf(ids, ids.length + 1);
+				ids[ids.length - 1] = id;
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Comprueba si un identificador está entre los de un profesor. El caso habitual, un solo identificador, se
+	 * reduce a comparar dos enteros
+	 * @param ids los identificadores del profesor
+	 * @param id el identificador a comprobar
+	 * @return True si es alguno de ellos
+	 */
+	static boolean contiene(int[] ids, int id) {
+		for(int i = 0; i < ids.length; i++)
+			if(ids[i] == id)
+				return true;
+		return false;
+	}
+}
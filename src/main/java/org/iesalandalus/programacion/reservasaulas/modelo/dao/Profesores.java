@@ -1,126 +1,163 @@
-package org.iesalandalus.programacion.reservasaulas.modelo.dao;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import javax.naming.OperationNotSupportedException;
-
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
-
-/**
- * Clase que guarda y define las operaciones que se pueden realizar sobre un conjunto de profesores
- * @see Profesor
- * @author Juan Antonio Manzano Plaza
- * @version 1
- *
- */
-public class Profesores {
-
-	private List<Profesor> coleccionProfesores;
-
-	/**
-	 * Constructor por defecto. Inicializa la coleccin de profesores.
-	 */
-	public Profesores() {
-		coleccionProfesores = new ArrayList<Profesor>();
-	}
-
-	/**
-	 * Constructor copia. Realiza copia profunda para evitar aliasing
-	 * @param profesores el objeto del que obtener los datos para inicializar
-	 */
-	public Profesores(Profesores profesores) {
-		setProfesores(profesores);
-	}
-
-	/**
-	 * Guarda en la coleccin actual de profesores los que hay en la recibida como parmetro
-	 * @param profesores la coleccin a copiar
-	 * @throws IllegalArgumentException si se intenta copiar un conjunto de profesores nulos
-	 */
-	private void setProfesores(Profesores profesores) throws IllegalArgumentException {
-		if(profesores==null)
-			throw new IllegalArgumentException("No se pueden copiar profesores nulos.");
-		this.coleccionProfesores = copiaProfundaProfesores(profesores.getProfesores());
-	}
-
-	/**
-	 * Realiza la copia en profundidad de cada profesor para evitar aliasing
-	 * @param profesores la coleccin de profesores a copiar
-	 * @return una copia de la coleccin
-	 */
-	private List<Profesor> copiaProfundaProfesores(List<Profesor> profesores) {
-		List<Profesor> copia = new ArrayList<Profesor>();
-		for(Profesor p: profesores)
-			copia.add(new Profesor(p));
-		return copia;
-	}
-
-	/**
-	 * Obtiene todos los profesores de la coleccin actual. Realiza una copia para evitar aliasing
-	 * @return una copia de la coleccin
-	 */
-	public List<Profesor> getProfesores() {
-		return copiaProfundaProfesores(this.coleccionProfesores);
-	}
-
-	/**
-	 * Obtiene el nmero de profesores que existen en la coleccin actual
-	 * @return el nmero de profesores
-	 */
-	public int getNumProfesores() {
-		return this.coleccionProfesores.size();
-	}
-
-	/**
-	 * Guarda un profesor en la coleccin
-	 * @param profesor el profesor a guardar
-	 * @throws IllegalArgumentException si el profesor es nulo
-	 * @throws OperationNotSupportedException si el profesor ya existe o se supera la capacidad
-	 */
-	public void insertar(Profesor profesor) throws OperationNotSupportedException, IllegalArgumentException {
-		if(profesor==null)
-			throw new IllegalArgumentException("No se puede insertar un profesor nulo.");
-		if(this.coleccionProfesores.contains(profesor))
-			throw new OperationNotSupportedException("El profesor ya existe.");
-		coleccionProfesores.add(profesor);
-	}
-
-	/**
-	 * Busca un profesor en la coleccin
-	 * @param profesor el profesor a buscar
-	 * @return el profesor buscado o null si no lo encuentra
-	 */
-	public Profesor buscar(Profesor profesor) {
-		if(profesor==null)
-			return null;
-		if(this.coleccionProfesores.indexOf(profesor) == -1)
-			return null;
-		return this.coleccionProfesores.get(this.coleccionProfesores.indexOf(profesor));
-	}
-
-	/**
-	 * Borra un profesor de la coleccin
-	 * @param profesor el profesor a borrar
-	 * @throws IllegalArgumentException si el profesor es nulo
-	 * @throws OperationNotSupportedException si el profesor no existe
-	 */
-	public void borrar(Profesor profesor) throws OperationNotSupportedException, IllegalArgumentException {
-		if(profesor==null)
-			throw new IllegalArgumentException("No se puede borrar un profesor nulo.");
-		if(!this.coleccionProfesores.remove(profesor))
-			throw new OperationNotSupportedException("El profesor a borrar no existe.");
-	}
-
-	/**
-	 * Obtiene las salidas de todos los profesores de la coleccin
-	 * @return la salida de los profesores
-	 */
-	public List<String> representar() {
-		List<String> representar = new ArrayList<String>();
-		for(Profesor p : this.coleccionProfesores)
-			representar.add(p.toString());
-		return representar;
-	}
-
-}
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+
+/**
+ * Clase que guarda y define las operaciones que se pueden realizar sobre un conjunto de profesores.
+ * Los profesores se guardan indexados por su nombre, manteniendo el orden de inserción, de forma que
+ * insertar, buscar y borrar se realizan en tiempo constante. Los profesores guardados son además las
+ * instancias canónicas que comparten las reservas.
+ * @see Profesor
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ *
+ */
+public class Profesores {
+
+	private static final int TAMANO_BLOQUE = 8192;
+	private static final String SALTO_LINEA = System.lineSeparator();
+
+	private Map<String, Profesor> coleccionProfesores;
+
+	/**
+	 * Constructor por defecto. Inicializa la colección de profesores.
+	 */
+	public Profesores() {
+		coleccionProfesores = new LinkedHashMap<String, Profesor>();
+	}
+
+	/**
+	 * Constructor copia. Como los profesores son inmutables basta con copiar la colección, compartiendo sus elementos
+	 * @param profesores el objeto del que obtener los datos para inicializar
+	 */
+	public Profesores(Profesores profesores) {
+		setProfesores(profesores);
+	}
+
+	/**
+	 * Guarda en la colección actual de profesores los que hay en la recibida como parámetro
+	 * @param profesores la colección a copiar
+	 * @throws IllegalArgumentException si se intenta copiar un conjunto de profesores nulos
+	 */
+	private void setProfesores(Profesores profesores) throws IllegalArgumentException {
+		if(profesores==null)
+			throw new IllegalArgumentException("No se pueden copiar profesores nulos.");
+		this.coleccionProfesores = new LinkedHashMap<String, Profesor>(profesores.coleccionProfesores);
+	}
+
+	/**
+	 * Obtiene todos los profesores de la colección actual. Realiza una copia de la lista para evitar aliasing
+	 * @return una copia de la colección, que comparte los profesores (inmutables) con la original
+	 */
+	public List<Profesor> getProfesores() {
+		return new ArrayList<Profesor>(this.coleccionProfesores.values());
+	}
+
+	/**
+	 * Obtiene el número de profesores que existen en la colección actual
+	 * @return el número de profesores
+	 */
+	public int getNumProfesores() {
+		return this.coleccionProfesores.size();
+	}
+
+	/**
+	 * Guarda un profesor en la colección
+	 * @param profesor el profesor a guardar
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 * @throws OperationNotSupportedException si el profesor ya existe o se supera la capacidad
+	 */
+	public void insertar(Profesor profesor) throws OperationNotSupportedException, IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se puede insertar un profesor nulo.");
+		if(this.coleccionProfesores.containsKey(profesor.getNombre()))
+			throw new OperationNotSupportedException("El profesor ya existe.");
+		coleccionProfesores.put(profesor.getNombre(), profesor);
+	}
+
+	/**
+	 * Busca un profesor en la colección
+	 * @param profesor el profesor a buscar
+	 * @return el profesor buscado o null si no lo encuentra
+	 */
+	public Profesor buscar(Profesor profesor) {
+		if(profesor==null)
+			return null;
+		return this.coleccionProfesores.get(profesor.getNombre());
+	}
+
+	/**
+	 * Obtiene la instancia canónica de un profesor: la guardada en la colección si tiene los mismos datos, para que
+	 * todas las reservas de un profesor compartan un único objeto en lugar de guardar cada una su copia
+	 * @param profesor el profesor del que obtener la instancia canónica
+	 * @return el profesor guardado si tiene el mismo nombre, correo y teléfono; si no, el mismo profesor recibido
+	 */
+	public Profesor canonico(Profesor profesor) {
+		if(profesor==null)
+			return null;
+		Profesor guardado = this.coleccionProfesores.get(profesor.getNombre());
+		if(guardado == null || guardado == profesor || !guardado.getCorreo().equals(profesor.getCorreo())
+				|| !Objects.equals(guardado.getTelefono(), profesor.getTelefono()))
+			return profesor;
+		return guardado;
+	}
+
+	/**
+	 * Borra un profesor de la colección
+	 * @param profesor el profesor a borrar
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 * @throws OperationNotSupportedException si el profesor no existe
+	 */
+	public void borrar(Profesor profesor) throws OperationNotSupportedException, IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se puede borrar un profesor nulo.");
+		if(this.coleccionProfesores.remove(profesor.getNombre()) == null)
+			throw new OperationNotSupportedException("El profesor a borrar no existe.");
+	}
+
+	/**
+	 * Obtiene las salidas de todos los profesores de la colección
+	 * @return la salida de los profesores
+	 */
+	public List<String> representar() {
+		List<String> representar = new ArrayList<String>();
+		for(Profesor p : this.coleccionProfesores.values())
+			representar.add(p.toString());
+		return representar;
+	}
+
+	/**
+	 * Escribe la salida de todos los profesores de la colección, una por línea, sin construir la lista de cadenas.
+	 * Las líneas se acumulan en un único StringBuilder que se vuelca en la salida cada 8 KB
+	 * @param salida donde escribir los profesores
+	 * @return el número de profesores escritos
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	public int representar(Appendable salida) throws IOException, IllegalArgumentException {
+		if(salida==null)
+			throw new IllegalArgumentException("No se puede escribir en una salida nula.");
+		StringBuilder bloque = new StringBuilder(TAMANO_BLOQUE + 256);
+		int escritos = 0;
+		for(Profesor p : this.coleccionProfesores.values()) {
+			p.representar(bloque).append(SALTO_LINEA);
+			escritos++;
+			if(bloque.length() >= TAMANO_BLOQUE) {
+				salida.append(bloque);
+				bloque.setLength(0);
+			}
+		}
+		salida.append(bloque);
+		return escritos;
+	}
+
+}
@@ -1,215 +1,1130 @@
-package org.iesalandalus.programacion.reservasaulas.modelo.dao;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import javax.naming.OperationNotSupportedException;
-
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
-
-/**
- * Clase que guarda y define las operaciones que se pueden realizar sobre un conjunto de reservas.
- * @see Reserva
- * @author Juan Antonio Manzano Plaza
- * @version 1
- *
- */
-public class Reservas {
-
-	private List<Reserva> coleccionReservas;
-
-	/**
-	 * Constructor por defecto. Inicializa el nmero de profesores a cero
-	 */
-	public Reservas() {
-		coleccionReservas = new ArrayList<Reserva>();
-	}
-
-	/**
-	 * Constructor copia. Realiza copia profunda para evitar aliasing
-	 * @param reservas el objeto del que obtener los datos para inicializar
-	 */
-	public Reservas(Reservas reservas) {
-		setReservas(reservas);
-	}
-
-	/**
-	 * Guarda en la coleccin actual de reservas los que hay en la coleccin recibida como parmetro
-	 * @param reservas la coleccin a copiar
-	 * @throws IllegalArgumentException si se intenta copiar un conjunto de reservas nulo
-	 */
-	private void setReservas(Reservas reservas) throws IllegalArgumentException {
-		if(reservas==null)
-			throw new IllegalArgumentException("No se pueden copiar reservas nulas.");
-		this.coleccionReservas = copiaProfundaReservas(reservas.getReservas());
-	}
-
-	/**
-	 * Realiza la copia en profundidad de cada reserva para evitar aliasing
-	 * @param reservas la coleccin de reservas a copiar
-	 * @return una copia de la coleccin
-	 */
-	private List<Reserva> copiaProfundaReservas(List<Reserva> reservas) {
-		List<Reserva> copia = new ArrayList<Reserva>();
-		for(Reserva r : reservas)
-			copia.add(new Reserva(r));
-		return copia;
-	}
-
-	/**
-	 * Obtiene todas las reservas de la coleccin actual. Realiza una copia para evitar aliasing
-	 * @return una copia de la coleccin
-	 */
-	public List<Reserva> getReservas() {
-		return copiaProfundaReservas(this.coleccionReservas);
-	}
-
-	/**
-	 * Obtiene el nmero de reservas que existen en la coleccin actual
-	 * @return el nmero de reservas
-	 */
-	public int getNumReservas() {
-		return this.coleccionReservas.size();
-	}
-
-	/**
-	 * Guarda una reserva en la coleccin
-	 * @param reserva la reserva a guardar
-	 * @throws IllegalArgumentException si la reserva es nula
-	 * @throws OperationNotSupportedException si la reserva ya existe o se supera la capacidad
-	 */
-	public void insertar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException{
-		if(reserva==null)
-			throw new IllegalArgumentException("No se puede realizar una reserva nula.");
-		if(this.coleccionReservas.contains(reserva))
-			throw new OperationNotSupportedException("La reserva ya existe.");
-		coleccionReservas.add(reserva);
-	}
-
-	/**
-	 * Busca una reserva en la coleccin
-	 * @param reserva la reserva a buscar
-	 * @return la reserva buscada o null si no la encuentra
-	 */
-	public Reserva buscar(Reserva reserva) {
-		if(reserva==null)
-			return null;
-		if(this.coleccionReservas.indexOf(reserva) == -1)
-			return null;
-		return this.coleccionReservas.get(this.coleccionReservas.indexOf(reserva));
-	}
-
-	/**
-	 * Borra una reserva de la coleccin
-	 * @param reserva la reserva a borrar
-	 * @throws IllegalArgumentException si la reserva es nula
-	 * @throws OperationNotSupportedException si la reserva no existe
-	 */
-	public void borrar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException {
-		if(reserva==null)
-			throw new IllegalArgumentException("No se puede anular una reserva nula.");
-		if(!this.coleccionReservas.remove(reserva))
-			throw new OperationNotSupportedException("La reserva a anular no existe.");
-	}
-
-	/**
-	 * Obtiene las salidas de todas las reservas de la coleccin
-	 * @return la salida de las reservas
-	 */
-	public List<String> representar() {
-		List<String> representar = new ArrayList<String>();
-		for(Reserva r : this.coleccionReservas)
-			representar.add(r.toString());
-		return representar;
-	}
-
-	/**
-	 * Obtiene las reservas a nombre de un profesor indicado
-	 * @param profesor el profesor que ha reservado
-	 * @return las reservas del profesor
-	 * @throws IllegalArgumentException si el profesor es nulo
-	 */
-	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
-		if(profesor==null)
-			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
-		List<Reserva> devolver = new ArrayList<Reserva>();
-		for(Reserva r : this.coleccionReservas) {
-			if(r.getProfesor().equals(profesor))
-				devolver.add(new Reserva(r));
-		}
-		return devolver;
-	}
-
-	/**
-	 * Obtiene las reservas realizadas a un aula indicada
-	 * @param aula el aula reservada
-	 * @return las reservas del aula
-	 * @throws IllegalArgumentException si el aula es nula
-	 */
-	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
-		if(aula==null)
-			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
-		List<Reserva> devolver = new ArrayList<Reserva>();
-		for(Reserva r : this.coleccionReservas) {
-			if(r.getAula().equals(aula))
-				devolver.add(new Reserva(r));
-		}
-		return devolver;
-	}
-
-	/*
-	 * public List<Reserva> getReservasAula(Aula aula) {
-		if(aula==null)
-			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
-		List<Reserva> reservaAula = new ArrayList<>();
-
-		for (Reserva reserva : coleccionReservas) {
-                  if( coleccionReservas.contains(aula))
-
-				reservaAula.add(new Reserva(reserva));
-
-			}
-
-		return reservaAula;
-	}
-	 */
-
-	/**
-	 * Obtiene las reservas realizadas en una fecha y tramo concretos
-	 * @param permanencia la fecha y el tramo de las reservas
-	 * @return las reservas de esa fecha y tramo
-	 * @throws IllegalArgumentException si la permanencia es nula
-	 */
-	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
-		if(permanencia==null)
-			throw new IllegalArgumentException("No se pueden consultar las reservas de una permanencia nula.");
-		List<Reserva> devolver = new ArrayList<Reserva>();
-		for(Reserva r : this.coleccionReservas) {
-			if(r.getPermanencia().equals(permanencia))
-				devolver.add(new Reserva(r));
-		}
-		return devolver;
-	}
-
-	/**
-	 * Comprueba si un aula est disponible en una fecha y tramos indicados
-	 * @param aula el aula a comprobar
-	 * @param permanencia la fecha y tramo en las que comprobar el aula
-	 * @return True si est disponible, False si est reservada
-	 */
-	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
-		if(aula==null)
-			throw new IllegalArgumentException("No se puede consultar la disponibilidad de un aula nula.");
-		if(permanencia==null)
-			throw new IllegalArgumentException("No se puede consultar la disponibilidad de una permanencia nula.");
-		for(Reserva r : this.coleccionReservas) {
-			if(r.getAula().equals(aula) && r.getPermanencia().equals(permanencia))
-				return false;
-		}
-		return true;
-	}
-
-}
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+
+/**
+ * Clase que guarda y define las operaciones que se pueden realizar sobre un conjunto de reservas.
+ * Las reservas se guardan en tres índices (por aula, por profesor y por permanencia) que se actualizan en
+ * cada inserción y borrado, de forma que las consultas sólo recorren las reservas que forman parte del
+ * resultado. La ocupación de cada aula se guarda además en un mapa por permanencia, con el que se consulta
+ * la disponibilidad y se detectan reservas repetidas en tiempo constante, y en un calendario de bits con el que
+ * se consulta la disponibilidad en un intervalo de permanencias. El índice por permanencia está ordenado por la
+ * clave empaquetada de la permanencia, por lo que también resuelve las consultas entre dos fechas, y cada profesor
+ * tiene además un índice propio que agrupa sus reservas en páginas de 64 permanencias consecutivas (32 días),
+ * ordenadas del mismo modo, para consultar sus reservas entre dos fechas sin recorrer las de los demás.
+ * <p>
+ * La clase admite accesos concurrentes. Cada reserva recibe un número de orden al insertarse y cada lista de los
+ * índices se mantiene ordenada por ese número bajo su propio cerrojo, de modo que las consultas conservan el orden
+ * de inserción y sólo compiten las operaciones sobre la misma clave. La lista completa de reservas se obtiene
+ * mezclando las listas del índice por aula. La ocupación decide qué inserción o borrado gana cuando dos hilos
+ * compiten por la misma aula y permanencia; las consultas que se hacen mientras otros hilos modifican la colección
+ * pueden ver la reserva en curso en unos índices y todavía no en otros. Las inserciones y borrados sobre una misma
+ * aula no deben solaparse entre sí, algo que ModeloReservasAulas garantiza con un cerrojo por aula.
+ * @see Reserva
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ *
+ */
+public class Reservas {
+
+	private ConcurrentHashMap<String, ListaIndice> indiceAula;
+	private ConcurrentHashMap<String, ListaIndice> indiceProfesor;
+	private ConcurrentSkipListMap<Long, ListaIndice> indicePermanencia;
+	private ConcurrentHashMap<String, ConcurrentSkipListMap<Long, ListaIndice>> paginasProfesor;
+	private ConcurrentHashMap<String, ConcurrentHashMap<Permanencia, Entrada>> ocupacion;
+	private ConcurrentHashMap<String, Calendario> calendarios;
+	private AtomicLong siguienteOrden;
+	private AtomicInteger numReservas;
+	private volatile boolean comprobacionIndices;
+	private static final int TAMANO_BLOQUE = 8192;
+	private static final String SALTO_LINEA = System.lineSeparator();
+	private static final Comparator<Entrada> POR_ORDEN = Comparator.comparingLong(e -> e.orden);
+	private static final int BITS_PAGINA_PROFESOR = 6;
+
+	/**
+	 * Reserva guardada junto con su número de orden en la colección
+	 */
+	private static final class Entrada {
+		private final Reserva reserva;
+		private final long orden;
+
+		private Entrada(Reserva reserva, long orden) {
+			this.reserva = reserva;
+			this.orden = orden;
+		}
+	}
+
+	/**
+	 * Lista de reservas asociada a una clave de un índice, ordenada por número de orden y protegida por su propio
+	 * monitor. Una lista que queda vacía se retira del índice y ya no admite más reservas.
+	 */
+	private static final class ListaIndice {
+		private final List<Entrada> entradas = new ArrayList<Entrada>(4);
+		private boolean retirada;
+
+		/**
+		 * Inserta una entrada en su posición, casi siempre al final
+		 * @param entrada la entrada a insertar
+		 * @return False si la lista ya se había retirado del índice
+		 */
+		private synchronized boolean anadir(Entrada entrada) {
+			if(retirada)
+				return false;
+			int i = entradas.size();
+			while(i > 0 && entradas.get(i - 1).orden > entrada.orden)
+				i--;
+			entradas.add(i, entrada);
+			return true;
+		}
+
+		/**
+		 * Quita una entrada, buscándola por su número de orden
+		 * @param entrada la entrada a quitar
+		 * @return True si la lista ha quedado vacía y se ha retirado
+		 */
+		private synchronized boolean quitar(Entrada entrada) {
+			int posicion = posicion(entrada.orden);
+			if(posicion < entradas.size() && entradas.get(posicion) == entrada)
+				entradas.remove(posicion);
+			retirada = entradas.isEmpty();
+			return retirada;
+		}
+
+		/**
+		 * Quita varias entradas en una sola pasada, compactando la lista desde la primera que se quita. Como ambas
+		 * listas están ordenadas por número de orden basta con recorrerlas a la vez
+		 * @param quitar las entradas a quitar, ordenadas por número de orden
+		 * @return True si la lista ha quedado vacía y se ha retirado
+		 */
+		private synchronized boolean quitarTodas(List<Entrada> quitar) {
+			if(quitar.size() == 1)
+				return quitar(quitar.get(0));
+			int j = 0;
+			int quedan = posicion(quitar.get(0).orden);
+			for(int i = quedan; i < entradas.size(); i++) {
+				Entrada e = entradas.get(i);
+				while(j < quitar.size() && quitar.get(j).orden < e.orden)
+					j++;
+				if(j < quitar.size() && quitar.get(j) == e)
+					j++;
+				else
+					entradas.set(quedan++, e);
+			}
+			entradas.subList(quedan, entradas.size()).clear();
+			retirada = entradas.isEmpty();
+			return retirada;
+		}
+
+		/**
+		 * Busca por bisección la posición de un número de orden en la lista
+		 * @param orden el número de orden a buscar
+		 * @return la posición de la entrada con ese número de orden o, si no está, la de la primera con uno mayor
+		 */
+		private int posicion(long orden) {
+			int inicio = 0, fin = entradas.size() - 1;
+			while(inicio <= fin) {
+				int medio = (inicio + fin) >>> 1;
+				long actual = entradas.get(medio).orden;
+				if(actual < orden)
+					inicio = medio + 1;
+				else if(actual > orden)
+					fin = medio - 1;
+				else
+					return medio;
+			}
+			return inicio;
+		}
+
+		/**
+		 * Añade las entradas de la lista al final de otra
+		 * @param destino la lista en la que copiar las entradas
+		 */
+		private synchronized void copiarEntradas(List<Entrada> destino) {
+			destino.addAll(entradas);
+		}
+
+		/**
+		 * Copia las reservas de la lista
+		 * @return una lista nueva con las reservas en orden de inserción
+		 */
+		private synchronized List<Reserva> copiar() {
+			List<Reserva> copia = new ArrayList<Reserva>(entradas.size());
+			for(Entrada e : entradas)
+				copia.add(e.reserva);
+			return copia;
+		}
+	}
+
+	/**
+	 * Listas de un aula que se rellenan al cargar reservas de una vez, antes de publicarlas en los índices
+	 */
+	private static final class CargaAula {
+		private final ListaIndice lista = new ListaIndice();
+		private final Calendario calendario = new Calendario();
+		private ConcurrentHashMap<Permanencia, Entrada> ocupacion;
+		private int numReservas;
+	}
+
+	/**
+	 * Recorre las reservas de un intervalo de permanencias copiando sólo la lista de una permanencia cada vez
+	 */
+	private static final class IteradorIntervalo implements Iterator<Reserva> {
+		private final Iterator<ListaIndice> listas;
+		private List<Reserva> actual = new ArrayList<Reserva>();
+		private int posicion;
+
+		private IteradorIntervalo(Iterator<ListaIndice> listas) {
+			this.listas = listas;
+		}
+
+		public boolean hasNext() {
+			while(posicion == actual.size() && listas.hasNext()) {
+				actual = listas.next().copiar();
+				posicion = 0;
+			}
+			return posicion < actual.size();
+		}
+
+		public Reserva next() {
+			if(!hasNext())
+				throw new NoSuchElementException();
+			return actual.get(posicion++);
+		}
+	}
+
+	/**
+	 * Constructor por defecto. Inicializa el número de profesores a cero
+	 */
+	public Reservas() {
+		inicializarIndices();
+	}
+
+	/**
+	 * Constructor copia. Como las reservas son inmutables basta con copiar la colección y reconstruir los índices
+	 * @param reservas el objeto del que obtener los datos para inicializar
+	 */
+	public Reservas(Reservas reservas) {
+		setReservas(reservas);
+	}
+
+	/**
+	 * Guarda en la colección actual de reservas los que hay en la colección recibida como parámetro
+	 * @param reservas la colección a copiar
+	 * @throws IllegalArgumentException si se intenta copiar un conjunto de reservas nulo
+	 */
+	private void setReservas(Reservas reservas) throws IllegalArgumentException {
+		if(reservas==null)
+			throw new IllegalArgumentException("No se pueden copiar reservas nulas.");
+		inicializarIndices();
+		for(Reserva r : reservas.getReservas()) {
+			Entrada entrada = new Entrada(r, siguienteOrden.getAndIncrement());
+			ocuparSiLibre(entrada);
+			indexar(entrada);
+		}
+	}
+
+	/**
+	 * Crea la colección y los índices secundarios vacíos
+	 */
+	private void inicializarIndices() {
+		this.indiceAula = new ConcurrentHashMap<String, ListaIndice>();
+		this.indiceProfesor = new ConcurrentHashMap<String, ListaIndice>();
+		this.indicePermanencia = new ConcurrentSkipListMap<Long, ListaIndice>();
+		this.paginasProfesor = new ConcurrentHashMap<String, ConcurrentSkipListMap<Long, ListaIndice>>();
+		this.ocupacion = new ConcurrentHashMap<String, ConcurrentHashMap<Permanencia, Entrada>>();
+		this.calendarios = new ConcurrentHashMap<String, Calendario>();
+		this.siguienteOrden = new AtomicLong();
+		this.numReservas = new AtomicInteger();
+	}
+
+	/**
+	 * Ocupa el aula en la permanencia de una reserva si está libre. Es el punto en el que se decide,
+	 * de forma atómica, qué reserva se queda con cada aula y permanencia. Los mapas de ocupación de cada
+	 * aula no se eliminan aunque queden vacíos, para que ninguna inserción se pierda en un mapa ya descartado.
+	 * @param entrada la reserva a guardar con su número de orden
+	 * @return True si el aula estaba libre y ha quedado ocupada, False si ya estaba ocupada
+	 */
+	private boolean ocuparSiLibre(Entrada entrada) {
+		String aula = entrada.reserva.getAula().getNombre();
+		ConcurrentHashMap<Permanencia, Entrada> ocupacionAula = ocupacion.get(aula);
+		if(ocupacionAula == null)
+			ocupacionAula = ocupacion.computeIfAbsent(aula, k -> new ConcurrentHashMap<Permanencia, Entrada>());
+		return ocupacionAula.putIfAbsent(entrada.reserva.getPermanencia(), entrada) == null;
+	}
+
+	/**
+	 * Obtiene el índice por páginas de permanencias de un profesor, creándolo si no existe. Como los mapas de
+	 * ocupación, los índices de cada profesor no se eliminan aunque queden vacíos
+	 * @param profesor el nombre del profesor
+	 * @return las listas de reservas del profesor ordenadas por su página de permanencias
+	 */
+	private ConcurrentSkipListMap<Long, ListaIndice> paginasProfesor(String profesor) {
+		ConcurrentSkipListMap<Long, ListaIndice> paginas = paginasProfesor.get(profesor);
+		if(paginas == null)
+			paginas = paginasProfesor.computeIfAbsent(profesor, k -> new ConcurrentSkipListMap<Long, ListaIndice>());
+		return paginas;
+	}
+
+	/**
+	 * Calcula la página del índice por profesor en la que se guarda una permanencia
+	 * @param clave la clave empaquetada de la permanencia
+	 * @return el índice de la página
+	 */
+	private static long paginaProfesor(long clave) {
+		return clave >> BITS_PAGINA_PROFESOR;
+	}
+
+	/**
+	 * Añade una reserva ya ocupada a los tres índices, al índice por permanencia de su profesor y al calendario de
+	 * su aula
+	 * @param entrada la reserva guardada con su número de orden
+	 */
+	private void indexar(Entrada entrada) {
+		Reserva reserva = entrada.reserva;
+		numReservas.incrementAndGet();
+		String aula = reserva.getAula().getNombre();
+		Calendario calendario = calendarios.get(aula);
+		if(calendario == null)
+			calendario = calendarios.computeIfAbsent(aula, k -> new Calendario());
+		calendario.ocupar(reserva.getPermanencia().getClave());
+		anadirAIndice(indiceAula, reserva.getAula().getNombre(), entrada);
+		anadirAIndice(indiceProfesor, reserva.getProfesor().getNombre(), entrada);
+		anadirAIndice(indicePermanencia, reserva.getPermanencia().getClave(), entrada);
+		anadirAIndice(paginasProfesor(reserva.getProfesor().getNombre()), paginaProfesor(reserva.getPermanencia().getClave()), entrada);
+	}
+
+	/**
+	 * Quita una reserva ya liberada de los tres índices, del índice por permanencia de su profesor y del calendario
+	 * de su aula
+	 * @param entrada la reserva guardada con su número de orden
+	 */
+	private void desindexar(Entrada entrada) {
+		Reserva reserva = entrada.reserva;
+		numReservas.decrementAndGet();
+		calendarios.get(reserva.getAula().getNombre()).liberar(reserva.getPermanencia().getClave());
+		quitarDeIndice(indiceAula, reserva.getAula().getNombre(), entrada);
+		quitarDeIndice(indiceProfesor, reserva.getProfesor().getNombre(), entrada);
+		quitarDeIndice(indicePermanencia, reserva.getPermanencia().getClave(), entrada);
+		quitarDeIndice(paginasProfesor.get(reserva.getProfesor().getNombre()), paginaProfesor(reserva.getPermanencia().getClave()), entrada);
+	}
+
+	/**
+	 * Añade una reserva a la lista asociada a una clave de un índice, creándola si no existe
+	 * @param indice el índice a actualizar
+	 * @param clave la clave de la reserva en el índice
+	 * @param entrada la reserva a añadir con su número de orden
+	 */
+	private static <K> void anadirAIndice(ConcurrentMap<K, ListaIndice> indice, K clave, Entrada entrada) {
+		ListaIndice lista = indice.get(clave);
+		while(lista == null || !lista.anadir(entrada)) {
+			if(lista != null)
+				indice.remove(clave, lista);
+			lista = indice.computeIfAbsent(clave, k -> new ListaIndice());
+		}
+	}
+
+	/**
+	 * Quita una reserva de la lista asociada a una clave de un índice, y la lista si queda vacía
+	 * @param indice el índice a actualizar
+	 * @param clave la clave de la reserva en el índice
+	 * @param entrada la reserva a quitar con su número de orden
+	 */
+	private static <K> void quitarDeIndice(ConcurrentMap<K, ListaIndice> indice, K clave, Entrada entrada) {
+		ListaIndice lista = indice.get(clave);
+		if(lista != null && lista.quitar(entrada))
+			indice.remove(clave, lista);
+	}
+
+	/**
+	 * Obtiene todas las entradas en orden de inserción. Las listas del índice por aula ya están ordenadas,
+	 * por lo que la ordenación sólo tiene que mezclarlas.
+	 * @return las entradas de todas las aulas ordenadas por su número de orden
+	 */
+	private List<Entrada> entradasEnOrden() {
+		List<Entrada> entradas = new ArrayList<Entrada>(numReservas.get() + 16);
+		for(ListaIndice lista : indiceAula.values())
+			lista.copiarEntradas(entradas);
+		entradas.sort(POR_ORDEN);
+		return entradas;
+	}
+
+	/**
+	 * Busca la entrada guardada que ocupa el aula en la permanencia indicada
+	 * @param aula el nombre del aula
+	 * @param permanencia la permanencia a consultar
+	 * @return la entrada guardada o null si el aula está libre
+	 */
+	private Entrada buscarOcupacion(String aula, Permanencia permanencia) {
+		Map<Permanencia, Entrada> ocupacionAula = ocupacion.get(aula);
+		if(ocupacionAula == null)
+			return null;
+		return ocupacionAula.get(permanencia);
+	}
+
+	/**
+	 * Busca la instancia guardada que es igual a la reserva indicada
+	 * @param reserva la reserva a buscar
+	 * @return la reserva guardada o null si no existe
+	 */
+	private Reserva buscarGuardada(Reserva reserva) {
+		Entrada entrada = buscarOcupacion(reserva.getAula().getNombre(), reserva.getPermanencia());
+		return entrada == null ? null : entrada.reserva;
+	}
+
+	/**
+	 * Activa o desactiva el modo de comprobación de índices. Cuando está activo, cada inserción y
+	 * borrado comprueba que los índices y la ocupación de las aulas son coherentes entre sí.
+	 * @param comprobacionIndices True para activar la comprobación, False para desactivarla
+	 */
+	public void setComprobacionIndices(boolean comprobacionIndices) {
+		this.comprobacionIndices = comprobacionIndices;
+		if(comprobacionIndices)
+			comprobarIndices();
+	}
+
+	/**
+	 * Comprueba que los índices y la ocupación de las aulas contienen exactamente las mismas reservas,
+	 * en orden de inserción y bajo la clave correcta. Sólo tiene sentido mientras ningún otro hilo modifica la colección.
+	 * @throws IllegalStateException si algún índice no coincide con las reservas guardadas
+	 */
+	public void comprobarIndices() throws IllegalStateException {
+		Map<String, List<Reserva>> esperadoAula = new HashMap<String, List<Reserva>>();
+		Map<String, List<Reserva>> esperadoProfesor = new HashMap<String, List<Reserva>>();
+		Map<Long, List<Reserva>> esperadoPermanencia = new HashMap<Long, List<Reserva>>();
+		Map<String, Map<Long, List<Reserva>>> esperadoPaginas = new HashMap<String, Map<Long, List<Reserva>>>();
+		List<Entrada> entradas = entradasEnOrden();
+		for(Entrada entrada : entradas) {
+			Reserva r = entrada.reserva;
+			anadirAEsperado(esperadoAula, r.getAula().getNombre(), r);
+			anadirAEsperado(esperadoProfesor, r.getProfesor().getNombre(), r);
+			anadirAEsperado(esperadoPermanencia, r.getPermanencia().getClave(), r);
+			anadirAEsperado(esperadoPaginas.computeIfAbsent(r.getProfesor().getNombre(), k -> new HashMap<Long, List<Reserva>>()),
+					paginaProfesor(r.getPermanencia().getClave()), r);
+		}
+		comprobarIndice("aula", esperadoAula, indiceAula);
+		comprobarIndice("profesor", esperadoProfesor, indiceProfesor);
+		comprobarIndice("permanencia", esperadoPermanencia, indicePermanencia);
+		for(String profesor : esperadoPaginas.keySet()) {
+			if(!paginasProfesor.containsKey(profesor))
+				throw new IllegalStateException("El índice por profesor y permanencia no coincide con las reservas guardadas.");
+		}
+		for(Map.Entry<String, ConcurrentSkipListMap<Long, ListaIndice>> e : paginasProfesor.entrySet()) {
+			Map<Long, List<Reserva>> esperado = esperadoPaginas.get(e.getKey());
+			comprobarIndice("profesor y permanencia", esperado == null ? new HashMap<Long, List<Reserva>>() : esperado, e.getValue());
+		}
+		int ocupadas = 0;
+		for(Map<Permanencia, Entrada> ocupacionAula : ocupacion.values())
+			ocupadas += ocupacionAula.size();
+		if(ocupadas != entradas.size() || numReservas.get() != ocupadas)
+			throw new IllegalStateException("La ocupación de las aulas no coincide con las reservas guardadas.");
+		for(Entrada e : entradas) {
+			if(buscarOcupacion(e.reserva.getAula().getNombre(), e.reserva.getPermanencia()) != e)
+				throw new IllegalStateException("La ocupación de las aulas no coincide con las reservas guardadas.");
+			if(!calendarios.get(e.reserva.getAula().getNombre()).estaOcupada(e.reserva.getPermanencia().getClave()))
+				throw new IllegalStateException("El calendario de las aulas no coincide con las reservas guardadas.");
+		}
+		long marcadas = 0;
+		for(Calendario calendario : calendarios.values())
+			marcadas += calendario.contarOcupadas(Long.MIN_VALUE / 2, Long.MAX_VALUE / 2);
+		if(marcadas != ocupadas)
+			throw new IllegalStateException("El calendario de las aulas no coincide con las reservas guardadas.");
+	}
+
+	/**
+	 * Añade una reserva al final de la lista asociada a una clave de un índice calculado para comprobarlo
+	 * @param indice el índice calculado
+	 * @param clave la clave de la reserva en el índice
+	 * @param reserva la reserva a añadir
+	 */
+	private static <K> void anadirAEsperado(Map<K, List<Reserva>> indice, K clave, Reserva reserva) {
+		List<Reserva> lista = indice.get(clave);
+		if(lista == null) {
+			lista = new ArrayList<Reserva>();
+			indice.put(clave, lista);
+		}
+		lista.add(reserva);
+	}
+
+	/**
+	 * Compara por identidad un índice con el calculado a partir de todas las reservas
+	 * @param nombre el nombre del índice, para el mensaje de error
+	 * @param esperado el índice calculado a partir de todas las reservas
+	 * @param actual el índice mantenido por la clase
+	 * @throws IllegalStateException si ambos índices no coinciden
+	 */
+	private static <K> void comprobarIndice(String nombre, Map<K, List<Reserva>> esperado, Map<K, ListaIndice> actual) throws IllegalStateException {
+		if(esperado.size() != actual.size())
+			throw new IllegalStateException("El índice por " + nombre + " no coincide con las reservas guardadas.");
+		for(Map.Entry<K, List<Reserva>> e : esperado.entrySet()) {
+			List<Reserva> lista = actual.containsKey(e.getKey()) ? actual.get(e.getKey()).copiar() : null;
+			if(lista == null || lista.size() != e.getValue().size())
+				throw new IllegalStateException("El índice por " + nombre + " no coincide con las reservas guardadas.");
+			for(int i = 0; i < lista.size(); i++) {
+				if(lista.get(i) != e.getValue().get(i))
+					throw new IllegalStateException("El índice por " + nombre + " no coincide con las reservas guardadas.");
+			}
+		}
+	}
+
+	/**
+	 * Obtiene todas las reservas de la colección actual. Realiza una copia de la lista para evitar aliasing
+	 * @return una copia de la colección, que comparte las reservas (inmutables) con la original
+	 */
+	public List<Reserva> getReservas() {
+		List<Entrada> entradas = entradasEnOrden();
+		List<Reserva> copia = new ArrayList<Reserva>(entradas.size());
+		for(Entrada e : entradas)
+			copia.add(e.reserva);
+		return copia;
+	}
+
+	/**
+	 * Obtiene el número de reservas que existen en la colección actual
+	 * @return el número de reservas
+	 */
+	public int getNumReservas() {
+		return this.numReservas.get();
+	}
+
+	/**
+	 * Guarda una reserva en la colección
+	 * @param reserva la reserva a guardar
+	 * @throws IllegalArgumentException si la reserva es nula
+	 * @throws OperationNotSupportedException si la reserva ya existe o se supera la capacidad
+	 */
+	public void insertar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException{
+		if(reservarSiDisponible(reserva) == ResultadoReserva.OCUPADA)
+			throw new OperationNotSupportedException("La reserva ya existe.");
+	}
+
+	/**
+	 * Guarda un lote de reservas: todas o ninguna. Antes de guardar ninguna comprueba en una sola pasada que no
+	 * hay reservas nulas, que el aula de cada una está libre y que el lote no tiene dos reservas de la misma aula
+	 * y permanencia. Si otro hilo ocupa alguna de las aulas mientras se guarda el lote, se borran las reservas del
+	 * lote ya guardadas antes de lanzar la excepción.
+	 * @param lote las reservas a guardar
+	 * @return el número de reservas guardadas
+	 * @throws IllegalArgumentException si el lote o alguna de sus reservas es nula
+	 * @throws OperationNotSupportedException si alguna reserva ya existe o está repetida en el lote
+	 */
+	public int insertarReservas(Collection<Reserva> lote) throws OperationNotSupportedException, IllegalArgumentException {
+		if(lote==null)
+			throw new IllegalArgumentException("No se puede realizar un lote de reservas nulo.");
+		Map<String, Set<Long>> comprobadas = new HashMap<String, Set<Long>>();
+		for(Reserva reserva : lote) {
+			if(reserva==null)
+				throw new IllegalArgumentException("No se puede realizar una reserva nula.");
+			Set<Long> claves = comprobadas.get(reserva.getAula().getNombre());
+			if(claves == null) {
+				claves = new HashSet<Long>();
+				comprobadas.put(reserva.getAula().getNombre(), claves);
+			}
+			if(!claves.add(reserva.getPermanencia().getClave()))
+				throw new OperationNotSupportedException("El lote contiene dos veces la reserva " + reserva + ".");
+			if(buscarOcupacion(reserva.getAula().getNombre(), reserva.getPermanencia()) != null)
+				throw new OperationNotSupportedException("La reserva " + reserva + " ya existe.");
+		}
+		List<Entrada> guardadas = new ArrayList<Entrada>(lote.size());
+		for(Reserva reserva : lote) {
+			Entrada entrada = new Entrada(reserva, siguienteOrden.getAndIncrement());
+			if(!ocuparSiLibre(entrada)) {
+				borrarEntradas(guardadas);
+				throw new OperationNotSupportedException("La reserva " + reserva + " ya existe.");
+			}
+			indexar(entrada);
+			guardadas.add(entrada);
+		}
+		if(comprobacionIndices)
+			comprobarIndices();
+		return guardadas.size();
+	}
+
+	/**
+	 * Carga de una vez en una colección vacía unas reservas ya comprobadas, como las de una instantánea. Cada reserva
+	 * llega como la posición de su aula y de su profesor en dos diccionarios y la clave de su permanencia. Como nadie
+	 * más usa todavía la colección, no toma los cerrojos de las listas ni comprueba cada reserva contra las demás:
+	 * rellena las listas de los índices ya ordenadas, con una sola Permanencia por clave, y las publica al final.
+	 * Sólo comprueba, al ocupar cada aula, que no está reservada dos veces en la misma permanencia
+	 * @param aulas el diccionario de aulas
+	 * @param profesores el diccionario de profesores
+	 * @param aulaReserva la posición del aula de cada reserva en el diccionario de aulas
+	 * @param profesorReserva la posición del profesor de cada reserva en el diccionario de profesores
+	 * @param claves la clave empaquetada de la permanencia de cada reserva
+	 * @return el número de reservas cargadas
+	 * @throws IllegalArgumentException si algún parámetro es nulo, las reservas no tienen todas aula, profesor y
+	 * permanencia, o hay dos reservas de la misma aula y permanencia
+	 * @throws IllegalStateException si la colección no está vacía
+	 * @throws IndexOutOfBoundsException si alguna posición no está en su diccionario
+	 */
+	public int cargar(Aula[] aulas, Profesor[] profesores, int[] aulaReserva, int[] profesorReserva, long[] claves)
+			throws IllegalArgumentException, IllegalStateException {
+		if(aulas==null || profesores==null || aulaReserva==null || profesorReserva==null || claves==null)
+			throw new IllegalArgumentException("No se pueden cargar reservas nulas.");
+		int total = claves.length;
+		if(aulaReserva.length != total || profesorReserva.length != total)
+			throw new IllegalArgumentException("Cada reserva a cargar debe tener un aula, un profesor y una permanencia.");
+		if(numReservas.get() != 0)
+			throw new IllegalStateException("Sólo se pueden cargar reservas en una colección vacía.");
+		Map<String, CargaAula> cargasAula = new HashMap<String, CargaAula>();
+		CargaAula[] cargaAula = new CargaAula[aulas.length];
+		for(int i = 0; i < aulas.length; i++)
+			cargaAula[i] = cargasAula.computeIfAbsent(aulas[i].getNombre(), k -> new CargaAula());
+		Map<String, ListaIndice> listasProfesor = new HashMap<String, ListaIndice>();
+		Map<String, ConcurrentSkipListMap<Long, ListaIndice>> paginasCargadas = new HashMap<String, ConcurrentSkipListMap<Long, ListaIndice>>();
+		ListaIndice[] listaProfesor = new ListaIndice[profesores.length];
+		List<ConcurrentSkipListMap<Long, ListaIndice>> paginasCarga = new ArrayList<ConcurrentSkipListMap<Long, ListaIndice>>(profesores.length);
+		for(int i = 0; i < profesores.length; i++) {
+			listaProfesor[i] = listasProfesor.computeIfAbsent(profesores[i].getNombre(), k -> new ListaIndice());
+			paginasCarga.add(paginasCargadas.computeIfAbsent(profesores[i].getNombre(),
+					k -> new ConcurrentSkipListMap<Long, ListaIndice>()));
+		}
+		for(int i = 0; i < total; i++)
+			cargaAula[aulaReserva[i]].numReservas++;
+		for(CargaAula carga : cargasAula.values())
+			carga.ocupacion = new ConcurrentHashMap<Permanencia, Entrada>(Math.max(16, carga.numReservas * 4 / 3 + 1));
+		Map<Long, ListaIndice> listasPermanencia = new HashMap<Long, ListaIndice>();
+		long primerOrden = siguienteOrden.get();
+		for(int i = 0; i < total; i++) {
+			CargaAula carga = cargaAula[aulaReserva[i]];
+			ListaIndice porProfesor = listaProfesor[profesorReserva[i]];
+			ListaIndice porPermanencia = listasPermanencia.get(claves[i]);
+			Permanencia permanencia;
+			if(porPermanencia == null) {
+				permanencia = new Permanencia(claves[i]);
+				porPermanencia = new ListaIndice();
+				listasPermanencia.put(claves[i], porPermanencia);
+			} else {
+				permanencia = porPermanencia.entradas.get(0).reserva.getPermanencia();
+			}
+			Entrada entrada = new Entrada(new Reserva(profesores[profesorReserva[i]], aulas[aulaReserva[i]], permanencia),
+					primerOrden + i);
+			if(carga.ocupacion.putIfAbsent(permanencia, entrada) != null)
+				throw new IllegalArgumentException("La reserva " + entrada.reserva + " está repetida.");
+			carga.calendario.ocupar(claves[i]);
+			carga.lista.entradas.add(entrada);
+			porProfesor.entradas.add(entrada);
+			porPermanencia.entradas.add(entrada);
+			ConcurrentSkipListMap<Long, ListaIndice> paginas = paginasCarga.get(profesorReserva[i]);
+			ListaIndice pagina = paginas.get(paginaProfesor(claves[i]));
+			if(pagina == null) {
+				pagina = new ListaIndice();
+				paginas.put(paginaProfesor(claves[i]), pagina);
+			}
+			pagina.entradas.add(entrada);
+		}
+		siguienteOrden.set(primerOrden + total);
+		for(Map.Entry<String, CargaAula> e : cargasAula.entrySet()) {
+			CargaAula carga = e.getValue();
+			if(carga.numReservas > 0) {
+				ocupacion.put(e.getKey(), carga.ocupacion);
+				calendarios.put(e.getKey(), carga.calendario);
+				indiceAula.put(e.getKey(), carga.lista);
+			}
+		}
+		for(Map.Entry<String, ListaIndice> e : listasProfesor.entrySet()) {
+			if(!e.getValue().entradas.isEmpty()) {
+				indiceProfesor.put(e.getKey(), e.getValue());
+				paginasProfesor.put(e.getKey(), paginasCargadas.get(e.getKey()));
+			}
+		}
+		indicePermanencia.putAll(listasPermanencia);
+		numReservas.set(total);
+		if(comprobacionIndices)
+			comprobarIndices();
+		return total;
+	}
+
+	/**
+	 * Guarda una reserva si el aula está libre en su permanencia. La comprobación y la ocupación son una sola
+	 * operación atómica sobre la ocupación del aula, sin cerrojos, y un aula ocupada no construye ninguna excepción.
+	 * @param reserva la reserva a guardar
+	 * @return RESERVADA si se ha guardado la reserva, OCUPADA si el aula ya estaba reservada
+	 * @throws IllegalArgumentException si la reserva es nula
+	 */
+	public ResultadoReserva reservarSiDisponible(Reserva reserva) throws IllegalArgumentException {
+		if(reserva==null)
+			throw new IllegalArgumentException("No se puede realizar una reserva nula.");
+		if(buscarOcupacion(reserva.getAula().getNombre(), reserva.getPermanencia()) != null)
+			return ResultadoReserva.OCUPADA;
+		Entrada entrada = new Entrada(reserva, siguienteOrden.getAndIncrement());
+		if(!ocuparSiLibre(entrada))
+			return ResultadoReserva.OCUPADA;
+		indexar(entrada);
+		if(comprobacionIndices)
+			comprobarIndices();
+		return ResultadoReserva.RESERVADA;
+	}
+
+	/**
+	 * Busca una reserva en la colección
+	 * @param reserva la reserva a buscar
+	 * @return la reserva buscada o null si no la encuentra
+	 */
+	public Reserva buscar(Reserva reserva) {
+		if(reserva==null)
+			return null;
+		return buscarGuardada(reserva);
+	}
+
+	/**
+	 * Borra una reserva de la colección
+	 * @param reserva la reserva a borrar
+	 * @throws IllegalArgumentException si la reserva es nula
+	 * @throws OperationNotSupportedException si la reserva no existe
+	 */
+	public void borrar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException {
+		if(reserva==null)
+			throw new IllegalArgumentException("No se puede anular una reserva nula.");
+		Entrada guardada = buscarOcupacion(reserva.getAula().getNombre(), reserva.getPermanencia());
+		if(guardada == null || !ocupacion.get(reserva.getAula().getNombre()).remove(reserva.getPermanencia(), guardada))
+			throw new OperationNotSupportedException("La reserva a anular no existe.");
+		desindexar(guardada);
+		if(comprobacionIndices)
+			comprobarIndices();
+	}
+
+	/**
+	 * Borra todas las reservas que cumplen una condición, recorriendo la colección una sola vez
+	 * @param condicion la condición que cumplen las reservas a borrar
+	 * @return el número de reservas borradas
+	 * @throws IllegalArgumentException si la condición es nula
+	 */
+	public int borrarReservas(Predicate<Reserva> condicion) throws IllegalArgumentException {
+		if(condicion==null)
+			throw new IllegalArgumentException("No se pueden anular reservas con una condición nula.");
+		List<Entrada> candidatas = entradasEnOrden();
+		candidatas.removeIf(e -> !condicion.test(e.reserva));
+		return borrarEntradas(candidatas);
+	}
+
+	/**
+	 * Borra todas las reservas de un aula. Las obtiene del índice por aula, por lo que sólo recorre las del aula
+	 * @param aula el aula cuyas reservas se borran
+	 * @return el número de reservas borradas
+	 * @throws IllegalArgumentException si el aula es nula
+	 */
+	public int borrarReservas(Aula aula) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden anular las reservas de un aula nula.");
+		return borrarEntradas(entradasIndice(indiceAula, aula.getNombre()));
+	}
+
+	/**
+	 * Borra todas las reservas de un profesor. Las obtiene del índice por profesor, por lo que sólo recorre las del profesor
+	 * @param profesor el profesor cuyas reservas se borran
+	 * @return el número de reservas borradas
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 */
+	public int borrarReservas(Profesor profesor) throws IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se pueden anular las reservas de un profesor nulo.");
+		return borrarEntradas(entradasIndice(indiceProfesor, profesor.getNombre()));
+	}
+
+	/**
+	 * Copia las entradas asociadas a una clave de un índice
+	 * @param indice el índice a consultar
+	 * @param clave la clave en el índice
+	 * @return las entradas de la clave, ordenadas por número de orden
+	 */
+	private static <K> List<Entrada> entradasIndice(Map<K, ListaIndice> indice, K clave) {
+		List<Entrada> entradas = new ArrayList<Entrada>();
+		ListaIndice lista = indice.get(clave);
+		if(lista != null)
+			lista.copiarEntradas(entradas);
+		return entradas;
+	}
+
+	/**
+	 * Borra un conjunto de entradas. Primero libera la ocupación de cada una, quedándose con las que seguían
+	 * guardadas, y después las quita de cada lista de los índices con una sola pasada por lista, en lugar de
+	 * buscar y desplazar cada entrada por separado
+	 * @param entradas las entradas a borrar, ordenadas por número de orden
+	 * @return el número de reservas borradas
+	 */
+	private int borrarEntradas(List<Entrada> entradas) {
+		Map<String, List<Entrada>> porAula = new HashMap<String, List<Entrada>>();
+		Map<String, List<Entrada>> porProfesor = new HashMap<String, List<Entrada>>();
+		Map<Long, List<Entrada>> porPermanencia = new HashMap<Long, List<Entrada>>();
+		int borradas = 0;
+		for(Entrada e : entradas) {
+			Reserva r = e.reserva;
+			String aula = r.getAula().getNombre();
+			Map<Permanencia, Entrada> ocupacionAula = ocupacion.get(aula);
+			if(ocupacionAula == null || !ocupacionAula.remove(r.getPermanencia(), e))
+				continue;
+			calendarios.get(aula).liberar(r.getPermanencia().getClave());
+			agrupar(porAula, aula, e);
+			agrupar(porProfesor, r.getProfesor().getNombre(), e);
+			agrupar(porPermanencia, r.getPermanencia().getClave(), e);
+			quitarDeIndice(paginasProfesor.get(r.getProfesor().getNombre()), paginaProfesor(r.getPermanencia().getClave()), e);
+			borradas++;
+		}
+		numReservas.addAndGet(-borradas);
+		quitarDeIndice(indiceAula, porAula);
+		quitarDeIndice(indiceProfesor, porProfesor);
+		quitarDeIndice(indicePermanencia, porPermanencia);
+		if(comprobacionIndices)
+			comprobarIndices();
+		return borradas;
+	}
+
+	/**
+	 * Añade una entrada al grupo de su clave
+	 * @param grupos las entradas agrupadas por clave
+	 * @param clave la clave de la entrada
+	 * @param entrada la entrada a añadir
+	 */
+	private static <K> void agrupar(Map<K, List<Entrada>> grupos, K clave, Entrada entrada) {
+		List<Entrada> grupo = grupos.get(clave);
+		if(grupo == null) {
+			grupo = new ArrayList<Entrada>();
+			grupos.put(clave, grupo);
+		}
+		grupo.add(entrada);
+	}
+
+	/**
+	 * Quita de cada lista de un índice las entradas de su grupo, y la lista si queda vacía
+	 * @param indice el índice a actualizar
+	 * @param grupos las entradas a quitar agrupadas por clave y ordenadas por número de orden
+	 */
+	private static <K> void quitarDeIndice(ConcurrentMap<K, ListaIndice> indice, Map<K, List<Entrada>> grupos) {
+		for(Map.Entry<K, List<Entrada>> grupo : grupos.entrySet()) {
+			ListaIndice lista = indice.get(grupo.getKey());
+			if(lista != null && lista.quitarTodas(grupo.getValue()))
+				indice.remove(grupo.getKey(), lista);
+		}
+	}
+
+	/**
+	 * Obtiene las salidas de todas las reservas de la colección
+	 * @return la salida de las reservas
+	 */
+	public List<String> representar() {
+		List<String> representar = new ArrayList<String>();
+		for(Reserva r : getReservas())
+			representar.add(r.toString());
+		return representar;
+	}
+
+	/**
+	 * Escribe la salida de todas las reservas de la colección, una por línea, sin construir la lista de cadenas.
+	 * Sólo se copian las referencias a las reservas para ordenarlas; las líneas se acumulan en un único
+	 * StringBuilder que se vuelca en la salida cada 8 KB
+	 * @param salida donde escribir las reservas
+	 * @return el número de reservas escritas
+	 * @throws IllegalArgumentException si la salida es nula
+	 * @throws IOException si no se puede escribir en la salida
+	 */
+	public int representar(Appendable salida) throws IOException, IllegalArgumentException {
+		if(salida==null)
+			throw new IllegalArgumentException("No se puede escribir en una salida nula.");
+		List<Entrada> entradas = entradasEnOrden();
+		StringBuilder bloque = new StringBuilder(TAMANO_BLOQUE + 256);
+		for(Entrada e : entradas) {
+			e.reserva.representar(bloque).append(SALTO_LINEA);
+			if(bloque.length() >= TAMANO_BLOQUE) {
+				salida.append(bloque);
+				bloque.setLength(0);
+			}
+		}
+		salida.append(bloque);
+		return entradas.size();
+	}
+
+	/**
+	 * Obtiene las reservas a nombre de un profesor indicado
+	 * @param profesor el profesor que ha reservado
+	 * @return las reservas del profesor
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		ListaIndice lista = indiceProfesor.get(profesor.getNombre());
+		if(lista == null)
+			return new ArrayList<Reserva>();
+		return lista.copiar();
+	}
+
+	/**
+	 * Obtiene las reservas realizadas a un aula indicada
+	 * @param aula el aula reservada
+	 * @return las reservas del aula
+	 * @throws IllegalArgumentException si el aula es nula
+	 */
+	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		ListaIndice lista = indiceAula.get(aula.getNombre());
+		if(lista == null)
+			return new ArrayList<Reserva>();
+		return lista.copiar();
+	}
+
+	/*
+	 * public List<Reserva> getReservasAula(Aula aula) {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		List<Reserva> reservaAula = new ArrayList<>();
+
+		for (Reserva reserva : coleccionReservas) {
+                  if( coleccionReservas.contains(aula))
+
+				reservaAula.add(new Reserva(reserva));
+
+			}
+
+		return reservaAula;
+	}
+	 */
+
+	/**
+	 * Obtiene las reservas realizadas en una fecha y tramo concretos
+	 * @param permanencia la fecha y el tramo de las reservas
+	 * @return las reservas de esa fecha y tramo
+	 * @throws IllegalArgumentException si la permanencia es nula
+	 */
+	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
+		if(permanencia==null)
+			throw new IllegalArgumentException("No se pueden consultar las reservas de una permanencia nula.");
+		ListaIndice lista = indicePermanencia.get(permanencia.getClave());
+		if(lista == null)
+			return new ArrayList<Reserva>();
+		return lista.copiar();
+	}
+
+	/**
+	 * Comprueba si un aula está disponible en una fecha y tramos indicados
+	 * @param aula el aula a comprobar
+	 * @param permanencia la fecha y tramo en las que comprobar el aula
+	 * @return True si está disponible, False si está reservada
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de un aula nula.");
+		if(permanencia==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de una permanencia nula.");
+		return buscarOcupacion(aula.getNombre(), permanencia) == null;
+	}
+
+	/**
+	 * Comprueba que un intervalo de permanencias de un aula es válido
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo
+	 * @param hasta la última permanencia del intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	private static void comprobarIntervalo(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de un aula nula.");
+		if(desde==null || hasta==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de una permanencia nula.");
+		if(desde.getClave() > hasta.getClave())
+			throw new IllegalArgumentException("La permanencia inicial no puede ser posterior a la final.");
+	}
+
+	/**
+	 * Comprueba si un aula está disponible en todas las permanencias de un intervalo
+	 * @param aula el aula a comprobar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return True si el aula no tiene ninguna reserva en el intervalo, False si tiene alguna
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		comprobarIntervalo(aula, desde, hasta);
+		Calendario calendario = calendarios.get(aula.getNombre());
+		return calendario == null || calendario.contarOcupadas(desde.getClave(), hasta.getClave()) == 0;
+	}
+
+	/**
+	 * Busca la primera permanencia de un intervalo en la que un aula está disponible
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return la primera permanencia libre, o null si el aula está reservada en todo el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public Permanencia getPrimeraPermanenciaLibre(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		comprobarIntervalo(aula, desde, hasta);
+		Calendario calendario = calendarios.get(aula.getNombre());
+		if(calendario == null)
+			return desde;
+		long libre = calendario.primeraLibre(desde.getClave(), hasta.getClave());
+		return libre == Calendario.NINGUNA ? null : new Permanencia(libre);
+	}
+
+	/**
+	 * Cuenta las permanencias de un intervalo en las que un aula está disponible
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return el número de permanencias libres
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public long getNumPermanenciasLibres(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		comprobarIntervalo(aula, desde, hasta);
+		long total = hasta.getClave() - desde.getClave() + 1;
+		Calendario calendario = calendarios.get(aula.getNombre());
+		return calendario == null ? total : total - calendario.contarOcupadas(desde.getClave(), hasta.getClave());
+	}
+
+	/**
+	 * Obtiene, en orden cronológico, las permanencias de un intervalo en las que un aula está disponible
+	 * @param aula el aula a consultar
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las permanencias libres
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public List<Permanencia> getPermanenciasLibres(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		comprobarIntervalo(aula, desde, hasta);
+		List<Permanencia> libres = new ArrayList<Permanencia>();
+		Calendario calendario = calendarios.get(aula.getNombre());
+		long fin = hasta.getClave();
+		for(long clave = desde.getClave(); clave <= fin; clave++) {
+			if(calendario != null) {
+				clave = calendario.primeraLibre(clave, fin);
+				if(clave == Calendario.NINGUNA)
+					break;
+			}
+			libres.add(new Permanencia(clave));
+		}
+		return libres;
+	}
+
+	/**
+	 * Comprueba que un intervalo de permanencias es válido
+	 * @param desde la primera permanencia del intervalo
+	 * @param hasta la última permanencia del intervalo
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	private static void comprobarPeriodo(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		if(desde==null || hasta==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas entre permanencias nulas.");
+		if(desde.getClave() > hasta.getClave())
+			throw new IllegalArgumentException("La permanencia inicial no puede ser posterior a la final.");
+	}
+
+	/**
+	 * Obtiene las listas del índice por permanencia que quedan dentro de un intervalo, en orden cronológico
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las listas del intervalo
+	 */
+	private Collection<ListaIndice> listasPeriodo(Permanencia desde, Permanencia hasta) {
+		return indicePermanencia.subMap(desde.getClave(), true, hasta.getClave(), true).values();
+	}
+
+	/**
+	 * Obtiene las reservas realizadas entre dos permanencias, en orden cronológico y, dentro de cada permanencia,
+	 * en orden de inserción. Sólo recorre las permanencias del intervalo que tienen reservas
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del intervalo
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	public List<Reserva> getReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		comprobarPeriodo(desde, hasta);
+		List<Reserva> reservas = new ArrayList<Reserva>();
+		for(ListaIndice lista : listasPeriodo(desde, hasta))
+			reservas.addAll(lista.copiar());
+		return reservas;
+	}
+
+	/**
+	 * Recorre las reservas realizadas entre dos permanencias en el mismo orden que getReservas, pero sin copiarlas
+	 * todas a la vez: sólo se copian las reservas de la permanencia que se está recorriendo. El recorrido refleja
+	 * las reservas que se insertan o borran mientras tanto en las permanencias que aún no ha alcanzado
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return un iterador sobre las reservas del intervalo
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	public Iterator<Reserva> iterarReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		comprobarPeriodo(desde, hasta);
+		return new IteradorIntervalo(listasPeriodo(desde, hasta).iterator());
+	}
+
+	/**
+	 * Obtiene las reservas de un aula realizadas entre dos permanencias, en orden cronológico. Recorre las
+	 * permanencias ocupadas en el calendario del aula, por lo que no depende de las reservas de las demás aulas
+	 * @param aula el aula reservada
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del aula en el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public List<Reserva> getReservasAula(Aula aula, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		comprobarPeriodo(desde, hasta);
+		List<Reserva> reservas = new ArrayList<Reserva>();
+		Calendario calendario = calendarios.get(aula.getNombre());
+		Map<Permanencia, Entrada> ocupacionAula = ocupacion.get(aula.getNombre());
+		if(calendario == null || ocupacionAula == null)
+			return reservas;
+		long fin = hasta.getClave();
+		for(long clave = calendario.primeraOcupada(desde.getClave(), fin); clave != Calendario.NINGUNA;
+				clave = calendario.primeraOcupada(clave + 1, fin)) {
+			Entrada entrada = ocupacionAula.get(new Permanencia(clave));
+			if(entrada != null)
+				reservas.add(entrada.reserva);
+		}
+		return reservas;
+	}
+
+	/**
+	 * Obtiene las reservas de un profesor realizadas entre dos permanencias, en el mismo orden que getReservas.
+	 * Recorre sólo las páginas del índice del profesor que cubren el intervalo, por lo que no depende de las reservas
+	 * de los demás profesores
+	 * @param profesor el profesor que ha reservado
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del profesor en el intervalo
+	 * @throws IllegalArgumentException si algún parámetro es nulo o la primera permanencia es posterior a la última
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor, Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		comprobarPeriodo(desde, hasta);
+		List<Reserva> reservas = new ArrayList<Reserva>();
+		ConcurrentSkipListMap<Long, ListaIndice> paginas = paginasProfesor.get(profesor.getNombre());
+		if(paginas == null)
+			return reservas;
+		for(ListaIndice pagina : paginas.subMap(paginaProfesor(desde.getClave()), true, paginaProfesor(hasta.getClave()), true).values()) {
+			for(Reserva r : pagina.copiar()) {
+				if(r.getPermanencia().getClave() >= desde.getClave() && r.getPermanencia().getClave() <= hasta.getClave())
+					reservas.add(r);
+			}
+		}
+		reservas.sort(Comparator.comparingLong(r -> r.getPermanencia().getClave()));
+		return reservas;
+	}
+
+}
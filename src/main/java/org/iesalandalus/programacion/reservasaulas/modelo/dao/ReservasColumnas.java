@@ -0,0 +1,494 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+
+/**
+ * Alternativa a Reservas que guarda las reservas por columnas en lugar de como objetos. Cada reserva es una fila
+ * de tres arrays paralelos de tipos primitivos: el identificador de su aula (int), el de su profesor (int) y la
+ * clave empaquetada de su permanencia (long), 16 bytes por reserva. Las aulas y los profesores se guardan una sola
+ * vez en un diccionario que asigna a cada uno su identificador, y los objetos Reserva sólo se crean al
+ * devolverlos. Sirve para guardar muchas reservas que apenas cambian, como el histórico de un curso completo.
+ * <p>
+ * La ocupación de cada aula y permanencia se consulta en una tabla hash de direccionamiento abierto que guarda
+ * números de fila, así que comprobar la disponibilidad o buscar una reserva es de tiempo constante. Las consultas
+ * por aula, profesor o permanencia recorren las columnas comparando enteros, sin seguir ninguna referencia, y
+ * devuelven las reservas en orden de inserción. Los borrados dejan la fila marcada como libre y las filas libres
+ * se compactan cuando son la mitad de la tabla.
+ * <p>
+ * La clase admite accesos concurrentes con un cerrojo de lectura y escritura: las consultas se hacen a la vez y las
+ * modificaciones de una en una.
+ * @see Reservas
+ * @see Reserva
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public class ReservasColumnas {
+
+	private static final int CAPACIDAD_INICIAL = 1024;
+	private static final int FILAS_MINIMAS_COMPACTAR = 1024;
+	private static final int LIBRE = DiccionarioReservas.NINGUNO;
+	private static final long MEZCLA = 0x9E3779B97F4A7C15L;
+
+	private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+	private final DiccionarioReservas diccionario = new DiccionarioReservas();
+	private int[] aulaFila = new int[CAPACIDAD_INICIAL];
+	private int[] profesorFila = new int[CAPACIDAD_INICIAL];
+	private long[] claveFila = new long[CAPACIDAD_INICIAL];
+	private int[] ocupacion = new int[2 * CAPACIDAD_INICIAL];
+	private int numFilas;
+	private int numReservas;
+
+	/**
+	 * Calcula la posición inicial de un aula y una permanencia en la tabla de ocupación
+	 * @param aula el identificador del aula
+	 * @param clave la clave de la permanencia
+	 * @return la posición en la tabla
+	 */
+	private int posicionInicial(int aula, long clave) {
+		long mezcla = (clave + ((long) aula << 32)) * MEZCLA;
+		return (int) (mezcla ^ (mezcla >>> 32)) & (ocupacion.length - 1);
+	}
+
+	/**
+	 * Busca la fila que ocupa un aula en una permanencia
+	 * @param aula el identificador del aula
+	 * @param clave la clave de la permanencia
+	 * @return el número de fila, o -1 si el aula está libre
+	 */
+	private int buscarFila(int aula, long clave) {
+		if(aula == LIBRE)
+			return LIBRE;
+		int mascara = ocupacion.length - 1;
+		for(int i = posicionInicial(aula, clave); ocupacion[i] != 0; i = (i + 1) & mascara) {
+			int fila = ocupacion[i] - 1;
+			if(aulaFila[fila] == aula && claveFila[fila] == clave)
+				return fila;
+		}
+		return LIBRE;
+	}
+
+	/**
+	 * Anota una fila en la tabla de ocupación
+	 * @param fila el número de fila, cuya aula y permanencia no deben estar ya en la tabla
+	 */
+	private void anotarOcupacion(int fila) {
+		int mascara = ocupacion.length - 1;
+		int i = posicionInicial(aulaFila[fila], claveFila[fila]);
+		while(ocupacion[i] != 0)
+			i = (i + 1) & mascara;
+		ocupacion[i] = fila + 1;
+	}
+
+	/**
+	 * Quita una fila de la tabla de ocupación, desplazando hacia atrás las entradas siguientes de la misma
+	 * secuencia de sondeo para no dejar huecos que corten las búsquedas
+	 * @param fila el número de fila, que debe estar en la tabla
+	 */
+	private void quitarOcupacion(int fila) {
+		int mascara = ocupacion.length - 1;
+		int hueco = posicionInicial(aulaFila[fila], claveFila[fila]);
+		while(ocupacion[hueco] != fila + 1)
+			hueco = (hueco + 1) & mascara;
+		for(int i = (hueco + 1) & mascara; ocupacion[i] != 0; i = (i + 1) & mascara) {
+			int otra = ocupacion[i] - 1;
+			int inicial = posicionInicial(aulaFila[otra], claveFila[otra]);
+			if(((i - inicial) & mascara) >= ((i - hueco) & mascara)) {
+				ocupacion[hueco] = ocupacion[i];
+				hueco = i;
+			}
+		}
+		ocupacion[hueco] = 0;
+	}
+
+	/**
+	 * Reconstruye la tabla de ocupación con el tamaño indicado a partir de las filas ocupadas
+	 * @param tamano el nuevo tamaño de la tabla, una potencia de dos
+	 */
+	private void reconstruirOcupacion(int tamano) {
+		ocupacion = new int[tamano];
+		for(int fila = 0; fila < numFilas; fila++)
+			if(aulaFila[fila] != LIBRE)
+				anotarOcupacion(fila);
+	}
+
+	/**
+	 * Se asegura de que cabe una fila más, compactando las filas libres o ampliando las columnas
+	 */
+	private void asegurarCapacidad() {
+		if(numFilas < aulaFila.length)
+			return;
+		if(numFilas - numReservas >= numFilas / 2) {
+			compactar();
+			return;
+		}
+		int capacidad = aulaFila.length * 2;
+		aulaFila = Arrays.copyOf(aulaFila, capacidad);
+		profesorFila = Arrays.copyOf(profesorFila, capacidad);
+		claveFila = Arrays.copyOf(claveFila, capacidad);
+		reconstruirOcupacion(2 * capacidad);
+	}
+
+	/**
+	 * Elimina las filas libres desplazando las ocupadas hacia el principio, sin cambiar su orden, y reconstruye
+	 * la tabla de ocupación con los nuevos números de fila
+	 */
+	private void compactar() {
+		int destino = 0;
+		for(int fila = 0; fila < numFilas; fila++) {
+			if(aulaFila[fila] != LIBRE) {
+				aulaFila[destino] = aulaFila[fila];
+				profesorFila[destino] = profesorFila[fila];
+				claveFila[destino] = claveFila[fila];
+				destino++;
+			}
+		}
+		numFilas = destino;
+		reconstruirOcupacion(ocupacion.length);
+	}
+
+	/**
+	 * Marca una fila como libre y compacta la tabla si ya son libres la mitad de las filas
+	 * @param fila el número de fila a liberar
+	 */
+	private void liberar(int fila) {
+		quitarOcupacion(fila);
+		aulaFila[fila] = LIBRE;
+		numReservas--;
+		if(numFilas >= FILAS_MINIMAS_COMPACTAR && numFilas - numReservas >= numFilas / 2)
+			compactar();
+	}
+
+	/**
+	 * Crea la reserva guardada en una fila
+	 * @param fila el número de fila
+	 * @return la reserva de la fila
+	 */
+	private Reserva reserva(int fila) {
+		return new Reserva(diccionario.getProfesor(profesorFila[fila]), diccionario.getAula(aulaFila[fila]),
+				new Permanencia(claveFila[fila]));
+	}
+
+	/**
+	 * Obtiene todas las reservas de la colección, en orden de inserción
+	 * @return una lista nueva con las reservas
+	 */
+	public List<Reserva> getReservas() {
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>(numReservas);
+			for(int fila = 0; fila < numFilas; fila++)
+				if(aulaFila[fila] != LIBRE)
+					reservas.add(reserva(fila));
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene el número de reservas que existen en la colección actual
+	 * @return el número de reservas
+	 */
+	public int getNumReservas() {
+		cerrojo.readLock().lock();
+		try {
+			return numReservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda una reserva en la colección
+	 * @param reserva la reserva a guardar
+	 * @throws IllegalArgumentException si la reserva es nula
+	 * @throws OperationNotSupportedException si la reserva ya existe
+	 */
+	public void insertar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException {
+		if(reservarSiDisponible(reserva) == ResultadoReserva.OCUPADA)
+			throw new OperationNotSupportedException("La reserva ya existe.");
+	}
+
+	/**
+	 * Guarda una reserva si el aula está libre en su permanencia
+	 * @param reserva la reserva a guardar
+	 * @return RESERVADA si se ha guardado la reserva, OCUPADA si el aula ya estaba reservada
+	 * @throws IllegalArgumentException si la reserva es nula
+	 */
+	public ResultadoReserva reservarSiDisponible(Reserva reserva) throws IllegalArgumentException {
+		if(reserva==null)
+			throw new IllegalArgumentException("No se puede realizar una reserva nula.");
+		cerrojo.writeLock().lock();
+		try {
+			long clave = reserva.getPermanencia().getClave();
+			if(buscarFila(diccionario.idAula(reserva.getAula()), clave) != LIBRE)
+				return ResultadoReserva.OCUPADA;
+			asegurarCapacidad();
+			int fila = numFilas++;
+			aulaFila[fila] = diccionario.registrarAula(reserva.getAula());
+			profesorFila[fila] = diccionario.registrarProfesor(reserva.getProfesor());
+			claveFila[fila] = clave;
+			anotarOcupacion(fila);
+			numReservas++;
+			return ResultadoReserva.RESERVADA;
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Busca una reserva en la colección
+	 * @param reserva la reserva a buscar
+	 * @return la reserva guardada con su aula y su permanencia, o null si no la encuentra
+	 */
+	public Reserva buscar(Reserva reserva) {
+		if(reserva==null)
+			return null;
+		cerrojo.readLock().lock();
+		try {
+			int fila = buscarFila(diccionario.idAula(reserva.getAula()), reserva.getPermanencia().getClave());
+			return fila == LIBRE ? null : reserva(fila);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra una reserva de la colección
+	 * @param reserva la reserva a borrar
+	 * @throws IllegalArgumentException si la reserva es nula
+	 * @throws OperationNotSupportedException si la reserva no existe
+	 */
+	public void borrar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException {
+		if(reserva==null)
+			throw new IllegalArgumentException("No se puede anular una reserva nula.");
+		cerrojo.writeLock().lock();
+		try {
+			int fila = buscarFila(diccionario.idAula(reserva.getAula()), reserva.getPermanencia().getClave());
+			if(fila == LIBRE)
+				throw new OperationNotSupportedException("La reserva a anular no existe.");
+			liberar(fila);
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra todas las reservas de un aula recorriendo la columna de aulas
+	 * @param aula el aula cuyas reservas se borran
+	 * @return el número de reservas borradas
+	 * @throws IllegalArgumentException si el aula es nula
+	 */
+	public int borrarReservas(Aula aula) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden anular las reservas de un aula nula.");
+		cerrojo.writeLock().lock();
+		try {
+			int id = diccionario.idAula(aula);
+			int borradas = 0;
+			if(id != LIBRE) {
+				for(int fila = 0; fila < numFilas; fila++) {
+					if(aulaFila[fila] == id) {
+						quitarOcupacion(fila);
+						aulaFila[fila] = LIBRE;
+						borradas++;
+					}
+				}
+			}
+			terminarBorrado(borradas);
+			return borradas;
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra todas las reservas de un profesor recorriendo la columna de profesores. Incluye las reservas hechas con
+	 * otros datos del mismo profesor, ya que los profesores se identifican por su nombre
+	 * @param profesor el profesor cuyas reservas se borran
+	 * @return el número de reservas borradas
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 */
+	public int borrarReservas(Profesor profesor) throws IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se pueden anular las reservas de un profesor nulo.");
+		cerrojo.writeLock().lock();
+		try {
+			int[] ids = diccionario.idsProfesor(profesor);
+			int borradas = 0;
+			for(int fila = 0; fila < numFilas; fila++) {
+				if(DiccionarioReservas.contiene(ids, profesorFila[fila]) && aulaFila[fila] != LIBRE) {
+					quitarOcupacion(fila);
+					aulaFila[fila] = LIBRE;
+					borradas++;
+				}
+			}
+			terminarBorrado(borradas);
+			return borradas;
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Actualiza el número de reservas tras un borrado masivo y compacta si ya son libres la mitad de las filas
+	 * @param borradas el número de reservas borradas
+	 */
+	private void terminarBorrado(int borradas) {
+		numReservas -= borradas;
+		if(borradas > 0 && numFilas >= FILAS_MINIMAS_COMPACTAR && numFilas - numReservas >= numFilas / 2)
+			compactar();
+	}
+
+	/**
+	 * Obtiene las reservas de un aula recorriendo la columna de aulas
+	 * @param aula el aula reservada
+	 * @return las reservas del aula, en orden de inserción
+	 * @throws IllegalArgumentException si el aula es nula
+	 */
+	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>();
+			int id = diccionario.idAula(aula);
+			if(id != LIBRE) {
+				for(int fila = 0; fila < numFilas; fila++)
+					if(aulaFila[fila] == id)
+						reservas.add(reserva(fila));
+			}
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas de un profesor recorriendo la columna de profesores
+	 * @param profesor el profesor que ha hecho las reservas
+	 * @return las reservas del profesor, en orden de inserción
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>();
+			int[] ids = diccionario.idsProfesor(profesor);
+			if(ids.length == 1) {
+				int id = ids[0];
+				for(int fila = 0; fila < numFilas; fila++)
+					if(profesorFila[fila] == id && aulaFila[fila] != LIBRE)
+						reservas.add(reserva(fila));
+			} else if(ids.length > 1) {
+				for(int fila = 0; fila < numFilas; fila++)
+					if(DiccionarioReservas.contiene(ids, profesorFila[fila]) && aulaFila[fila] != LIBRE)
+						reservas.add(reserva(fila));
+			}
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas de una permanencia recorriendo la columna de claves
+	 * @param permanencia la permanencia de las reservas
+	 * @return las reservas de la permanencia, en orden de inserción
+	 * @throws IllegalArgumentException si la permanencia es nula
+	 */
+	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
+		if(permanencia==null)
+			throw new IllegalArgumentException("No se pueden consultar las reservas de una permanencia nula.");
+		return getReservas(permanencia, permanencia);
+	}
+
+	/**
+	 * Obtiene las reservas realizadas entre dos permanencias recorriendo la columna de claves
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del intervalo, en orden de inserción
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	public List<Reserva> getReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		if(desde==null || hasta==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas entre permanencias nulas.");
+		long primera = desde.getClave();
+		long ultima = hasta.getClave();
+		if(primera > ultima)
+			throw new IllegalArgumentException("La permanencia inicial no puede ser posterior a la final.");
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>();
+			for(int fila = 0; fila < numFilas; fila++) {
+				long clave = claveFila[fila];
+				if(clave >= primera && clave <= ultima && aulaFila[fila] != LIBRE)
+					reservas.add(reserva(fila));
+			}
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Cuenta las reservas realizadas entre dos permanencias sin crear ningún objeto, recorriendo sólo la columna
+	 * de claves
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return el número de reservas del intervalo
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	public int contarReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		if(desde==null || hasta==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas entre permanencias nulas.");
+		long primera = desde.getClave();
+		long ultima = hasta.getClave();
+		if(primera > ultima)
+			throw new IllegalArgumentException("La permanencia inicial no puede ser posterior a la final.");
+		cerrojo.readLock().lock();
+		try {
+			int contadas = 0;
+			for(int fila = 0; fila < numFilas; fila++) {
+				long clave = claveFila[fila];
+				if(clave >= primera && clave <= ultima && aulaFila[fila] != LIBRE)
+					contadas++;
+			}
+			return contadas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Comprueba si un aula está disponible en una permanencia
+	 * @param aula el aula a comprobar
+	 * @param permanencia la fecha y tramo en las que comprobar el aula
+	 * @return True si está disponible, False si está reservada
+	 * @throws IllegalArgumentException si el aula o la permanencia son nulas
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de un aula nula.");
+		if(permanencia==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de una permanencia nula.");
+		cerrojo.readLock().lock();
+		try {
+			return buscarFila(diccionario.idAula(aula), permanencia.getClave()) == LIBRE;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+}
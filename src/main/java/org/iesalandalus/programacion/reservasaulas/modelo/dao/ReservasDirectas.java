@@ -0,0 +1,473 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+
+/**
+ * Alternativa a Reservas que guarda las reservas fuera del heap, en un ByteBuffer directo, para que el recolector
+ * de basura no tenga que recorrerlas. Pensada para históricos de varios cursos: con Reservas cada reserva son
+ * varios objetos que el recolector marca en cada recolección completa, de modo que las pausas crecen con el
+ * histórico, mientras que aquí el heap sólo guarda un array de enteros que el recolector no recorre.
+ * <p>
+ * Cada reserva ocupa un registro de 16 bytes, su ranura, con el identificador de su aula (int), el de su profesor
+ * (int) y la clave empaquetada de su permanencia (long). Las aulas y los profesores se guardan una sola vez en un
+ * diccionario en el heap. Al borrar una reserva su ranura pasa a una lista de ranuras libres, enlazada a través
+ * de las propias ranuras, y la siguiente reserva la reutiliza; por eso las consultas devuelven las reservas en el
+ * orden de sus ranuras, que no es el de inserción. La ocupación de cada aula y permanencia se consulta en una
+ * tabla hash de direccionamiento abierto en el heap que guarda números de ranura, así que comprobar la
+ * disponibilidad o buscar una reserva es de tiempo constante; el resto de consultas recorren las ranuras.
+ * <p>
+ * El buffer se amplía al doble cuando se llena y nunca se reduce. La memoria del buffer anterior se libera cuando
+ * el recolector lo descarta, así que conviene indicar la capacidad al crear la colección si se conoce el tamaño
+ * aproximado del histórico. La clase admite accesos concurrentes con un cerrojo de lectura y escritura: las
+ * consultas se hacen a la vez y las modificaciones de una en una.
+ * @see Reservas
+ * @see ReservasColumnas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public class ReservasDirectas {
+
+	private static final int TAMANO_REGISTRO = TablaOcupacion.TAMANO_REGISTRO;
+	private static final int POSICION_AULA = TablaOcupacion.POSICION_AULA;
+	private static final int POSICION_PROFESOR = TablaOcupacion.POSICION_PROFESOR;
+	private static final int POSICION_CLAVE = TablaOcupacion.POSICION_CLAVE;
+	private static final int CAPACIDAD_INICIAL = 1024;
+	private static final int LIBRE = TablaOcupacion.LIBRE;
+
+	/**
+	 * Mayor número de reservas que caben en la colección, limitado por el tamaño máximo de un ByteBuffer
+	 */
+	public static final int CAPACIDAD_MAXIMA = Integer.MAX_VALUE / TAMANO_REGISTRO;
+
+	private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+	private final DiccionarioReservas diccionario = new DiccionarioReservas();
+	private ByteBuffer registros;
+	private TablaOcupacion ocupacion;
+	private int numRanuras;
+	private int primeraLibre = LIBRE;
+	private int numReservas;
+
+	/**
+	 * Constructor por defecto, con capacidad para 1024 reservas
+	 */
+	public ReservasDirectas() {
+		this(CAPACIDAD_INICIAL);
+	}
+
+	/**
+	 * Constructor que reserva desde el principio la memoria para un número de reservas
+	 * @param capacidad el número de reservas para el que reservar memoria
+	 * @throws IllegalArgumentException si la capacidad no es positiva o es mayor que CAPACIDAD_MAXIMA
+	 */
+	public ReservasDirectas(int capacidad) throws IllegalArgumentException {
+		if(capacidad <= 0 || capacidad > CAPACIDAD_MAXIMA)
+			throw new IllegalArgumentException("La capacidad debe estar entre 1 y " + CAPACIDAD_MAXIMA + ".");
+		registros = ByteBuffer.allocateDirect(capacidad * TAMANO_REGISTRO).order(ByteOrder.nativeOrder());
+		ocupacion = new TablaOcupacion(registros);
+	}
+
+	/**
+	 * Método get para el número de reservas que caben sin ampliar el buffer
+	 * @return el número de ranuras del buffer
+	 */
+	public int getCapacidad() {
+		cerrojo.readLock().lock();
+		try {
+			return registros.capacity() / TAMANO_REGISTRO;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Lee el identificador del aula de una ranura
+	 * @param ranura el número de ranura
+	 * @return el identificador, o -1 si la ranura está libre
+	 */
+	private int aula(int ranura) {
+		return registros.getInt(ranura * TAMANO_REGISTRO + POSICION_AULA);
+	}
+
+	/**
+	 * Lee el identificador del profesor de una ranura
+	 * @param ranura el número de ranura
+	 * @return el identificador o, si la ranura está libre, la siguiente ranura libre
+	 */
+	private int profesor(int ranura) {
+		return registros.getInt(ranura * TAMANO_REGISTRO + POSICION_PROFESOR);
+	}
+
+	/**
+	 * Lee la clave de la permanencia de una ranura
+	 * @param ranura el número de ranura
+	 * @return la clave empaquetada
+	 */
+	private long clave(int ranura) {
+		return registros.getLong(ranura * TAMANO_REGISTRO + POSICION_CLAVE);
+	}
+
+	/**
+	 * Obtiene una ranura para una reserva nueva: la primera de la lista de libres o, si no hay ninguna, la
+	 * siguiente sin usar, ampliando el buffer si está lleno
+	 * @return el número de ranura
+	 * @throws IllegalStateException si ya hay CAPACIDAD_MAXIMA reservas
+	 */
+	private int ocuparRanura() throws IllegalStateException {
+		if(primeraLibre != LIBRE) {
+			int ranura = primeraLibre;
+			primeraLibre = profesor(ranura);
+			return ranura;
+		}
+		int capacidad = registros.capacity() / TAMANO_REGISTRO;
+		if(numRanuras == capacidad) {
+			if(capacidad == CAPACIDAD_MAXIMA)
+				throw new IllegalStateException("No caben más reservas.");
+			ampliar((int) Math.min(2L * capacidad, CAPACIDAD_MAXIMA));
+		}
+		return numRanuras++;
+	}
+
+	/**
+	 * Copia las ranuras usadas a un buffer nuevo más grande y reconstruye la tabla de ocupación si cambia su tamaño
+	 * @param capacidad el nuevo número de ranuras
+	 */
+	private void ampliar(int capacidad) {
+		ByteBuffer usados = registros.duplicate();
+		usados.clear().limit(numRanuras * TAMANO_REGISTRO);
+		registros = ByteBuffer.allocateDirect(capacidad * TAMANO_REGISTRO).order(ByteOrder.nativeOrder());
+		registros.put(usados).clear();
+		ocupacion.ampliar(registros, numRanuras);
+	}
+
+	/**
+	 * Quita una reserva de la tabla de ocupación y pone su ranura al principio de la lista de libres, guardando
+	 * la siguiente libre en el lugar del profesor
+	 * @param ranura el número de ranura a liberar
+	 */
+	private void liberar(int ranura) {
+		ocupacion.quitar(ranura);
+		int posicion = ranura * TAMANO_REGISTRO;
+		registros.putInt(posicion + POSICION_AULA, LIBRE);
+		registros.putInt(posicion + POSICION_PROFESOR, primeraLibre);
+		primeraLibre = ranura;
+		numReservas--;
+	}
+
+	/**
+	 * Crea la reserva guardada en una ranura
+	 * @param ranura el número de ranura
+	 * @return la reserva de la ranura
+	 */
+	private Reserva reserva(int ranura) {
+		return new Reserva(diccionario.getProfesor(profesor(ranura)), diccionario.getAula(aula(ranura)),
+				new Permanencia(clave(ranura)));
+	}
+
+	/**
+	 * Obtiene todas las reservas de la colección, en el orden de sus ranuras
+	 * @return una lista nueva con las reservas
+	 */
+	public List<Reserva> getReservas() {
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>(numReservas);
+			for(int ranura = 0; ranura < numRanuras; ranura++)
+				if(aula(ranura) != LIBRE)
+					reservas.add(reserva(ranura));
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene el número de reservas que existen en la colección actual
+	 * @return el número de reservas
+	 */
+	public int getNumReservas() {
+		cerrojo.readLock().lock();
+		try {
+			return numReservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda una reserva en la colección
+	 * @param reserva la reserva a guardar
+	 * @throws IllegalArgumentException si la reserva es nula
+	 * @throws OperationNotSupportedException si la reserva ya existe
+	 * @throws IllegalStateException si ya hay CAPACIDAD_MAXIMA reservas
+	 */
+	public void insertar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException,
+			IllegalStateException {
+		if(reservarSiDisponible(reserva) == ResultadoReserva.OCUPADA)
+			throw new OperationNotSupportedException("La reserva ya existe.");
+	}
+
+	/**
+	 * Guarda una reserva si el aula está libre en su permanencia, reutilizando una ranura libre si la hay
+	 * @param reserva la reserva a guardar
+	 * @return RESERVADA si se ha guardado la reserva, OCUPADA si el aula ya estaba reservada
+	 * @throws IllegalArgumentException si la reserva es nula
+	 * @throws IllegalStateException si ya hay CAPACIDAD_MAXIMA reservas
+	 */
+	public ResultadoReserva reservarSiDisponible(Reserva reserva) throws IllegalArgumentException, IllegalStateException {
+		if(reserva==null)
+			throw new IllegalArgumentException("No se puede realizar una reserva nula.");
+		cerrojo.writeLock().lock();
+		try {
+			long clave = reserva.getPermanencia().getClave();
+			if(ocupacion.buscar(diccionario.idAula(reserva.getAula()), clave) != LIBRE)
+				return ResultadoReserva.OCUPADA;
+			int ranura = ocuparRanura();
+			int posicion = ranura * TAMANO_REGISTRO;
+			registros.putInt(posicion + POSICION_AULA, diccionario.registrarAula(reserva.getAula()));
+			registros.putInt(posicion + POSICION_PROFESOR, diccionario.registrarProfesor(reserva.getProfesor()));
+			registros.putLong(posicion + POSICION_CLAVE, clave);
+			ocupacion.anotar(ranura);
+			numReservas++;
+			return ResultadoReserva.RESERVADA;
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Busca una reserva en la colección
+	 * @param reserva la reserva a buscar
+	 * @return la reserva guardada con su aula y su permanencia, o null si no la encuentra
+	 */
+	public Reserva buscar(Reserva reserva) {
+		if(reserva==null)
+			return null;
+		cerrojo.readLock().lock();
+		try {
+			int ranura = ocupacion.buscar(diccionario.idAula(reserva.getAula()), reserva.getPermanencia().getClave());
+			return ranura == LIBRE ? null : reserva(ranura);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra una reserva de la colección, dejando su ranura libre para la siguiente
+	 * @param reserva la reserva a borrar
+	 * @throws IllegalArgumentException si la reserva es nula
+	 * @throws OperationNotSupportedException si la reserva no existe
+	 */
+	public void borrar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException {
+		if(reserva==null)
+			throw new IllegalArgumentException("No se puede anular una reserva nula.");
+		cerrojo.writeLock().lock();
+		try {
+			int ranura = ocupacion.buscar(diccionario.idAula(reserva.getAula()), reserva.getPermanencia().getClave());
+			if(ranura == LIBRE)
+				throw new OperationNotSupportedException("La reserva a anular no existe.");
+			liberar(ranura);
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra todas las reservas de un aula recorriendo las ranuras
+	 * @param aula el aula cuyas reservas se borran
+	 * @return el número de reservas borradas
+	 * @throws IllegalArgumentException si el aula es nula
+	 */
+	public int borrarReservas(Aula aula) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden anular las reservas de un aula nula.");
+		cerrojo.writeLock().lock();
+		try {
+			int id = diccionario.idAula(aula);
+			int borradas = 0;
+			if(id != LIBRE) {
+				for(int ranura = 0; ranura < numRanuras; ranura++) {
+					if(aula(ranura) == id) {
+						liberar(ranura);
+						borradas++;
+					}
+				}
+			}
+			return borradas;
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra todas las reservas de un profesor recorriendo las ranuras. Incluye las reservas hechas con otros datos
+	 * del mismo profesor, ya que los profesores se identifican por su nombre
+	 * @param profesor el profesor cuyas reservas se borran
+	 * @return el número de reservas borradas
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 */
+	public int borrarReservas(Profesor profesor) throws IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se pueden anular las reservas de un profesor nulo.");
+		cerrojo.writeLock().lock();
+		try {
+			int[] ids = diccionario.idsProfesor(profesor);
+			int borradas = 0;
+			for(int ranura = 0; ranura < numRanuras; ranura++) {
+				if(aula(ranura) != LIBRE && DiccionarioReservas.contiene(ids, profesor(ranura))) {
+					liberar(ranura);
+					borradas++;
+				}
+			}
+			return borradas;
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas de un aula recorriendo las ranuras
+	 * @param aula el aula reservada
+	 * @return las reservas del aula, en el orden de sus ranuras
+	 * @throws IllegalArgumentException si el aula es nula
+	 */
+	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>();
+			int id = diccionario.idAula(aula);
+			if(id != LIBRE) {
+				for(int ranura = 0; ranura < numRanuras; ranura++)
+					if(aula(ranura) == id)
+						reservas.add(reserva(ranura));
+			}
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas de un profesor recorriendo las ranuras
+	 * @param profesor el profesor que ha hecho las reservas
+	 * @return las reservas del profesor, en el orden de sus ranuras
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>();
+			int[] ids = diccionario.idsProfesor(profesor);
+			if(ids.length > 0) {
+				for(int ranura = 0; ranura < numRanuras; ranura++)
+					if(aula(ranura) != LIBRE && DiccionarioReservas.contiene(ids, profesor(ranura)))
+						reservas.add(reserva(ranura));
+			}
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas de una permanencia recorriendo las ranuras
+	 * @param permanencia la permanencia de las reservas
+	 * @return las reservas de la permanencia, en el orden de sus ranuras
+	 * @throws IllegalArgumentException si la permanencia es nula
+	 */
+	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
+		if(permanencia==null)
+			throw new IllegalArgumentException("No se pueden consultar las reservas de una permanencia nula.");
+		return getReservas(permanencia, permanencia);
+	}
+
+	/**
+	 * Obtiene las reservas realizadas entre dos permanencias recorriendo las ranuras
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del intervalo, en el orden de sus ranuras
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	public List<Reserva> getReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		if(desde==null || hasta==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas entre permanencias nulas.");
+		long primera = desde.getClave();
+		long ultima = hasta.getClave();
+		if(primera > ultima)
+			throw new IllegalArgumentException("La permanencia inicial no puede ser posterior a la final.");
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>();
+			for(int ranura = 0; ranura < numRanuras; ranura++) {
+				long clave = clave(ranura);
+				if(clave >= primera && clave <= ultima && aula(ranura) != LIBRE)
+					reservas.add(reserva(ranura));
+			}
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Cuenta las reservas realizadas entre dos permanencias sin crear ningún objeto
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return el número de reservas del intervalo
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	public int contarReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		if(desde==null || hasta==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas entre permanencias nulas.");
+		long primera = desde.getClave();
+		long ultima = hasta.getClave();
+		if(primera > ultima)
+			throw new IllegalArgumentException("La permanencia inicial no puede ser posterior a la final.");
+		cerrojo.readLock().lock();
+		try {
+			int contadas = 0;
+			for(int ranura = 0; ranura < numRanuras; ranura++) {
+				long clave = clave(ranura);
+				if(clave >= primera && clave <= ultima && aula(ranura) != LIBRE)
+					contadas++;
+			}
+			return contadas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Comprueba si un aula está disponible en una permanencia
+	 * @param aula el aula a comprobar
+	 * @param permanencia la fecha y tramo en las que comprobar el aula
+	 * @return True si está disponible, False si está reservada
+	 * @throws IllegalArgumentException si el aula o la permanencia son nulas
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de un aula nula.");
+		if(permanencia==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de una permanencia nula.");
+		cerrojo.readLock().lock();
+		try {
+			return ocupacion.buscar(diccionario.idAula(aula), permanencia.getClave()) == LIBRE;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+}
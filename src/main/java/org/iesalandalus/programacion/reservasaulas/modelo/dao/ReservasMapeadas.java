@@ -0,0 +1,836 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+
+/**
+ * Alternativa persistente a ReservasDirectas en la que las reservas viven en un fichero proyectado en memoria, de
+ * modo que el propio almacén es el fichero y no hace falta volver a escribirlo entero. Cada reserva ocupa una ranura
+ * de 16 bytes con el mismo formato que en ReservasDirectas, tras una cabecera con el número de ranuras usadas.
+ * Insertar una reserva escribe su ranura al final y anular una reserva sólo marca su ranura como borrada, con el
+ * aula a -1. Las aulas y los profesores de las reservas se guardan una sola vez en un segundo fichero, con el mismo
+ * nombre terminado en .diccionario, al que sólo se añaden entradas.
+ * <p>
+ * Abrir la colección proyecta el fichero sin leerlo; lo único que se reconstruye es el diccionario y la tabla de
+ * ocupación, recorriendo las ranuras una vez. El aula de una ranura se escribe la última, así que una caída durante
+ * la escritura deja la ranura completa o borrada. Los cambios llegan al fichero en cuanto se hacen y sobreviven a
+ * una caída del programa; para que sobrevivan a una caída del sistema hay que llamar a sincronizar.
+ * <p>
+ * Las ranuras borradas se recuperan compactando: la última ranura ocupada se mueve a la primera borrada, hasta que
+ * no queda ninguna, y el fichero se reutiliza desde el final. La compactación se hace por lotes pequeños, cada uno
+ * con el cerrojo de escritura, así que las consultas sólo esperan lo que tarda un lote y no la compactación entera.
+ * Puede hacerse a mano con compactar o en un hilo aparte con iniciarCompactacion. Las consultas devuelven las
+ * reservas en el orden de sus ranuras, que cambia al compactar. El fichero crece al doble cuando se llena y nunca
+ * se reduce.
+ * @see ReservasDirectas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public class ReservasMapeadas implements Closeable {
+
+	private static final int MAGICO = 0x5241524D;
+	private static final int VERSION = 1;
+	private static final int TAMANO_CABECERA = 16;
+	private static final int POSICION_NUM_RANURAS = 8;
+	private static final int TAMANO_REGISTRO = TablaOcupacion.TAMANO_REGISTRO;
+	private static final int POSICION_AULA = TablaOcupacion.POSICION_AULA;
+	private static final int POSICION_PROFESOR = TablaOcupacion.POSICION_PROFESOR;
+	private static final int POSICION_CLAVE = TablaOcupacion.POSICION_CLAVE;
+	private static final int LIBRE = TablaOcupacion.LIBRE;
+	private static final int CAPACIDAD_INICIAL = 1024;
+	private static final int LOTE_COMPACTACION = 1024;
+	private static final byte ENTRADA_AULA = 1;
+	private static final byte ENTRADA_PROFESOR = 2;
+	private static final int CADENA_NULA = 0xFFFF;
+
+	/**
+	 * Mayor número de reservas que caben en la colección, limitado por el tamaño máximo de una proyección
+	 */
+	public static final int CAPACIDAD_MAXIMA = (Integer.MAX_VALUE - TAMANO_CABECERA) / TAMANO_REGISTRO;
+
+	private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+	private final DiccionarioReservas diccionario = new DiccionarioReservas();
+	private final Path fichero;
+	private final FileChannel canal;
+	private final FileChannel canalDiccionario;
+	private MappedByteBuffer proyeccion;
+	private ByteBuffer registros;
+	private TablaOcupacion ocupacion;
+	private int numRanuras;
+	private int numReservas;
+	private int numBorradas;
+	private int primeraBorrada;
+	private boolean cerrada;
+	private ScheduledExecutorService compactacion;
+	private volatile RuntimeException errorCompactacion;
+
+	/**
+	 * Abre la colección guardada en un fichero, creándola vacía si no existe, y reconstruye su diccionario y su
+	 * tabla de ocupación. Si la última entrada del diccionario está incompleta, por una caída durante su escritura,
+	 * se descarta. Un fichero con menos de CAPACIDAD_INICIAL ranuras, incluso sin ninguna, se amplía hasta ella
+	 * @param fichero el fichero de las reservas
+	 * @throws IOException si no se pueden abrir los ficheros o no son una colección de reservas válida
+	 * @throws IllegalArgumentException si el fichero es nulo
+	 */
+	public ReservasMapeadas(Path fichero) throws IOException, IllegalArgumentException {
+		if(fichero==null)
+			throw new IllegalArgumentException("El fichero de las reservas no puede ser nulo.");
+		this.fichero = fichero;
+		canal = FileChannel.open(fichero, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			canalDiccionario = FileChannel.open(fichero.resolveSibling(fichero.getFileName() + ".diccionario"),
+					StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} catch (IOException e) {
+			canal.close();
+			throw e;
+		}
+		try {
+			leerDiccionario();
+			if(canal.size() == 0) {
+				proyectar(CAPACIDAD_INICIAL);
+				proyeccion.putInt(0, MAGICO).putInt(4, VERSION).putInt(POSICION_NUM_RANURAS, 0);
+			} else {
+				long tamano = canal.size();
+				if(tamano < TAMANO_CABECERA || (tamano - TAMANO_CABECERA) % TAMANO_REGISTRO != 0
+						|| tamano - TAMANO_CABECERA > (long) CAPACIDAD_MAXIMA * TAMANO_REGISTRO)
+					throw new IOException("El fichero " + fichero.getFileName() + " no es un fichero de reservas válido.");
+				proyectar((int) ((tamano - TAMANO_CABECERA) / TAMANO_REGISTRO));
+				if(proyeccion.getInt(0) != MAGICO || proyeccion.getInt(4) != VERSION)
+					throw new IOException("El fichero " + fichero.getFileName() + " no es un fichero de reservas válido.");
+				numRanuras = proyeccion.getInt(POSICION_NUM_RANURAS);
+				if(numRanuras < 0 || numRanuras > getCapacidad())
+					throw new IOException("El fichero " + fichero.getFileName() + " está dañado.");
+				if(getCapacidad() < CAPACIDAD_INICIAL)
+					proyectar(CAPACIDAD_INICIAL);
+			}
+			reconstruir();
+		} catch (IOException | IllegalArgumentException e) {
+			canal.close();
+			canalDiccionario.close();
+			throw e instanceof IOException ? (IOException) e
+					: new IOException("El fichero " + fichero.getFileName() + " está dañado.", e);
+		}
+	}
+
+	/**
+	 * Proyecta en memoria la cabecera y un número de ranuras, ampliando el fichero si es más corto
+	 * @param capacidad el número de ranuras a proyectar
+	 * @throws IOException si no se puede proyectar el fichero
+	 */
+	private void proyectar(int capacidad) throws IOException {
+		proyeccion = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAMANO_CABECERA + (long) capacidad * TAMANO_REGISTRO);
+		proyeccion.position(TAMANO_CABECERA);
+		registros = proyeccion.slice();
+		proyeccion.clear();
+	}
+
+	/**
+	 * Lee las entradas del diccionario en el orden en que se añadieron, de modo que cada aula y cada profesor
+	 * reciben el mismo identificador que cuando se registraron. Una entrada final incompleta se descarta truncando
+	 * el fichero
+	 * @throws IOException si falla la lectura o alguna entrada es de un tipo desconocido
+	 */
+	private void leerDiccionario() throws IOException {
+		ByteBuffer datos = ByteBuffer.allocate((int) canalDiccionario.size());
+		while(datos.hasRemaining() && canalDiccionario.read(datos, datos.position()) >= 0)
+			;
+		datos.flip();
+		int valida = 0;
+		try {
+			while(datos.hasRemaining()) {
+				byte tipo = datos.get();
+				boolean nueva;
+				if(tipo == ENTRADA_AULA) {
+					nueva = diccionario.registrarAula(new Aula(leerCadena(datos))) == diccionario.getNumAulas() - 1;
+				} else if(tipo == ENTRADA_PROFESOR) {
+					String nombre = leerCadena(datos);
+					String correo = leerCadena(datos);
+					Profesor profesor = new Profesor(nombre, correo, leerCadena(datos));
+					nueva = diccionario.registrarProfesor(profesor) == diccionario.getNumProfesores() - 1;
+				} else {
+					nueva = false;
+				}
+				if(!nueva)
+					throw new IOException("El diccionario de " + fichero.getFileName() + " está dañado.");
+				valida = datos.position();
+			}
+		} catch (BufferUnderflowException e) {
+			canalDiccionario.truncate(valida);
+		}
+		canalDiccionario.position(valida);
+	}
+
+	/**
+	 * Recorre las ranuras usadas para contar las reservas y las ranuras borradas y para rellenar la tabla de
+	 * ocupación. Si una caída durante la compactación ha dejado una reserva en dos ranuras, se borra la segunda
+	 * @throws IOException si alguna ranura tiene identificadores que no están en el diccionario
+	 */
+	private void reconstruir() throws IOException {
+		ocupacion = new TablaOcupacion(registros);
+		for(int ranura = 0; ranura < numRanuras; ranura++) {
+			int aula = aula(ranura);
+			if(aula == LIBRE) {
+				numBorradas++;
+			} else if(aula < 0 || aula >= diccionario.getNumAulas() || profesor(ranura) < 0
+					|| profesor(ranura) >= diccionario.getNumProfesores()) {
+				throw new IOException("El fichero " + fichero.getFileName() + " está dañado.");
+			} else if(ocupacion.buscar(aula, clave(ranura)) != LIBRE) {
+				registros.putInt(ranura * TAMANO_REGISTRO + POSICION_AULA, LIBRE);
+				numBorradas++;
+			} else {
+				ocupacion.anotar(ranura);
+				numReservas++;
+			}
+		}
+	}
+
+	/**
+	 * Lee una cadena codificada como longitud (dos bytes sin signo, 0xFFFF para nulo) seguida de sus bytes en UTF-8
+	 * @param buffer el buffer del que leer
+	 * @return la cadena leída o null
+	 */
+	private static String leerCadena(ByteBuffer buffer) {
+		int longitud = buffer.getShort() & 0xFFFF;
+		if(longitud == CADENA_NULA)
+			return null;
+		byte[] bytes = new byte[longitud];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Añade una entrada al final del diccionario con una sola escritura, con cada cadena codificada como la lee
+	 * leerCadena
+	 * @param tipo ENTRADA_AULA o ENTRADA_PROFESOR
+	 * @param cadenas las cadenas de la entrada, que pueden ser nulas
+	 * @throws IllegalArgumentException si alguna cadena es demasiado larga
+	 * @throws UncheckedIOException si falla la escritura
+	 */
+	private void anadirEntrada(byte tipo, String... cadenas) throws IllegalArgumentException, UncheckedIOException {
+		byte[][] bytes = new byte[cadenas.length][];
+		int longitud = 1;
+		for(int i = 0; i < cadenas.length; i++) {
+			if(cadenas[i] != null) {
+				bytes[i] = cadenas[i].getBytes(StandardCharsets.UTF_8);
+				if(bytes[i].length >= CADENA_NULA)
+					throw new IllegalArgumentException("No se puede registrar una cadena tan larga en el diccionario.");
+				longitud += bytes[i].length;
+			}
+			longitud += 2;
+		}
+		ByteBuffer entrada = ByteBuffer.allocate(longitud).put(tipo);
+		for(byte[] cadena : bytes) {
+			if(cadena == null) {
+				entrada.putShort((short) CADENA_NULA);
+			} else {
+				entrada.putShort((short) cadena.length);
+				entrada.put(cadena);
+			}
+		}
+		entrada.flip();
+		try {
+			while(entrada.hasRemaining())
+				canalDiccionario.write(entrada);
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo guardar el diccionario de " + fichero.getFileName() + ".", e);
+		}
+	}
+
+	/**
+	 * Obtiene el identificador del aula de una reserva nueva, guardándola en el diccionario antes de registrarla
+	 * si es la primera vez que aparece
+	 * @param aula el aula de la reserva
+	 * @return su identificador
+	 */
+	private int registrarAula(Aula aula) {
+		if(diccionario.idAula(aula) == LIBRE)
+			anadirEntrada(ENTRADA_AULA, aula.getNombre());
+		return diccionario.registrarAula(aula);
+	}
+
+	/**
+	 * Obtiene el identificador del profesor de una reserva nueva, guardándolo en el diccionario antes de
+	 * registrarlo si necesita un identificador nuevo
+	 * @param profesor el profesor de la reserva
+	 * @return su identificador
+	 */
+	private int registrarProfesor(Profesor profesor) {
+		if(diccionario.idProfesor(profesor) == LIBRE)
+			anadirEntrada(ENTRADA_PROFESOR, profesor.getNombre(), profesor.getCorreo(), profesor.getTelefono());
+		return diccionario.registrarProfesor(profesor);
+	}
+
+	/**
+	 * Método get para el número de reservas que caben sin ampliar el fichero
+	 * @return el número de ranuras proyectadas
+	 */
+	public int getCapacidad() {
+		cerrojo.readLock().lock();
+		try {
+			return registros.capacity() / TAMANO_REGISTRO;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Método get para el número de ranuras borradas que aún no se han recuperado compactando
+	 * @return el número de ranuras borradas
+	 */
+	public int getNumBorradas() {
+		cerrojo.readLock().lock();
+		try {
+			return numBorradas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Método get para el último fallo de la compactación periódica, que sigue programada aunque falle
+	 * @return la excepción del último fallo, o null si no ha fallado nunca
+	 */
+	public RuntimeException getErrorCompactacion() {
+		return errorCompactacion;
+	}
+
+	/**
+	 * Lee el identificador del aula de una ranura
+	 * @param ranura el número de ranura
+	 * @return el identificador, o -1 si la ranura está borrada
+	 */
+	private int aula(int ranura) {
+		return registros.getInt(ranura * TAMANO_REGISTRO + POSICION_AULA);
+	}
+
+	/**
+	 * Lee el identificador del profesor de una ranura
+	 * @param ranura el número de ranura
+	 * @return el identificador
+	 */
+	private int profesor(int ranura) {
+		return registros.getInt(ranura * TAMANO_REGISTRO + POSICION_PROFESOR);
+	}
+
+	/**
+	 * Lee la clave de la permanencia de una ranura
+	 * @param ranura el número de ranura
+	 * @return la clave empaquetada
+	 */
+	private long clave(int ranura) {
+		return registros.getLong(ranura * TAMANO_REGISTRO + POSICION_CLAVE);
+	}
+
+	/**
+	 * Escribe una reserva en una ranura, dejando el aula para el final para que la ranura no parezca ocupada hasta
+	 * que está completa
+	 * @param ranura el número de ranura
+	 * @param aula el identificador del aula
+	 * @param profesor el identificador del profesor
+	 * @param clave la clave de la permanencia
+	 */
+	private void escribir(int ranura, int aula, int profesor, long clave) {
+		int posicion = ranura * TAMANO_REGISTRO;
+		registros.putInt(posicion + POSICION_PROFESOR, profesor);
+		registros.putLong(posicion + POSICION_CLAVE, clave);
+		registros.putInt(posicion + POSICION_AULA, aula);
+	}
+
+	/**
+	 * Anota en la cabecera del fichero el número de ranuras usadas
+	 */
+	private void anotarNumRanuras() {
+		proyeccion.putInt(POSICION_NUM_RANURAS, numRanuras);
+	}
+
+	/**
+	 * Comprueba que la colección no se ha cerrado antes de modificarla
+	 * @throws IllegalStateException si la colección está cerrada
+	 */
+	private void comprobarAbierta() throws IllegalStateException {
+		if(cerrada)
+			throw new IllegalStateException("La colección de reservas está cerrada.");
+	}
+
+	/**
+	 * Obtiene la ranura siguiente a la última usada, ampliando el fichero al doble si está lleno
+	 * @return el número de ranura
+	 * @throws IllegalStateException si ya hay CAPACIDAD_MAXIMA ranuras
+	 * @throws UncheckedIOException si no se puede ampliar el fichero
+	 */
+	private int ocuparRanura() throws IllegalStateException, UncheckedIOException {
+		int capacidad = registros.capacity() / TAMANO_REGISTRO;
+		if(numRanuras == capacidad) {
+			if(capacidad == CAPACIDAD_MAXIMA)
+				throw new IllegalStateException("No caben más reservas.");
+			try {
+				proyectar((int) Math.min(2L * capacidad, CAPACIDAD_MAXIMA));
+			} catch (IOException e) {
+				throw new UncheckedIOException("No se pudo ampliar el fichero " + fichero.getFileName() + ".", e);
+			}
+			ocupacion.ampliar(registros, numRanuras);
+		}
+		return numRanuras;
+	}
+
+	/**
+	 * Quita una reserva de la tabla de ocupación y marca su ranura como borrada
+	 * @param ranura el número de ranura a borrar
+	 */
+	private void borrarRanura(int ranura) {
+		ocupacion.quitar(ranura);
+		registros.putInt(ranura * TAMANO_REGISTRO + POSICION_AULA, LIBRE);
+		if(ranura < primeraBorrada)
+			primeraBorrada = ranura;
+		numBorradas++;
+		numReservas--;
+	}
+
+	/**
+	 * Crea la reserva guardada en una ranura
+	 * @param ranura el número de ranura
+	 * @return la reserva de la ranura
+	 */
+	private Reserva reserva(int ranura) {
+		return new Reserva(diccionario.getProfesor(profesor(ranura)), diccionario.getAula(aula(ranura)),
+				new Permanencia(clave(ranura)));
+	}
+
+	/**
+	 * Recupera ranuras borradas moviendo las últimas ranuras ocupadas a las primeras borradas, con un lote limitado
+	 * de movimientos para no retener el cerrojo de escritura mucho tiempo. La reserva se escribe en su nueva ranura
+	 * antes de borrar la antigua, de modo que una caída en medio la deja duplicada y no perdida
+	 * @return el número de ranuras recuperadas
+	 */
+	private int compactarLote() {
+		int recuperadas = 0;
+		int movidas = 0;
+		while(numBorradas > 0 && movidas < LOTE_COMPACTACION) {
+			int ultima = numRanuras - 1;
+			if(aula(ultima) != LIBRE) {
+				while(aula(primeraBorrada) != LIBRE)
+					primeraBorrada++;
+				ocupacion.quitar(ultima);
+				escribir(primeraBorrada, aula(ultima), profesor(ultima), clave(ultima));
+				ocupacion.anotar(primeraBorrada);
+				registros.putInt(ultima * TAMANO_REGISTRO + POSICION_AULA, LIBRE);
+				movidas++;
+			}
+			numRanuras--;
+			numBorradas--;
+			recuperadas++;
+		}
+		if(numBorradas == 0)
+			primeraBorrada = 0;
+		anotarNumRanuras();
+		return recuperadas;
+	}
+
+	/**
+	 * Recupera todas las ranuras borradas, por lotes que toman el cerrojo de escritura de uno en uno para que las
+	 * consultas puedan hacerse entre lote y lote
+	 * @return el número de ranuras recuperadas
+	 * @throws IllegalStateException si la colección está cerrada
+	 */
+	public int compactar() throws IllegalStateException {
+		int recuperadas = 0;
+		int lote;
+		do {
+			cerrojo.writeLock().lock();
+			try {
+				comprobarAbierta();
+				lote = compactarLote();
+			} finally {
+				cerrojo.writeLock().unlock();
+			}
+			recuperadas += lote;
+		} while(lote > 0);
+		return recuperadas;
+	}
+
+	/**
+	 * Comprueba periódicamente en un hilo aparte si al menos una cuarta parte de las ranuras usadas están borradas
+	 * y, en ese caso, compacta la colección. Un fallo en una comprobación no detiene las siguientes: se guarda para
+	 * consultarlo con getErrorCompactacion
+	 * @param periodo el tiempo entre comprobaciones
+	 * @param unidad la unidad del periodo
+	 * @throws IllegalArgumentException si la unidad es nula o el periodo no es positivo
+	 * @throws IllegalStateException si ya se está compactando periódicamente o la colección está cerrada
+	 */
+	public synchronized void iniciarCompactacion(long periodo, TimeUnit unidad)
+			throws IllegalArgumentException, IllegalStateException {
+		if(unidad==null)
+			throw new IllegalArgumentException("No se puede compactar con una unidad nula.");
+		if(periodo <= 0)
+			throw new IllegalArgumentException("El periodo de compactación debe ser positivo.");
+		if(compactacion != null)
+			throw new IllegalStateException("La colección ya se está compactando.");
+		comprobarAbierta();
+		compactacion = Executors.newSingleThreadScheduledExecutor(tarea -> {
+			Thread hilo = new Thread(tarea, "compactacion-" + fichero.getFileName());
+			hilo.setDaemon(true);
+			return hilo;
+		});
+		compactacion.scheduleWithFixedDelay(() -> {
+			try {
+				if(debeCompactar())
+					compactar();
+			} catch (IllegalStateException e) {
+				// La colección se ha cerrado entre comprobaciones
+			} catch (RuntimeException e) {
+				errorCompactacion = e;
+			}
+		}, periodo, periodo, unidad);
+	}
+
+	/**
+	 * Comprueba si al menos una cuarta parte de las ranuras usadas están borradas
+	 * @return True si conviene compactar
+	 */
+	private boolean debeCompactar() {
+		cerrojo.readLock().lock();
+		try {
+			return numBorradas > 0 && numBorradas * 4L >= numRanuras;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Fuerza la escritura en disco de los cambios de las reservas y del diccionario
+	 * @throws IOException si falla la sincronización
+	 */
+	public void sincronizar() throws IOException {
+		cerrojo.readLock().lock();
+		try {
+			canalDiccionario.force(false);
+			proyeccion.force();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Detiene la compactación periódica, sincroniza los cambios con disco y cierra los ficheros. La colección no
+	 * admite modificaciones después de cerrarla
+	 * @throws IOException si falla la sincronización o el cierre
+	 */
+	public void close() throws IOException {
+		synchronized(this) {
+			if(compactacion != null)
+				compactacion.shutdown();
+		}
+		cerrojo.writeLock().lock();
+		try {
+			if(cerrada)
+				return;
+			cerrada = true;
+			canalDiccionario.force(false);
+			proyeccion.force();
+			canalDiccionario.close();
+			canal.close();
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene todas las reservas de la colección, en el orden de sus ranuras
+	 * @return una lista nueva con las reservas
+	 */
+	public List<Reserva> getReservas() {
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>(numReservas);
+			for(int ranura = 0; ranura < numRanuras; ranura++)
+				if(aula(ranura) != LIBRE)
+					reservas.add(reserva(ranura));
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene el número de reservas que existen en la colección actual
+	 * @return el número de reservas
+	 */
+	public int getNumReservas() {
+		cerrojo.readLock().lock();
+		try {
+			return numReservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda una reserva en la colección
+	 * @param reserva la reserva a guardar
+	 * @throws IllegalArgumentException si la reserva es nula
+	 * @throws OperationNotSupportedException si la reserva ya existe
+	 * @throws IllegalStateException si ya hay CAPACIDAD_MAXIMA ranuras o la colección está cerrada
+	 * @throws UncheckedIOException si no se puede escribir el diccionario o ampliar el fichero
+	 */
+	public void insertar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException,
+			IllegalStateException, UncheckedIOException {
+		if(reservarSiDisponible(reserva) == ResultadoReserva.OCUPADA)
+			throw new OperationNotSupportedException("La reserva ya existe.");
+	}
+
+	/**
+	 * Guarda una reserva si el aula está libre en su permanencia, escribiéndola en la ranura siguiente a la última
+	 * @param reserva la reserva a guardar
+	 * @return RESERVADA si se ha guardado la reserva, OCUPADA si el aula ya estaba reservada
+	 * @throws IllegalArgumentException si la reserva es nula
+	 * @throws IllegalStateException si ya hay CAPACIDAD_MAXIMA ranuras o la colección está cerrada
+	 * @throws UncheckedIOException si no se puede escribir el diccionario o ampliar el fichero
+	 */
+	public ResultadoReserva reservarSiDisponible(Reserva reserva) throws IllegalArgumentException,
+			IllegalStateException, UncheckedIOException {
+		if(reserva==null)
+			throw new IllegalArgumentException("No se puede realizar una reserva nula.");
+		cerrojo.writeLock().lock();
+		try {
+			comprobarAbierta();
+			long clave = reserva.getPermanencia().getClave();
+			if(ocupacion.buscar(diccionario.idAula(reserva.getAula()), clave) != LIBRE)
+				return ResultadoReserva.OCUPADA;
+			int ranura = ocuparRanura();
+			escribir(ranura, registrarAula(reserva.getAula()), registrarProfesor(reserva.getProfesor()), clave);
+			numRanuras++;
+			anotarNumRanuras();
+			ocupacion.anotar(ranura);
+			numReservas++;
+			return ResultadoReserva.RESERVADA;
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Busca una reserva en la colección
+	 * @param reserva la reserva a buscar
+	 * @return la reserva guardada con su aula y su permanencia, o null si no la encuentra
+	 */
+	public Reserva buscar(Reserva reserva) {
+		if(reserva==null)
+			return null;
+		cerrojo.readLock().lock();
+		try {
+			int ranura = ocupacion.buscar(diccionario.idAula(reserva.getAula()), reserva.getPermanencia().getClave());
+			return ranura == LIBRE ? null : reserva(ranura);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra una reserva de la colección marcando su ranura como borrada
+	 * @param reserva la reserva a borrar
+	 * @throws IllegalArgumentException si la reserva es nula
+	 * @throws OperationNotSupportedException si la reserva no existe
+	 * @throws IllegalStateException si la colección está cerrada
+	 */
+	public void borrar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException,
+			IllegalStateException {
+		if(reserva==null)
+			throw new IllegalArgumentException("No se puede anular una reserva nula.");
+		cerrojo.writeLock().lock();
+		try {
+			comprobarAbierta();
+			int ranura = ocupacion.buscar(diccionario.idAula(reserva.getAula()), reserva.getPermanencia().getClave());
+			if(ranura == LIBRE)
+				throw new OperationNotSupportedException("La reserva a anular no existe.");
+			borrarRanura(ranura);
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra todas las reservas de un aula recorriendo las ranuras
+	 * @param aula el aula cuyas reservas se borran
+	 * @return el número de reservas borradas
+	 * @throws IllegalArgumentException si el aula es nula
+	 * @throws IllegalStateException si la colección está cerrada
+	 */
+	public int borrarReservas(Aula aula) throws IllegalArgumentException, IllegalStateException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden anular las reservas de un aula nula.");
+		cerrojo.writeLock().lock();
+		try {
+			comprobarAbierta();
+			int id = diccionario.idAula(aula);
+			int borradas = 0;
+			if(id != LIBRE) {
+				for(int ranura = 0; ranura < numRanuras; ranura++) {
+					if(aula(ranura) == id) {
+						borrarRanura(ranura);
+						borradas++;
+					}
+				}
+			}
+			return borradas;
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra todas las reservas de un profesor recorriendo las ranuras. Incluye las reservas hechas con otros datos
+	 * del mismo profesor, ya que los profesores se identifican por su nombre
+	 * @param profesor el profesor cuyas reservas se borran
+	 * @return el número de reservas borradas
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 * @throws IllegalStateException si la colección está cerrada
+	 */
+	public int borrarReservas(Profesor profesor) throws IllegalArgumentException, IllegalStateException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se pueden anular las reservas de un profesor nulo.");
+		cerrojo.writeLock().lock();
+		try {
+			comprobarAbierta();
+			int[] ids = diccionario.idsProfesor(profesor);
+			int borradas = 0;
+			for(int ranura = 0; ranura < numRanuras; ranura++) {
+				if(aula(ranura) != LIBRE && DiccionarioReservas.contiene(ids, profesor(ranura))) {
+					borrarRanura(ranura);
+					borradas++;
+				}
+			}
+			return borradas;
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas de un aula recorriendo las ranuras
+	 * @param aula el aula reservada
+	 * @return las reservas del aula, en el orden de sus ranuras
+	 * @throws IllegalArgumentException si el aula es nula
+	 */
+	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>();
+			int id = diccionario.idAula(aula);
+			if(id != LIBRE) {
+				for(int ranura = 0; ranura < numRanuras; ranura++)
+					if(aula(ranura) == id)
+						reservas.add(reserva(ranura));
+			}
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas de un profesor recorriendo las ranuras
+	 * @param profesor el profesor que ha hecho las reservas
+	 * @return las reservas del profesor, en el orden de sus ranuras
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>();
+			int[] ids = diccionario.idsProfesor(profesor);
+			if(ids.length > 0) {
+				for(int ranura = 0; ranura < numRanuras; ranura++)
+					if(aula(ranura) != LIBRE && DiccionarioReservas.contiene(ids, profesor(ranura)))
+						reservas.add(reserva(ranura));
+			}
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas de una permanencia recorriendo las ranuras
+	 * @param permanencia la permanencia de las reservas
+	 * @return las reservas de la permanencia, en el orden de sus ranuras
+	 * @throws IllegalArgumentException si la permanencia es nula
+	 */
+	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
+		if(permanencia==null)
+			throw new IllegalArgumentException("No se pueden consultar las reservas de una permanencia nula.");
+		return getReservas(permanencia, permanencia);
+	}
+
+	/**
+	 * Obtiene las reservas realizadas entre dos permanencias recorriendo las ranuras
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del intervalo, en el orden de sus ranuras
+	 * @throws IllegalArgumentException si alguna permanencia es nula o la primera es posterior a la última
+	 */
+	public List<Reserva> getReservas(Permanencia desde, Permanencia hasta) throws IllegalArgumentException {
+		if(desde==null || hasta==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas entre permanencias nulas.");
+		long primera = desde.getClave();
+		long ultima = hasta.getClave();
+		if(primera > ultima)
+			throw new IllegalArgumentException("La permanencia inicial no puede ser posterior a la final.");
+		cerrojo.readLock().lock();
+		try {
+			List<Reserva> reservas = new ArrayList<Reserva>();
+			for(int ranura = 0; ranura < numRanuras; ranura++) {
+				long clave = clave(ranura);
+				if(clave >= primera && clave <= ultima && aula(ranura) != LIBRE)
+					reservas.add(reserva(ranura));
+			}
+			return reservas;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Comprueba si un aula está disponible en una permanencia
+	 * @param aula el aula a comprobar
+	 * @param permanencia la fecha y tramo en las que comprobar el aula
+	 * @return True si está disponible, False si está reservada
+	 * @throws IllegalArgumentException si el aula o la permanencia son nulas
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de un aula nula.");
+		if(permanencia==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de una permanencia nula.");
+		cerrojo.readLock().lock();
+		try {
+			return ocupacion.buscar(diccionario.idAula(aula), permanencia.getClave()) == LIBRE;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+}
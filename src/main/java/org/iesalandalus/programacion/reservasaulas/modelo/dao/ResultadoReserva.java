@@ -0,0 +1,31 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+/**
+ * Clase enumerada para el resultado de intentar una reserva sin lanzar excepciones
+ * @see Reservas#reservarSiDisponible(org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva)
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public enum ResultadoReserva {
+	RESERVADA("Reserva realizada correctamente."),
+	OCUPADA("El aula ya está reservada en ese día y tramo."),
+	ARCHIVADA("El día ya está archivado y no admite reservas.");
+	private final String cadenaAMostrar;
+
+	/**
+	 * Constructor privado
+	 * @param cadenaAMostrar el mensaje que describe el resultado
+	 */
+	private ResultadoReserva(String cadenaAMostrar) {
+		this.cadenaAMostrar = cadenaAMostrar;
+	}
+
+	/**
+	 * Representa el resultado como una cadena de caracteres
+	 * @return el mensaje que describe el resultado
+	 */
+	public String toString() {
+		return cadenaAMostrar;
+	}
+
+}
@@ -0,0 +1,143 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tabla hash de direccionamiento abierto que indica qué ranura ocupa cada aula en cada permanencia, para las
+ * colecciones que guardan cada reserva en un registro de 16 bytes de un ByteBuffer: el identificador de su aula
+ * (int), el de su profesor (int) y la clave empaquetada de su permanencia (long). Un aula LIBRE marca una ranura
+ * sin reserva. La tabla guarda números de ranura más uno, con el cero como hueco, y nunca pasa de la mitad llena.
+ * No está sincronizada: la protege el cerrojo de la colección que la usa.
+ * @see ReservasDirectas
+ * @see ReservasMapeadas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+final class TablaOcupacion {
+
+	static final int TAMANO_REGISTRO = 16;
+	static final int POSICION_AULA = 0;
+	static final int POSICION_PROFESOR = 4;
+	static final int POSICION_CLAVE = 8;
+	static final int LIBRE = DiccionarioReservas.NINGUNO;
+	private static final long MEZCLA = 0x9E3779B97F4A7C15L;
+
+	private ByteBuffer registros;
+	private int[] posiciones;
+
+	/**
+	 * Constructor que crea la tabla vacía para la capacidad de un buffer de registros
+	 * @param registros el buffer con los registros de las reservas
+	 */
+	TablaOcupacion(ByteBuffer registros) {
+		this.registros = registros;
+		posiciones = new int[tamano(registros.capacity() / TAMANO_REGISTRO)];
+	}
+
+	/**
+	 * Calcula el tamaño de la tabla para una capacidad: la menor potencia de dos que es al menos el doble, para
+	 * que la tabla nunca pase de la mitad llena
+	 * @param capacidad el número de ranuras
+	 * @return el tamaño de la tabla
+	 */
+	private static int tamano(int capacidad) {
+		return Integer.highestOneBit(2 * capacidad - 1) << 1;
+	}
+
+	/**
+	 * Lee el identificador del aula de una ranura
+	 * @param ranura el número de ranura
+	 * @return el identificador, o LIBRE si la ranura no tiene reserva
+	 */
+	private int aula(int ranura) {
+		return registros.getInt(ranura * TAMANO_REGISTRO + POSICION_AULA);
+	}
+
+	/**
+	 * Lee la clave de la permanencia de una ranura
+	 * @param ranura el número de ranura
+	 * @return la clave empaquetada
+	 */
+	private long clave(int ranura) {
+		return registros.getLong(ranura * TAMANO_REGISTRO + POSICION_CLAVE);
+	}
+
+	/**
+	 * Calcula la posición inicial de un aula y una permanencia en la tabla
+	 * @param aula el identificador del aula
+	 * @param clave la clave de la permanencia
+	 * @return la posición en la tabla
+	 */
+	private int posicionInicial(int aula, long clave) {
+		long mezcla = (clave + ((long) aula << 32)) * MEZCLA;
+		return (int) (mezcla ^ (mezcla >>> 32)) & (posiciones.length - 1);
+	}
+
+	/**
+	 * Busca la ranura que ocupa un aula en una permanencia
+	 * @param aula el identificador del aula
+	 * @param clave la clave de la permanencia
+	 * @return el número de ranura, o LIBRE si el aula está libre
+	 */
+	int buscar(int aula, long clave) {
+		if(aula == LIBRE)
+			return LIBRE;
+		int mascara = posiciones.length - 1;
+		for(int i = posicionInicial(aula, clave); posiciones[i] != 0; i = (i + 1) & mascara) {
+			int ranura = posiciones[i] - 1;
+			if(aula(ranura) == aula && clave(ranura) == clave)
+				return ranura;
+		}
+		return LIBRE;
+	}
+
+	/**
+	 * Anota una ranura en la tabla
+	 * @param ranura el número de ranura, cuya aula y permanencia no deben estar ya en la tabla
+	 */
+	void anotar(int ranura) {
+		int mascara = posiciones.length - 1;
+		int i = posicionInicial(aula(ranura), clave(ranura));
+		while(posiciones[i] != 0)
+			i = (i + 1) & mascara;
+		posiciones[i] = ranura + 1;
+	}
+
+	/**
+	 * Quita una ranura de la tabla, desplazando hacia atrás las entradas siguientes de la misma secuencia de
+	 * sondeo para no dejar huecos que corten las búsquedas
+	 * @param ranura el número de ranura, que debe estar en la tabla y conservar aún su aula y su permanencia
+	 */
+	void quitar(int ranura) {
+		int mascara = posiciones.length - 1;
+		int hueco = posicionInicial(aula(ranura), clave(ranura));
+		while(posiciones[hueco] != ranura + 1)
+			hueco = (hueco + 1) & mascara;
+		for(int i = (hueco + 1) & mascara; posiciones[i] != 0; i = (i + 1) & mascara) {
+			int otra = posiciones[i] - 1;
+			int inicial = posicionInicial(aula(otra), clave(otra));
+			if(((i - inicial) & mascara) >= ((i - hueco) & mascara)) {
+				posiciones[hueco] = posiciones[i];
+				hueco = i;
+			}
+		}
+		posiciones[hueco] = 0;
+	}
+
+	/**
+	 * Pasa a usar un buffer de registros más grande, con las mismas ranuras al principio, y reconstruye la tabla
+	 * si su capacidad pide un tamaño mayor
+	 * @param registros el nuevo buffer
+	 * @param numRanuras el número de ranuras usadas del buffer
+	 */
+	void ampliar(ByteBuffer registros, int numRanuras) {
+		this.registros = registros;
+		int tamano = tamano(registros.capacity() / TAMANO_REGISTRO);
+		if(tamano != posiciones.length) {
+			posiciones = new int[tamano];
+			for(int ranura = 0; ranura < numRanuras; ranura++)
+				if(aula(ranura) != LIBRE)
+					anotar(ranura);
+		}
+	}
+}
@@ -1,108 +1,170 @@
-package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
-
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Objects;
-
-/**
- * Clase que representa un tramo de reservas Reserva
- * @author Juan Antonio Manzano Plaza
- * @version 1
- *
- */
-public class Permanencia {
-
-	private LocalDate dia;
-	private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu");
-	private Tramo tramo;
-
-	/**
-	 * Constructor de la clase
-	 * @param dia el da de la reserva
-	 * @param tramo el tramo de la reserva
-	 */
-	public Permanencia(LocalDate dia, Tramo tramo) {
-		setDia(dia);
-		setTramo(tramo);
-	}
-
-	/**
-	 * Constructor copia
-	 * @param p la permanencia a copiar
-	 */
-	public Permanencia(Permanencia p) throws IllegalArgumentException {
-		if(p==null)
-			throw new IllegalArgumentException("No se puede copiar una permanencia nula.");
-		setDia(p.getDia());
-		setTramo(p.getTramo());
-	}
-
-	/**
-	 * Mtodo get para el da de la reserva
-	 * @return el da de la reserva
-	 */
-	public LocalDate getDia() {
-		return LocalDate.of(dia.getYear(), dia.getMonth(), dia.getDayOfMonth());
-	}
-
-	/**
-	 * Mtodo set para el da de la reserva
-	 * @param dia el da de la reserva
-	 * @throws IllegalArgumentException si el da es nulo
-	 */
-	private void setDia(LocalDate dia) throws IllegalArgumentException {
-		if(dia==null)
-			throw new IllegalArgumentException("El da de una permanencia no puede ser nulo.");
-		this.dia = LocalDate.of(dia.getYear(), dia.getMonth(), dia.getDayOfMonth());
-	}
-
-	/**
-	 * Mtodo get para el tramo de la reserva
-	 * @return el tramo de la reserva
-	 */
-	public Tramo getTramo() {
-		return tramo;
-	}
-
-	/**
-	 * Mtodo set para el tramo de la reserva
-	 * @param tramo el tramo de la reserva
-	 * @throws IllegalArgumentException si el tramo es nulo
-	 */
-	private void setTramo(Tramo tramo) throws IllegalArgumentException {
-		if(tramo == null)
-			throw new IllegalArgumentException("El tramo de una permanencia no puede ser nulo.");
-		this.tramo = tramo;
-	}
-
-	/**
-	 * Mtodo hashCode de la clase. Sirve para diferenciar objetos
-	 * @return el cdigo hash del objeto
-	 */
-	public int hashCode() {
-		return Objects.hash(dia, tramo);
-	}
-
-	/**
-	 * Mtodo equals de la clase
-	 * @return True si son iguales, False si no
-	 */
-	public boolean equals(Object o) {
-		if(o==null)
-			return false;
-		if(!(o instanceof Permanencia))
-			return false;
-		Permanencia otra = (Permanencia) o;
-		if(this.getDia().equals(otra.getDia()) && this.getTramo().equals(otra.getTramo()))
-			return true;
-		return false;
-	}
-
-	/**
-	 * Representa una permanencia como una cadena de caracteres
-	 * @return la representacin de la permanencia
-	 */
-	public String toString() {
-		return "[dia=" + getDia().format(FORMATO_DIA) + ", tramo=" + getTramo() + "]";
-	}
-}
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Clase que representa un tramo de reservas Reserva. Es inmutable.
+ * Cada permanencia se identifica con una clave primitiva que empaqueta el día (como día de época)
+ * y el ordinal del tramo en un long, y que se usa para la igualdad, el código hash y los índices.
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ *
+ */
+public final class Permanencia {
+
+	private final LocalDate dia;
+	private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+	private static final Tramo[] TRAMOS = Tramo.values();
+	private final Tramo tramo;
+	private final long clave;
+
+	/**
+	 * Constructor de la clase
+	 * @param dia el día de la reserva
+	 * @param tramo el tramo de la reserva
+	 */
+	public Permanencia(LocalDate dia, Tramo tramo) {
+		comprobarDia(dia);
+		comprobarTramo(tramo);
+		this.dia = dia;
+		this.tramo = tramo;
+		this.clave = calcularClave(dia, tramo);
+	}
+
+	/**
+	 * Constructor a partir de la clave empaquetada de una permanencia
+	 * @param clave la clave obtenida con getClave
+	 */
+	public Permanencia(long clave) {
+		this(LocalDate.ofEpochDay(Math.floorDiv(clave, TRAMOS.length)), TRAMOS[Math.toIntExact(Math.floorMod(clave, TRAMOS.length))]);
+	}
+
+	/**
+	 * Constructor copia
+	 * @param p la permanencia a copiar
+	 */
+	public Permanencia(Permanencia p) throws IllegalArgumentException {
+		if(p==null)
+			throw new IllegalArgumentException("No se puede copiar una permanencia nula.");
+		this.dia = p.dia;
+		this.tramo = p.tramo;
+		this.clave = p.clave;
+	}
+
+	/**
+	 * Calcula la clave empaquetada de un día y un tramo: día de época por número de tramos más el ordinal del tramo.
+	 * El orden de las claves coincide con el orden cronológico de las permanencias.
+	 * @param dia el día de la permanencia
+	 * @param tramo el tramo de la permanencia
+	 * @return la clave de la permanencia
+	 */
+	public static long calcularClave(LocalDate dia, Tramo tramo) {
+		return dia.toEpochDay() * TRAMOS.length + tramo.ordinal();
+	}
+
+	/**
+	 * Método get para la clave empaquetada de la permanencia
+	 * @return la clave de la permanencia
+	 */
+	public long getClave() {
+		return clave;
+	}
+
+	/**
+	 * Método get para el día de la reserva
+	 * @return el día de la reserva
+	 */
+	public LocalDate getDia() {
+		return dia;
+	}
+
+	/**
+	 * Comprueba que el día de la reserva es válido
+	 * @param dia el día de la reserva
+	 * @throws IllegalArgumentException si el día es nulo
+	 */
+	private static void comprobarDia(LocalDate dia) throws IllegalArgumentException {
+		if(dia==null)
+			throw new IllegalArgumentException("El día de una permanencia no puede ser nulo.");
+	}
+
+	/**
+	 * Método get para el tramo de la reserva
+	 * @return el tramo de la reserva
+	 */
+	public Tramo getTramo() {
+		return tramo;
+	}
+
+	/**
+	 * Comprueba que el tramo de la reserva es válido
+	 * @param tramo el tramo de la reserva
+	 * @throws IllegalArgumentException si el tramo es nulo
+	 */
+	private static void comprobarTramo(Tramo tramo) throws IllegalArgumentException {
+		if(tramo == null)
+			throw new IllegalArgumentException("El tramo de una permanencia no puede ser nulo.");
+	}
+
+	/**
+	 * Método hashCode de la clase. Sirve para diferenciar objetos
+	 * @return el código hash del objeto
+	 */
+	public int hashCode() {
+		return Long.hashCode(clave);
+	}
+
+	/**
+	 * Método equals de la clase
+	 * @return True si son iguales, False si no
+	 */
+	public boolean equals(Object o) {
+		if(o==null)
+			return false;
+		if(!(o instanceof Permanencia))
+			return false;
+		Permanencia otra = (Permanencia) o;
+		return this.clave == otra.clave;
+	}
+
+	/**
+	 * Representa una permanencia como una cadena de caracteres
+	 * @return la representación de la permanencia
+	 */
+	public String toString() {
+		return representar(new StringBuilder()).toString();
+	}
+
+	/**
+	 * Añade la representación de la permanencia al final de un StringBuilder. El día se escribe a mano con el
+	 * formato dd/mm/aaaa; sólo los años de más de cuatro cifras o negativos pasan por el formateador
+	 * @param salida el StringBuilder en el que escribir
+	 * @return el mismo StringBuilder, para encadenar llamadas
+	 */
+	public StringBuilder representar(StringBuilder salida) {
+		salida.append("[dia=");
+		int anio = dia.getYear();
+		if(anio >= 0 && anio <= 9999) {
+			anadirCifras(salida, dia.getDayOfMonth(), 10);
+			salida.append('/');
+			anadirCifras(salida, dia.getMonthValue(), 10);
+			salida.append('/');
+			anadirCifras(salida, anio, 1000);
+		} else {
+			FORMATO_DIA.formatTo(dia, salida);
+		}
+		return salida.append(", tramo=").append(tramo).append(']');
+	}
+
+	/**
+	 * Escribe un número no negativo rellenando con ceros a la izquierda
+	 * @param salida el StringBuilder en el que escribir
+	 * @param numero el número a escribir
+	 * @param divisor la potencia de diez de la primera cifra a escribir
+	 */
+	private static void anadirCifras(StringBuilder salida, int numero, int divisor) {
+		for(int d = divisor; d > 0; d /= 10)
+			salida.append((char) ('0' + numero / d % 10));
+	}
+}
@@ -1,168 +1,193 @@
-package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
-
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-/**
- * Clase que representa un profesor de un instituto
- * @author Juan Antonio Manzano Plaza
- * @version 1
- *
- */
-public class Profesor {
-
-	private static final String ER_TELEFONO = "^[69][0-9]{8}$";
-	private static final String ER_CORREO = "^[a-z0-9]+(\\.[a-z0-9]+)*@[a-z]+(\\.[a-z]+)*(\\.[a-z]{1,4})$";
-	private String nombre;
-	private String correo;
-	private String telefono;
-
-	/**
-	 * Constructor de la clase
-	 * @param nombre el nombre del profesor
-	 * @param correo el correo electrnico del profesor
-	 */
-	public Profesor(String nombre, String correo) {
-		setNombre(nombre);
-		setCorreo(correo);
-		setTelefono(null);
-	}
-
-	/**
-	 * Constructor de la clase
-	 * @param nombre el nombre del profesor
-	 * @param correo el correo electrnico del profesor
-	 * @param telefono el telfono del profesor
-	 */
-	public Profesor(String nombre, String correo, String telefono) {
-		setNombre(nombre);
-		setCorreo(correo);
-		setTelefono(telefono);
-	}
-
-	/**
-	 * Constructor copia
-	 * @param otro el profesor a copiar
-	 * @throws IllegalArgumentException si el profesor a copiar es nulo
-	 */
-	public Profesor(Profesor otro) throws IllegalArgumentException {
-		if(otro==null)
-			throw new IllegalArgumentException("No se puede copiar un profesor nulo.");
-		setNombre(otro.getNombre());
-		setCorreo(otro.getCorreo());
-		setTelefono(otro.getTelefono());
-
-	}
-
-	/**
-	 * Mtodo set para el nombre del profesor
-	 * @param nombre el nombre del profesor
-	 * @throws IllegalArgumentException si el nombre es nulo o vaco
-	 */
-	private void setNombre(String nombre) throws IllegalArgumentException {
-		if(nombre==null)
-			throw new IllegalArgumentException("El nombre del profesor no puede ser nulo.");
-		if(nombre.equals(""))
-			throw new IllegalArgumentException("El nombre del profesor no puede estar vaco.");
-		this.nombre = nombre;
-
-	}
-
-	/**
-	 * Mtodo set para el correo electrnico del profesor
-	 * @param correo el correo del profesor
-	 * @throws IllegalArgumentException si el correo es nulo o no es un correo con formato vlido
-	 */
-	public void setCorreo(String correo) throws IllegalArgumentException {
-		if(correo==null)
-			throw new IllegalArgumentException("El correo del profesor no puede ser nulo.");
-		Pattern p = Pattern.compile(ER_CORREO);
-		Matcher m = p.matcher(correo);
-		if(m.matches())
-			this.correo = correo;
-		else
-			throw new IllegalArgumentException("El correo del profesor no es vlido.");
-
-	}
-
-	/**
-	 * Mtodo set para el telfono del profesor
-	 * @param telefono el telefono del profesor
-	 * @throws IllegalArgumentException si el telfono no tiene un formato vlido
-	 */
-	public void setTelefono(String telefono) throws IllegalArgumentException {
-		if(telefono==null) {
-			this.telefono = null;
-		} else {
-			Pattern p = Pattern.compile(ER_TELEFONO);
-			Matcher m = p.matcher(telefono);
-			if(m.matches())
-				this.telefono = telefono;
-			else
-				throw new IllegalArgumentException("El telfono del profesor no es vlido.");
-		}
-	}
-
-	/**
-	 * Mtodo get para el nombre del profesor
-	 * @return el nombre del profesor
-	 */
-	public String getNombre() {
-		return nombre;
-	}
-
-	/**
-	 * Mtodo get para el correo del profesor
-	 * @return el correo del profesor
-	 */
-	public String getCorreo() {
-		return correo;
-	}
-
-	/**
-	 * Mtodo get para el telfono del profesor
-	 * @return el telfono del profesor
-	 */
-	public String getTelefono() {
-		return telefono;
-	}
-
-	/**
-	 * Mtodo hashCode de la clase. Sirve para diferenciar objetos
-	 * @return el cdigo hash del objeto
-	 */
-	public int hashCode() {
-		return Objects.hash(nombre, correo, telefono);
-	}
-
-	/**
-	 * Mtodo equals de la clase
-	 * @return True si son iguales, False si no
-	 */
-	public boolean equals(Object o) {
-		if(o==null)
-			return false;
-		if(!(o instanceof Profesor))
-			return false;
-		Profesor otro = (Profesor) o;
-		if(this.getNombre().equals(otro.getNombre()))
-			return true;
-		return false;
-
-	}
-
-	/**
-	 * Representa un profesor como una cadena de caracteres
-	 * @return la representacin del profesor
-	 */
-	public String toString() {
-		String devolver = "[nombre=" + getNombre() + ", correo=" + getCorreo();
-		if(getTelefono()==null)
-			devolver += "]";
-		else
-			devolver += ", telefono=" + getTelefono() + "]";
-		return devolver;
-
-	}
-}
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+/**
+ * Clase que representa un profesor de un instituto. Es inmutable: sus datos se validan al crearlo y no pueden cambiar.
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ *
+ */
+public final class Profesor {
+
+	private static final int LONGITUD_TELEFONO = 9;
+	private static final int LONGITUD_MAXIMA_DOMINIO = 4;
+	private final String nombre;
+	private final String correo;
+	private final String telefono;
+
+	/**
+	 * Constructor de la clase
+	 * @param nombre el nombre del profesor
+	 * @param correo el correo electrónico del profesor
+	 */
+	public Profesor(String nombre, String correo) {
+		this(nombre, correo, null);
+	}
+
+	/**
+	 * Constructor de la clase
+	 * @param nombre el nombre del profesor
+	 * @param correo el correo electrónico del profesor
+	 * @param telefono el teléfono del profesor
+	 */
+	public Profesor(String nombre, String correo, String telefono) {
+		comprobarNombre(nombre);
+		comprobarCorreo(correo);
+		comprobarTelefono(telefono);
+		this.nombre = nombre;
+		this.correo = correo;
+		this.telefono = telefono;
+	}
+
+	/**
+	 * Constructor copia. No vuelve a validar los datos, ya que el profesor copiado los validó al crearse
+	 * @param otro el profesor a copiar
+	 * @throws IllegalArgumentException si el profesor a copiar es nulo
+	 */
+	public Profesor(Profesor otro) throws IllegalArgumentException {
+		if(otro==null)
+			throw new IllegalArgumentException("No se puede copiar un profesor nulo.");
+		this.nombre = otro.getNombre();
+		this.correo = otro.getCorreo();
+		this.telefono = otro.getTelefono();
+	}
+
+	/**
+	 * Comprueba que el nombre del profesor es válido
+	 * @param nombre el nombre del profesor
+	 * @throws IllegalArgumentException si el nombre es nulo o vacío
+	 */
+	private static void comprobarNombre(String nombre) throws IllegalArgumentException {
+		if(nombre==null)
+			throw new IllegalArgumentException("El nombre del profesor no puede ser nulo.");
+		if(nombre.equals(""))
+			throw new IllegalArgumentException("El nombre del profesor no puede estar vacío.");
+	}
+
+	/**
+	 * Comprueba que el correo electrónico del profesor es válido, es decir, que cumple la expresión regular
+	 * {@code ^[a-z0-9]+(\.[a-z0-9]+)*@[a-z]+(\.[a-z]+)*(\.[a-z]{1,4})$}. Se comprueba a mano para no crear
+	 * ningún objeto
+	 * @param correo el correo del profesor
+	 * @throws IllegalArgumentException si el correo es nulo o no es un correo con formato válido
+	 */
+	private static void comprobarCorreo(String correo) throws IllegalArgumentException {
+		if(correo==null)
+			throw new IllegalArgumentException("El correo del profesor no puede ser nulo.");
+		int arroba = correo.indexOf('@');
+		int ultimoPunto = correo.lastIndexOf('.');
+		int longitudUltima = correo.length() - ultimoPunto - 1;
+		if(arroba < 0 || ultimoPunto < arroba || longitudUltima > LONGITUD_MAXIMA_DOMINIO
+				|| !sonEtiquetas(correo, 0, arroba, true) || !sonEtiquetas(correo, arroba + 1, correo.length(), false))
+			throw new IllegalArgumentException("El correo del profesor no es válido.");
+	}
+
+	/**
+	 * Comprueba que un fragmento de una cadena está formado por una o más etiquetas no vacías separadas por un punto
+	 * @param cadena la cadena a comprobar
+	 * @param inicio la posición del primer carácter del fragmento
+	 * @param fin la posición siguiente al último carácter del fragmento
+	 * @param digitos True si las etiquetas pueden tener dígitos además de letras minúsculas
+	 * @return True si el fragmento es válido, False si no
+	 */
+	private static boolean sonEtiquetas(String cadena, int inicio, int fin, boolean digitos) {
+		boolean trasPunto = true;
+		for(int i = inicio; i < fin; i++) {
+			char c = cadena.charAt(i);
+			if(c == '.') {
+				if(trasPunto)
+					return false;
+				trasPunto = true;
+			} else if((c >= 'a' && c <= 'z') || (digitos && c >= '0' && c <= '9')) {
+				trasPunto = false;
+			} else {
+				return false;
+			}
+		}
+		return !trasPunto;
+	}
+
+	/**
+	 * Comprueba que el teléfono del profesor es válido, es decir, que son nueve dígitos y empieza por 6 o 9.
+	 * El teléfono es opcional, por lo que puede ser nulo
+	 * @param telefono el telefono del profesor
+	 * @throws IllegalArgumentException si el teléfono no tiene un formato válido
+	 */
+	private static void comprobarTelefono(String telefono) throws IllegalArgumentException {
+		if(telefono!=null) {
+			boolean valido = telefono.length() == LONGITUD_TELEFONO
+					&& (telefono.charAt(0) == '6' || telefono.charAt(0) == '9');
+			for(int i = 1; valido && i < LONGITUD_TELEFONO; i++)
+				valido = telefono.charAt(i) >= '0' && telefono.charAt(i) <= '9';
+			if(!valido)
+				throw new IllegalArgumentException("El teléfono del profesor no es válido.");
+		}
+	}
+
+	/**
+	 * Método get para el nombre del profesor
+	 * @return el nombre del profesor
+	 */
+	public String getNombre() {
+		return nombre;
+	}
+
+	/**
+	 * Método get para el correo del profesor
+	 * @return el correo del profesor
+	 */
+	public String getCorreo() {
+		return correo;
+	}
+
+	/**
+	 * Método get para el teléfono del profesor
+	 * @return el teléfono del profesor
+	 */
+	public String getTelefono() {
+		return telefono;
+	}
+
+	/**
+	 * Método hashCode de la clase. Sirve para diferenciar objetos. Usa solo el nombre, igual que equals
+	 * @return el código hash del objeto
+	 */
+	public int hashCode() {
+		return nombre.hashCode();
+	}
+
+	/**
+	 * Método equals de la clase
+	 * @return True si son iguales, False si no
+	 */
+	public boolean equals(Object o) {
+		if(o==null)
+			return false;
+		if(!(o instanceof Profesor))
+			return false;
+		Profesor otro = (Profesor) o;
+		if(this.getNombre().equals(otro.getNombre()))
+			return true;
+		return false;
+
+	}
+
+	/**
+	 * Representa un profesor como una cadena de caracteres
+	 * @return la representación del profesor
+	 */
+	public String toString() {
+		return representar(new StringBuilder()).toString();
+	}
+
+	/**
+	 * Añade la representación del profesor al final de un StringBuilder, sin crear cadenas intermedias
+	 * @param salida el StringBuilder en el que escribir
+	 * @return el mismo StringBuilder, para encadenar llamadas
+	 */
+	public StringBuilder representar(StringBuilder salida) {
+		salida.append("[nombre=").append(nombre).append(", correo=").append(correo);
+		if(telefono!=null)
+			salida.append(", telefono=").append(telefono);
+		return salida.append(']');
+	}
+}
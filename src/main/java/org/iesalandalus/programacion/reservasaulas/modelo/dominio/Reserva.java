@@ -1,130 +1,145 @@
-package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
-
-import java.util.Objects;
-
-/**
- * Clase que representa la reserva de un aula en un instituto
- * @see Profesor
- * @see Aula
- * @see Permanencia
- * @author Juan Antonio Manzano Plaza
- * @version 1
- */
-public class Reserva {
-	private Profesor profesor;
-	private Aula aula;
-	private Permanencia permanencia;
-
-	/**
-	 * Constructor de la clase
-	 * @param profesor el profesor que reserva el aula
-	 * @param aula el aula que es reservada
-	 * @param permanencia el da y el tramo en el que es reservada
-	 */
-	public Reserva(Profesor profesor, Aula aula, Permanencia permanencia) {
-		setProfesor(profesor);
-		setAula(aula);
-		setPermanencia(permanencia);
-	}
-
-	/**
-	 * Constructor copia de la clase
-	 * @param otra la reserva a copiar
-	 * @throws IllegalArgumentException si la reserva a copiar es nula
-	 */
-	public Reserva(Reserva otra) throws IllegalArgumentException {
-		if(otra == null)
-			throw new IllegalArgumentException("No se puede copiar una reserva nula.");
-		setProfesor(otra.getProfesor());
-		setAula(otra.getAula());
-		setPermanencia(otra.getPermanencia());
-	}
-
-	/**
-	 * Mtodo set para el profesor de la reserva
-	 * @param profesor el profesor que realiza la reserva
-	 * @throws IllegalArgumentException si el profesor es nulo
-	 */
-	private void setProfesor(Profesor profesor) throws IllegalArgumentException {
-		if(profesor == null)
-			throw new IllegalArgumentException("La reserva debe estar a nombre de un profesor.");
-		this.profesor = new Profesor(profesor);
-	}
-
-	/**
-	 * Mtodo get para el profesor de la reserva
-	 * @return el profesor de la reserva
-	 */
-	public Profesor getProfesor() {
-		return new Profesor(this.profesor);
-	}
-
-	/**
-	 * Mtodo set para el aula de la reserva
-	 * @param aula el aula reservada
-	 */
-	private void setAula(Aula aula) throws IllegalArgumentException {
-		if(aula == null)
-			throw new IllegalArgumentException("La reserva debe ser para un aula concreta.");
-		this.aula = new Aula(aula);
-	}
-
-	/**
-	 * Mtodo get para el aula de la reserva
-	 * @return el aula de la reserva
-	 */
-	public Aula getAula() {
-		return new Aula(this.aula);
-	}
-
-	/**
-	 * Mtodo set para la permanencia de la reserva
-	 * @param permanencia la permanencia de la reserva
-	 * @throws IllegalArgumentException si la permanencia es nula
-	 */
-	private void setPermanencia(Permanencia permanencia) throws IllegalArgumentException {
-		if(permanencia == null)
-			throw new IllegalArgumentException("La reserva se debe hacer para una permanencia concreta.");
-		this.permanencia = new Permanencia(permanencia);
-	}
-
-	/**
-	 * Mtodo get para la permanencia de la reserva
-	 * @return la permanencia de la reserva
-	 */
-	public Permanencia getPermanencia() {
-		return new Permanencia(this.permanencia);
-	}
-
-	/**
-	 * Mtodo hashCode de la clase. Sirve para diferenciar objetos
-	 * @return el cdigo hash del objeto
-	 */
-	public int hashCode() {
-		return Objects.hash(profesor, aula, permanencia);
-	}
-
-	/**
-	 * Mtodo equals de la clase
-	 * @return True si son iguales, False si no
-	 */
-	public boolean equals(Object o) {
-		if(o==null)
-			return false;
-		if(!(o instanceof Reserva))
-			return false;
-		Reserva otra = (Reserva) o;
-		if(this.aula.equals(otra.aula) && this.permanencia.equals(otra.permanencia))
-			return true;
-		return false;
-	}
-
-	/**
-	 * Representa una reserva como una cadena de caracteres
-	 * @return la representacin de la reserva
-	 */
-	public String toString() {
-		return "[profesor=" + getProfesor() + ", aula=" + getAula() + ", permanencia=" + getPermanencia() + "]";
-	}
-
-}
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+import java.util.Objects;
+
+/**
+ * Clase que representa la reserva de un aula en un instituto. Es inmutable y, como sus componentes también lo son,
+ * los comparte en lugar de copiarlos.
+ * @see Profesor
+ * @see Aula
+ * @see Permanencia
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public final class Reserva {
+	private final Profesor profesor;
+	private final Aula aula;
+	private final Permanencia permanencia;
+
+	/**
+	 * Constructor de la clase
+	 * @param profesor el profesor que reserva el aula
+	 * @param aula el aula que es reservada
+	 * @param permanencia el día y el tramo en el que es reservada
+	 */
+	public Reserva(Profesor profesor, Aula aula, Permanencia permanencia) {
+		comprobarProfesor(profesor);
+		comprobarAula(aula);
+		comprobarPermanencia(permanencia);
+		this.profesor = profesor;
+		this.aula = aula;
+		this.permanencia = permanencia;
+	}
+
+	/**
+	 * Constructor copia de la clase
+	 * @param otra la reserva a copiar
+	 * @throws IllegalArgumentException si la reserva a copiar es nula
+	 */
+	public Reserva(Reserva otra) throws IllegalArgumentException {
+		if(otra == null)
+			throw new IllegalArgumentException("No se puede copiar una reserva nula.");
+		this.profesor = otra.profesor;
+		this.aula = otra.aula;
+		this.permanencia = otra.permanencia;
+	}
+
+	/**
+	 * Comprueba el profesor de la reserva
+	 * @param profesor el profesor que realiza la reserva
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 */
+	private static void comprobarProfesor(Profesor profesor) throws IllegalArgumentException {
+		if(profesor == null)
+			throw new IllegalArgumentException("La reserva debe estar a nombre de un profesor.");
+	}
+
+	/**
+	 * Método get para el profesor de la reserva
+	 * @return el profesor de la reserva
+	 */
+	public Profesor getProfesor() {
+		return profesor;
+	}
+
+	/**
+	 * Comprueba el aula de la reserva
+	 * @param aula el aula reservada
+	 * @throws IllegalArgumentException si el aula es nula
+	 */
+	private static void comprobarAula(Aula aula) throws IllegalArgumentException {
+		if(aula == null)
+			throw new IllegalArgumentException("La reserva debe ser para un aula concreta.");
+	}
+
+	/**
+	 * Método get para el aula de la reserva
+	 * @return el aula de la reserva
+	 */
+	public Aula getAula() {
+		return aula;
+	}
+
+	/**
+	 * Comprueba la permanencia de la reserva
+	 * @param permanencia la permanencia de la reserva
+	 * @throws IllegalArgumentException si la permanencia es nula
+	 */
+	private static void comprobarPermanencia(Permanencia permanencia) throws IllegalArgumentException {
+		if(permanencia == null)
+			throw new IllegalArgumentException("La reserva se debe hacer para una permanencia concreta.");
+	}
+
+	/**
+	 * Método get para la permanencia de la reserva
+	 * @return la permanencia de la reserva
+	 */
+	public Permanencia getPermanencia() {
+		return permanencia;
+	}
+
+	/**
+	 * Método hashCode de la clase. Sirve para diferenciar objetos. Usa solo el aula y la permanencia, igual que equals
+	 * @return el código hash del objeto
+	 */
+	public int hashCode() {
+		return Objects.hash(aula, permanencia);
+	}
+
+	/**
+	 * Método equals de la clase
+	 * @return True si son iguales, False si no
+	 */
+	public boolean equals(Object o) {
+		if(o==null)
+			return false;
+		if(!(o instanceof Reserva))
+			return false;
+		Reserva otra = (Reserva) o;
+		if(this.aula.equals(otra.aula) && this.permanencia.equals(otra.permanencia))
+			return true;
+		return false;
+	}
+
+	/**
+	 * Representa una reserva como una cadena de caracteres
+	 * @return la representación de la reserva
+	 */
+	public String toString() {
+		return representar(new StringBuilder(128)).toString();
+	}
+
+	/**
+	 * Añade la representación de la reserva al final de un StringBuilder, sin crear cadenas intermedias para el
+	 * profesor, el aula ni la permanencia. Permite reutilizar el mismo StringBuilder al escribir muchas reservas
+	 * @param salida el StringBuilder en el que escribir
+	 * @return el mismo StringBuilder, para encadenar llamadas
+	 */
+	public StringBuilder representar(StringBuilder salida) {
+		salida.append("[profesor=");
+		profesor.representar(salida).append(", aula=");
+		aula.representar(salida).append(", permanencia=");
+		return permanencia.representar(salida).append(']');
+	}
+
+}
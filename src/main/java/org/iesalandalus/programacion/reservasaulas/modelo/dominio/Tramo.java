@@ -1,30 +1,30 @@
-package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
-
-/**
- * Clase enumerada para los distintos tramos de la permanencia
- * @see Permanencia
- * @author Juan Antonio Manzano Plaza
- * @version 1
- */
-public enum Tramo {
-	MANANA("Maana"),
-	TARDE("Tarde");
-	private String cadenaAMostrar;
-
-	/**
-	 * Constructor privado
-	 * @param cadenaAMostrar la representacin del tramo como cadena de caracteres
-	 */
-	private Tramo(String cadenaAMostrar) {
-		this.cadenaAMostrar = cadenaAMostrar;
-	}
-
-	/**
-	 * Representa un tramo como una cadena de caracteres
-	 * @return la representacin del tramo
-	 */
-	public String toString() {
-		return cadenaAMostrar;
-	}
-
-}
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+/**
+ * Clase enumerada para los distintos tramos de la permanencia
+ * @see Permanencia
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public enum Tramo {
+	MANANA("Mañana"),
+	TARDE("Tarde");
+	private final String cadenaAMostrar;
+
+	/**
+	 * Constructor privado
+	 * @param cadenaAMostrar la representación del tramo como cadena de caracteres
+	 */
+	private Tramo(String cadenaAMostrar) {
+		this.cadenaAMostrar = cadenaAMostrar;
+	}
+
+	/**
+	 * Representa un tramo como una cadena de caracteres
+	 * @return la representación del tramo
+	 */
+	public String toString() {
+		return cadenaAMostrar;
+	}
+
+}
@@ -0,0 +1,155 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias con cubetas log-lineales, al estilo de HdrHistogram. Los valores menores que 64 tienen
+ * una cubeta cada uno y, a partir de ahí, cada potencia de dos se reparte en 32 cubetas iguales, por lo que el
+ * valor devuelto para un percentil se desvía como mucho un 3% del real con un número fijo de cubetas.
+ * <p>
+ * Anotar un valor sólo calcula su cubeta con operaciones de bits e incrementa un contador atómico, sin crear
+ * ningún objeto, de modo que varios hilos pueden anotar a la vez. Las consultas leen los contadores sin detener
+ * a los hilos que anotan, así que pueden no incluir los valores que se están anotando en ese momento.
+ * @see MetricasOperacion
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public final class Histograma {
+
+	private static final int BITS_SUBCUBETA = 5;
+	private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+	private static final int BITS_MAXIMOS = 40;
+
+	/**
+	 * Mayor valor que se distingue; los mayores se anotan como éste. En nanosegundos son algo más de 18 minutos
+	 */
+	public static final long VALOR_MAXIMO = (1L << BITS_MAXIMOS) - 1;
+
+	private final AtomicLongArray cubetas = new AtomicLongArray(cubeta(VALOR_MAXIMO) + 1);
+	private final AtomicLong maximo = new AtomicLong();
+
+	/**
+	 * Anota un valor en el histograma
+	 * @param valor el valor a anotar; los negativos se anotan como cero
+	 */
+	public void anotar(long valor) {
+		if(valor < 0)
+			valor = 0;
+		else if(valor > VALOR_MAXIMO)
+			valor = VALOR_MAXIMO;
+		cubetas.incrementAndGet(cubeta(valor));
+		long actual = maximo.get();
+		while(valor > actual && !maximo.compareAndSet(actual, valor))
+			actual = maximo.get();
+	}
+
+	/**
+	 * Calcula la cubeta de un valor. La posición del bit más alto da la potencia de dos y los cinco bits
+	 * siguientes la cubeta dentro de ella
+	 * @param valor el valor, entre cero y VALOR_MAXIMO
+	 * @return la posición de la cubeta
+	 */
+	private static int cubeta(long valor) {
+		int desplazamiento = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(valor) - BITS_SUBCUBETA - 1);
+		return (desplazamiento << BITS_SUBCUBETA) + (int) (valor >>> desplazamiento);
+	}
+
+	/**
+	 * Calcula el mayor valor que se anota en una cubeta
+	 * @param cubeta la posición de la cubeta
+	 * @return el mayor valor de la cubeta
+	 */
+	private static long mayorDeCubeta(int cubeta) {
+		if(cubeta < 2 * SUBCUBETAS)
+			return cubeta;
+		int desplazamiento = (cubeta >>> BITS_SUBCUBETA) - 1;
+		long subcubeta = cubeta - ((long) desplazamiento << BITS_SUBCUBETA);
+		return ((subcubeta + 1) << desplazamiento) - 1;
+	}
+
+	/**
+	 * Calcula el menor valor que se anota en una cubeta
+	 * @param cubeta la posición de la cubeta
+	 * @return el menor valor de la cubeta
+	 */
+	private static long menorDeCubeta(int cubeta) {
+		if(cubeta < 2 * SUBCUBETAS)
+			return cubeta;
+		int desplazamiento = (cubeta >>> BITS_SUBCUBETA) - 1;
+		return (cubeta - ((long) desplazamiento << BITS_SUBCUBETA)) << desplazamiento;
+	}
+
+	/**
+	 * Método get para el número de valores anotados
+	 * @return el número de valores anotados
+	 */
+	public long getNumValores() {
+		long total = 0;
+		for(int i = 0; i < cubetas.length(); i++)
+			total += cubetas.get(i);
+		return total;
+	}
+
+	/**
+	 * Método get para el mayor valor anotado
+	 * @return el mayor valor anotado, o cero si no hay ninguno
+	 */
+	public long getMaximo() {
+		return maximo.get();
+	}
+
+	/**
+	 * Calcula la media aproximada de los valores anotados, tomando el punto medio de cada cubeta
+	 * @return la media, o cero si no hay ningún valor
+	 */
+	public double getMedia() {
+		long total = 0;
+		double suma = 0;
+		for(int i = 0; i < cubetas.length(); i++) {
+			long n = cubetas.get(i);
+			if(n != 0) {
+				total += n;
+				suma += n * ((menorDeCubeta(i) + mayorDeCubeta(i)) / 2.0);
+			}
+		}
+		return total == 0 ? 0 : suma / total;
+	}
+
+	/**
+	 * Calcula el valor por debajo del cual queda un porcentaje de los valores anotados
+	 * @param percentil el porcentaje, entre 0 y 100
+	 * @return el mayor valor de la cubeta en la que cae el percentil, sin pasar del máximo anotado, o cero si no
+	 * hay ningún valor
+	 * @throws IllegalArgumentException si el percentil no está entre 0 y 100
+	 */
+	public long getPercentil(double percentil) throws IllegalArgumentException {
+		if(!(percentil >= 0 && percentil <= 100))
+			throw new IllegalArgumentException("El percentil debe estar entre 0 y 100.");
+		long[] copia = new long[cubetas.length()];
+		long total = 0;
+		for(int i = 0; i < copia.length; i++) {
+			copia[i] = cubetas.get(i);
+			total += copia[i];
+		}
+		if(total == 0)
+			return 0;
+		long posicion = Math.max(1, (long) Math.ceil(percentil / 100 * total));
+		long acumulado = 0;
+		for(int i = 0; i < copia.length; i++) {
+			acumulado += copia[i];
+			if(acumulado >= posicion)
+				return Math.min(mayorDeCubeta(i), getMaximo());
+		}
+		return getMaximo();
+	}
+
+	/**
+	 * Borra todos los valores anotados
+	 */
+	public void reiniciar() {
+		for(int i = 0; i < cubetas.length(); i++)
+			cubetas.set(i, 0);
+		maximo.set(0);
+	}
+}
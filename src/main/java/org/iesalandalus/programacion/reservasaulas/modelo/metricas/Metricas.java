@@ -0,0 +1,373 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.metricas;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Conjunto de métricas de las operaciones de un componente. Cada operación se publica por JMX como un MBean
+ * con el nombre {@code org.iesalandalus.programacion.reservasaulas:type=<componente>,operacion=<operación>},
+ * y todas juntas pueden volcarse como una tabla de texto, a petición o cada cierto tiempo desde un hilo aparte.
+ * Todas las operaciones de un componente miden la latencia con el mismo muestreo.
+ * <p>
+ * Cada hilo que llama a alguna operación tiene su propio contador, con las llamadas de cada operación y una cuenta
+ * atrás, común a todas, hasta la siguiente llamada que se mide. La cuenta atrás se reinicia a un valor al azar
+ * cuya media es el muestreo, así que la muestra no sigue el ritmo de ninguna secuencia de operaciones. Los
+ * contadores de los hilos que ya han terminado se suman a un total y se descartan.
+ * @see MetricasOperacion
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public class Metricas implements Closeable {
+
+	/**
+	 * Muestreo por defecto: se mide la latencia de una de cada 64 llamadas
+	 */
+	public static final int MUESTREO_DEFECTO = 64;
+
+	/**
+	 * Valor que devuelve contar cuando la llamada no se mide
+	 */
+	static final long SIN_MEDIR = Long.MIN_VALUE;
+
+	private static final int HILOS_INICIAL = 64;
+	private static final String DOMINIO_JMX = "org.iesalandalus.programacion.reservasaulas";
+	private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+	private static final String FORMATO_CABECERA = "%-32s %10s %8s %10s %10s %10s %10s %10s %10s%n";
+	private static final String FORMATO_FILA = "%-32s %10d %8d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n";
+
+	private final String componente;
+	private final int muestreo;
+	private final Map<String, MetricasOperacion> operaciones = new LinkedHashMap<String, MetricasOperacion>();
+	private final ThreadLocal<ContadorHilo> contadores = ThreadLocal.withInitial(this::registrarHilo);
+	private final List<ContadorHilo> hilos = new ArrayList<ContadorHilo>();
+	private long[] llamadasTerminadas = new long[0];
+	private int limiteHilos = HILOS_INICIAL;
+	private MBeanServer servidorJmx;
+	private ScheduledExecutorService volcado;
+
+	/**
+	 * Contador de las llamadas de un hilo. Sólo escribe en él su hilo; los demás lo leen al sumar las llamadas
+	 */
+	private static final class ContadorHilo {
+
+		private final WeakReference<Thread> hilo = new WeakReference<Thread>(Thread.currentThread());
+		private volatile AtomicLongArray llamadas;
+		private int cuentaAtras;
+
+		/**
+		 * Constructor de la clase
+		 * @param numOperaciones el número de operaciones que hay al crearlo
+		 * @param cuentaAtras las llamadas que faltan para la primera que se mide
+		 */
+		private ContadorHilo(int numOperaciones, int cuentaAtras) {
+			llamadas = new AtomicLongArray(Math.max(numOperaciones, 1));
+			this.cuentaAtras = cuentaAtras;
+		}
+
+		/**
+		 * Cuenta una llamada de una operación, ampliando el contador si la operación se ha creado después que él
+		 * @param operacion la posición de la operación
+		 */
+		private void contar(int operacion) {
+			AtomicLongArray cuentas = llamadas;
+			if(operacion >= cuentas.length()) {
+				AtomicLongArray ampliadas = new AtomicLongArray(Math.max(operacion + 1, 2 * cuentas.length()));
+				for(int i = 0; i < cuentas.length(); i++)
+					ampliadas.set(i, cuentas.get(i));
+				llamadas = cuentas = ampliadas;
+			}
+			cuentas.lazySet(operacion, cuentas.get(operacion) + 1);
+		}
+
+		/**
+		 * Método get para las llamadas de una operación en este hilo
+		 * @param operacion la posición de la operación
+		 * @return el número de llamadas
+		 */
+		private long getLlamadas(int operacion) {
+			AtomicLongArray cuentas = llamadas;
+			return operacion < cuentas.length() ? cuentas.get(operacion) : 0;
+		}
+
+		/**
+		 * Indica si el hilo del contador ya ha terminado, de modo que su contador no va a cambiar más
+		 * @return True si ha terminado
+		 */
+		private boolean terminado() {
+			Thread propietario = hilo.get();
+			return propietario == null || !propietario.isAlive();
+		}
+	}
+
+	/**
+	 * Constructor de la clase, con el muestreo por defecto
+	 * @param componente el nombre del componente medido, que forma parte del nombre JMX de sus operaciones
+	 * @throws IllegalArgumentException si el nombre es nulo o vacío
+	 */
+	public Metricas(String componente) throws IllegalArgumentException {
+		this(componente, MUESTREO_DEFECTO);
+	}
+
+	/**
+	 * Constructor de la clase
+	 * @param componente el nombre del componente medido, que forma parte del nombre JMX de sus operaciones
+	 * @param muestreo de cuántas llamadas se mide la latencia de una; 1 para medirlas todas
+	 * @throws IllegalArgumentException si el nombre es nulo o vacío o el muestreo no es una potencia de dos
+	 */
+	public Metricas(String componente, int muestreo) throws IllegalArgumentException {
+		if(componente==null || componente.isEmpty())
+			throw new IllegalArgumentException("El nombre del componente medido no puede ser nulo ni vacío.");
+		if(muestreo <= 0 || Integer.bitCount(muestreo) != 1)
+			throw new IllegalArgumentException("El muestreo debe ser una potencia de dos.");
+		this.componente = componente;
+		this.muestreo = muestreo;
+	}
+
+	/**
+	 * Obtiene las métricas de una operación, creándolas si es la primera vez que se piden. Si las métricas ya se
+	 * han publicado por JMX, las de una operación nueva se publican también
+	 * @param nombre el nombre de la operación
+	 * @return las métricas de la operación
+	 * @throws IllegalArgumentException si el nombre es nulo o vacío
+	 */
+	public synchronized MetricasOperacion operacion(String nombre) throws IllegalArgumentException {
+		if(nombre==null || nombre.isEmpty())
+			throw new IllegalArgumentException("El nombre de la operación no puede ser nulo ni vacío.");
+		MetricasOperacion metricas = operaciones.get(nombre);
+		if(metricas == null) {
+			metricas = new MetricasOperacion(this, nombre, operaciones.size());
+			operaciones.put(nombre, metricas);
+			if(servidorJmx != null) {
+				try {
+					servidorJmx.registerMBean(metricas, nombreJmx(nombre));
+				} catch (JMException e) {
+					throw new IllegalStateException("No se pudieron publicar las métricas de " + nombre + ".", e);
+				}
+			}
+		}
+		return metricas;
+	}
+
+	/**
+	 * Cuenta una llamada del hilo actual y decide si se mide su latencia, cuando vence la cuenta atrás del hilo
+	 * @param operacion la posición de la operación
+	 * @return la lectura del reloj al empezar la llamada, o SIN_MEDIR si no se mide
+	 */
+	long contar(int operacion) {
+		ContadorHilo contador = contadores.get();
+		contador.contar(operacion);
+		if(--contador.cuentaAtras > 0)
+			return SIN_MEDIR;
+		contador.cuentaAtras = siguienteMuestra();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Elige cuántas llamadas faltan para la siguiente que se mide: un valor al azar entre 1 y el doble del muestreo
+	 * menos uno, cuya media es el muestreo
+	 * @return las llamadas hasta la siguiente medida
+	 */
+	private int siguienteMuestra() {
+		return muestreo == 1 ? 1 : 1 + ThreadLocalRandom.current().nextInt(2 * muestreo - 1);
+	}
+
+	/**
+	 * Crea el contador de un hilo que llama por primera vez a alguna operación. Cuando hay muchos contadores,
+	 * como con un hilo por petición, suma antes al total los de los hilos que ya han terminado y los descarta
+	 * @return el contador del hilo actual
+	 */
+	private synchronized ContadorHilo registrarHilo() {
+		if(hilos.size() >= limiteHilos) {
+			for(Iterator<ContadorHilo> it = hilos.iterator(); it.hasNext();) {
+				ContadorHilo contador = it.next();
+				if(contador.terminado()) {
+					if(llamadasTerminadas.length < operaciones.size())
+						llamadasTerminadas = Arrays.copyOf(llamadasTerminadas, operaciones.size());
+					for(int i = 0; i < llamadasTerminadas.length; i++)
+						llamadasTerminadas[i] += contador.getLlamadas(i);
+					it.remove();
+				}
+			}
+			limiteHilos = Math.max(HILOS_INICIAL, 2 * hilos.size());
+		}
+		ContadorHilo contador = new ContadorHilo(operaciones.size(), siguienteMuestra());
+		hilos.add(contador);
+		return contador;
+	}
+
+	/**
+	 * Suma las llamadas de una operación en todos los hilos
+	 * @param operacion la posición de la operación
+	 * @return el número de llamadas
+	 */
+	synchronized long getLlamadas(int operacion) {
+		long total = operacion < llamadasTerminadas.length ? llamadasTerminadas[operacion] : 0;
+		for(ContadorHilo contador : hilos)
+			total += contador.getLlamadas(operacion);
+		return total;
+	}
+
+	/**
+	 * Obtiene las métricas de todas las operaciones, en el orden en que se crearon
+	 * @return las métricas de cada operación
+	 */
+	public synchronized List<MetricasOperacion> getOperaciones() {
+		return new ArrayList<MetricasOperacion>(operaciones.values());
+	}
+
+	/**
+	 * Calcula el nombre JMX de una operación
+	 * @param operacion el nombre de la operación
+	 * @return el nombre con el que se publica
+	 * @throws JMException si el nombre no es válido
+	 */
+	private ObjectName nombreJmx(String operacion) throws JMException {
+		return new ObjectName(DOMINIO_JMX + ":type=" + componente + ",operacion=" + operacion);
+	}
+
+	/**
+	 * Publica las métricas de cada operación en el servidor JMX de la plataforma
+	 * @throws JMException si alguna no se puede publicar, por ejemplo porque ya hay otras con el mismo nombre
+	 */
+	public synchronized void registrarJmx() throws JMException {
+		if(servidorJmx != null)
+			return;
+		MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+		List<ObjectName> registrados = new ArrayList<ObjectName>();
+		try {
+			for(MetricasOperacion metricas : operaciones.values())
+				registrados.add(servidor.registerMBean(metricas, nombreJmx(metricas.getNombre())).getObjectName());
+		} catch (JMException e) {
+			for(ObjectName nombre : registrados)
+				servidor.unregisterMBean(nombre);
+			throw e;
+		}
+		servidorJmx = servidor;
+	}
+
+	/**
+	 * Retira del servidor JMX las métricas publicadas con registrarJmx
+	 * @throws JMException si alguna no se puede retirar
+	 */
+	public synchronized void retirarJmx() throws JMException {
+		if(servidorJmx == null)
+			return;
+		MBeanServer servidor = servidorJmx;
+		servidorJmx = null;
+		for(MetricasOperacion metricas : operaciones.values()) {
+			ObjectName nombre = nombreJmx(metricas.getNombre());
+			if(servidor.isRegistered(nombre))
+				servidor.unregisterMBean(nombre);
+		}
+	}
+
+	/**
+	 * Escribe una tabla con las métricas de las operaciones que se han llamado alguna vez, con los tiempos en
+	 * microsegundos
+	 * @param salida donde escribir la tabla
+	 * @return el número de operaciones escritas
+	 * @throws IOException si falla la escritura
+	 * @throws IllegalArgumentException si la salida es nula
+	 */
+	public int volcar(Appendable salida) throws IOException, IllegalArgumentException {
+		if(salida==null)
+			throw new IllegalArgumentException("No se puede escribir en una salida nula.");
+		StringBuilder tabla = new StringBuilder();
+		tabla.append("Métricas de ").append(componente).append(" a ").append(LocalDateTime.now().format(FORMATO_FECHA))
+				.append(System.lineSeparator());
+		tabla.append(String.format(Locale.ROOT, FORMATO_CABECERA, "operación", "llamadas", "errores", "media us",
+				"p50 us", "p90 us", "p99 us", "p99.9 us", "máx us"));
+		int escritas = 0;
+		for(MetricasOperacion m : getOperaciones()) {
+			long llamadas = m.getLlamadas();
+			if(llamadas > 0) {
+				tabla.append(String.format(Locale.ROOT, FORMATO_FILA, m.getNombre(), llamadas, m.getErrores(),
+						m.getMedia(), m.getPercentil50(), m.getPercentil90(), m.getPercentil99(), m.getPercentil999(),
+						m.getMaximo()));
+				escritas++;
+			}
+		}
+		synchronized(salida) {
+			salida.append(tabla);
+			if(salida instanceof Flushable)
+				((Flushable) salida).flush();
+		}
+		return escritas;
+	}
+
+	/**
+	 * Vuelca las métricas cada cierto tiempo desde un hilo demonio, hasta que se llama a close
+	 * @param salida donde escribir cada volcado
+	 * @param periodo el tiempo entre volcados
+	 * @param unidad la unidad del periodo
+	 * @throws IllegalArgumentException si la salida o la unidad son nulas o el periodo no es positivo
+	 * @throws IllegalStateException si ya se está volcando periódicamente
+	 */
+	public synchronized void iniciarVolcado(Appendable salida, long periodo, TimeUnit unidad)
+			throws IllegalArgumentException, IllegalStateException {
+		if(salida==null || unidad==null)
+			throw new IllegalArgumentException("No se puede volcar en una salida nula ni con una unidad nula.");
+		if(periodo <= 0)
+			throw new IllegalArgumentException("El periodo de volcado debe ser positivo.");
+		if(volcado != null)
+			throw new IllegalStateException("Las métricas ya se están volcando.");
+		volcado = Executors.newSingleThreadScheduledExecutor(tarea -> {
+			Thread hilo = new Thread(tarea, "volcado-metricas-" + componente);
+			hilo.setDaemon(true);
+			return hilo;
+		});
+		volcado.scheduleAtFixedRate(() -> {
+			try {
+				volcar(salida);
+			} catch (IOException e) {
+				System.err.println("No se pudieron volcar las métricas: " + e.getMessage());
+			}
+		}, periodo, periodo, unidad);
+	}
+
+	/**
+	 * Detiene el volcado periódico, si lo hay, y retira las métricas publicadas por JMX
+	 * @throws IOException si no se pueden retirar las métricas publicadas
+	 */
+	public void close() throws IOException {
+		ScheduledExecutorService detener;
+		synchronized(this) {
+			detener = volcado;
+			volcado = null;
+		}
+		if(detener != null) {
+			detener.shutdown();
+			try {
+				detener.awaitTermination(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		try {
+			retirarJmx();
+		} catch (JMException e) {
+			throw new IOException("No se pudieron retirar las métricas de " + componente + ".", e);
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.metricas;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de una operación: cuántas veces se ha llamado, cuántas ha terminado con una excepción y el histograma
+ * de sus latencias en nanosegundos. Las llamadas y los errores se cuentan todos, pero la latencia sólo se mide en
+ * una muestra de las llamadas, ya que leer el reloj puede costar más que una consulta sencilla del modelo.
+ * Con una muestra de una de cada 64 llamadas los percentiles siguen siendo fiables en cuanto hay unas decenas de
+ * miles de llamadas. Las llamadas se cuentan y se eligen para la muestra en el contador del hilo que guarda
+ * Metricas, así que una llamada que termina bien no escribe en ninguna variable compartida con otros hilos.
+ * @see Metricas
+ * @see Histograma
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public final class MetricasOperacion implements MetricasOperacionMBean {
+
+	private static final double NANOS_MICRO = 1000.0;
+
+	private final Metricas metricas;
+	private final String nombre;
+	private final int indice;
+	private final Histograma latencias = new Histograma();
+	private final LongAdder errores = new LongAdder();
+	private volatile long llamadasReiniciadas;
+
+	/**
+	 * Constructor de la clase
+	 * @param metricas las métricas del componente, que cuentan las llamadas de cada hilo
+	 * @param nombre el nombre de la operación
+	 * @param indice la posición de la operación en los contadores de cada hilo
+	 */
+	MetricasOperacion(Metricas metricas, String nombre, int indice) {
+		this.metricas = metricas;
+		this.nombre = nombre;
+		this.indice = indice;
+	}
+
+	/**
+	 * Cuenta una llamada que empieza y decide si se mide su latencia
+	 * @return el valor que hay que pasar a terminar o a fallar cuando acabe la llamada
+	 */
+	public long iniciar() {
+		return metricas.contar(indice);
+	}
+
+	/**
+	 * Anota la latencia de una llamada que ha terminado, si se estaba midiendo
+	 * @param inicio el valor devuelto por iniciar al empezar la llamada
+	 */
+	public void terminar(long inicio) {
+		if(inicio != Metricas.SIN_MEDIR)
+			latencias.anotar(System.nanoTime() - inicio);
+	}
+
+	/**
+	 * Anota que una llamada ha terminado con una excepción y, si se estaba midiendo, su latencia
+	 * @param inicio el valor devuelto por iniciar al empezar la llamada
+	 */
+	public void fallar(long inicio) {
+		errores.increment();
+		terminar(inicio);
+	}
+
+	/**
+	 * Método get para el histograma de latencias de las llamadas medidas, en nanosegundos
+	 * @return el histograma de la operación
+	 */
+	public Histograma getLatencias() {
+		return latencias;
+	}
+
+	/**
+	 * Método get para el nombre de la operación
+	 * @return el nombre de la operación
+	 */
+	public String getNombre() {
+		return nombre;
+	}
+
+	/**
+	 * Método get para el número de llamadas, terminen bien o con una excepción
+	 * @return el número de llamadas
+	 */
+	public long getLlamadas() {
+		return metricas.getLlamadas(indice) - llamadasReiniciadas;
+	}
+
+	/**
+	 * Método get para el número de llamadas que han terminado con una excepción
+	 * @return el número de errores
+	 */
+	public long getErrores() {
+		return errores.sum();
+	}
+
+	/**
+	 * Método get para la latencia media
+	 * @return la latencia media en microsegundos
+	 */
+	public double getMedia() {
+		return latencias.getMedia() / NANOS_MICRO;
+	}
+
+	/**
+	 * Método get para la mediana de la latencia
+	 * @return el percentil 50 en microsegundos
+	 */
+	public double getPercentil50() {
+		return latencias.getPercentil(50) / NANOS_MICRO;
+	}
+
+	/**
+	 * Método get para el percentil 90 de la latencia
+	 * @return el percentil 90 en microsegundos
+	 */
+	public double getPercentil90() {
+		return latencias.getPercentil(90) / NANOS_MICRO;
+	}
+
+	/**
+	 * Método get para el percentil 99 de la latencia
+	 * @return el percentil 99 en microsegundos
+	 */
+	public double getPercentil99() {
+		return latencias.getPercentil(99) / NANOS_MICRO;
+	}
+
+	/**
+	 * Método get para el percentil 99,9 de la latencia
+	 * @return el percentil 99,9 en microsegundos
+	 */
+	public double getPercentil999() {
+		return latencias.getPercentil(99.9) / NANOS_MICRO;
+	}
+
+	/**
+	 * Método get para la mayor latencia
+	 * @return la mayor latencia en microsegundos
+	 */
+	public double getMaximo() {
+		return latencias.getMaximo() / NANOS_MICRO;
+	}
+
+	/**
+	 * Borra las llamadas, los errores y las latencias anotadas
+	 */
+	public void reiniciar() {
+		latencias.reiniciar();
+		llamadasReiniciadas = metricas.getLlamadas(indice);
+		errores.reset();
+	}
+}
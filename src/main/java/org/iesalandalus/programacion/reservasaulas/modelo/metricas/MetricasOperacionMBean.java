@@ -0,0 +1,69 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.metricas;
+
+/**
+ * Interfaz de gestión de las métricas de una operación, que se publica por JMX. Los tiempos se dan en microsegundos.
+ * @see MetricasOperacion
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public interface MetricasOperacionMBean {
+
+	/**
+	 * Método get para el nombre de la operación
+	 * @return el nombre de la operación
+	 */
+	String getNombre();
+
+	/**
+	 * Método get para el número de llamadas, terminen bien o con una excepción
+	 * @return el número de llamadas
+	 */
+	long getLlamadas();
+
+	/**
+	 * Método get para el número de llamadas que han terminado con una excepción
+	 * @return el número de errores
+	 */
+	long getErrores();
+
+	/**
+	 * Método get para la latencia media
+	 * @return la latencia media en microsegundos
+	 */
+	double getMedia();
+
+	/**
+	 * Método get para la mediana de la latencia
+	 * @return el percentil 50 en microsegundos
+	 */
+	double getPercentil50();
+
+	/**
+	 * Método get para el percentil 90 de la latencia
+	 * @return el percentil 90 en microsegundos
+	 */
+	double getPercentil90();
+
+	/**
+	 * Método get para el percentil 99 de la latencia
+	 * @return el percentil 99 en microsegundos
+	 */
+	double getPercentil99();
+
+	/**
+	 * Método get para el percentil 99,9 de la latencia
+	 * @return el percentil 99,9 en microsegundos
+	 */
+	double getPercentil999();
+
+	/**
+	 * Método get para la mayor latencia
+	 * @return la mayor latencia en microsegundos
+	 */
+	double getMaximo();
+
+	/**
+	 * Borra las llamadas, los errores y las latencias anotadas
+	 */
+	void reiniciar();
+}
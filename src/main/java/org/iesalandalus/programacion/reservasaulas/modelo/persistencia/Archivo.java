@@ -0,0 +1,562 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+
+/**
+ * Archivo de reservas pasadas en un directorio de segmentos inmutables y comprimidos. Cada vez que se archiva se
+ * escribe un segmento nuevo con las reservas anteriores a una fecha de corte y posteriores al corte anterior, de
+ * modo que los segmentos cubren periodos consecutivos y nunca se modifican.
+ * <p>
+ * Cada segmento empieza con una cabecera sin comprimir: el corte, el número de reservas, la primera y la última
+ * permanencia y los diccionarios de aulas y profesores que aparecen en él. Le siguen las reservas ordenadas por
+ * permanencia y comprimidas con Deflate, cada una como la diferencia con la clave de la anterior, el índice de su
+ * aula y el de su profesor, todos como enteros de longitud variable. Al abrir el archivo sólo se leen las
+ * cabeceras; las reservas de un segmento se descomprimen la primera vez que una consulta las necesita, y sólo si
+ * el aula o el profesor buscados aparecen en su diccionario y sus permanencias se solapan con el intervalo
+ * consultado. Las reservas descomprimidas se guardan por columnas tras una referencia blanda, para que el
+ * recolector pueda liberarlas si falta memoria.
+ * @see ModeloReservasAulas
+ * @see Instantanea
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public class Archivo {
+
+	private static final int MAGICO = 0x52534547;
+	private static final int VERSION = 1;
+	private static final Pattern NOMBRE_SEGMENTO = Pattern.compile("segmento-(\\d{6})\\.rsv");
+	private static final long TRAMOS = Tramo.values().length;
+	private static final int TAMANO_CABECERA_FIJA = 48;
+
+	private final Path directorio;
+	private final List<Segmento> segmentos = new CopyOnWriteArrayList<Segmento>();
+
+	/**
+	 * Reservas de un segmento descomprimidas, por columnas
+	 */
+	private static final class Cuerpo {
+		private final int[] aulas;
+		private final int[] profesores;
+		private final long[] claves;
+
+		private Cuerpo(int numReservas) {
+			aulas = new int[numReservas];
+			profesores = new int[numReservas];
+			claves = new long[numReservas];
+		}
+	}
+
+	/**
+	 * Cabecera de un segmento, que se mantiene en memoria, y acceso perezoso a sus reservas
+	 */
+	private static final class Segmento {
+		private final Path fichero;
+		private final int numero;
+		private final long corte;
+		private final int numReservas;
+		private final long primeraClave;
+		private final long ultimaClave;
+		private final Aula[] aulas;
+		private final Profesor[] profesores;
+		private final Map<String, Integer> idsAulas = new HashMap<String, Integer>();
+		private final long posicionCuerpo;
+		private SoftReference<Cuerpo> cuerpo = new SoftReference<Cuerpo>(null);
+
+		/**
+		 * Lee la cabecera de un segmento
+		 * @param fichero el fichero del segmento
+		 * @param numero el número del segmento
+		 * @throws IOException si falla la lectura o el fichero no es un segmento válido
+		 */
+		private Segmento(Path fichero, int numero) throws IOException {
+			this.fichero = fichero;
+			this.numero = numero;
+			try (InputStream flujo = Files.newInputStream(fichero)) {
+				DataInputStream entrada = new DataInputStream(new BufferedInputStream(flujo));
+				if(entrada.readInt() != MAGICO || entrada.readInt() != VERSION)
+					throw new IOException("El fichero " + fichero.getFileName() + " no es un segmento de reservas válido.");
+				corte = entrada.readLong();
+				numReservas = entrada.readInt();
+				primeraClave = entrada.readLong();
+				ultimaClave = entrada.readLong();
+				long posicion = TAMANO_CABECERA_FIJA;
+				aulas = new Aula[entrada.readInt()];
+				for(int i = 0; i < aulas.length; i++) {
+					String nombre = leerCadena(entrada);
+					posicion += longitudCadena(nombre);
+					aulas[i] = new Aula(nombre);
+					idsAulas.put(nombre, i);
+				}
+				profesores = new Profesor[entrada.readInt()];
+				for(int i = 0; i < profesores.length; i++) {
+					String nombre = leerCadena(entrada);
+					String correo = leerCadena(entrada);
+					String telefono = leerCadena(entrada);
+					posicion += longitudCadena(nombre) + longitudCadena(correo) + longitudCadena(telefono);
+					profesores[i] = new Profesor(nombre, correo, telefono);
+				}
+				int longitudCuerpo = entrada.readInt();
+				if(posicion + longitudCuerpo != Files.size(fichero))
+					throw new EOFException();
+				posicionCuerpo = posicion;
+			} catch (EOFException | IllegalArgumentException e) {
+				throw new IOException("El segmento " + fichero.getFileName() + " está incompleto o dañado.", e);
+			}
+		}
+
+		/**
+		 * Obtiene las reservas del segmento, descomprimiéndolas si no están ya en memoria
+		 * @return las reservas por columnas
+		 * @throws IOException si falla la lectura del fichero
+		 */
+		private synchronized Cuerpo cuerpo() throws IOException {
+			Cuerpo leido = cuerpo.get();
+			if(leido != null)
+				return leido;
+			byte[] comprimido;
+			try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+				comprimido = new byte[(int) (canal.size() - posicionCuerpo)];
+				canal.position(posicionCuerpo);
+				DataInputStream lector = new DataInputStream(Channels.newInputStream(canal));
+				lector.readFully(comprimido);
+			}
+			leido = new Cuerpo(numReservas);
+			try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(
+					new InflaterInputStream(new ByteArrayInputStream(comprimido))))) {
+				long clave = primeraClave;
+				for(int i = 0; i < numReservas; i++) {
+					clave += leerVariable(entrada);
+					leido.claves[i] = clave;
+					leido.aulas[i] = (int) leerVariable(entrada);
+					leido.profesores[i] = (int) leerVariable(entrada);
+				}
+				if(entrada.read() != -1)
+					throw new EOFException();
+			} catch (EOFException e) {
+				throw new IOException("El segmento " + fichero.getFileName() + " está incompleto o dañado.", e);
+			}
+			cuerpo = new SoftReference<Cuerpo>(leido);
+			return leido;
+		}
+
+		/**
+		 * Añade a una lista las reservas del segmento que cumplen un filtro, en orden cronológico. No descomprime el
+		 * segmento si sus permanencias no se solapan con el intervalo o el aula o el profesor no aparecen en él
+		 * @param encontradas donde añadir las reservas
+		 * @param aula el nombre del aula buscada, o null para cualquiera
+		 * @param profesor el nombre del profesor buscado, o null para cualquiera
+		 * @param desde la clave de la primera permanencia del intervalo
+		 * @param hasta la clave de la última permanencia del intervalo
+		 * @throws IOException si falla la lectura del fichero
+		 */
+		private void buscar(List<Reserva> encontradas, String aula, String profesor, long desde, long hasta)
+				throws IOException {
+			if(numReservas == 0 || ultimaClave < desde || primeraClave > hasta)
+				return;
+			int idAula = -1;
+			if(aula != null) {
+				Integer id = idsAulas.get(aula);
+				if(id == null)
+					return;
+				idAula = id;
+			}
+			boolean[] delProfesor = null;
+			if(profesor != null) {
+				delProfesor = new boolean[profesores.length];
+				boolean alguno = false;
+				for(int i = 0; i < profesores.length; i++) {
+					delProfesor[i] = profesores[i].getNombre().equals(profesor);
+					alguno |= delProfesor[i];
+				}
+				if(!alguno)
+					return;
+			}
+			Cuerpo leido = cuerpo();
+			Permanencia permanencia = null;
+			for(int i = 0; i < numReservas; i++) {
+				long clave = leido.claves[i];
+				if(clave < desde || clave > hasta)
+					continue;
+				if((idAula < 0 || leido.aulas[i] == idAula) && (delProfesor == null || delProfesor[leido.profesores[i]])) {
+					if(permanencia == null || permanencia.getClave() != clave)
+						permanencia = new Permanencia(clave);
+					encontradas.add(new Reserva(profesores[leido.profesores[i]], aulas[leido.aulas[i]], permanencia));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Constructor de la clase. Crea el directorio si no existe y lee la cabecera de cada segmento que contiene
+	 * @param directorio el directorio de los segmentos
+	 * @throws IOException si no se puede crear o leer el directorio, algún segmento no es válido o los segmentos
+	 * no son consecutivos
+	 */
+	public Archivo(Path directorio) throws IOException {
+		if(directorio==null)
+			throw new IllegalArgumentException("El directorio del archivo no puede ser nulo.");
+		this.directorio = Files.createDirectories(directorio);
+		List<Segmento> leidos = new ArrayList<Segmento>();
+		try (DirectoryStream<Path> ficheros = Files.newDirectoryStream(directorio)) {
+			for(Path fichero : ficheros) {
+				Matcher nombre = NOMBRE_SEGMENTO.matcher(fichero.getFileName().toString());
+				if(nombre.matches())
+					leidos.add(new Segmento(fichero, Integer.parseInt(nombre.group(1))));
+			}
+		}
+		leidos.sort(Comparator.comparingInt(s -> s.numero));
+		for(int i = 0; i < leidos.size(); i++) {
+			Segmento segmento = leidos.get(i);
+			if(segmento.numero != i + 1 || (i > 0 && segmento.corte <= leidos.get(i - 1).corte))
+				throw new IOException("Los segmentos del archivo no son consecutivos: falta el segmento " + (i + 1) + ".");
+		}
+		segmentos.addAll(leidos);
+	}
+
+	/**
+	 * Método get para la fecha de corte del último archivado
+	 * @return el primer día cuyas reservas no están archivadas, o null si todavía no se ha archivado nada
+	 */
+	public LocalDate getCorte() {
+		return segmentos.isEmpty() ? null : LocalDate.ofEpochDay(segmentos.get(segmentos.size() - 1).corte);
+	}
+
+	/**
+	 * Método get para el número de segmentos del archivo
+	 * @return el número de segmentos
+	 */
+	public int getNumSegmentos() {
+		return segmentos.size();
+	}
+
+	/**
+	 * Obtiene el número de reservas archivadas, que está en la cabecera de cada segmento
+	 * @return el número de reservas
+	 */
+	public int getNumReservas() {
+		int total = 0;
+		for(Segmento segmento : segmentos)
+			total += segmento.numReservas;
+		return total;
+	}
+
+	/**
+	 * Escribe un segmento nuevo con las reservas anteriores a una fecha de corte. El segmento se escribe en un
+	 * fichero temporal que se renombra al terminar, de modo que nunca queda un segmento a medias, y después se fuerza
+	 * al disco el directorio para que el renombrado sobreviva a una caída antes de que se vacíe el diario
+	 * @param corte el primer día que no se archiva, posterior al corte anterior
+	 * @param reservas las reservas a archivar, todas anteriores al corte y no anteriores al corte anterior
+	 * @throws IllegalArgumentException si el corte o alguna reserva son nulos o no cumplen esas condiciones
+	 * @throws IOException si falla la escritura del segmento
+	 */
+	public synchronized void archivar(LocalDate corte, List<Reserva> reservas) throws IOException, IllegalArgumentException {
+		if(corte==null)
+			throw new IllegalArgumentException("La fecha de corte no puede ser nula.");
+		if(reservas==null)
+			throw new IllegalArgumentException("No se puede archivar una lista de reservas nula.");
+		LocalDate anterior = getCorte();
+		if(anterior != null && !corte.isAfter(anterior))
+			throw new IllegalArgumentException("La fecha de corte debe ser posterior al " + anterior + ".");
+		long desde = anterior == null ? Long.MIN_VALUE : anterior.toEpochDay() * TRAMOS;
+		long hasta = corte.toEpochDay() * TRAMOS;
+		List<Reserva> ordenadas = new ArrayList<Reserva>(reservas);
+		for(Reserva reserva : ordenadas) {
+			if(reserva == null)
+				throw new IllegalArgumentException("No se puede archivar una reserva nula.");
+			long clave = reserva.getPermanencia().getClave();
+			if(clave < desde || clave >= hasta)
+				throw new IllegalArgumentException("La reserva " + reserva + " no está en el periodo a archivar.");
+		}
+		ordenadas.sort(Comparator.comparingLong(r -> r.getPermanencia().getClave()));
+
+		List<Aula> aulas = new ArrayList<Aula>();
+		Map<String, Integer> idsAulas = new HashMap<String, Integer>();
+		List<Profesor> profesores = new ArrayList<Profesor>();
+		Map<List<String>, Integer> idsProfesores = new HashMap<List<String>, Integer>();
+		int[] aulaReserva = new int[ordenadas.size()];
+		int[] profesorReserva = new int[ordenadas.size()];
+		for(int i = 0; i < ordenadas.size(); i++) {
+			Reserva reserva = ordenadas.get(i);
+			Integer aula = idsAulas.get(reserva.getAula().getNombre());
+			if(aula == null) {
+				aula = aulas.size();
+				aulas.add(reserva.getAula());
+				idsAulas.put(reserva.getAula().getNombre(), aula);
+			}
+			Profesor p = reserva.getProfesor();
+			List<String> claveProfesor = Arrays.asList(p.getNombre(), p.getCorreo(), p.getTelefono());
+			Integer profesor = idsProfesores.get(claveProfesor);
+			if(profesor == null) {
+				profesor = profesores.size();
+				profesores.add(p);
+				idsProfesores.put(claveProfesor, profesor);
+			}
+			aulaReserva[i] = aula;
+			profesorReserva[i] = profesor;
+		}
+
+		long primeraClave = ordenadas.isEmpty() ? hasta : ordenadas.get(0).getPermanencia().getClave();
+		long ultimaClave = ordenadas.isEmpty() ? hasta : ordenadas.get(ordenadas.size() - 1).getPermanencia().getClave();
+		ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+		try (DataOutputStream cuerpo = new DataOutputStream(new BufferedOutputStream(
+				new DeflaterOutputStream(comprimido, new Deflater(Deflater.BEST_COMPRESSION))))) {
+			long clave = primeraClave;
+			for(int i = 0; i < ordenadas.size(); i++) {
+				long siguiente = ordenadas.get(i).getPermanencia().getClave();
+				escribirVariable(cuerpo, siguiente - clave);
+				escribirVariable(cuerpo, aulaReserva[i]);
+				escribirVariable(cuerpo, profesorReserva[i]);
+				clave = siguiente;
+			}
+		}
+
+		int numero = segmentos.size() + 1;
+		Path fichero = directorio.resolve(String.format("segmento-%06d.rsv", numero));
+		Path temporal = fichero.resolveSibling(fichero.getFileName() + ".tmp");
+		try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			OutputStream flujo = Channels.newOutputStream(canal);
+			DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(flujo, 1 << 16));
+			salida.writeInt(MAGICO);
+			salida.writeInt(VERSION);
+			salida.writeLong(corte.toEpochDay());
+			salida.writeInt(ordenadas.size());
+			salida.writeLong(primeraClave);
+			salida.writeLong(ultimaClave);
+			salida.writeInt(aulas.size());
+			for(Aula a : aulas)
+				escribirCadena(salida, a.getNombre());
+			salida.writeInt(profesores.size());
+			for(Profesor p : profesores) {
+				escribirCadena(salida, p.getNombre());
+				escribirCadena(salida, p.getCorreo());
+				escribirCadena(salida, p.getTelefono());
+			}
+			salida.writeInt(comprimido.size());
+			comprimido.writeTo(salida);
+			salida.flush();
+			canal.force(true);
+		}
+		Files.move(temporal, fichero, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		Instantanea.sincronizarDirectorio(fichero);
+		segmentos.add(new Segmento(fichero, numero));
+	}
+
+	/**
+	 * Busca en todos los segmentos las reservas que cumplen un filtro
+	 * @param aula el nombre del aula buscada, o null para cualquiera
+	 * @param profesor el nombre del profesor buscado, o null para cualquiera
+	 * @param desde la clave de la primera permanencia del intervalo
+	 * @param hasta la clave de la última permanencia del intervalo
+	 * @return las reservas encontradas, en orden cronológico
+	 * @throws IOException si falla la lectura de algún segmento
+	 */
+	private List<Reserva> buscar(String aula, String profesor, long desde, long hasta) throws IOException {
+		List<Reserva> encontradas = new ArrayList<Reserva>();
+		for(Segmento segmento : segmentos)
+			segmento.buscar(encontradas, aula, profesor, desde, hasta);
+		return encontradas;
+	}
+
+	/**
+	 * Obtiene las reservas archivadas de un aula
+	 * @param aula el aula reservada
+	 * @return las reservas del aula, en orden cronológico
+	 * @throws IllegalArgumentException si el aula es nula
+	 * @throws IOException si falla la lectura de algún segmento
+	 */
+	public List<Reserva> getReservasAula(Aula aula) throws IOException, IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		return buscar(aula.getNombre(), null, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Obtiene las reservas archivadas de un profesor, identificado por su nombre
+	 * @param profesor el profesor que ha hecho las reservas
+	 * @return las reservas del profesor, en orden cronológico
+	 * @throws IllegalArgumentException si el profesor es nulo
+	 * @throws IOException si falla la lectura de algún segmento
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor) throws IOException, IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		return buscar(null, profesor.getNombre(), Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Obtiene las reservas archivadas entre dos permanencias
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del intervalo, en orden cronológico
+	 * @throws IllegalArgumentException si alguna permanencia es nula
+	 * @throws IOException si falla la lectura de algún segmento
+	 */
+	public List<Reserva> getReservas(Permanencia desde, Permanencia hasta) throws IOException, IllegalArgumentException {
+		if(desde==null || hasta==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas entre permanencias nulas.");
+		return buscar(null, null, desde.getClave(), hasta.getClave());
+	}
+
+	/**
+	 * Obtiene las reservas archivadas de un aula entre dos permanencias
+	 * @param aula el aula reservada
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del aula en el intervalo, en orden cronológico
+	 * @throws IllegalArgumentException si algún parámetro es nulo
+	 * @throws IOException si falla la lectura de algún segmento
+	 */
+	public List<Reserva> getReservasAula(Aula aula, Permanencia desde, Permanencia hasta)
+			throws IOException, IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		if(desde==null || hasta==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas entre permanencias nulas.");
+		return buscar(aula.getNombre(), null, desde.getClave(), hasta.getClave());
+	}
+
+	/**
+	 * Obtiene las reservas archivadas de un profesor entre dos permanencias
+	 * @param profesor el profesor que ha hecho las reservas
+	 * @param desde la primera permanencia del intervalo, incluida
+	 * @param hasta la última permanencia del intervalo, incluida
+	 * @return las reservas del profesor en el intervalo, en orden cronológico
+	 * @throws IllegalArgumentException si algún parámetro es nulo
+	 * @throws IOException si falla la lectura de algún segmento
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor, Permanencia desde, Permanencia hasta)
+			throws IOException, IllegalArgumentException {
+		if(profesor==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		if(desde==null || hasta==null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas entre permanencias nulas.");
+		return buscar(null, profesor.getNombre(), desde.getClave(), hasta.getClave());
+	}
+
+	/**
+	 * Comprueba si un aula estaba libre en una permanencia archivada
+	 * @param aula el aula a comprobar
+	 * @param permanencia la permanencia a comprobar
+	 * @return True si no hay ninguna reserva archivada del aula en la permanencia
+	 * @throws IllegalArgumentException si el aula o la permanencia son nulas
+	 * @throws IOException si falla la lectura de algún segmento
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IOException, IllegalArgumentException {
+		if(aula==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de un aula nula.");
+		if(permanencia==null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de una permanencia nula.");
+		return buscar(aula.getNombre(), null, permanencia.getClave(), permanencia.getClave()).isEmpty();
+	}
+
+	/**
+	 * Escribe un entero no negativo en grupos de siete bits, del menos significativo al más, con el bit alto de
+	 * cada byte indicando si quedan más
+	 * @param salida el flujo en el que escribir
+	 * @param valor el valor a escribir
+	 * @throws IOException si falla la escritura
+	 */
+	private static void escribirVariable(DataOutputStream salida, long valor) throws IOException {
+		while((valor & ~0x7FL) != 0) {
+			salida.writeByte((int) (valor & 0x7F) | 0x80);
+			valor >>>= 7;
+		}
+		salida.writeByte((int) valor);
+	}
+
+	/**
+	 * Lee un entero escrito con escribirVariable
+	 * @param entrada el flujo del que leer
+	 * @return el valor leído
+	 * @throws IOException si falla la lectura o el flujo se acaba
+	 */
+	private static long leerVariable(DataInputStream entrada) throws IOException {
+		long valor = 0;
+		for(int desplazamiento = 0; desplazamiento < Long.SIZE; desplazamiento += 7) {
+			int b = entrada.readUnsignedByte();
+			valor |= (long) (b & 0x7F) << desplazamiento;
+			if((b & 0x80) == 0)
+				return valor;
+		}
+		throw new IOException("Entero de longitud variable mal formado.");
+	}
+
+	/**
+	 * Escribe una cadena como longitud (-1 para nulo) seguida de sus bytes en UTF-8
+	 * @param salida el flujo en el que escribir
+	 * @param cadena la cadena a escribir
+	 * @throws IOException si falla la escritura
+	 */
+	private static void escribirCadena(DataOutputStream salida, String cadena) throws IOException {
+		if(cadena == null) {
+			salida.writeInt(-1);
+		} else {
+			byte[] bytes = cadena.getBytes(StandardCharsets.UTF_8);
+			salida.writeInt(bytes.length);
+			salida.write(bytes);
+		}
+	}
+
+	/**
+	 * Calcula los bytes que ocupa una cadena escrita con escribirCadena
+	 * @param cadena la cadena o null
+	 * @return los bytes de su longitud y su contenido
+	 */
+	private static int longitudCadena(String cadena) {
+		return 4 + (cadena == null ? 0 : cadena.getBytes(StandardCharsets.UTF_8).length);
+	}
+
+	/**
+	 * Lee una cadena escrita con escribirCadena
+	 * @param entrada el flujo del que leer
+	 * @return la cadena leída o null
+	 * @throws IOException si falla la lectura
+	 */
+	private static String leerCadena(DataInputStream entrada) throws IOException {
+		int longitud = entrada.readInt();
+		if(longitud < 0)
+			return null;
+		byte[] bytes = new byte[longitud];
+		entrada.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,638 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+
+/**
+ * Diario de operaciones del modelo. Cada operación que modifica el modelo se añade al final del fichero como un
+ * registro binario (longitud, tipo, datos y CRC32) a través de un único FileChannel secuencial.
+ * Los registros se confirman por grupos: el hilo que llega primero escribe y sincroniza con disco todos los registros
+ * pendientes, de forma que las operaciones concurrentes comparten una única llamada a force.
+ * Al arrancar, el diario se reproduce sobre un modelo vacío para reconstruir las aulas, los profesores y las reservas.
+ * La cabecera guarda una generación que se incrementa cada vez que el diario se vacía tras guardar una instantánea,
+ * para saber si sus registros ya están incluidos en ella.
+ * @see ModeloReservasAulas
+ * @see Instantanea
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public class Diario implements Closeable {
+
+	private static final int MAGICO = 0x52414449;
+	private static final int VERSION = 1;
+	private static final int TAMANO_CABECERA = 16;
+	private static final int TAMANO_INICIAL_BUFFER = 64 * 1024;
+	private static final int TAMANO_MAXIMO_REGISTRO = 1 << 20;
+	private static final int CADENA_NULA = 0xFFFF;
+
+	static final byte INSERTAR_AULA = 1;
+	static final byte BORRAR_AULA = 2;
+	static final byte INSERTAR_PROFESOR = 3;
+	static final byte BORRAR_PROFESOR = 4;
+	static final byte REALIZAR_RESERVA = 5;
+	static final byte ANULAR_RESERVA = 6;
+	static final byte REALIZAR_RESERVAS = 7;
+
+	private final FileChannel canal;
+	private final Object escritura = new Object();
+	private ByteBuffer pendiente;
+	private long numAnadidos;
+	private long numConfirmados;
+	private long posicion;
+	private long generacion;
+
+	/**
+	 * Abre el diario indicado, creándolo si no existe
+	 * @param fichero la ruta del fichero del diario
+	 * @throws IOException si no se puede abrir el fichero o no es un diario válido
+	 */
+	public Diario(Path fichero) throws IOException {
+		this(abrir(fichero));
+	}
+
+	/**
+	 * Abre el diario sobre un canal ya abierto, que pasa a ser del diario. Permite probar el diario con canales
+	 * que fallan
+	 * @param canal el canal del fichero del diario
+	 * @throws IOException si no es un diario válido
+	 */
+	Diario(FileChannel canal) throws IOException {
+		this.canal = canal;
+		this.pendiente = ByteBuffer.allocate(TAMANO_INICIAL_BUFFER);
+		try {
+			if(canal.size() == 0) {
+				escribirCabecera(0);
+			} else {
+				ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA);
+				leerCompleto(cabecera, 0);
+				cabecera.flip();
+				if(cabecera.remaining() < TAMANO_CABECERA || cabecera.getInt() != MAGICO || cabecera.getInt() != VERSION)
+					throw new IOException("El fichero no es un diario de reservas válido.");
+				this.generacion = cabecera.getLong();
+			}
+			this.posicion = canal.size();
+		} catch (IOException e) {
+			canal.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Abre el fichero de un diario, creándolo si no existe
+	 * @param fichero la ruta del fichero del diario
+	 * @return el canal del fichero
+	 * @throws IOException si no se puede abrir el fichero
+	 */
+	private static FileChannel abrir(Path fichero) throws IOException {
+		if(fichero==null)
+			throw new IllegalArgumentException("El fichero del diario no puede ser nulo.");
+		return FileChannel.open(fichero, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Escribe la cabecera de un diario vacío y la sincroniza con disco
+	 * @param generacion la generación del diario
+	 * @throws IOException si falla la escritura
+	 */
+	private void escribirCabecera(long generacion) throws IOException {
+		canal.truncate(0);
+		ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA);
+		cabecera.putInt(MAGICO).putInt(VERSION).putLong(generacion).flip();
+		while(cabecera.hasRemaining())
+			canal.write(cabecera, TAMANO_CABECERA - cabecera.remaining());
+		canal.force(true);
+		this.posicion = TAMANO_CABECERA;
+		this.generacion = generacion;
+	}
+
+	/**
+	 * Lee del canal hasta llenar el buffer o llegar al final del fichero
+	 * @param buffer el buffer a llenar
+	 * @param desde la posición del fichero desde la que leer
+	 * @throws IOException si falla la lectura
+	 */
+	private void leerCompleto(ByteBuffer buffer, long desde) throws IOException {
+		long leido = desde;
+		while(buffer.hasRemaining()) {
+			int n = canal.read(buffer, leido);
+			if(n < 0)
+				break;
+			leido += n;
+		}
+	}
+
+	/**
+	 * Aplica sobre el modelo todas las operaciones guardadas en el diario, en el mismo orden en el que se registraron.
+	 * Si el último registro está incompleto o dañado (por ejemplo, por una caída durante la escritura) se descarta y
+	 * se trunca el fichero en el último registro válido.
+	 * @param modelo el modelo sobre el que aplicar las operaciones, que no debe registrarlas de nuevo
+	 * @return el número de operaciones aplicadas
+	 * @throws IOException si falla la lectura o alguna operación no se puede aplicar sobre el modelo
+	 */
+	public int reproducir(ModeloReservasAulas modelo) throws IOException {
+		if(modelo==null)
+			throw new IllegalArgumentException("No se puede reproducir el diario sobre un modelo nulo.");
+		synchronized(escritura) {
+			LectorRegistros lector = new LectorRegistros(canal, TAMANO_CABECERA);
+			int aplicadas = 0;
+			ByteBuffer registro;
+			while((registro = lector.siguiente()) != null) {
+				aplicar(registro, modelo);
+				aplicadas++;
+			}
+			if(lector.getPosicion() < canal.size())
+				canal.truncate(lector.getPosicion());
+			posicion = lector.getPosicion();
+			return aplicadas;
+		}
+	}
+
+	/**
+	 * Decodifica un registro y aplica la operación correspondiente sobre el modelo
+	 * @param registro el tipo y los datos del registro
+	 * @param modelo el modelo sobre el que aplicar la operación
+	 * @throws IOException si el tipo es desconocido o la operación no se puede aplicar
+	 */
+	private static void aplicar(ByteBuffer registro, ModeloReservasAulas modelo) throws IOException {
+		byte tipo = registro.get();
+		try {
+			switch(tipo) {
+			case INSERTAR_AULA:
+				modelo.insertarAula(new Aula(leerCadena(registro)));
+				break;
+			case BORRAR_AULA:
+				modelo.borrarAula(new Aula(leerCadena(registro)));
+				break;
+			case INSERTAR_PROFESOR:
+				modelo.insertarProfesor(leerProfesor(registro));
+				break;
+			case BORRAR_PROFESOR:
+				modelo.borrarProfesor(leerProfesor(registro));
+				break;
+			case REALIZAR_RESERVA:
+				modelo.realizarReserva(leerReserva(registro));
+				break;
+			case ANULAR_RESERVA:
+				modelo.anularReserva(leerReserva(registro));
+				break;
+			case REALIZAR_RESERVAS:
+				modelo.realizarReservas(leerReservas(registro));
+				break;
+			default:
+				throw new IOException("Tipo de registro desconocido en el diario: " + tipo);
+			}
+		} catch (OperationNotSupportedException | IllegalArgumentException e) {
+			throw new IOException("El diario no es coherente: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Registra la inserción de un aula
+	 * @param aula el aula insertada
+	 * @throws IOException si no se puede escribir el registro
+	 */
+	public void registrarInsertarAula(Aula aula) throws IOException {
+		confirmar(anadir(INSERTAR_AULA, aula.getNombre()));
+	}
+
+	/**
+	 * Registra el borrado de un aula
+	 * @param aula el aula borrada
+	 * @throws IOException si no se puede escribir el registro
+	 */
+	public void registrarBorrarAula(Aula aula) throws IOException {
+		confirmar(anadir(BORRAR_AULA, aula.getNombre()));
+	}
+
+	/**
+	 * Registra la inserción de un profesor
+	 * @param profesor el profesor insertado
+	 * @throws IOException si no se puede escribir el registro
+	 */
+	public void registrarInsertarProfesor(Profesor profesor) throws IOException {
+		confirmar(anadir(INSERTAR_PROFESOR, profesor.getNombre(), profesor.getCorreo(), profesor.getTelefono()));
+	}
+
+	/**
+	 * Registra el borrado de un profesor
+	 * @param profesor el profesor borrado
+	 * @throws IOException si no se puede escribir el registro
+	 */
+	public void registrarBorrarProfesor(Profesor profesor) throws IOException {
+		confirmar(anadir(BORRAR_PROFESOR, profesor.getNombre(), profesor.getCorreo(), profesor.getTelefono()));
+	}
+
+	/**
+	 * Registra la realización de una reserva
+	 * @param reserva la reserva realizada
+	 * @throws IOException si no se puede escribir el registro
+	 */
+	public void registrarRealizarReserva(Reserva reserva) throws IOException {
+		confirmar(anotarRealizarReserva(reserva));
+	}
+
+	/**
+	 * Añade el registro de una reserva realizada a los registros pendientes, sin esperar a que se escriba.
+	 * Sirve para registrar varias reservas y confirmarlas todas con una sola llamada a confirmar.
+	 * @param reserva la reserva realizada
+	 * @return el número de orden del registro, que se pasa a confirmar
+	 */
+	public long anotarRealizarReserva(Reserva reserva) {
+		return anadirReserva(REALIZAR_RESERVA, reserva);
+	}
+
+	/**
+	 * Añade el registro de un lote de reservas realizadas a los registros pendientes, sin esperar a que se escriba.
+	 * Todo el lote va en un único registro con un único CRC, de modo que al reproducir el diario se aplica entero
+	 * o, si el registro quedó incompleto, no se aplica ninguna de sus reservas.
+	 * @param lote las reservas realizadas
+	 * @return el número de orden del registro, que se pasa a confirmar
+	 * @throws IllegalArgumentException si el lote no cabe en un registro del diario
+	 */
+	public long anotarRealizarReservas(Collection<Reserva> lote) throws IllegalArgumentException {
+		byte[][] bytes = new byte[lote.size() * 4][];
+		int longitud = 1 + 4 + 8 * lote.size();
+		int i = 0;
+		for(Reserva reserva : lote) {
+			Profesor profesor = reserva.getProfesor();
+			bytes[i++] = codificar(profesor.getNombre());
+			bytes[i++] = codificar(profesor.getCorreo());
+			bytes[i++] = codificar(profesor.getTelefono());
+			bytes[i++] = codificar(reserva.getAula().getNombre());
+		}
+		for(byte[] b : bytes)
+			longitud += 2 + (b == null ? 0 : b.length);
+		if(longitud > TAMANO_MAXIMO_REGISTRO)
+			throw new IllegalArgumentException("No se puede registrar un lote de reservas tan grande en el diario.");
+		synchronized(this) {
+			asegurarCapacidad(longitud + 8);
+			pendiente.putInt(longitud);
+			int inicio = pendiente.position();
+			pendiente.put(REALIZAR_RESERVAS);
+			pendiente.putInt(lote.size());
+			i = 0;
+			for(Reserva reserva : lote) {
+				for(int j = 0; j < 4; j++)
+					ponerCadena(bytes[i++]);
+				pendiente.putLong(reserva.getPermanencia().getClave());
+			}
+			return cerrarRegistro(inicio, longitud);
+		}
+	}
+
+	/**
+	 * Registra la anulación de una reserva
+	 * @param reserva la reserva anulada
+	 * @throws IOException si no se puede escribir el registro
+	 */
+	public void registrarAnularReserva(Reserva reserva) throws IOException {
+		confirmar(anadirReserva(ANULAR_RESERVA, reserva));
+	}
+
+	/**
+	 * Añade un registro de reserva al buffer de registros pendientes
+	 * @param tipo el tipo de registro
+	 * @param reserva la reserva a registrar
+	 * @return el número de orden del registro
+	 */
+	private long anadirReserva(byte tipo, Reserva reserva) {
+		Profesor profesor = reserva.getProfesor();
+		return anadir(tipo, reserva.getPermanencia().getClave(), profesor.getNombre(), profesor.getCorreo(),
+				profesor.getTelefono(), reserva.getAula().getNombre());
+	}
+
+	/**
+	 * Añade un registro formado sólo por cadenas al buffer de registros pendientes
+	 * @param tipo el tipo de registro
+	 * @param cadenas las cadenas del registro (pueden ser nulas)
+	 * @return el número de orden del registro
+	 */
+	private long anadir(byte tipo, String... cadenas) {
+		return anadir(tipo, 0, cadenas);
+	}
+
+	/**
+	 * Codifica un registro y lo añade al buffer de registros pendientes. Los registros de reserva llevan además
+	 * la clave empaquetada de la permanencia.
+	 * @param tipo el tipo de registro
+	 * @param clave la clave de la permanencia, sólo para los registros de reserva
+	 * @param cadenas las cadenas del registro (pueden ser nulas)
+	 * @return el número de orden del registro
+	 */
+	private synchronized long anadir(byte tipo, long clave, String... cadenas) {
+		byte[][] bytes = new byte[cadenas.length][];
+		int longitud = 1;
+		for(int i = 0; i < cadenas.length; i++) {
+			bytes[i] = codificar(cadenas[i]);
+			longitud += 2 + (bytes[i] == null ? 0 : bytes[i].length);
+		}
+		boolean esReserva = tipo == REALIZAR_RESERVA || tipo == ANULAR_RESERVA;
+		if(esReserva)
+			longitud += 8;
+		asegurarCapacidad(longitud + 8);
+		pendiente.putInt(longitud);
+		int inicio = pendiente.position();
+		pendiente.put(tipo);
+		for(byte[] b : bytes)
+			ponerCadena(b);
+		if(esReserva)
+			pendiente.putLong(clave);
+		return cerrarRegistro(inicio, longitud);
+	}
+
+	/**
+	 * Codifica una cadena de un registro en UTF-8
+	 * @param cadena la cadena a codificar, que puede ser nula
+	 * @return los bytes de la cadena, o null si es nula
+	 * @throws IllegalArgumentException si la cadena es demasiado larga para el diario
+	 */
+	private static byte[] codificar(String cadena) throws IllegalArgumentException {
+		if(cadena == null)
+			return null;
+		byte[] bytes = cadena.getBytes(StandardCharsets.UTF_8);
+		if(bytes.length >= CADENA_NULA)
+			throw new IllegalArgumentException("No se puede registrar una cadena tan larga en el diario.");
+		return bytes;
+	}
+
+	/**
+	 * Añade una cadena ya codificada al buffer de registros pendientes, precedida de su longitud
+	 * @param bytes los bytes de la cadena, o null para una cadena nula
+	 */
+	private void ponerCadena(byte[] bytes) {
+		if(bytes == null) {
+			pendiente.putShort((short) CADENA_NULA);
+		} else {
+			pendiente.putShort((short) bytes.length);
+			pendiente.put(bytes);
+		}
+	}
+
+	/**
+	 * Termina el registro que se está añadiendo al buffer de registros pendientes con el CRC de su contenido
+	 * @param inicio la posición del buffer en la que empieza el tipo del registro
+	 * @param longitud la longitud del tipo y los datos del registro
+	 * @return el número de orden del registro
+	 */
+	private long cerrarRegistro(int inicio, int longitud) {
+		CRC32 crc = new CRC32();
+		crc.update(pendiente.array(), inicio, longitud);
+		pendiente.putInt((int) crc.getValue());
+		return ++numAnadidos;
+	}
+
+	/**
+	 * Amplía el buffer de registros pendientes si no cabe un registro del tamaño indicado
+	 * @param necesario el número de bytes a añadir
+	 */
+	private void asegurarCapacidad(int necesario) {
+		if(pendiente.remaining() >= necesario)
+			return;
+		ByteBuffer nuevo = ByteBuffer.allocate(Math.max(pendiente.capacity() * 2, pendiente.position() + necesario));
+		pendiente.flip();
+		nuevo.put(pendiente);
+		pendiente = nuevo;
+	}
+
+	/**
+	 * Espera a que el registro indicado esté escrito y sincronizado con disco. Si nadie lo está escribiendo,
+	 * el hilo actual escribe de una vez todos los registros pendientes y llama a force una sola vez por el grupo.
+	 * Si la escritura o la sincronización fallan, el grupo vuelve al principio de los registros pendientes y el
+	 * siguiente confirmar lo escribe de nuevo en la misma posición, de modo que ningún registro se da por
+	 * confirmado sin haber llegado a disco.
+	 * @param numRegistro el número de orden del registro a confirmar
+	 * @throws IOException si falla la escritura o la sincronización
+	 */
+	public void confirmar(long numRegistro) throws IOException {
+		synchronized(escritura) {
+			if(numConfirmados >= numRegistro)
+				return;
+			ByteBuffer lote;
+			long hasta;
+			synchronized(this) {
+				pendiente.flip();
+				lote = pendiente;
+				hasta = numAnadidos;
+				pendiente = ByteBuffer.allocate(Math.max(TAMANO_INICIAL_BUFFER, lote.capacity()));
+			}
+			long escrito = posicion;
+			try {
+				while(lote.hasRemaining())
+					escrito += canal.write(lote, escrito);
+				canal.force(false);
+			} catch (IOException e) {
+				devolver(lote);
+				throw e;
+			}
+			posicion = escrito;
+			numConfirmados = hasta;
+		}
+	}
+
+	/**
+	 * Devuelve al principio de los registros pendientes un grupo que no se ha podido confirmar, delante de los
+	 * registros añadidos mientras se escribía
+	 * @param lote el grupo que no se ha podido confirmar
+	 */
+	private synchronized void devolver(ByteBuffer lote) {
+		lote.rewind();
+		pendiente.flip();
+		ByteBuffer nuevo = ByteBuffer.allocate(Math.max(TAMANO_INICIAL_BUFFER, lote.remaining() + pendiente.remaining()));
+		nuevo.put(lote);
+		nuevo.put(pendiente);
+		pendiente = nuevo;
+	}
+
+	/**
+	 * Vacía el diario y le asigna una nueva generación. Se usa cuando todas sus operaciones ya están guardadas
+	 * en una instantánea de esa generación.
+	 * @param generacion la nueva generación del diario
+	 * @throws IOException si falla la escritura
+	 */
+	public void vaciar(long generacion) throws IOException {
+		synchronized(escritura) {
+			synchronized(this) {
+				pendiente.clear();
+				numConfirmados = numAnadidos;
+			}
+			escribirCabecera(generacion);
+		}
+	}
+
+	/**
+	 * Método get para la generación del diario
+	 * @return la generación del diario
+	 */
+	public long getGeneracion() {
+		synchronized(escritura) {
+			return generacion;
+		}
+	}
+
+	/**
+	 * Obtiene el tamaño en bytes del diario en disco
+	 * @return el tamaño del diario
+	 */
+	public long getTamano() {
+		synchronized(escritura) {
+			return posicion;
+		}
+	}
+
+	/**
+	 * Cierra el fichero del diario
+	 * @throws IOException si falla el cierre
+	 */
+	public void close() throws IOException {
+		synchronized(escritura) {
+			canal.close();
+		}
+	}
+
+	/**
+	 * Lee una cadena codificada como longitud (dos bytes sin signo, 0xFFFF para nulo) seguida de sus bytes en UTF-8
+	 * @param buffer el buffer del que leer
+	 * @return la cadena leída o null
+	 */
+	private static String leerCadena(ByteBuffer buffer) {
+		int longitud = buffer.getShort() & 0xFFFF;
+		if(longitud == CADENA_NULA)
+			return null;
+		String cadena = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), longitud, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + longitud);
+		return cadena;
+	}
+
+	/**
+	 * Lee un profesor (nombre, correo y teléfono) de un registro
+	 * @param buffer el buffer del que leer
+	 * @return el profesor leído
+	 */
+	private static Profesor leerProfesor(ByteBuffer buffer) {
+		String nombre = leerCadena(buffer);
+		String correo = leerCadena(buffer);
+		return new Profesor(nombre, correo, leerCadena(buffer));
+	}
+
+	/**
+	 * Lee una reserva (profesor, aula y clave de la permanencia) de un registro
+	 * @param buffer el buffer del que leer
+	 * @return la reserva leída
+	 */
+	private static Reserva leerReserva(ByteBuffer buffer) {
+		Profesor profesor = leerProfesor(buffer);
+		Aula aula = new Aula(leerCadena(buffer));
+		return new Reserva(profesor, aula, new Permanencia(buffer.getLong()));
+	}
+
+	/**
+	 * Lee un lote de reservas (su número y después cada reserva) de un registro
+	 * @param buffer el buffer del que leer
+	 * @return las reservas leídas, en el orden en que se registraron
+	 */
+	private static List<Reserva> leerReservas(ByteBuffer buffer) {
+		int numReservas = buffer.getInt();
+		List<Reserva> reservas = new ArrayList<Reserva>(numReservas);
+		for(int i = 0; i < numReservas; i++)
+			reservas.add(leerReserva(buffer));
+		return reservas;
+	}
+
+	/**
+	 * Recorre secuencialmente los registros de un diario comprobando su longitud y su CRC
+	 */
+	private static class LectorRegistros {
+
+		private final FileChannel canal;
+		private ByteBuffer buffer;
+		private long posicion;
+		private long leido;
+
+		/**
+		 * Constructor de la clase
+		 * @param canal el canal del diario
+		 * @param desde la posición del primer registro
+		 */
+		LectorRegistros(FileChannel canal, long desde) {
+			this.canal = canal;
+			this.buffer = ByteBuffer.allocate(TAMANO_INICIAL_BUFFER);
+			this.buffer.flip();
+			this.posicion = desde;
+			this.leido = desde;
+		}
+
+		/**
+		 * Método get para la posición siguiente al último registro válido leído
+		 * @return la posición en el fichero
+		 */
+		long getPosicion() {
+			return posicion;
+		}
+
+		/**
+		 * Lee el siguiente registro válido
+		 * @return un buffer con el tipo y los datos del registro, o null si no quedan registros válidos
+		 * @throws IOException si falla la lectura
+		 */
+		ByteBuffer siguiente() throws IOException {
+			if(!disponible(4))
+				return null;
+			int longitud = buffer.getInt(buffer.position());
+			if(longitud <= 0 || longitud > TAMANO_MAXIMO_REGISTRO || !disponible(longitud + 8))
+				return null;
+			byte[] datos = new byte[longitud];
+			buffer.position(buffer.position() + 4);
+			buffer.get(datos);
+			int crcLeido = buffer.getInt();
+			CRC32 crc = new CRC32();
+			crc.update(datos, 0, longitud);
+			if((int) crc.getValue() != crcLeido)
+				return null;
+			posicion += longitud + 8;
+			return ByteBuffer.wrap(datos);
+		}
+
+		/**
+		 * Se asegura de que el buffer tiene al menos los bytes indicados, leyendo más del fichero si es necesario
+		 * @param bytes el número de bytes necesarios
+		 * @return True si hay suficientes bytes, False si se ha llegado al final del fichero
+		 * @throws IOException si falla la lectura
+		 */
+		private boolean disponible(int bytes) throws IOException {
+			if(buffer.remaining() >= bytes)
+				return true;
+			if(buffer.capacity() < bytes) {
+				ByteBuffer mayor = ByteBuffer.allocate(bytes);
+				mayor.put(buffer);
+				buffer = mayor;
+			} else {
+				buffer.compact();
+			}
+			while(buffer.hasRemaining()) {
+				int n = canal.read(buffer, leido);
+				if(n < 0)
+					break;
+				leido += n;
+			}
+			buffer.flip();
+			return buffer.remaining() >= bytes;
+		}
+	}
+}
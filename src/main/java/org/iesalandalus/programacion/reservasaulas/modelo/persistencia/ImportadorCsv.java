@@ -0,0 +1,372 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.IModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ResultadoReserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+
+/**
+ * Importa aulas, profesores y reservas desde ficheros CSV en UTF-8, con los campos separados por punto y coma.
+ * Las líneas vacías y las que empiezan por # se ignoran. Los formatos de cada fila son:
+ * <ul>
+ * <li>aulas: {@code nombre}</li>
+ * <li>profesores: {@code nombre;correo[;telefono]}</li>
+ * <li>reservas: {@code profesor;aula;dd/mm/aaaa;tramo}, con el profesor y el aula ya guardados en el modelo y
+ * el tramo como Mañana o Tarde</li>
+ * </ul>
+ * El fichero se lee línea a línea y en lotes: varios hilos validan los lotes a la vez y el hilo que importa los
+ * inserta en el modelo en el orden del fichero. Como mucho hay dos lotes por hilo en memoria, sea cual sea el
+ * tamaño del fichero. Las filas no válidas se anotan en el informe y la carga sigue con las demás.
+ * @see InformeImportacion
+ * @see ModeloReservasAulas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public class ImportadorCsv {
+
+	private static final String SEPARADOR = ";";
+	private static final String COMENTARIO = "#";
+	private static final String CORREO_BUSQUEDA = "a@a.a";
+	private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+	private static final int TAMANO_LOTE = 4096;
+	private static final int TAMANO_BUFFER = 1 << 16;
+
+	private final IModeloReservasAulas modelo;
+	private final int tamanoLote;
+	private final int numHilos;
+
+	/**
+	 * Convierte los campos de una fila en un objeto del modelo, lanzando IllegalArgumentException si no son válidos
+	 */
+	private interface Conversor<T> {
+		T convertir(String[] campos) throws IllegalArgumentException;
+	}
+
+	/**
+	 * Inserta en el modelo las filas válidas de un lote y devuelve, para cada una, el motivo por el que el modelo
+	 * la rechaza o null si la ha insertado
+	 */
+	private interface Insercion<T> {
+		String[] insertar(List<T> validos);
+	}
+
+	/**
+	 * Filas de un lote ya validadas: los objetos válidos con su número de línea y los errores de las demás
+	 */
+	private static final class Lote<T> {
+		private final List<T> validos = new ArrayList<T>();
+		private final List<Integer> lineasValidos = new ArrayList<Integer>();
+		private final List<Integer> lineasErroneas = new ArrayList<Integer>();
+		private final List<String> errores = new ArrayList<String>();
+	}
+
+	/**
+	 * Constructor de la clase. Usa tantos hilos de validación como procesadores tenga la máquina
+	 * @param modelo el modelo en el que importar los datos
+	 */
+	public ImportadorCsv(IModeloReservasAulas modelo) {
+		this(modelo, TAMANO_LOTE, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor de la clase
+	 * @param modelo el modelo en el que importar los datos
+	 * @param tamanoLote el número de filas de cada lote
+	 * @param numHilos el número de hilos que validan los lotes
+	 * @throws IllegalArgumentException si el modelo es nulo o el tamaño del lote o el número de hilos no son positivos
+	 */
+	public ImportadorCsv(IModeloReservasAulas modelo, int tamanoLote, int numHilos) throws IllegalArgumentException {
+		if(modelo==null)
+			throw new IllegalArgumentException("No se puede importar en un modelo nulo.");
+		if(tamanoLote <= 0 || numHilos <= 0)
+			throw new IllegalArgumentException("El tamaño del lote y el número de hilos deben ser positivos.");
+		this.modelo = modelo;
+		this.tamanoLote = tamanoLote;
+		this.numHilos = numHilos;
+	}
+
+	/**
+	 * Importa las aulas de un fichero CSV
+	 * @param fichero el fichero a importar
+	 * @return el informe de la importación
+	 * @throws IOException si no se puede leer el fichero
+	 */
+	public InformeImportacion importarAulas(Path fichero) throws IOException {
+		return importar(fichero, campos -> {
+			comprobarNumCampos(campos, 1, 1);
+			return new Aula(campos[0]);
+		}, validos -> {
+			String[] rechazos = new String[validos.size()];
+			for(int i = 0; i < rechazos.length; i++) {
+				try {
+					modelo.insertarAula(validos.get(i));
+				} catch (OperationNotSupportedException e) {
+					rechazos[i] = e.getMessage();
+				}
+			}
+			return rechazos;
+		});
+	}
+
+	/**
+	 * Importa los profesores de un fichero CSV
+	 * @param fichero el fichero a importar
+	 * @return el informe de la importación
+	 * @throws IOException si no se puede leer el fichero
+	 */
+	public InformeImportacion importarProfesores(Path fichero) throws IOException {
+		return importar(fichero, campos -> {
+			comprobarNumCampos(campos, 2, 3);
+			return new Profesor(campos[0], campos[1], campos.length == 3 && !campos[2].isEmpty() ? campos[2] : null);
+		}, validos -> {
+			String[] rechazos = new String[validos.size()];
+			for(int i = 0; i < rechazos.length; i++) {
+				try {
+					modelo.insertarProfesor(validos.get(i));
+				} catch (OperationNotSupportedException e) {
+					rechazos[i] = e.getMessage();
+				}
+			}
+			return rechazos;
+		});
+	}
+
+	/**
+	 * Importa las reservas de un fichero CSV. Cada lote se inserta con una sola llamada a reservarSiDisponibles
+	 * @param fichero el fichero a importar
+	 * @return el informe de la importación
+	 * @throws IOException si no se puede leer el fichero
+	 */
+	public InformeImportacion importarReservas(Path fichero) throws IOException {
+		ConcurrentHashMap<String, Profesor> profesores = new ConcurrentHashMap<String, Profesor>();
+		ConcurrentHashMap<String, Aula> aulas = new ConcurrentHashMap<String, Aula>();
+		return importar(fichero, campos -> {
+			comprobarNumCampos(campos, 4, 4);
+			Profesor profesor = profesores.get(campos[0]);
+			if(profesor == null) {
+				profesor = modelo.buscarProfesor(new Profesor(campos[0], CORREO_BUSQUEDA));
+				if(profesor == null)
+					throw new IllegalArgumentException("El profesor " + campos[0] + " no existe.");
+				profesores.put(campos[0], profesor);
+			}
+			Aula aula = aulas.get(campos[1]);
+			if(aula == null) {
+				aula = modelo.buscarAula(new Aula(campos[1]));
+				if(aula == null)
+					throw new IllegalArgumentException("El aula " + campos[1] + " no existe.");
+				aulas.put(campos[1], aula);
+			}
+			return new Reserva(profesor, aula, new Permanencia(leerDia(campos[2]), leerTramo(campos[3])));
+		}, validos -> {
+			ResultadoReserva[] resultados = modelo.reservarSiDisponibles(validos);
+			String[] rechazos = new String[resultados.length];
+			for(int i = 0; i < rechazos.length; i++) {
+				if(resultados[i] != ResultadoReserva.RESERVADA)
+					rechazos[i] = resultados[i].toString();
+			}
+			return rechazos;
+		});
+	}
+
+	/**
+	 * Lee el fichero por lotes, los valida en paralelo y los inserta en orden
+	 * @param fichero el fichero a importar
+	 * @param conversor la conversión de cada fila
+	 * @param insercion la inserción de las filas válidas de cada lote
+	 * @return el informe de la importación
+	 * @throws IOException si no se puede leer el fichero
+	 */
+	private <T> InformeImportacion importar(Path fichero, Conversor<T> conversor, Insercion<T> insercion) throws IOException {
+		if(fichero==null)
+			throw new IllegalArgumentException("El fichero a importar no puede ser nulo.");
+		InformeImportacion informe = new InformeImportacion(fichero.getFileName().toString());
+		ExecutorService hilos = Executors.newFixedThreadPool(numHilos);
+		Deque<Future<Lote<T>>> enCurso = new ArrayDeque<Future<Lote<T>>>();
+		try (BufferedReader lector = new BufferedReader(new InputStreamReader(Files.newInputStream(fichero),
+				StandardCharsets.UTF_8), TAMANO_BUFFER)) {
+			List<String> lineas = new ArrayList<String>(tamanoLote);
+			List<Integer> numeros = new ArrayList<Integer>(tamanoLote);
+			int numLinea = 0;
+			String linea;
+			while((linea = lector.readLine()) != null) {
+				numLinea++;
+				if(linea.trim().isEmpty() || linea.startsWith(COMENTARIO))
+					continue;
+				informe.contarFila();
+				lineas.add(linea);
+				numeros.add(numLinea);
+				if(lineas.size() == tamanoLote) {
+					enCurso.add(hilos.submit(validar(lineas, numeros, conversor)));
+					lineas = new ArrayList<String>(tamanoLote);
+					numeros = new ArrayList<Integer>(tamanoLote);
+					if(enCurso.size() >= 2 * numHilos)
+						insertar(enCurso.poll(), insercion, informe);
+				}
+			}
+			if(!lineas.isEmpty())
+				enCurso.add(hilos.submit(validar(lineas, numeros, conversor)));
+			while(!enCurso.isEmpty())
+				insertar(enCurso.poll(), insercion, informe);
+		} finally {
+			for(Future<Lote<T>> f : enCurso)
+				f.cancel(true);
+			hilos.shutdownNow();
+		}
+		return informe;
+	}
+
+	/**
+	 * Crea la tarea que valida un lote de filas
+	 * @param lineas las filas del lote
+	 * @param numeros el número de línea de cada fila
+	 * @param conversor la conversión de cada fila
+	 * @return la tarea, que devuelve el lote validado
+	 */
+	private static <T> Callable<Lote<T>> validar(List<String> lineas, List<Integer> numeros,
+			Conversor<T> conversor) {
+		return () -> {
+			Lote<T> lote = new Lote<T>();
+			for(int i = 0; i < lineas.size(); i++) {
+				try {
+					String[] campos = lineas.get(i).split(SEPARADOR, -1);
+					for(int j = 0; j < campos.length; j++)
+						campos[j] = campos[j].trim();
+					lote.validos.add(conversor.convertir(campos));
+					lote.lineasValidos.add(numeros.get(i));
+				} catch (IllegalArgumentException e) {
+					lote.lineasErroneas.add(numeros.get(i));
+					lote.errores.add(e.getMessage());
+				}
+			}
+			return lote;
+		};
+	}
+
+	/**
+	 * Espera a que un lote esté validado, inserta sus filas válidas y anota en el informe las filas rechazadas
+	 * en el orden del fichero
+	 * @param pendiente el lote en validación
+	 * @param insercion la inserción de las filas válidas
+	 * @param informe el informe de la importación
+	 * @throws IOException si la importación se interrumpe
+	 */
+	private static <T> void insertar(Future<Lote<T>> pendiente, Insercion<T> insercion, InformeImportacion informe) throws IOException {
+		Lote<T> lote;
+		try {
+			lote = pendiente.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Se ha interrumpido la importación.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Error inesperado al validar el fichero: " + e.getCause(), e.getCause());
+		}
+		String[] rechazos = lote.validos.isEmpty() ? new String[0] : insercion.insertar(lote.validos);
+		int valida = 0;
+		int erronea = 0;
+		while(valida < rechazos.length || erronea < lote.errores.size()) {
+			if(erronea == lote.errores.size() || (valida < rechazos.length && lote.lineasValidos.get(valida) < lote.lineasErroneas.get(erronea))) {
+				if(rechazos[valida] == null)
+					informe.contarImportada();
+				else
+					informe.anadirError(lote.lineasValidos.get(valida), rechazos[valida]);
+				valida++;
+			} else {
+				informe.anadirError(lote.lineasErroneas.get(erronea), lote.errores.get(erronea));
+				erronea++;
+			}
+		}
+	}
+
+	/**
+	 * Comprueba que una fila tiene un número de campos admitido
+	 * @param campos los campos de la fila
+	 * @param minimo el número mínimo de campos
+	 * @param maximo el número máximo de campos
+	 * @throws IllegalArgumentException si la fila tiene más o menos campos
+	 */
+	private static void comprobarNumCampos(String[] campos, int minimo, int maximo) throws IllegalArgumentException {
+		if(campos.length < minimo || campos.length > maximo)
+			throw new IllegalArgumentException("La fila tiene " + campos.length + " campos y debería tener "
+					+ (minimo == maximo ? "" + minimo : "entre " + minimo + " y " + maximo) + ".");
+	}
+
+	/**
+	 * Convierte un día con formato dd/mm/aaaa. Los días con exactamente ese formato se leen a mano, ya que
+	 * DateTimeFormatter tarda varias veces más que el resto de la fila; los demás se dejan al formateador
+	 * @param campo el día leído
+	 * @return el día
+	 * @throws IllegalArgumentException si el día no tiene el formato correcto
+	 */
+	private static LocalDate leerDia(String campo) throws IllegalArgumentException {
+		try {
+			if(campo.length() == 10 && campo.charAt(2) == '/' && campo.charAt(5) == '/') {
+				int dia = leerNumero(campo, 0, 2);
+				int mes = leerNumero(campo, 3, 5);
+				int anio = leerNumero(campo, 6, 10);
+				if(dia >= 0 && mes >= 0 && anio >= 0)
+					return LocalDate.of(anio, mes, dia);
+			}
+			return LocalDate.parse(campo, FORMATO_DIA);
+		} catch (DateTimeException e) {
+			throw new IllegalArgumentException("El día " + campo + " no tiene el formato dd/mm/aaaa.");
+		}
+	}
+
+	/**
+	 * Lee un número formado sólo por dígitos
+	 * @param cadena la cadena que contiene el número
+	 * @param inicio la posición del primer dígito
+	 * @param fin la posición siguiente al último dígito
+	 * @return el número, o -1 si algún carácter no es un dígito
+	 */
+	private static int leerNumero(String cadena, int inicio, int fin) {
+		int numero = 0;
+		for(int i = inicio; i < fin; i++) {
+			char c = cadena.charAt(i);
+			if(c < '0' || c > '9')
+				return -1;
+			numero = numero * 10 + (c - '0');
+		}
+		return numero;
+	}
+
+	/**
+	 * Convierte un tramo escrito como se muestra (Mañana, Tarde) o con su nombre (MANANA, TARDE)
+	 * @param campo el tramo leído
+	 * @return el tramo
+	 * @throws IllegalArgumentException si el tramo no existe
+	 */
+	private static Tramo leerTramo(String campo) throws IllegalArgumentException {
+		for(Tramo t : Tramo.values()) {
+			if(t.name().equalsIgnoreCase(campo) || t.toString().equalsIgnoreCase(campo))
+				return t;
+		}
+		throw new IllegalArgumentException("El tramo " + campo + " no es válido.");
+	}
+}
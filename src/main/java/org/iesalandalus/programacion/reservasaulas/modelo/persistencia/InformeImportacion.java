@@ -0,0 +1,96 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de importar un fichero CSV: cuántas filas se han leído e importado y qué filas se han rechazado.
+ * Sólo se guardan los mensajes de las primeras filas rechazadas, para que un fichero con muchos errores no
+ * agote la memoria; el resto sólo se cuentan.
+ * @see ImportadorCsv
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public class InformeImportacion {
+
+	private static final int MAX_ERRORES = 1000;
+
+	private final String fichero;
+	private int numFilas;
+	private int numImportadas;
+	private int numErroneas;
+	private final List<String> errores = new ArrayList<String>();
+
+	/**
+	 * Constructor de la clase
+	 * @param fichero el nombre del fichero importado, para los mensajes
+	 */
+	InformeImportacion(String fichero) {
+		this.fichero = fichero;
+	}
+
+	/**
+	 * Cuenta una fila leída del fichero
+	 */
+	void contarFila() {
+		numFilas++;
+	}
+
+	/**
+	 * Cuenta una fila importada correctamente
+	 */
+	void contarImportada() {
+		numImportadas++;
+	}
+
+	/**
+	 * Anota una fila rechazada
+	 * @param linea el número de línea de la fila en el fichero
+	 * @param mensaje el motivo del rechazo
+	 */
+	void anadirError(int linea, String mensaje) {
+		numErroneas++;
+		if(errores.size() < MAX_ERRORES)
+			errores.add(fichero + ":" + linea + ": " + mensaje);
+	}
+
+	/**
+	 * Método get para el número de filas leídas, sin contar las líneas vacías ni los comentarios
+	 * @return el número de filas leídas
+	 */
+	public int getNumFilas() {
+		return numFilas;
+	}
+
+	/**
+	 * Método get para el número de filas importadas
+	 * @return el número de filas importadas
+	 */
+	public int getNumImportadas() {
+		return numImportadas;
+	}
+
+	/**
+	 * Método get para el número de filas rechazadas
+	 * @return el número de filas rechazadas
+	 */
+	public int getNumErroneas() {
+		return numErroneas;
+	}
+
+	/**
+	 * Obtiene los mensajes de las filas rechazadas, con el fichero y el número de línea de cada una
+	 * @return los mensajes de como mucho las primeras mil filas rechazadas
+	 */
+	public List<String> getErrores() {
+		return new ArrayList<String>(errores);
+	}
+
+	/**
+	 * Representa el informe como una cadena de caracteres
+	 * @return el resumen de la importación
+	 */
+	public String toString() {
+		return fichero + ": " + numImportadas + " de " + numFilas + " filas importadas, " + numErroneas + " rechazadas";
+	}
+}
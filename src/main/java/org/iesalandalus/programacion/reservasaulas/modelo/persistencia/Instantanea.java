@@ -0,0 +1,249 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Aulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Profesores;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Reservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+
+/**
+ * Instantánea binaria del estado completo del modelo. Los nombres de aulas y profesores se guardan una sola vez
+ * en dos diccionarios y cada reserva ocupa 16 bytes: el índice de su aula, el índice de su profesor y la clave
+ * empaquetada de su permanencia. La instantánea se escribe en un fichero temporal que sustituye al anterior de forma
+ * atómica, y se lee proyectando el fichero en memoria.
+ * @see Diario
+ * @see ModeloReservasAulas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public class Instantanea {
+
+	private static final int MAGICO = 0x5241494E;
+	private static final int VERSION = 1;
+
+	/**
+	 * Constructor privado para evitar que se instancien objetos de la clase.
+	 */
+	private Instantanea() {
+	}
+
+	/**
+	 * Guarda una instantánea con las aulas, los profesores y las reservas indicados. La escribe en un fichero
+	 * temporal, la renombra y fuerza al disco el directorio, así que al volver ya se puede vaciar el diario
+	 * @param fichero el fichero de la instantánea, que se sustituye si ya existe
+	 * @param generacion la generación del diario que empieza tras esta instantánea
+	 * @param aulas las aulas del modelo
+	 * @param profesores los profesores del modelo
+	 * @param reservas las reservas del modelo
+	 * @throws IOException si falla la escritura
+	 */
+	public static void guardar(Path fichero, long generacion, List<Aula> aulas, List<Profesor> profesores,
+			List<Reserva> reservas) throws IOException {
+		if(fichero==null)
+			throw new IllegalArgumentException("El fichero de la instantánea no puede ser nulo.");
+		Map<String, Integer> indiceAulas = new HashMap<String, Integer>();
+		List<Aula> diccionarioAulas = new ArrayList<Aula>(aulas);
+		for(int i = 0; i < aulas.size(); i++)
+			indiceAulas.put(aulas.get(i).getNombre(), i);
+		Map<List<String>, Integer> indiceProfesores = new HashMap<List<String>, Integer>();
+		List<Profesor> diccionarioProfesores = new ArrayList<Profesor>(profesores);
+		for(int i = 0; i < profesores.size(); i++)
+			indiceProfesores.put(claveProfesor(profesores.get(i)), i);
+		int[] aulaReserva = new int[reservas.size()];
+		int[] profesorReserva = new int[reservas.size()];
+		for(int i = 0; i < reservas.size(); i++) {
+			Reserva r = reservas.get(i);
+			Integer aula = indiceAulas.get(r.getAula().getNombre());
+			if(aula == null) {
+				aula = diccionarioAulas.size();
+				diccionarioAulas.add(r.getAula());
+				indiceAulas.put(r.getAula().getNombre(), aula);
+			}
+			List<String> clave = claveProfesor(r.getProfesor());
+			Integer profesor = indiceProfesores.get(clave);
+			if(profesor == null) {
+				profesor = diccionarioProfesores.size();
+				diccionarioProfesores.add(r.getProfesor());
+				indiceProfesores.put(clave, profesor);
+			}
+			aulaReserva[i] = aula;
+			profesorReserva[i] = profesor;
+		}
+
+		Path temporal = fichero.resolveSibling(fichero.getFileName() + ".tmp");
+		try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			OutputStream flujo = Channels.newOutputStream(canal);
+			DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(flujo, 1 << 16));
+			salida.writeInt(MAGICO);
+			salida.writeInt(VERSION);
+			salida.writeLong(generacion);
+			salida.writeInt(diccionarioAulas.size());
+			salida.writeInt(aulas.size());
+			for(Aula a : diccionarioAulas)
+				escribirCadena(salida, a.getNombre());
+			salida.writeInt(diccionarioProfesores.size());
+			salida.writeInt(profesores.size());
+			for(Profesor p : diccionarioProfesores) {
+				escribirCadena(salida, p.getNombre());
+				escribirCadena(salida, p.getCorreo());
+				escribirCadena(salida, p.getTelefono());
+			}
+			salida.writeInt(reservas.size());
+			for(int i = 0; i < reservas.size(); i++) {
+				salida.writeInt(aulaReserva[i]);
+				salida.writeInt(profesorReserva[i]);
+				salida.writeLong(reservas.get(i).getPermanencia().getClave());
+			}
+			salida.flush();
+			canal.force(true);
+		}
+		Files.move(temporal, fichero, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		sincronizarDirectorio(fichero);
+	}
+
+	/**
+	 * Fuerza al disco el directorio de un fichero recién renombrado, sin lo cual una caída podría deshacer el
+	 * renombrado aunque el contenido del fichero ya esté en el disco. En Windows no se puede abrir un directorio
+	 * como canal y el renombrado ya es duradero, así que allí no hace nada
+	 * @param fichero el fichero renombrado
+	 * @throws IOException si falla la sincronización del directorio
+	 */
+	static void sincronizarDirectorio(Path fichero) throws IOException {
+		if(System.getProperty("os.name").startsWith("Windows"))
+			return;
+		try (FileChannel canal = FileChannel.open(fichero.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+			canal.force(true);
+		}
+	}
+
+	/**
+	 * Carga en las colecciones vacías de un modelo el contenido de una instantánea. Las reservas se cargan de una
+	 * vez con Reservas.cargar, sin los cerrojos ni las comprobaciones de cada reserva, ya que se comprobaron al
+	 * realizarlas antes de guardar la instantánea; sus aulas y profesores son las mismas instancias que los
+	 * diccionarios y que las colecciones de aulas y profesores
+	 * @param fichero el fichero de la instantánea
+	 * @param aulasModelo las aulas del modelo a rellenar
+	 * @param profesoresModelo los profesores del modelo a rellenar
+	 * @param reservasModelo las reservas del modelo a rellenar
+	 * @return la generación del diario que empieza tras la instantánea
+	 * @throws IOException si falla la lectura o el fichero no es una instantánea válida
+	 * @see Reservas#cargar(Aula[], Profesor[], int[], int[], long[])
+	 */
+	public static long cargar(Path fichero, Aulas aulasModelo, Profesores profesoresModelo, Reservas reservasModelo)
+			throws IOException {
+		if(fichero==null)
+			throw new IllegalArgumentException("El fichero de la instantánea no puede ser nulo.");
+		if(aulasModelo==null || profesoresModelo==null || reservasModelo==null)
+			throw new IllegalArgumentException("No se puede cargar la instantánea en un modelo nulo.");
+		try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+			if(canal.size() > Integer.MAX_VALUE)
+				throw new IOException("La instantánea es demasiado grande.");
+			MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+			if(datos.remaining() < 16 || datos.getInt() != MAGICO || datos.getInt() != VERSION)
+				throw new IOException("El fichero no es una instantánea de reservas válida.");
+			long generacion = datos.getLong();
+
+			Aula[] aulas = new Aula[datos.getInt()];
+			int numAulasModelo = datos.getInt();
+			for(int i = 0; i < aulas.length; i++)
+				aulas[i] = new Aula(leerCadena(datos));
+			Profesor[] profesores = new Profesor[datos.getInt()];
+			int numProfesoresModelo = datos.getInt();
+			for(int i = 0; i < profesores.length; i++) {
+				String nombre = leerCadena(datos);
+				String correo = leerCadena(datos);
+				profesores[i] = new Profesor(nombre, correo, leerCadena(datos));
+			}
+			for(int i = 0; i < numAulasModelo; i++)
+				aulasModelo.insertar(aulas[i]);
+			for(int i = 0; i < numProfesoresModelo; i++)
+				profesoresModelo.insertar(profesores[i]);
+			for(int i = 0; i < aulas.length; i++)
+				aulas[i] = aulasModelo.canonica(aulas[i]);
+			for(int i = 0; i < profesores.length; i++)
+				profesores[i] = profesoresModelo.canonico(profesores[i]);
+
+			int numReservas = datos.getInt();
+			if(numReservas < 0 || numReservas > datos.remaining() / 16)
+				throw new IOException("La instantánea está incompleta o dañada.");
+			int[] aulaReserva = new int[numReservas];
+			int[] profesorReserva = new int[numReservas];
+			long[] claves = new long[numReservas];
+			for(int i = 0; i < numReservas; i++) {
+				aulaReserva[i] = datos.getInt();
+				profesorReserva[i] = datos.getInt();
+				claves[i] = datos.getLong();
+			}
+			reservasModelo.cargar(aulas, profesores, aulaReserva, profesorReserva, claves);
+			return generacion;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException("La instantánea está incompleta o dañada.", e);
+		} catch (OperationNotSupportedException | IllegalArgumentException e) {
+			throw new IOException("La instantánea no es coherente: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Obtiene la clave con la que se identifica un profesor en el diccionario: todos sus datos, ya que dos
+	 * reservas pueden estar a nombre del mismo profesor con correos distintos
+	 * @param profesor el profesor
+	 * @return la clave del profesor
+	 */
+	private static List<String> claveProfesor(Profesor profesor) {
+		return Arrays.asList(profesor.getNombre(), profesor.getCorreo(), profesor.getTelefono());
+	}
+
+	/**
+	 * Escribe una cadena como longitud (-1 para nulo) seguida de sus bytes en UTF-8
+	 * @param salida el flujo en el que escribir
+	 * @param cadena la cadena a escribir
+	 * @throws IOException si falla la escritura
+	 */
+	private static void escribirCadena(DataOutputStream salida, String cadena) throws IOException {
+		if(cadena == null) {
+			salida.writeInt(-1);
+		} else {
+			byte[] bytes = cadena.getBytes(StandardCharsets.UTF_8);
+			salida.writeInt(bytes.length);
+			salida.write(bytes);
+		}
+	}
+
+	/**
+	 * Lee una cadena escrita con escribirCadena
+	 * @param datos el buffer del que leer
+	 * @return la cadena leída o null
+	 */
+	private static String leerCadena(MappedByteBuffer datos) {
+		int longitud = datos.getInt();
+		if(longitud < 0)
+			return null;
+		byte[] bytes = new byte[longitud];
+		datos.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
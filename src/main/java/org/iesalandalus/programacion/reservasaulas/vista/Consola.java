@@ -1,167 +1,182 @@
-package org.iesalandalus.programacion.reservasaulas.vista;
-
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
-import org.iesalandalus.programacion.utilidades.Entrada;
-
-/**
- *
- * Clase dedicada a la interaccin con el usuario. Pide y valida los datos por teclado.
- * @see IUTextual
- * @see Opcion
- * @author Juan Antonio Manzano Plaza
- * @version 1
- *
- */
-public class Consola {
-
-	private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu");
-
-	/**
-	 * Constructor privado para evitar que se instancien objetos de la clase.
-	 */
-	private Consola() {
-	}
-
-	/**
-	 * Mtodo esttico encargado de mostrar por pantalla todas las opciones de Opcion
-	 */
-	public static void mostrarMenu() {
-		System.out.println("*************************************************************");
-		System.out.println("*           RESERVAS DE AULAS DEL IES AL-NDALUS            *");
-		System.out.println("*************************************************************");
-		int i = 0;
-		for (Opcion o: Opcion.values()) {
-			System.out.printf("* %-2d- %-54s*\n", i, o.getMensaje());
-			i++;
-		}
-		System.out.println("*************************************************************");
-	}
-
-	/**
-	 * Imprime por pantalla el ttulo de la opcin seleccionada.
-	 * @param cabecera el ttulo de la opcin
-	 */
-	public static void mostrarCabecera(String cabecera) {
-		System.out.println(cabecera);
-	}
-
-	/**
-	 * Lee por consola el valor ordinal de la opcin que desea realizarse.
-	 * @return el valor ordinal de la opcin a realizar
-	 */
-	public static int elegirOpcion() {
-		int opcion;
-		do {
-			System.out.println("Qu opcin desea elegir?");
-			opcion = Entrada.entero();
-		} while(!Opcion.esOrdinalValido(opcion));
-		return opcion;
-	}
-
-	/**
-	 * Lee por consola el nombre de un aula y la crea.
-	 * @return el aula leda
-	 */
-	public static Aula leerAula() {
-		Aula leida = null;
-		do {
-			try {
-				leida = new Aula(leerNombreAula());
-				System.out.println("Aula leda correctamente.");
-			} catch (IllegalArgumentException e) {
-				System.out.println(e.getMessage());
-			}
-		} while(leida==null);
-		return leida;
-	}
-
-	/**
-	 * Lee por consola el nombre de un aula.
-	 * @return el nombre ledo
-	 */
-	public static String leerNombreAula() {
-		String nombre;
-		do {
-			System.out.println("Introduzca el nombre del aula.");
-			nombre = Entrada.cadena();
-		}while(nombre.equals(""));
-		return nombre;
-	}
-
-	/**
-	 * Lee por consola todos los atributos de un profesor y lo crea.
-	 * @return el profesor ledo
-	 */
-	public static Profesor leerProfesor() {
-		Profesor leido = null;
-		do {
-			try {
-				String nombre = leerNombreProfesor();
-				System.out.println("Introduzca el correo electrnico del profesor.");
-				String correo = Entrada.cadena();
-				System.out.println("Introduzca el telfono del profesor. (Puede dejarse vaco)");
-				String telefono = Entrada.cadena();
-				if(telefono.equals(""))
-					leido = new Profesor(nombre, correo);
-				else
-					leido = new Profesor(nombre, correo, telefono);
-				System.out.println("Profesor ledo correctamente.");
-			} catch (IllegalArgumentException e) {
-				System.out.println(e.getMessage());
-			}
-		} while(leido==null);
-		return leido;
-	}
-
-	/**
-	 * Lee por consola el nombre de un profesor.
-	 * @return el nombre ledo
-	 */
-	public static String leerNombreProfesor() {
-		String nombre;
-		do {
-			System.out.println("Introduzca el nombre del profesor.");
-			nombre = Entrada.cadena();
-		} while(nombre.equals(""));
-		return nombre;
-	}
-
-	/**
-	 * Lee por consola un tramo. En esta versin slo estn las opciones de maana (0) y de tarde (1)
-	 * Si aadimos ms opciones a Tramo
-	 * ser necesario cambiar la salida por pantalla, pero no el bucle ni el return.
-	 * @return el tramo horario ledo
-	 */
-	public static Tramo leerTramo() {
-		int opcion;
-		do {
-			System.out.println("Tramo de maana(0) o de tarde(1)?");
-			opcion = Entrada.entero();
-		} while(opcion<0 || opcion>Tramo.values().length);
-		return Tramo.values()[opcion];
-
-	}
-
-	/**
-	 * Lee una fecha con un formato especfico.
-	 * @return la fecha leda
-	 */
-	public static LocalDate leerDia() {
-		LocalDate leido = null;
-		do {
-			System.out.println("Introduzca una fecha en el formato \"dd/mm/aaaa\".");
-			try {
-				leido = LocalDate.parse(Entrada.cadena(), FORMATO_DIA);
-			} catch (DateTimeParseException e) {
-				System.out.println("La fecha introducida no est en el formato correcto o no es vlida.");
-			}
-		} while (leido == null);
-		return leido;
-	}
-
-}
+package org.iesalandalus.programacion.reservasaulas.vista;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.iesalandalus.programacion.utilidades.Entrada;
+
+/**
+ *
+ * Clase dedicada a la interacción con el usuario. Pide y valida los datos por teclado.
+ * @see IUTextual
+ * @see Opcion
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ *
+ */
+public class Consola {
+
+	private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+
+	/**
+	 * Constructor privado para evitar que se instancien objetos de la clase.
+	 */
+	private Consola() {
+	}
+
+	/**
+	 * Método estático encargado de mostrar por pantalla todas las opciones de Opcion
+	 */
+	public static void mostrarMenu() {
+		System.out.println("*************************************************************");
+		System.out.println("*           RESERVAS DE AULAS DEL IES AL-ÁNDALUS            *");
+		System.out.println("*************************************************************");
+		int i = 0;
+		for (Opcion o: Opcion.values()) {
+			System.out.printf("* %-2d- %-54s*\n", i, o.getMensaje());
+			i++;
+		}
+		System.out.println("*************************************************************");
+	}
+
+	/**
+	 * Imprime por pantalla el título de la opción seleccionada.
+	 * @param cabecera el título de la opción
+	 */
+	public static void mostrarCabecera(String cabecera) {
+		System.out.println(cabecera);
+	}
+
+	/**
+	 * Lee por consola el valor ordinal de la opción que desea realizarse.
+	 * @return el valor ordinal de la opción a realizar
+	 */
+	public static int elegirOpcion() {
+		int opcion;
+		do {
+			System.out.println("¿Qué opción desea elegir?");
+			opcion = Entrada.entero();
+		} while(!Opcion.esOrdinalValido(opcion));
+		return opcion;
+	}
+
+	/**
+	 * Lee por consola el nombre de un aula y la crea.
+	 * @return el aula leída
+	 */
+	public static Aula leerAula() {
+		Aula leida = null;
+		do {
+			try {
+				leida = new Aula(leerNombreAula());
+				System.out.println("Aula leída correctamente.");
+			} catch (IllegalArgumentException e) {
+				System.out.println(e.getMessage());
+			}
+		} while(leida==null);
+		return leida;
+	}
+
+	/**
+	 * Lee por consola el nombre de un aula.
+	 * @return el nombre leído
+	 */
+	public static String leerNombreAula() {
+		String nombre;
+		do {
+			System.out.println("Introduzca el nombre del aula.");
+			nombre = Entrada.cadena();
+		}while(nombre.equals(""));
+		return nombre;
+	}
+
+	/**
+	 * Lee por consola todos los atributos de un profesor y lo crea.
+	 * @return el profesor leído
+	 */
+	public static Profesor leerProfesor() {
+		Profesor leido = null;
+		do {
+			try {
+				String nombre = leerNombreProfesor();
+				System.out.println("Introduzca el correo electrónico del profesor.");
+				String correo = Entrada.cadena();
+				System.out.println("Introduzca el teléfono del profesor. (Puede dejarse vacío)");
+				String telefono = Entrada.cadena();
+				if(telefono.equals(""))
+					leido = new Profesor(nombre, correo);
+				else
+					leido = new Profesor(nombre, correo, telefono);
+				System.out.println("Profesor leído correctamente.");
+			} catch (IllegalArgumentException e) {
+				System.out.println(e.getMessage());
+			}
+		} while(leido==null);
+		return leido;
+	}
+
+	/**
+	 * Lee por consola la ruta de un fichero, que puede dejarse vacía.
+	 * @param descripcion lo que contiene el fichero
+	 * @return el fichero leído, o null si se deja vacío
+	 */
+	public static Path leerFichero(String descripcion) {
+		System.out.println("Introduzca la ruta del fichero de " + descripcion + ". (Puede dejarse vacío)");
+		String ruta = Entrada.cadena();
+		if(ruta.equals(""))
+			return null;
+		return Paths.get(ruta);
+	}
+
+	/**
+	 * Lee por consola el nombre de un profesor.
+	 * @return el nombre leído
+	 */
+	public static String leerNombreProfesor() {
+		String nombre;
+		do {
+			System.out.println("Introduzca el nombre del profesor.");
+			nombre = Entrada.cadena();
+		} while(nombre.equals(""));
+		return nombre;
+	}
+
+	/**
+	 * Lee por consola un tramo. En esta versión sólo están las opciones de mañana (0) y de tarde (1)
+	 * Si añadimos más opciones a Tramo
+	 * será necesario cambiar la salida por pantalla, pero no el bucle ni el return.
+	 * @return el tramo horario leído
+	 */
+	public static Tramo leerTramo() {
+		int opcion;
+		do {
+			System.out.println("¿Tramo de mañana(0) o de tarde(1)?");
+			opcion = Entrada.entero();
+		} while(opcion<0 || opcion>Tramo.values().length);
+		return Tramo.values()[opcion];
+
+	}
+
+	/**
+	 * Lee una fecha con un formato específico.
+	 * @return la fecha leída
+	 */
+	public static LocalDate leerDia() {
+		LocalDate leido = null;
+		do {
+			System.out.println("Introduzca una fecha en el formato \"dd/mm/aaaa\".");
+			try {
+				leido = LocalDate.parse(Entrada.cadena(), FORMATO_DIA);
+			} catch (DateTimeParseException e) {
+				System.out.println("La fecha introducida no está en el formato correcto o no es válida.");
+			}
+		} while (leido == null);
+		return leido;
+	}
+
+}
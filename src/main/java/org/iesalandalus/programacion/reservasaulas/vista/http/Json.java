@@ -0,0 +1,294 @@
+package org.iesalandalus.programacion.reservasaulas.vista.http;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+
+/**
+ * Conversión entre las clases del dominio y JSON para el servidor HTTP. Sólo cubre lo que necesita la API: escribe
+ * aulas, profesores y reservas directamente sobre un StringBuilder y lee objetos planos cuyos valores son cadenas,
+ * que es la forma de todos los cuerpos de las peticiones. Los días se escriben con el formato dd/mm/aaaa y los
+ * tramos con su nombre, igual que en la importación CSV.
+ * @see ServidorHttp
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+final class Json {
+
+	private static final char[] HEXADECIMAL = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Constructor privado, ya que la clase sólo tiene métodos estáticos
+	 */
+	private Json() {
+	}
+
+	/**
+	 * Escribe una cadena entre comillas, escapando los caracteres que lo necesitan
+	 * @param salida donde escribir
+	 * @param cadena la cadena a escribir, o null para escribir null
+	 * @return la misma salida, para encadenar llamadas
+	 */
+	static StringBuilder cadena(StringBuilder salida, String cadena) {
+		if(cadena == null)
+			return salida.append("null");
+		salida.append('"');
+		for(int i = 0; i < cadena.length(); i++) {
+			char c = cadena.charAt(i);
+			switch(c) {
+			case '"':
+				salida.append("\\\"");
+				break;
+			case '\\':
+				salida.append("\\\\");
+				break;
+			case '\n':
+				salida.append("\\n");
+				break;
+			case '\r':
+				salida.append("\\r");
+				break;
+			case '\t':
+				salida.append("\\t");
+				break;
+			default:
+				if(c < 0x20)
+					salida.append("\\u00").append(HEXADECIMAL[c >>> 4]).append(HEXADECIMAL[c & 0xF]);
+				else
+					salida.append(c);
+			}
+		}
+		return salida.append('"');
+	}
+
+	/**
+	 * Escribe un aula como un objeto JSON
+	 * @param salida donde escribir
+	 * @param aula el aula a escribir
+	 * @return la misma salida, para encadenar llamadas
+	 */
+	static StringBuilder aula(StringBuilder salida, Aula aula) {
+		return cadena(salida.append("{\"nombre\":"), aula.getNombre()).append('}');
+	}
+
+	/**
+	 * Escribe un profesor como un objeto JSON
+	 * @param salida donde escribir
+	 * @param profesor el profesor a escribir
+	 * @return la misma salida, para encadenar llamadas
+	 */
+	static StringBuilder profesor(StringBuilder salida, Profesor profesor) {
+		cadena(salida.append("{\"nombre\":"), profesor.getNombre());
+		cadena(salida.append(",\"correo\":"), profesor.getCorreo());
+		return cadena(salida.append(",\"telefono\":"), profesor.getTelefono()).append('}');
+	}
+
+	/**
+	 * Escribe una reserva como un objeto JSON, con el nombre del profesor y del aula
+	 * @param salida donde escribir
+	 * @param reserva la reserva a escribir
+	 * @return la misma salida, para encadenar llamadas
+	 */
+	static StringBuilder reserva(StringBuilder salida, Reserva reserva) {
+		Permanencia permanencia = reserva.getPermanencia();
+		cadena(salida.append("{\"profesor\":"), reserva.getProfesor().getNombre());
+		cadena(salida.append(",\"aula\":"), reserva.getAula().getNombre());
+		dia(salida.append(",\"dia\":\""), permanencia.getDia()).append('"');
+		return salida.append(",\"tramo\":\"").append(permanencia.getTramo().name()).append("\"}");
+	}
+
+	/**
+	 * Escribe un día con el formato dd/mm/aaaa, sin comillas
+	 * @param salida donde escribir
+	 * @param dia el día a escribir
+	 * @return la misma salida, para encadenar llamadas
+	 */
+	private static StringBuilder dia(StringBuilder salida, LocalDate dia) {
+		dosCifras(salida, dia.getDayOfMonth()).append('/');
+		dosCifras(salida, dia.getMonthValue()).append('/');
+		return salida.append(dia.getYear());
+	}
+
+	/**
+	 * Escribe un número con al menos dos cifras
+	 * @param salida donde escribir
+	 * @param numero el número a escribir
+	 * @return la misma salida, para encadenar llamadas
+	 */
+	private static StringBuilder dosCifras(StringBuilder salida, int numero) {
+		if(numero < 10)
+			salida.append('0');
+		return salida.append(numero);
+	}
+
+	/**
+	 * Escribe una lista como un array JSON
+	 * @param salida donde escribir
+	 * @param elementos los elementos a escribir
+	 * @param escritor cómo escribir cada elemento
+	 * @return la misma salida, para encadenar llamadas
+	 */
+	static <T> StringBuilder lista(StringBuilder salida, List<T> elementos, Escritor<T> escritor) {
+		salida.append('[');
+		for(int i = 0; i < elementos.size(); i++) {
+			if(i > 0)
+				salida.append(',');
+			escritor.escribir(salida, elementos.get(i));
+		}
+		return salida.append(']');
+	}
+
+	/**
+	 * Escritura de un elemento de una lista
+	 */
+	interface Escritor<T> {
+		StringBuilder escribir(StringBuilder salida, T elemento);
+	}
+
+	/**
+	 * Lee un objeto JSON plano cuyos valores son cadenas o null
+	 * @param texto el texto del objeto
+	 * @return los valores de cada clave; las claves con valor null no se incluyen
+	 * @throws IllegalArgumentException si el texto no es un objeto de esa forma
+	 */
+	static Map<String, String> objeto(String texto) throws IllegalArgumentException {
+		Lector lector = new Lector(texto);
+		Map<String, String> valores = new HashMap<String, String>();
+		lector.esperar('{');
+		if(!lector.consumir('}')) {
+			do {
+				String clave = lector.cadena();
+				lector.esperar(':');
+				String valor = lector.consumirNull() ? null : lector.cadena();
+				if(valor != null)
+					valores.put(clave, valor);
+			} while(lector.consumir(','));
+			lector.esperar('}');
+		}
+		lector.saltarEspacios();
+		if(lector.posicion != texto.length())
+			throw lector.error();
+		return valores;
+	}
+
+	/**
+	 * Recorrido del texto de un objeto JSON
+	 */
+	private static final class Lector {
+		private final String texto;
+		private int posicion;
+
+		private Lector(String texto) {
+			this.texto = texto;
+		}
+
+		/**
+		 * Crea la excepción para un texto mal formado
+		 * @return la excepción a lanzar
+		 */
+		private IllegalArgumentException error() {
+			return new IllegalArgumentException("El cuerpo de la petición no es un objeto JSON válido.");
+		}
+
+		/**
+		 * Avanza hasta el siguiente carácter que no es un espacio
+		 */
+		private void saltarEspacios() {
+			while(posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion)))
+				posicion++;
+		}
+
+		/**
+		 * Avanza sobre un carácter si es el siguiente, saltando los espacios anteriores
+		 * @param c el carácter esperado
+		 * @return True si estaba y se ha avanzado sobre él
+		 */
+		private boolean consumir(char c) {
+			saltarEspacios();
+			if(posicion < texto.length() && texto.charAt(posicion) == c) {
+				posicion++;
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Avanza sobre un carácter que tiene que ser el siguiente
+		 * @param c el carácter esperado
+		 * @throws IllegalArgumentException si el siguiente es otro
+		 */
+		private void esperar(char c) {
+			if(!consumir(c))
+				throw error();
+		}
+
+		/**
+		 * Avanza sobre un valor null si es el siguiente
+		 * @return True si estaba y se ha avanzado sobre él
+		 */
+		private boolean consumirNull() {
+			saltarEspacios();
+			if(texto.startsWith("null", posicion)) {
+				posicion += 4;
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Lee una cadena entre comillas, deshaciendo los caracteres escapados
+		 * @return la cadena leída
+		 * @throws IllegalArgumentException si no hay una cadena bien formada
+		 */
+		private String cadena() {
+			esperar('"');
+			StringBuilder cadena = new StringBuilder();
+			while(posicion < texto.length()) {
+				char c = texto.charAt(posicion++);
+				if(c == '"')
+					return cadena.toString();
+				if(c != '\\') {
+					cadena.append(c);
+				} else if(posicion < texto.length()) {
+					char escapado = texto.charAt(posicion++);
+					switch(escapado) {
+					case 'n':
+						cadena.append('\n');
+						break;
+					case 'r':
+						cadena.append('\r');
+						break;
+					case 't':
+						cadena.append('\t');
+						break;
+					case 'b':
+						cadena.append('\b');
+						break;
+					case 'f':
+						cadena.append('\f');
+						break;
+					case 'u':
+						if(posicion + 4 > texto.length())
+							throw error();
+						try {
+							cadena.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+						} catch (NumberFormatException e) {
+							throw error();
+						}
+						posicion += 4;
+						break;
+					default:
+						cadena.append(escapado);
+					}
+				}
+			}
+			throw error();
+		}
+	}
+}
@@ -0,0 +1,492 @@
+package org.iesalandalus.programacion.reservasaulas.vista.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.IModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Servidor HTTP que da acceso a las operaciones de ModeloReservasAulas con peticiones y respuestas JSON.
+ * Usa el servidor incluido en el JDK y atiende cada petición en un hilo virtual si la máquina virtual los tiene
+ * (Java 21 o posterior); si no, en un conjunto de hilos que crece según las peticiones simultáneas. Como el modelo
+ * admite varios hilos a la vez, las peticiones no se esperan unas a otras salvo donde lo hace el propio modelo.
+ * <p>
+ * Recursos:
+ * <ul>
+ * <li>{@code GET /aulas}, {@code POST /aulas} con {@code {"nombre":...}}</li>
+ * <li>{@code GET /aulas/<nombre>}, {@code DELETE /aulas/<nombre>}, {@code GET /aulas/<nombre>/reservas}</li>
+ * <li>{@code GET /profesores}, {@code POST /profesores} con {@code {"nombre":...,"correo":...,"telefono":...}}</li>
+ * <li>{@code GET /profesores/<nombre>}, {@code DELETE /profesores/<nombre>}, {@code GET /profesores/<nombre>/reservas}</li>
+ * <li>{@code GET /reservas}, opcionalmente con {@code ?dia=dd/mm/aaaa&tramo=MANANA} para las de una permanencia</li>
+ * <li>{@code POST /reservas} con {@code {"profesor":...,"aula":...,"dia":...,"tramo":...}}</li>
+ * <li>{@code DELETE /reservas?aula=...&dia=...&tramo=...}</li>
+ * <li>{@code GET /disponibilidad?aula=...&dia=...&tramo=...}, o sin aula para las aulas libres en esa permanencia</li>
+ * </ul>
+ * Los datos no válidos se responden con 400, lo que no existe con 404, las operaciones que el modelo no permite,
+ * como insertar un aula repetida o reservar un aula ocupada, con 409, y los errores en el cuerpo {@code {"error":...}}.
+ * Un cuerpo que no se puede leer, por ejemplo porque el cliente corta la conexión a mitad, se responde con 400. Los
+ * errores inesperados se responden con 500 y un mensaje genérico, y su detalle sólo se escribe en la salida de errores.
+ * @see ModeloReservasAulas
+ * @see Json
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ */
+public class ServidorHttp {
+
+	private static final String TIPO_JSON = "application/json; charset=utf-8";
+	private static final String CORREO_VALIDO = "a@a.a";
+	private static final Profesor PROFESOR_BUSQUEDA = new Profesor("Búsqueda", CORREO_VALIDO);
+	private static final int COLA_CONEXIONES = 1024;
+	private static final int TAMANO_MAXIMO_CUERPO = 64 * 1024;
+	private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+			.withResolverStyle(ResolverStyle.STRICT);
+
+	private final IModeloReservasAulas modelo;
+	private final HttpServer servidor;
+	private final ExecutorService hilos;
+	private final boolean hilosVirtuales;
+
+	/**
+	 * Respuesta a una petición: el código HTTP y el cuerpo JSON, si lo hay
+	 */
+	private static final class Respuesta {
+		private final int codigo;
+		private final String cuerpo;
+
+		private Respuesta(int codigo, String cuerpo) {
+			this.codigo = codigo;
+			this.cuerpo = cuerpo;
+		}
+	}
+
+	/**
+	 * Atención de las peticiones a un recurso
+	 */
+	private interface Recurso {
+		Respuesta atender(Peticion peticion) throws OperationNotSupportedException, IOException;
+	}
+
+	/**
+	 * Datos de una petición ya separados: el método, los segmentos de la ruta tras el recurso y los parámetros
+	 */
+	private static final class Peticion {
+		private final HttpExchange intercambio;
+		private final String metodo;
+		private final List<String> ruta;
+		private final Map<String, String> parametros;
+
+		private Peticion(HttpExchange intercambio) throws IllegalArgumentException {
+			this.intercambio = intercambio;
+			this.metodo = intercambio.getRequestMethod();
+			String contexto = intercambio.getHttpContext().getPath();
+			String ruta = intercambio.getRequestURI().getRawPath().substring(contexto.length());
+			this.ruta = new ArrayList<String>();
+			for(String segmento : ruta.split("/")) {
+				if(!segmento.isEmpty())
+					this.ruta.add(decodificar(segmento.replace("+", "%2B")));
+			}
+			this.parametros = new HashMap<String, String>();
+			String consulta = intercambio.getRequestURI().getRawQuery();
+			if(consulta != null) {
+				for(String parametro : consulta.split("&")) {
+					int igual = parametro.indexOf('=');
+					if(igual > 0)
+						parametros.put(decodificar(parametro.substring(0, igual)), decodificar(parametro.substring(igual + 1)));
+				}
+			}
+		}
+
+		/**
+		 * Lee el cuerpo de la petición como un objeto JSON
+		 * @return los valores del objeto
+		 * @throws IOException si no se puede leer el cuerpo
+		 * @throws IllegalArgumentException si el cuerpo es demasiado grande o no es un objeto JSON
+		 */
+		private Map<String, String> cuerpo() throws IOException, IllegalArgumentException {
+			ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+			byte[] bloque = new byte[4096];
+			try (InputStream entrada = intercambio.getRequestBody()) {
+				int leidos;
+				while((leidos = entrada.read(bloque)) > 0) {
+					cuerpo.write(bloque, 0, leidos);
+					if(cuerpo.size() > TAMANO_MAXIMO_CUERPO)
+						throw new IllegalArgumentException("El cuerpo de la petición es demasiado grande.");
+				}
+			}
+			return Json.objeto(new String(cuerpo.toByteArray(), StandardCharsets.UTF_8));
+		}
+
+		/**
+		 * Obtiene un parámetro obligatorio de la consulta o del cuerpo
+		 * @param valores los parámetros
+		 * @param nombre el nombre del parámetro
+		 * @return el valor del parámetro
+		 * @throws IllegalArgumentException si falta el parámetro
+		 */
+		private static String obligatorio(Map<String, String> valores, String nombre) throws IllegalArgumentException {
+			String valor = valores.get(nombre);
+			if(valor == null)
+				throw new IllegalArgumentException("Falta el parámetro " + nombre + ".");
+			return valor;
+		}
+
+		/**
+		 * Decodifica un fragmento de una URL
+		 * @param fragmento el fragmento codificado
+		 * @return el fragmento decodificado
+		 */
+		private static String decodificar(String fragmento) {
+			try {
+				return URLDecoder.decode(fragmento, StandardCharsets.UTF_8.name());
+			} catch (UnsupportedEncodingException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/**
+	 * Constructor de la clase. Reserva el puerto, pero no atiende peticiones hasta que se llama a iniciar
+	 * @param modelo el modelo sobre el que se realizan las operaciones
+	 * @param puerto el puerto en el que escuchar, o 0 para usar uno libre cualquiera
+	 * @throws IOException si no se puede abrir el puerto
+	 * @throws IllegalArgumentException si el modelo es nulo o el puerto no es válido
+	 */
+	public ServidorHttp(IModeloReservasAulas modelo, int puerto) throws IOException, IllegalArgumentException {
+		if(modelo==null)
+			throw new IllegalArgumentException("No se puede servir un modelo nulo.");
+		this.modelo = modelo;
+		this.servidor = HttpServer.create(new InetSocketAddress(puerto), COLA_CONEXIONES);
+		ExecutorService virtuales = crearHilosVirtuales();
+		this.hilosVirtuales = virtuales != null;
+		this.hilos = hilosVirtuales ? virtuales : Executors.newCachedThreadPool(tarea -> {
+			Thread hilo = new Thread(tarea, "servidor-http");
+			hilo.setDaemon(true);
+			return hilo;
+		});
+		servidor.setExecutor(hilos);
+		servidor.createContext("/aulas", atender(this::aulas));
+		servidor.createContext("/profesores", atender(this::profesores));
+		servidor.createContext("/reservas", atender(this::reservas));
+		servidor.createContext("/disponibilidad", atender(this::disponibilidad));
+	}
+
+	/**
+	 * Crea un ejecutor con un hilo virtual por tarea si la máquina virtual lo permite. Se busca por reflexión para
+	 * que el programa siga compilando y funcionando en Java 8
+	 * @return el ejecutor, o null si no hay hilos virtuales
+	 */
+	private static ExecutorService crearHilosVirtuales() {
+		try {
+			Method crear = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) crear.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Empieza a atender peticiones en otros hilos
+	 */
+	public void iniciar() {
+		servidor.start();
+	}
+
+	/**
+	 * Deja de atender peticiones, esperando como mucho el tiempo indicado a que terminen las que están en curso
+	 * @param segundos los segundos de espera
+	 */
+	public void detener(int segundos) {
+		servidor.stop(segundos);
+		hilos.shutdown();
+	}
+
+	/**
+	 * Método get para el puerto en el que escucha el servidor
+	 * @return el puerto del servidor
+	 */
+	public int getPuerto() {
+		return servidor.getAddress().getPort();
+	}
+
+	/**
+	 * Indica si las peticiones se atienden en hilos virtuales
+	 * @return True si se usan hilos virtuales, False si se usa un conjunto de hilos normales
+	 */
+	public boolean usaHilosVirtuales() {
+		return hilosVirtuales;
+	}
+
+	/**
+	 * Convierte la atención de un recurso en un manejador del servidor, que traduce las excepciones del modelo a
+	 * códigos HTTP y envía la respuesta. El intercambio se cierra siempre, aunque falle la lectura del cuerpo
+	 * @param recurso la atención del recurso
+	 * @return el manejador del servidor
+	 */
+	private static HttpHandler atender(Recurso recurso) {
+		return intercambio -> {
+			Respuesta respuesta;
+			String ruta = intercambio.getRequestURI().getRawPath();
+			int contexto = intercambio.getHttpContext().getPath().length();
+			try {
+				// el servidor también asocia al contexto /aulas rutas como /aulas2, que no existen
+				if(ruta.length() > contexto && ruta.charAt(contexto) != '/')
+					respuesta = error(404, "El recurso no existe.");
+				else
+					respuesta = recurso.atender(new Peticion(intercambio));
+			} catch (IllegalArgumentException e) {
+				respuesta = error(400, e.getMessage());
+			} catch (OperationNotSupportedException e) {
+				respuesta = error(409, e.getMessage());
+			} catch (IOException e) {
+				respuesta = error(400, "No se ha podido leer el cuerpo de la petición.");
+			} catch (RuntimeException e) {
+				System.err.println("Error al atender " + intercambio.getRequestMethod() + " " + ruta + ":");
+				e.printStackTrace();
+				respuesta = error(500, "Error interno del servidor.");
+			}
+			try {
+				enviar(intercambio, respuesta);
+			} finally {
+				intercambio.close();
+			}
+		};
+	}
+
+	/**
+	 * Envía una respuesta
+	 * @param intercambio la petición a responder
+	 * @param respuesta la respuesta a enviar
+	 * @throws IOException si falla el envío
+	 */
+	private static void enviar(HttpExchange intercambio, Respuesta respuesta) throws IOException {
+		if(respuesta.cuerpo == null) {
+			intercambio.sendResponseHeaders(respuesta.codigo, -1);
+			return;
+		}
+		byte[] cuerpo = respuesta.cuerpo.getBytes(StandardCharsets.UTF_8);
+		intercambio.getResponseHeaders().set("Content-Type", TIPO_JSON);
+		intercambio.sendResponseHeaders(respuesta.codigo, cuerpo.length);
+		try (OutputStream salida = intercambio.getResponseBody()) {
+			salida.write(cuerpo);
+		}
+	}
+
+	/**
+	 * Crea una respuesta correcta
+	 * @param codigo el código HTTP
+	 * @param cuerpo el cuerpo JSON
+	 * @return la respuesta
+	 */
+	private static Respuesta correcta(int codigo, StringBuilder cuerpo) {
+		return new Respuesta(codigo, cuerpo.toString());
+	}
+
+	/**
+	 * Crea una respuesta de error
+	 * @param codigo el código HTTP
+	 * @param mensaje el motivo del error
+	 * @return la respuesta
+	 */
+	private static Respuesta error(int codigo, String mensaje) {
+		return new Respuesta(codigo, Json.cadena(new StringBuilder("{\"error\":"), mensaje).append('}').toString());
+	}
+
+	/**
+	 * Crea la respuesta para una ruta o un método que el recurso no tiene
+	 * @param peticion la petición
+	 * @param rutaValida True si la ruta existe pero no admite el método de la petición
+	 * @return la respuesta
+	 */
+	private static Respuesta noAdmitida(Peticion peticion, boolean rutaValida) {
+		if(!rutaValida)
+			return error(404, "El recurso no existe.");
+		return error(405, "El método " + peticion.metodo + " no está permitido en este recurso.");
+	}
+
+	/**
+	 * Comprueba si la ruta de una petición sobre aulas o profesores existe: la colección, un elemento o sus reservas
+	 * @param ruta los segmentos de la ruta tras el recurso
+	 * @return True si la ruta existe
+	 */
+	private static boolean rutaElemento(List<String> ruta) {
+		return ruta.size() <= 1 || (ruta.size() == 2 && ruta.get(1).equals("reservas"));
+	}
+
+	/**
+	 * Atiende las peticiones sobre aulas
+	 * @param peticion la petición
+	 * @return la respuesta
+	 * @throws OperationNotSupportedException si el modelo no permite la operación
+	 * @throws IOException si no se puede leer el cuerpo
+	 */
+	private Respuesta aulas(Peticion peticion) throws OperationNotSupportedException, IOException {
+		List<String> ruta = peticion.ruta;
+		String metodo = peticion.metodo;
+		if(ruta.isEmpty() && metodo.equals("GET"))
+			return correcta(200, Json.lista(new StringBuilder(), modelo.getAulas(), Json::aula));
+		if(ruta.isEmpty() && metodo.equals("POST")) {
+			Aula aula = new Aula(Peticion.obligatorio(peticion.cuerpo(), "nombre"));
+			modelo.insertarAula(aula);
+			return correcta(201, Json.aula(new StringBuilder(), aula));
+		}
+		if(!rutaElemento(ruta) || !(metodo.equals("GET") || (ruta.size() == 1 && metodo.equals("DELETE"))))
+			return noAdmitida(peticion, rutaElemento(ruta));
+		Aula aula = modelo.buscarAula(new Aula(ruta.get(0)));
+		if(aula == null)
+			return error(404, "El aula " + ruta.get(0) + " no existe.");
+		if(ruta.size() == 2)
+			return correcta(200, Json.lista(new StringBuilder(), modelo.getReservasAula(aula), Json::reserva));
+		if(metodo.equals("DELETE")) {
+			modelo.borrarAula(aula);
+			return new Respuesta(204, null);
+		}
+		return correcta(200, Json.aula(new StringBuilder(), aula));
+	}
+
+	/**
+	 * Atiende las peticiones sobre profesores
+	 * @param peticion la petición
+	 * @return la respuesta
+	 * @throws OperationNotSupportedException si el modelo no permite la operación
+	 * @throws IOException si no se puede leer el cuerpo
+	 */
+	private Respuesta profesores(Peticion peticion) throws OperationNotSupportedException, IOException {
+		List<String> ruta = peticion.ruta;
+		String metodo = peticion.metodo;
+		if(ruta.isEmpty() && metodo.equals("GET"))
+			return correcta(200, Json.lista(new StringBuilder(), modelo.getProfesores(), Json::profesor));
+		if(ruta.isEmpty() && metodo.equals("POST")) {
+			Map<String, String> cuerpo = peticion.cuerpo();
+			Profesor profesor = new Profesor(Peticion.obligatorio(cuerpo, "nombre"), Peticion.obligatorio(cuerpo, "correo"),
+					cuerpo.get("telefono"));
+			modelo.insertarProfesor(profesor);
+			return correcta(201, Json.profesor(new StringBuilder(), profesor));
+		}
+		if(!rutaElemento(ruta) || !(metodo.equals("GET") || (ruta.size() == 1 && metodo.equals("DELETE"))))
+			return noAdmitida(peticion, rutaElemento(ruta));
+		Profesor profesor = modelo.buscarProfesor(new Profesor(ruta.get(0), CORREO_VALIDO));
+		if(profesor == null)
+			return error(404, "El profesor " + ruta.get(0) + " no existe.");
+		if(ruta.size() == 2)
+			return correcta(200, Json.lista(new StringBuilder(), modelo.getReservasProfesor(profesor), Json::reserva));
+		if(metodo.equals("DELETE")) {
+			modelo.borrarProfesor(profesor);
+			return new Respuesta(204, null);
+		}
+		return correcta(200, Json.profesor(new StringBuilder(), profesor));
+	}
+
+	/**
+	 * Atiende las peticiones sobre reservas
+	 * @param peticion la petición
+	 * @return la respuesta
+	 * @throws OperationNotSupportedException si el modelo no permite la operación
+	 * @throws IOException si no se puede leer el cuerpo
+	 */
+	private Respuesta reservas(Peticion peticion) throws OperationNotSupportedException, IOException {
+		String metodo = peticion.metodo;
+		if(!peticion.ruta.isEmpty())
+			return noAdmitida(peticion, false);
+		if(metodo.equals("GET")) {
+			List<Reserva> reservas = peticion.parametros.containsKey("dia")
+					? modelo.getReservasPermanencia(permanencia(peticion.parametros)) : modelo.getReservas();
+			return correcta(200, Json.lista(new StringBuilder(), reservas, Json::reserva));
+		}
+		if(metodo.equals("POST")) {
+			Map<String, String> cuerpo = peticion.cuerpo();
+			String nombreProfesor = Peticion.obligatorio(cuerpo, "profesor");
+			String nombreAula = Peticion.obligatorio(cuerpo, "aula");
+			Permanencia permanencia = permanencia(cuerpo);
+			Profesor profesor = modelo.buscarProfesor(new Profesor(nombreProfesor, CORREO_VALIDO));
+			if(profesor == null)
+				return error(404, "El profesor " + nombreProfesor + " no existe.");
+			Aula aula = modelo.buscarAula(new Aula(nombreAula));
+			if(aula == null)
+				return error(404, "El aula " + nombreAula + " no existe.");
+			Reserva reserva = new Reserva(profesor, aula, permanencia);
+			modelo.realizarReserva(reserva);
+			return correcta(201, Json.reserva(new StringBuilder(), reserva));
+		}
+		if(metodo.equals("DELETE")) {
+			Aula aula = new Aula(Peticion.obligatorio(peticion.parametros, "aula"));
+			// las reservas se comparan por aula y permanencia, así que el profesor de la búsqueda no importa
+			Reserva buscada = modelo.buscarReserva(new Reserva(PROFESOR_BUSQUEDA, aula, permanencia(peticion.parametros)));
+			if(buscada == null)
+				return error(404, "La reserva no existe.");
+			modelo.anularReserva(buscada);
+			return new Respuesta(204, null);
+		}
+		return noAdmitida(peticion, true);
+	}
+
+	/**
+	 * Atiende las consultas de disponibilidad
+	 * @param peticion la petición
+	 * @return la respuesta
+	 */
+	private Respuesta disponibilidad(Peticion peticion) {
+		if(!peticion.ruta.isEmpty() || !peticion.metodo.equals("GET"))
+			return noAdmitida(peticion, peticion.ruta.isEmpty());
+		Permanencia permanencia = permanencia(peticion.parametros);
+		String nombreAula = peticion.parametros.get("aula");
+		StringBuilder cuerpo = new StringBuilder();
+		if(nombreAula == null) {
+			Json.lista(cuerpo.append("{\"aulas\":"), modelo.getAulasDisponibles(permanencia), Json::aula);
+		} else {
+			boolean disponible = modelo.consultarDisponibilidad(new Aula(nombreAula), permanencia);
+			Json.cadena(cuerpo.append("{\"aula\":"), nombreAula).append(",\"disponible\":").append(disponible);
+		}
+		return correcta(200, cuerpo.append('}'));
+	}
+
+	/**
+	 * Lee la permanencia de los parámetros dia y tramo
+	 * @param valores los parámetros de la petición
+	 * @return la permanencia
+	 * @throws IllegalArgumentException si falta alguno o no es válido
+	 */
+	private static Permanencia permanencia(Map<String, String> valores) throws IllegalArgumentException {
+		String dia = Peticion.obligatorio(valores, "dia");
+		String tramo = Peticion.obligatorio(valores, "tramo");
+		LocalDate leido;
+		try {
+			leido = LocalDate.parse(dia, FORMATO_DIA);
+		} catch (DateTimeException e) {
+			throw new IllegalArgumentException("El día " + dia + " no tiene el formato dd/mm/aaaa.");
+		}
+		for(Tramo t : Tramo.values()) {
+			if(t.name().equalsIgnoreCase(tramo) || t.toString().equalsIgnoreCase(tramo))
+				return new Permanencia(leido, t);
+		}
+		throw new IllegalArgumentException("El tramo " + tramo + " no es válido.");
+	}
+}
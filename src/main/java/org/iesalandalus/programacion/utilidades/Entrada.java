@@ -5,7 +5,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 
 /**
- * Clase que nos permite leer datos por teclado asegurndose
+ * Clase que nos permite leer datos por teclado asegurándose
  * que el tipo de dato introducido es compatible con el esperado.
  * 
  * @author pepino
@@ -14,15 +14,15 @@ public class Entrada {
 	
 	/**
 	 * Constructor privado para evitar que java genere el suyo
-	 * por defecto y as evitar que se puedan instanciar objetos
+	 * por defecto y así evitar que se puedan instanciar objetos
 	 */
 	private Entrada() {
 		// No se permiten instanciar objetos de esta clase
 	}
 	
 	/**
-	 * Mtodo esttico que lee una cadena por teclado
-	 * @return la cadena leda
+	 * Método estático que lee una cadena por teclado
+	 * @return la cadena leída
 	 */
 	public static String cadena() {
             String valor = "";
@@ -31,15 +31,15 @@ public class Entrada {
             try {
                     valor = teclado.readLine();
             } catch (IOException e) {
-                    System.out.print("Error de Entrada/Salida. Intntalo de nuevo: ");
+                    System.out.print("Error de Entrada/Salida. Inténtalo de nuevo: ");
             }
             return valor;
 	}
 
 	/**
-	 * Mtodo esttico que lee un entero por teclado y se asegura
+	 * Método estático que lee un entero por teclado y se asegura
 	 * que el valor introducido es compatible con un entero
-	 * @return el entero ledo
+	 * @return el entero leído
 	 */
 	public static int entero() {
             int valor = 0;
@@ -49,16 +49,16 @@ public class Entrada {
                             valor = Integer.parseInt(cadena());
                             leido = true;
                     } catch (NumberFormatException e) {
-                            System.out.print("ERROR: Esperaba un entero. Intntalo de nuevo: ");
+                            System.out.print("ERROR: Esperaba un entero. Inténtalo de nuevo: ");
                     }
             } while (!leido);
             return valor;
 	}
 	
 	/**
-	 * Mtodo esttico que lee un entero largo (long) por teclado y se asegura
+	 * Método estático que lee un entero largo (long) por teclado y se asegura
 	 * que el valor introducido es compatible con un entero largo
-	 * @return el entero largo ledo
+	 * @return el entero largo leído
 	 */
 	public static long enteroLargo() {
             long valor = 0;
@@ -68,16 +68,16 @@ public class Entrada {
                             valor = Long.parseLong(cadena());
                             leido = true;
                     } catch (NumberFormatException e) {
-                            System.out.print("ERROR: Esperaba un entero largo. Intntalo de nuevo: ");
+                            System.out.print("ERROR: Esperaba un entero largo. Inténtalo de nuevo: ");
                     }
             } while (!leido);
             return valor;
 	}
 	
 	/**
-	 * Mtodo esttico que lee un real (float) por teclado y se asegura
+	 * Método estático que lee un real (float) por teclado y se asegura
 	 * que el valor introducido es compatible con un real
-	 * @return el real ledo
+	 * @return el real leído
 	 */
 	public static float real() {
             float valor = 0;
@@ -87,17 +87,17 @@ public class Entrada {
                             valor = Float.parseFloat(cadena());
                             leido = true;
                     } catch (NumberFormatException e) {
-                            System.out.print("ERROR: Esperaba un real. Intntalo de nuevo: ");
+                            System.out.print("ERROR: Esperaba un real. Inténtalo de nuevo: ");
                     }
             } while (!leido);
             return valor;
 	}
 	
 	/**
-	 * Mtodo esttico que lee un real de doble precisin (double) 
+	 * Método estático que lee un real de doble precisión (double) 
 	 * por teclado y se asegura que el valor introducido es compatible 
-	 * con un real de doble precisin
-	 * @return el real de doble precisin ledo
+	 * con un real de doble precisión
+	 * @return el real de doble precisión leído
 	 */
 	public static double realDoble() {
             double valor = 0;
@@ -107,16 +107,16 @@ public class Entrada {
                             valor = Double.parseDouble(cadena());
                             leido = true;
                     } catch (NumberFormatException e) {
-                            System.out.print("ERROR: Esperaba un real de doble precisin. Intntalo de nuevo: ");
+                            System.out.print("ERROR: Esperaba un real de doble precisión. Inténtalo de nuevo: ");
                     }
             } while (!leido);
             return valor;
 	}
 	
 	/**
-	 * Método esttico que lee un caracter por teclado y se asegura
+	 * MÃ©todo estático que lee un caracter por teclado y se asegura
 	 * que el valor introducido es compatible con un caracter
-	 * @return el caracter ledo
+	 * @return el caracter leído
 	 */
 	public static char caracter() {
             String valor = "";
@@ -126,7 +126,7 @@ public class Entrada {
                     if (valor.length() == 1)
                             leido = true;
                     else 
-                            System.out.print("ERROR: Esperaba un caracter. Intntalo de nuevo: ");
+                            System.out.print("ERROR: Esperaba un caracter. Inténtalo de nuevo: ");
             } while (!leido);
             return valor.charAt(0);
 	}
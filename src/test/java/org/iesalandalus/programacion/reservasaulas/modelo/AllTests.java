@@ -2,13 +2,19 @@ package org.iesalandalus.programacion.reservasaulas.modelo;
 
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.*;
 import org.iesalandalus.programacion.reservasaulas.modelo.dao.*;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.*;
+import org.iesalandalus.programacion.reservasaulas.modelo.metricas.*;
+import org.iesalandalus.programacion.reservasaulas.vista.http.*;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({ AulaTest.class, PermanenciaTest.class, ProfesorTest.class, ReservaTest.class, TramoTest.class,
-	AulasTest.class, ProfesoresTest.class, ReservasTest.class })
+	AulasTest.class, ProfesoresTest.class, ReservasTest.class, ReservasColumnasTest.class, ReservasDirectasTest.class,
+	ReservasMapeadasTest.class, DiarioTest.class, InstantaneaTest.class, ArchivoTest.class,
+	ImportadorCsvTest.class, HistogramaTest.class, MetricasTest.class,
+	ModeloReservasAulasTest.class, ModeloReservasAulasMedidoTest.class, ServidorHttpTest.class })
 public class AllTests {
 
 }
@@ -0,0 +1,123 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.metricas.Metricas;
+import org.iesalandalus.programacion.reservasaulas.modelo.metricas.MetricasOperacion;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ModeloReservasAulasMedidoTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	@Rule
+	public TemporaryFolder carpeta = new TemporaryFolder();
+
+	private final Aula aula = new Aula("Aula 1");
+	private final Profesor profesor = new Profesor("José Ramón", "a@b.cc");
+	private final Reserva reserva = new Reserva(profesor, aula, new Permanencia(LocalDate.of(2019, 1, 7), Tramo.MANANA));
+
+	private static MetricasOperacion operacion(Metricas metricas, String nombre) {
+		for(MetricasOperacion m : metricas.getOperaciones()) {
+			if(m.getNombre().equals(nombre))
+				return m;
+		}
+		throw new AssertionError("No hay métricas de " + nombre);
+	}
+
+	@Test
+	public void interfazConTodosLosMetodosTest() {
+		for(Method metodo : ModeloReservasAulas.class.getDeclaredMethods()) {
+			if(Modifier.isPublic(metodo.getModifiers()) && !Modifier.isStatic(metodo.getModifiers())) {
+				try {
+					IModeloReservasAulas.class.getMethod(metodo.getName(), metodo.getParameterTypes());
+				} catch (NoSuchMethodException e) {
+					fail("IModeloReservasAulas no incluye, y ModeloReservasAulasMedido no mide, " + metodo);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void constructorNoValidoTest() {
+		try {
+			new ModeloReservasAulasMedido(null, new Metricas("Prueba"));
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede medir un modelo nulo ni anotar en unas métricas nulas.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void anotarLlamadasYErroresTest() {
+		ModeloReservasAulas modelo = new ModeloReservasAulas();
+		Metricas metricas = new Metricas("Prueba");
+		IModeloReservasAulas medido = new ModeloReservasAulasMedido(modelo, metricas);
+		try {
+			medido.insertarAula(aula);
+			medido.insertarProfesor(profesor);
+			medido.realizarReserva(reserva);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			medido.realizarReserva(reserva);
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals(2, operacion(metricas, "realizarReserva").getLlamadas());
+			assertEquals(1, operacion(metricas, "realizarReserva").getErrores());
+		}
+		try {
+			medido.getReservasAula(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals(1, operacion(metricas, "getReservasAula").getErrores());
+		}
+		assertEquals(1, modelo.getNumReservas());
+		assertEquals(1, medido.getNumReservas());
+		assertFalse(medido.consultarDisponibilidad(aula, reserva.getPermanencia()));
+		assertFalse(medido.consultarDisponibilidad(aula, reserva.getPermanencia(), reserva.getPermanencia()));
+		assertEquals(1, operacion(metricas, "consultarDisponibilidad").getLlamadas());
+		assertEquals(1, operacion(metricas, "consultarDisponibilidadIntervalo").getLlamadas());
+		assertEquals(0, operacion(metricas, "getReservas").getLlamadas());
+	}
+
+	@Test
+	public void recuperarSinMedirTest() {
+		try {
+			Path diario = carpeta.getRoot().toPath().resolve("reservas.diario");
+			ModeloReservasAulas original = new ModeloReservasAulas(diario);
+			original.insertarAula(aula);
+			original.insertarProfesor(profesor);
+			original.realizarReserva(reserva);
+			original.cerrar();
+			Metricas metricas = new Metricas("Prueba");
+			IModeloReservasAulas medido = new ModeloReservasAulasMedido(new ModeloReservasAulas(diario), metricas);
+			assertEquals(0, operacion(metricas, "realizarReserva").getLlamadas());
+			assertEquals(reserva, medido.buscarReserva(reserva));
+			medido.cerrar();
+			assertEquals(1, operacion(metricas, "cerrar").getLlamadas());
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+}
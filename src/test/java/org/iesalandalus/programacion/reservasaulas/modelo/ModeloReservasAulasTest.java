@@ -0,0 +1,359 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ResultadoReserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ModeloReservasAulasTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+	private static final int NUM_HILOS = 8;
+	private static final int NUM_AULAS = 12;
+	private static final int NUM_PERMANENCIAS = 60;
+
+	@Rule
+	public TemporaryFolder carpeta = new TemporaryFolder();
+
+	private final Aula[] aulas = new Aula[NUM_AULAS];
+	private final Permanencia[] permanencias = new Permanencia[NUM_PERMANENCIAS];
+
+	public ModeloReservasAulasTest() {
+		for(int i = 0; i < NUM_AULAS; i++)
+			aulas[i] = new Aula("Aula " + i);
+		for(int i = 0; i < NUM_PERMANENCIAS; i++)
+			permanencias[i] = new Permanencia(LocalDate.of(2019, 1, 7).plusDays(i / 2), Tramo.values()[i % 2]);
+	}
+
+	/**
+	 * Lanza la misma tarea en varios hilos a la vez y devuelve sus resultados
+	 */
+	private List<Integer> enParalelo(final Tarea tarea) throws InterruptedException, ExecutionException {
+		ExecutorService hilos = Executors.newFixedThreadPool(NUM_HILOS);
+		final CyclicBarrier salida = new CyclicBarrier(NUM_HILOS);
+		List<Future<Integer>> pendientes = new ArrayList<Future<Integer>>();
+		for(int i = 0; i < NUM_HILOS; i++) {
+			final int hilo = i;
+			pendientes.add(hilos.submit(new Callable<Integer>() {
+				public Integer call() throws Exception {
+					salida.await();
+					return tarea.ejecutar(hilo);
+				}
+			}));
+		}
+		List<Integer> resultados = new ArrayList<Integer>();
+		for(Future<Integer> f : pendientes)
+			resultados.add(f.get());
+		hilos.shutdown();
+		assertTrue(hilos.awaitTermination(10, TimeUnit.SECONDS));
+		return resultados;
+	}
+
+	private interface Tarea {
+		int ejecutar(int hilo) throws Exception;
+	}
+
+	private void comprobarSinDobleReserva(ModeloReservasAulas modelo) {
+		Set<Reserva> vistas = new HashSet<Reserva>();
+		for(Reserva r : modelo.getReservas())
+			assertTrue("Reserva doble: " + r, vistas.add(r));
+		for(Permanencia p : permanencias) {
+			Set<String> ocupadas = new HashSet<String>();
+			for(Reserva r : modelo.getReservasPermanencia(p))
+				assertTrue("Reserva doble: " + r, ocupadas.add(r.getAula().getNombre()));
+		}
+		assertEquals(vistas.size(), modelo.getNumReservas());
+	}
+
+	@Test
+	public void reservasConcurrentesSinDobleReservaTest() {
+		final ModeloReservasAulas modelo = new ModeloReservasAulas();
+		try {
+			List<Integer> conseguidas = enParalelo(new Tarea() {
+				public int ejecutar(int hilo) throws Exception {
+					Profesor profesor = new Profesor("Profesor " + hilo, "p" + hilo + "@a.es");
+					List<Integer> huecos = new ArrayList<Integer>();
+					for(int i = 0; i < NUM_AULAS * NUM_PERMANENCIAS; i++)
+						huecos.add(i);
+					Collections.shuffle(huecos, new Random(hilo));
+					int conseguidas = 0;
+					for(int hueco : huecos) {
+						try {
+							modelo.realizarReserva(new Reserva(profesor, aulas[hueco % NUM_AULAS], permanencias[hueco / NUM_AULAS]));
+							conseguidas++;
+						} catch (OperationNotSupportedException e) {
+							assertEquals("La reserva ya existe.", e.getMessage());
+						}
+					}
+					return conseguidas;
+				}
+			});
+			int total = 0;
+			for(int c : conseguidas)
+				total += c;
+			assertEquals(NUM_AULAS * NUM_PERMANENCIAS, total);
+			assertEquals(NUM_AULAS * NUM_PERMANENCIAS, modelo.getNumReservas());
+			comprobarSinDobleReserva(modelo);
+		} catch (InterruptedException | ExecutionException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void reservasYAnulacionesConcurrentesTest() {
+		try {
+			Path fichero = carpeta.getRoot().toPath().resolve("reservas.diario");
+			final ModeloReservasAulas modelo = new ModeloReservasAulas(fichero);
+			enParalelo(new Tarea() {
+				public int ejecutar(int hilo) throws Exception {
+					Profesor profesor = new Profesor("Profesor " + hilo, "p" + hilo + "@a.es");
+					Random azar = new Random(hilo);
+					for(int i = 0; i < 2000; i++) {
+						Reserva reserva = new Reserva(profesor, aulas[azar.nextInt(NUM_AULAS)], permanencias[azar.nextInt(NUM_PERMANENCIAS)]);
+						try {
+							if(azar.nextBoolean())
+								modelo.realizarReserva(reserva);
+							else
+								modelo.anularReserva(reserva);
+						} catch (OperationNotSupportedException e) {
+							// otro hilo se ha adelantado
+						}
+					}
+					return 0;
+				}
+			});
+			comprobarSinDobleReserva(modelo);
+			List<Reserva> finales = modelo.getReservas();
+			modelo.cerrar();
+
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(fichero);
+			assertEquals(new HashSet<Reserva>(finales), new HashSet<Reserva>(recuperado.getReservas()));
+			for(Reserva r : finales)
+				assertEquals(r.getProfesor(), recuperado.buscarReserva(r).getProfesor());
+			recuperado.cerrar();
+		} catch (IOException | InterruptedException | ExecutionException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void borradoEnCascadaConcurrenteTest() {
+		final ModeloReservasAulas modelo = new ModeloReservasAulas();
+		try {
+			Profesor profesor = new Profesor("José Ramón", "a@b.cc");
+			for(Aula a : aulas) {
+				modelo.insertarAula(a);
+				for(Permanencia p : permanencias)
+					modelo.realizarReserva(new Reserva(profesor, a, p));
+			}
+			List<Integer> parciales = enParalelo(new Tarea() {
+				public int ejecutar(int hilo) throws Exception {
+					if(hilo == 0) {
+						for(Aula a : aulas)
+							modelo.borrarAula(a);
+						return 0;
+					}
+					int parciales = 0;
+					while(modelo.getNumAulas() > 0) {
+						for(Aula a : aulas) {
+							int numReservas = modelo.getReservasAula(a).size();
+							if(numReservas != 0 && numReservas != NUM_PERMANENCIAS)
+								parciales++;
+						}
+					}
+					return parciales;
+				}
+			});
+			for(int p : parciales)
+				assertEquals(0, p);
+			assertEquals(0, modelo.getNumReservas());
+		} catch (OperationNotSupportedException | InterruptedException | ExecutionException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void reservarSiDisponibleConcurrenteTest() {
+		try {
+			Path fichero = carpeta.getRoot().toPath().resolve("reservas.diario");
+			final ModeloReservasAulas modelo = new ModeloReservasAulas(fichero);
+			List<Integer> conseguidas = enParalelo(new Tarea() {
+				public int ejecutar(int hilo) throws Exception {
+					Profesor profesor = new Profesor("Profesor " + hilo, "p" + hilo + "@a.es");
+					int conseguidas = 0;
+					for(int hueco = 0; hueco < NUM_AULAS * NUM_PERMANENCIAS; hueco++) {
+						Reserva reserva = new Reserva(profesor, aulas[hueco % NUM_AULAS], permanencias[hueco / NUM_AULAS]);
+						if(modelo.reservarSiDisponible(reserva) == ResultadoReserva.RESERVADA)
+							conseguidas++;
+					}
+					return conseguidas;
+				}
+			});
+			int total = 0;
+			for(int c : conseguidas)
+				total += c;
+			assertEquals(NUM_AULAS * NUM_PERMANENCIAS, total);
+			comprobarSinDobleReserva(modelo);
+			List<Reserva> finales = modelo.getReservas();
+			modelo.cerrar();
+
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(fichero);
+			assertEquals(finales.size(), recuperado.getNumReservas());
+			for(Reserva r : finales)
+				assertEquals(r.getProfesor(), recuperado.buscarReserva(r).getProfesor());
+			recuperado.cerrar();
+		} catch (IOException | InterruptedException | ExecutionException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void realizarReservasTodasONingunaTest() {
+		try {
+			Path fichero = carpeta.getRoot().toPath().resolve("reservas.diario");
+			final ModeloReservasAulas modelo = new ModeloReservasAulas(fichero);
+			List<Integer> conseguidos = enParalelo(new Tarea() {
+				public int ejecutar(int hilo) throws Exception {
+					Profesor profesor = new Profesor("Profesor " + hilo, "p" + hilo + "@a.es");
+					List<Integer> orden = new ArrayList<Integer>();
+					for(int i = 0; i < NUM_PERMANENCIAS; i++)
+						orden.add(i);
+					Collections.shuffle(orden, new Random(hilo));
+					int conseguidos = 0;
+					for(int p : orden) {
+						List<Reserva> lote = new ArrayList<Reserva>();
+						for(Aula a : aulas)
+							lote.add(new Reserva(profesor, a, permanencias[p]));
+						try {
+							modelo.realizarReservas(lote);
+							conseguidos++;
+						} catch (OperationNotSupportedException e) {
+							// otro hilo ha reservado antes esta permanencia
+						}
+					}
+					return conseguidos;
+				}
+			});
+			int total = 0;
+			for(int c : conseguidos)
+				total += c;
+			assertEquals(NUM_PERMANENCIAS, total);
+			assertEquals(NUM_AULAS * NUM_PERMANENCIAS, modelo.getNumReservas());
+			comprobarSinDobleReserva(modelo);
+			for(Permanencia p : permanencias) {
+				Set<Profesor> profesores = new HashSet<Profesor>();
+				for(Reserva r : modelo.getReservasPermanencia(p))
+					profesores.add(r.getProfesor());
+				assertEquals(1, profesores.size());
+			}
+			List<Reserva> finales = modelo.getReservas();
+			modelo.cerrar();
+
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(fichero);
+			assertEquals(finales.size(), recuperado.getNumReservas());
+			for(Reserva r : finales)
+				assertEquals(r.getProfesor(), recuperado.buscarReserva(r).getProfesor());
+			recuperado.cerrar();
+		} catch (IOException | InterruptedException | ExecutionException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void realizarReservasConflictoTest() {
+		ModeloReservasAulas modelo = new ModeloReservasAulas();
+		Profesor profesor = new Profesor("Andrés", "a@b.cc");
+		Reserva ocupada = new Reserva(profesor, aulas[1], permanencias[1]);
+		try {
+			modelo.realizarReserva(ocupada);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			modelo.realizarReservas(Arrays.asList(new Reserva(profesor, aulas[0], permanencias[1]), ocupada));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("La reserva " + ocupada + " ya existe.", e.getMessage());
+		}
+		Reserva repetida = new Reserva(profesor, aulas[2], permanencias[2]);
+		try {
+			modelo.realizarReservas(Arrays.asList(repetida, new Reserva(profesor, aulas[3], permanencias[2]), repetida));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("El lote contiene dos veces la reserva " + repetida + ".", e.getMessage());
+		}
+		try {
+			modelo.realizarReservas(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede realizar un lote de reservas nulo.", e.getMessage());
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertEquals(Collections.singletonList(ocupada), modelo.getReservas());
+	}
+
+	@Test
+	public void getAulasDisponiblesTest() {
+		ModeloReservasAulas modelo = new ModeloReservasAulas();
+		Profesor profesor = new Profesor("Andrés", "a@b.cc");
+		try {
+			modelo.insertarProfesor(profesor);
+			for(Aula a : aulas)
+				modelo.insertarAula(a);
+			assertEquals(Arrays.asList(aulas), modelo.getAulasDisponibles(permanencias[0]));
+			for(int i = 0; i < NUM_AULAS; i += 3)
+				modelo.realizarReserva(new Reserva(profesor, aulas[i], permanencias[0]));
+			modelo.realizarReserva(new Reserva(profesor, aulas[1], permanencias[1]));
+			List<Aula> esperadas = new ArrayList<Aula>();
+			for(Aula a : aulas) {
+				if(modelo.consultarDisponibilidad(a, permanencias[0]))
+					esperadas.add(a);
+			}
+			assertEquals(NUM_AULAS - NUM_AULAS / 3, esperadas.size());
+			assertEquals(esperadas, modelo.getAulasDisponibles(permanencias[0]));
+			modelo.borrarAula(aulas[3]);
+			esperadas.remove(aulas[3]);
+			assertEquals(esperadas, modelo.getAulasDisponibles(permanencias[0]));
+			assertEquals(NUM_AULAS - 2, modelo.getAulasDisponibles(permanencias[1]).size());
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			modelo.getAulasDisponibles(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede consultar la disponibilidad de una permanencia nula.", e.getMessage());
+		}
+	}
+}
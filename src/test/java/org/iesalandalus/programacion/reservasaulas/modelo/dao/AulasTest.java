@@ -2,6 +2,8 @@ package org.iesalandalus.programacion.reservasaulas.modelo.dao;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.List;
 
 import javax.naming.OperationNotSupportedException;
@@ -12,11 +14,11 @@ import org.junit.Test;
 
 public class AulasTest {
 
-	private static final String NOMBRE_SALON1 = "Saln 1";
-	private static final String NOMBRE_SALON2 = "Saln 2";
-	private static final String NOMBRE_SALON3 = "Saln 3";
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
+	private static final String NOMBRE_SALON1 = "Salón 1";
+	private static final String NOMBRE_SALON2 = "Salón 2";
+	private static final String NOMBRE_SALON3 = "Salón 3";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
 	
 	private final Aula salon1 = new Aula(NOMBRE_SALON1);
 	private final Aula salon2 = new Aula(NOMBRE_SALON2);
@@ -118,7 +120,7 @@ public class AulasTest {
 			aulas.insertar(salon1);
 			List<Aula> aulas1 = aulas.getAulas();
 			assertFalse(aulas1 == aulas.getAulas());
-			assertFalse(aulas1.get(0) == aulas.getAulas().get(0));
+			assertTrue(aulas1.get(0) == aulas.getAulas().get(0));
 			assertEquals(aulas1.get(0), aulas.getAulas().get(0));
 		} catch (OperationNotSupportedException e) {
 			fail(ERROR_NO_EXCEPCION);
@@ -200,7 +202,7 @@ public class AulasTest {
 	public void borrarNoValidoTest() {
 		Aulas aulas = insertarTres();
 		try {
-			Aula aula = new Aula("Saln 4");
+			Aula aula = new Aula("Salón 4");
 			aulas.borrar(aula);
 			fail(ERROR_EXCEPCION);
 		} catch (OperationNotSupportedException e) {
@@ -234,6 +236,16 @@ public class AulasTest {
 		assertNull(aulas.buscar(null));
 	}
 	
+	@Test
+	public void canonicaTest() {
+		Aulas aulas = insertarTres();
+		assertSame(salon1, aulas.canonica(new Aula(NOMBRE_SALON1)));
+		assertSame(salon3, aulas.canonica(salon3));
+		Aula noGuardada = new Aula("Salón 4");
+		assertSame(noGuardada, aulas.canonica(noGuardada));
+		assertNull(aulas.canonica(null));
+	}
+
 	@Test
 	public void representarTest() {
 		Aulas aulas = insertarTres();
@@ -243,4 +255,23 @@ public class AulasTest {
 		assertEquals(salon3.toString(), representacion.get(2));
 	}
 
+	@Test
+	public void representarEnSalidaTest() {
+		Aulas aulas = insertarTres();
+		StringWriter salida = new StringWriter();
+		try {
+			assertEquals(3, aulas.representar(salida));
+			assertEquals(String.join(System.lineSeparator(), aulas.representar()) + System.lineSeparator(), salida.toString());
+			assertEquals(0, new Aulas().representar(salida));
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			aulas.representar(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException | IOException e) {
+			assertEquals("No se puede escribir en una salida nula.", e.getMessage());
+		}
+	}
+
 }
@@ -3,8 +3,12 @@ package org.iesalandalus.programacion.reservasaulas.modelo.dao;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.List;
 
 import javax.naming.OperationNotSupportedException;
@@ -14,14 +18,14 @@ import org.junit.Test;
 
 public class ProfesoresTest {
 
-	private static final String NOMBRE_PROFESOR1 = "Jos Ramn";
-	private static final String NOMBRE_PROFESOR2 = "Andrs";
-	private static final String NOMBRE_PROFESOR3 = "Begoa";
+	private static final String NOMBRE_PROFESOR1 = "José Ramón";
+	private static final String NOMBRE_PROFESOR2 = "Andrés";
+	private static final String NOMBRE_PROFESOR3 = "Begoña";
 	private static final String CORREO_PROFESOR1 = "a@b.cc";
 	private static final String CORREO_PROFESOR2 = "b@c.dd";
 	private static final String CORREO_PROFESOR3 = "c@d.ee";
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
 
 	private final Profesor profesor1 = new Profesor(NOMBRE_PROFESOR1, CORREO_PROFESOR1);
 	private final Profesor profesor2 = new Profesor(NOMBRE_PROFESOR2, CORREO_PROFESOR2);
@@ -123,7 +127,7 @@ public class ProfesoresTest {
 			profesores.insertar(profesor1);
 			List<Profesor> profesores1 = profesores.getProfesores();
 			assertFalse(profesores1 == profesores.getProfesores());
-			assertFalse(profesores1.get(0) == profesores.getProfesores().get(0));
+			assertTrue(profesores1.get(0) == profesores.getProfesores().get(0));
 			assertEquals(profesores1.get(0), profesores.getProfesores().get(0));
 		} catch (OperationNotSupportedException e) {
 			fail(ERROR_NO_EXCEPCION);
@@ -239,6 +243,20 @@ public class ProfesoresTest {
 		assertNull(profesores.buscar(null));
 	}
 
+	@Test
+	public void canonicoTest() {
+		Profesores profesores = insertarTres();
+		assertSame(profesor1, profesores.canonico(new Profesor(NOMBRE_PROFESOR1, CORREO_PROFESOR1)));
+		assertSame(profesor2, profesores.canonico(profesor2));
+		Profesor otroCorreo = new Profesor(NOMBRE_PROFESOR1, CORREO_PROFESOR2);
+		assertSame(otroCorreo, profesores.canonico(otroCorreo));
+		Profesor otroTelefono = new Profesor(NOMBRE_PROFESOR1, CORREO_PROFESOR1, "950112233");
+		assertSame(otroTelefono, profesores.canonico(otroTelefono));
+		Profesor noGuardado = new Profesor("Juan", CORREO_PROFESOR1);
+		assertSame(noGuardado, profesores.canonico(noGuardado));
+		assertNull(profesores.canonico(null));
+	}
+
 	@Test
 	public void representarTest() {
 		Profesores profesores = insertarTres();
@@ -248,4 +266,16 @@ public class ProfesoresTest {
 		assertEquals(profesor3.toString(), representacion.get(2));
 	}
 
+	@Test
+	public void representarEnSalidaTest() {
+		Profesores profesores = insertarTres();
+		StringWriter salida = new StringWriter();
+		try {
+			assertEquals(3, profesores.representar(salida));
+			assertEquals(String.join(System.lineSeparator(), profesores.representar()) + System.lineSeparator(), salida.toString());
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
 }
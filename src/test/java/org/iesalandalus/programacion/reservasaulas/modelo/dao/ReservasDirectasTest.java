@@ -0,0 +1,224 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.junit.Test;
+
+public class ReservasDirectasTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	private final Profesor profesor1 = new Profesor("José Ramón", "a@b.cc", "950112233");
+	private final Profesor profesor2 = new Profesor("Andrés", "a@b.cc");
+	private final Aula aula1 = new Aula("Salón de actos 1");
+	private final Aula aula2 = new Aula("Salón de actos 2");
+	private final Permanencia permanencia1 = new Permanencia(LocalDate.of(2018, 12, 1), Tramo.MANANA);
+	private final Permanencia permanencia2 = new Permanencia(LocalDate.of(2018, 12, 1), Tramo.TARDE);
+	private final Permanencia permanencia3 = new Permanencia(LocalDate.of(2018, 12, 22), Tramo.MANANA);
+	private final Reserva reserva1 = new Reserva(profesor1, aula1, permanencia1);
+	private final Reserva reserva2 = new Reserva(profesor2, aula2, permanencia1);
+	private final Reserva reserva3 = new Reserva(profesor2, aula1, permanencia3);
+	private final Reserva reserva4 = new Reserva(profesor1, aula2, permanencia2);
+
+	private ReservasDirectas insertarCuatro() {
+		ReservasDirectas reservas = new ReservasDirectas();
+		try {
+			reservas.insertar(reserva1);
+			reservas.insertar(reserva2);
+			reservas.insertar(reserva3);
+			reservas.insertar(reserva4);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		return reservas;
+	}
+
+	@Test
+	public void insertarYBuscarTest() {
+		ReservasDirectas reservas = insertarCuatro();
+		assertEquals(4, reservas.getNumReservas());
+		assertEquals(Arrays.asList(reserva1, reserva2, reserva3, reserva4), reservas.getReservas());
+		Reserva encontrada = reservas.buscar(new Reserva(profesor2, aula1, permanencia1));
+		assertEquals(profesor1, encontrada.getProfesor());
+		assertEquals("950112233", encontrada.getProfesor().getTelefono());
+		assertSame(aula1, encontrada.getAula());
+		assertSame(reservas.buscar(reserva4).getProfesor(), encontrada.getProfesor());
+		assertNull(reservas.buscar(new Reserva(profesor1, aula1, permanencia2)));
+		assertNull(reservas.buscar(null));
+		assertEquals(ResultadoReserva.OCUPADA, reservas.reservarSiDisponible(new Reserva(profesor2, aula1, permanencia1)));
+		try {
+			reservas.insertar(new Reserva(profesor2, aula2, permanencia2));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("La reserva ya existe.", e.getMessage());
+		}
+		try {
+			reservas.insertar(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede realizar una reserva nula.", e.getMessage());
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void profesorConOtrosDatosTest() {
+		ReservasDirectas reservas = insertarCuatro();
+		Profesor otrosDatos = new Profesor("José Ramón", "otro@b.cc");
+		assertEquals(ResultadoReserva.RESERVADA, reservas.reservarSiDisponible(new Reserva(otrosDatos, aula1, permanencia2)));
+		assertEquals("otro@b.cc", reservas.buscar(new Reserva(profesor2, aula1, permanencia2)).getProfesor().getCorreo());
+		assertEquals("a@b.cc", reservas.buscar(reserva1).getProfesor().getCorreo());
+		assertEquals(3, reservas.getReservasProfesor(profesor1).size());
+		assertEquals(3, reservas.borrarReservas(otrosDatos));
+		assertEquals(2, reservas.getNumReservas());
+	}
+
+	@Test
+	public void consultasTest() {
+		ReservasDirectas reservas = insertarCuatro();
+		assertEquals(Arrays.asList(reserva1, reserva3), reservas.getReservasAula(aula1));
+		assertEquals(Arrays.asList(reserva2, reserva3), reservas.getReservasProfesor(profesor2));
+		assertEquals(Arrays.asList(reserva1, reserva2), reservas.getReservasPermanencia(permanencia1));
+		assertEquals(Arrays.asList(reserva1, reserva2, reserva4), reservas.getReservas(permanencia1, permanencia2));
+		assertEquals(3, reservas.contarReservas(permanencia1, permanencia2));
+		assertTrue(reservas.getReservasAula(new Aula("Aula 9")).isEmpty());
+		assertTrue(reservas.getReservasProfesor(new Profesor("Begoña", "a@b.cc")).isEmpty());
+		assertFalse(reservas.consultarDisponibilidad(aula2, permanencia2));
+		assertTrue(reservas.consultarDisponibilidad(aula1, permanencia2));
+		assertTrue(reservas.consultarDisponibilidad(new Aula("Aula 9"), permanencia2));
+		try {
+			reservas.getReservas(permanencia3, permanencia1);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La permanencia inicial no puede ser posterior a la final.", e.getMessage());
+		}
+		try {
+			reservas.consultarDisponibilidad(null, permanencia1);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede consultar la disponibilidad de un aula nula.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void borrarTest() {
+		ReservasDirectas reservas = insertarCuatro();
+		try {
+			reservas.borrar(new Reserva(profesor1, aula2, permanencia1));
+			assertEquals(Arrays.asList(reserva1, reserva3, reserva4), reservas.getReservas());
+			assertTrue(reservas.consultarDisponibilidad(aula2, permanencia1));
+			reservas.insertar(reserva2);
+			assertEquals(Arrays.asList(reserva1, reserva2, reserva3, reserva4), reservas.getReservas());
+			assertEquals(1024, reservas.getCapacidad());
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			reservas.borrar(new Reserva(profesor1, aula1, permanencia2));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("La reserva a anular no existe.", e.getMessage());
+		}
+		assertEquals(2, reservas.borrarReservas(aula1));
+		assertEquals(0, reservas.borrarReservas(aula1));
+		assertEquals(Arrays.asList(reserva2, reserva4), reservas.getReservas());
+		assertEquals(1, reservas.borrarReservas(profesor2));
+		assertEquals(Arrays.asList(reserva4), reservas.getReservas());
+		try {
+			reservas.insertar(reserva3);
+			reservas.insertar(reserva1);
+			reservas.insertar(reserva2);
+			assertEquals(Arrays.asList(reserva2, reserva3, reserva1, reserva4), reservas.getReservas());
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void capacidadTest() {
+		ReservasDirectas reservas = new ReservasDirectas(1);
+		assertEquals(1, reservas.getCapacidad());
+		Aula[] aulas = new Aula[50];
+		for(int i = 0; i < aulas.length; i++) {
+			aulas[i] = new Aula("Aula " + i);
+			for(Tramo tramo : Tramo.values())
+				assertEquals(ResultadoReserva.RESERVADA, reservas.reservarSiDisponible(
+						new Reserva(profesor1, aulas[i], new Permanencia(LocalDate.of(2019, 1, 7), tramo))));
+		}
+		assertEquals(100, reservas.getNumReservas());
+		assertEquals(128, reservas.getCapacidad());
+		for(Aula aula : aulas)
+			assertFalse(reservas.consultarDisponibilidad(aula, new Permanencia(LocalDate.of(2019, 1, 7), Tramo.TARDE)));
+		assertEquals(100, reservas.contarReservas(new Permanencia(LocalDate.of(2019, 1, 7), Tramo.MANANA),
+				new Permanencia(LocalDate.of(2019, 1, 7), Tramo.TARDE)));
+		try {
+			new ReservasDirectas(0);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La capacidad debe estar entre 1 y " + ReservasDirectas.CAPACIDAD_MAXIMA + ".", e.getMessage());
+		}
+	}
+
+	@Test
+	public void mismasReservasQueReservasTest() {
+		Reservas objetos = new Reservas();
+		ReservasDirectas directas = new ReservasDirectas(16);
+		Aula[] aulas = new Aula[40];
+		for(int i = 0; i < aulas.length; i++)
+			aulas[i] = new Aula("Aula " + i);
+		Profesor[] profesores = { profesor1, profesor2 };
+		Random azar = new Random(7);
+		for(int i = 0; i < 60000; i++) {
+			Reserva reserva = new Reserva(profesores[azar.nextInt(2)], aulas[azar.nextInt(aulas.length)],
+					new Permanencia(LocalDate.of(2019, 1, 1).plusDays(azar.nextInt(200)), Tramo.values()[azar.nextInt(2)]));
+			int operacion = azar.nextInt(10);
+			if(operacion < 6) {
+				assertEquals(objetos.reservarSiDisponible(reserva), directas.reservarSiDisponible(reserva));
+			} else if(operacion < 9) {
+				boolean existia = objetos.buscar(reserva) != null;
+				try {
+					objetos.borrar(reserva);
+				} catch (OperationNotSupportedException e) {
+					assertFalse(existia);
+				}
+				try {
+					directas.borrar(reserva);
+					assertTrue(existia);
+				} catch (OperationNotSupportedException e) {
+					assertFalse(existia);
+				}
+			} else if(i % 1000 == 9) {
+				assertEquals(objetos.borrarReservas(reserva.getAula()), directas.borrarReservas(reserva.getAula()));
+			}
+			assertEquals(objetos.getNumReservas(), directas.getNumReservas());
+		}
+		List<Reserva> esperadas = objetos.getReservas();
+		assertEquals(new HashSet<Reserva>(esperadas), new HashSet<Reserva>(directas.getReservas()));
+		for(Reserva r : esperadas)
+			assertEquals(r.getProfesor(), directas.buscar(r).getProfesor());
+		for(Aula a : aulas)
+			assertEquals(new HashSet<Reserva>(objetos.getReservasAula(a)), new HashSet<Reserva>(directas.getReservasAula(a)));
+		assertEquals(new HashSet<Reserva>(objetos.getReservasProfesor(profesor2)),
+				new HashSet<Reserva>(directas.getReservasProfesor(profesor2)));
+	}
+}
@@ -0,0 +1,248 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReservasMapeadasTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	@Rule
+	public TemporaryFolder carpeta = new TemporaryFolder();
+
+	private final Profesor profesor1 = new Profesor("José Ramón", "a@b.cc", "950112233");
+	private final Profesor profesor2 = new Profesor("Andrés", "a@b.cc");
+	private final Aula aula1 = new Aula("Salón de actos 1");
+	private final Aula aula2 = new Aula("Salón de actos 2");
+	private final Permanencia permanencia1 = new Permanencia(LocalDate.of(2018, 12, 1), Tramo.MANANA);
+	private final Permanencia permanencia2 = new Permanencia(LocalDate.of(2018, 12, 1), Tramo.TARDE);
+	private final Permanencia permanencia3 = new Permanencia(LocalDate.of(2018, 12, 22), Tramo.MANANA);
+	private final Reserva reserva1 = new Reserva(profesor1, aula1, permanencia1);
+	private final Reserva reserva2 = new Reserva(profesor2, aula2, permanencia1);
+	private final Reserva reserva3 = new Reserva(profesor2, aula1, permanencia3);
+	private final Reserva reserva4 = new Reserva(profesor1, aula2, permanencia2);
+
+	private Path fichero() {
+		return carpeta.getRoot().toPath().resolve("reservas.rsm");
+	}
+
+	private ReservasMapeadas insertarCuatro() throws IOException {
+		ReservasMapeadas reservas = new ReservasMapeadas(fichero());
+		try {
+			reservas.insertar(reserva1);
+			reservas.insertar(reserva2);
+			reservas.insertar(reserva3);
+			reservas.insertar(reserva4);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		return reservas;
+	}
+
+	@Test
+	public void insertarYReabrirTest() {
+		try {
+			ReservasMapeadas reservas = insertarCuatro();
+			assertEquals(ResultadoReserva.OCUPADA, reservas.reservarSiDisponible(new Reserva(profesor2, aula1, permanencia1)));
+			reservas.close();
+			try (ReservasMapeadas reabiertas = new ReservasMapeadas(fichero())) {
+				assertEquals(4, reabiertas.getNumReservas());
+				assertEquals(Arrays.asList(reserva1, reserva2, reserva3, reserva4), reabiertas.getReservas());
+				assertEquals("950112233", reabiertas.buscar(reserva1).getProfesor().getTelefono());
+				assertNull(reabiertas.buscar(reserva2).getProfesor().getTelefono());
+				assertEquals(Arrays.asList(reserva1, reserva3), reabiertas.getReservasAula(aula1));
+				assertEquals(Arrays.asList(reserva2, reserva3), reabiertas.getReservasProfesor(profesor2));
+				assertEquals(Arrays.asList(reserva1, reserva2), reabiertas.getReservasPermanencia(permanencia1));
+				assertFalse(reabiertas.consultarDisponibilidad(aula2, permanencia2));
+				assertTrue(reabiertas.consultarDisponibilidad(aula1, permanencia2));
+				assertEquals(ResultadoReserva.RESERVADA,
+						reabiertas.reservarSiDisponible(new Reserva(profesor2, aula1, permanencia2)));
+			}
+			try {
+				reservas.insertar(reserva1);
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalStateException e) {
+				assertEquals("La colección de reservas está cerrada.", e.getMessage());
+			}
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void borrarYCompactarTest() {
+		try (ReservasMapeadas reservas = insertarCuatro()) {
+			reservas.borrar(reserva1);
+			reservas.borrar(new Reserva(profesor1, aula1, permanencia3));
+			assertEquals(2, reservas.getNumBorradas());
+			assertEquals(Arrays.asList(reserva2, reserva4), reservas.getReservas());
+			assertEquals(2, reservas.compactar());
+			assertEquals(0, reservas.getNumBorradas());
+			assertEquals(0, reservas.compactar());
+			assertEquals(Arrays.asList(reserva4, reserva2), reservas.getReservas());
+			assertFalse(reservas.consultarDisponibilidad(aula2, permanencia2));
+			reservas.insertar(reserva1);
+			assertEquals(Arrays.asList(reserva4, reserva2, reserva1), reservas.getReservas());
+			assertEquals(2, reservas.borrarReservas(profesor1));
+			assertEquals(1, reservas.borrarReservas(aula2));
+			assertEquals(3, reservas.getNumBorradas());
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try (ReservasMapeadas reabiertas = new ReservasMapeadas(fichero())) {
+			assertEquals(0, reabiertas.getNumReservas());
+			assertEquals(3, reabiertas.getNumBorradas());
+			assertEquals(3, reabiertas.compactar());
+			reabiertas.borrar(reserva1);
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("La reserva a anular no existe.", e.getMessage());
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void compactacionEnSegundoPlanTest() {
+		try (ReservasMapeadas reservas = insertarCuatro()) {
+			try {
+				reservas.iniciarCompactacion(0, TimeUnit.MILLISECONDS);
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("El periodo de compactación debe ser positivo.", e.getMessage());
+			}
+			reservas.iniciarCompactacion(10, TimeUnit.MILLISECONDS);
+			try {
+				reservas.iniciarCompactacion(10, TimeUnit.MILLISECONDS);
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalStateException e) {
+				assertEquals("La colección ya se está compactando.", e.getMessage());
+			}
+			reservas.borrar(reserva2);
+			long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while(reservas.getNumBorradas() > 0 && System.nanoTime() < limite)
+				Thread.sleep(10);
+			assertEquals(0, reservas.getNumBorradas());
+			assertNull(reservas.getErrorCompactacion());
+			assertEquals(Arrays.asList(reserva1, reserva4, reserva3), reservas.getReservas());
+		} catch (IOException | OperationNotSupportedException | InterruptedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void ampliarTest() {
+		Aula[] aulas = new Aula[10];
+		for(int i = 0; i < aulas.length; i++)
+			aulas[i] = new Aula("Aula " + i);
+		try (ReservasMapeadas reservas = new ReservasMapeadas(fichero())) {
+			for(int i = 0; i < 1500; i++)
+				reservas.insertar(new Reserva(i % 2 == 0 ? profesor1 : profesor2, aulas[i % aulas.length],
+						new Permanencia(LocalDate.of(2018, 9, 17).plusDays(i / aulas.length), Tramo.TARDE)));
+			assertEquals(2048, reservas.getCapacidad());
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try (ReservasMapeadas reabiertas = new ReservasMapeadas(fichero())) {
+			assertEquals(1500, reabiertas.getNumReservas());
+			assertEquals(2048, reabiertas.getCapacidad());
+			assertEquals(150, reabiertas.getReservasAula(aulas[3]).size());
+			assertEquals(750, reabiertas.getReservasProfesor(profesor2).size());
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void recuperarTrasCaidaTest() {
+		try {
+			insertarCuatro().close();
+			Path diccionario = fichero().resolveSibling("reservas.rsm.diccionario");
+			Files.write(diccionario, new byte[] { 2, 0, 7, 'B' }, StandardOpenOption.APPEND);
+			try (FileChannel canal = FileChannel.open(fichero(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				ByteBuffer ranura = ByteBuffer.allocate(16);
+				canal.read(ranura, 16);
+				ranura.flip();
+				canal.write(ranura, 16 + 4 * 16);
+				ByteBuffer numero = ByteBuffer.allocate(4);
+				numero.putInt(0, 5);
+				canal.write(numero, 8);
+			}
+			try (ReservasMapeadas reabiertas = new ReservasMapeadas(fichero())) {
+				assertEquals(4, reabiertas.getNumReservas());
+				assertEquals(1, reabiertas.getNumBorradas());
+				assertEquals(Arrays.asList(reserva1, reserva2, reserva3, reserva4), reabiertas.getReservas());
+				reabiertas.insertar(new Reserva(new Profesor("Begoña", "b@b.cc"), aula2, permanencia3));
+			}
+			try (ReservasMapeadas reabiertas = new ReservasMapeadas(fichero())) {
+				assertEquals(5, reabiertas.getNumReservas());
+				assertEquals("b@b.cc", reabiertas.buscar(new Reserva(profesor1, aula2, permanencia3)).getProfesor().getCorreo());
+			}
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void ficheroSinRanurasTest() {
+		try {
+			new ReservasMapeadas(fichero()).close();
+			try (FileChannel canal = FileChannel.open(fichero(), StandardOpenOption.WRITE)) {
+				canal.truncate(16);
+			}
+			try (ReservasMapeadas reabiertas = new ReservasMapeadas(fichero())) {
+				assertEquals(1024, reabiertas.getCapacidad());
+				assertEquals(0, reabiertas.getNumReservas());
+				assertTrue(reabiertas.consultarDisponibilidad(aula1, permanencia1));
+				reabiertas.insertar(reserva1);
+				assertEquals(Arrays.asList(reserva1), reabiertas.getReservas());
+			}
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void ficheroNoValidoTest() {
+		try {
+			Files.write(fichero(), new byte[32]);
+			new ReservasMapeadas(fichero());
+			fail(ERROR_EXCEPCION);
+		} catch (IOException e) {
+			assertEquals("El fichero reservas.rsm no es un fichero de reservas válido.", e.getMessage());
+		}
+		try {
+			new ReservasMapeadas(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El fichero de las reservas no puede ser nulo.", e.getMessage());
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+}
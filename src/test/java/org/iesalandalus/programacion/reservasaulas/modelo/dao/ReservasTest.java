@@ -6,8 +6,18 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.Predicate;
 
 import javax.naming.OperationNotSupportedException;
 
@@ -20,17 +30,17 @@ import org.junit.Test;
 
 public class ReservasTest {
 	
-	private static final String NOMBRE_PROFESOR1 = "Jos Ramn";
-	private static final String NOMBRE_PROFESOR2 = "Andrs";
+	private static final String NOMBRE_PROFESOR1 = "José Ramón";
+	private static final String NOMBRE_PROFESOR2 = "Andrés";
 	private static final String CORREO = "a@b.cc";
-	private static final String NOMBRE_AULA1 = "Saln de actos 1";
-	private static final String NOMBRE_AULA2 = "Saln de actos 2";
-	private static final String NOMBRE_AULA3 = "Saln de actos 3";
+	private static final String NOMBRE_AULA1 = "Salón de actos 1";
+	private static final String NOMBRE_AULA2 = "Salón de actos 2";
+	private static final String NOMBRE_AULA3 = "Salón de actos 3";
 	private static final LocalDate DIA1 = LocalDate.of(2018, 12, 1);
 	private static final LocalDate DIA2 = LocalDate.of(2018, 12, 31);
 	private static final LocalDate DIA3 = LocalDate.of(2018, 12, 22);
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
 	
 	private final Profesor profesor1 = new Profesor(NOMBRE_PROFESOR1, CORREO);
 	private final Profesor profesor2 = new Profesor(NOMBRE_PROFESOR2, CORREO);
@@ -147,7 +157,7 @@ public class ReservasTest {
 			reservas.insertar(reserva1);
 			List<Reserva> reservas1 = reservas.getReservas();
 			assertFalse(reservas1 == reservas.getReservas());
-			assertFalse(reservas1.get(0) == reservas.getReservas().get(0));
+			assertTrue(reservas1.get(0) == reservas.getReservas().get(0));
 			assertEquals(reservas1.get(0), reservas.getReservas().get(0));
 		} catch (OperationNotSupportedException e) {
 			fail(ERROR_NO_EXCEPCION);
@@ -250,6 +260,108 @@ public class ReservasTest {
 		}
 	}
 	
+	@Test
+	public void borrarReservasTest() {
+		Reservas reservas = insertarCuatro();
+		reservas.setComprobacionIndices(true);
+		Reserva reserva6 = new Reserva(profesor2, aula3, permanencia3);
+		try {
+			reservas.insertar(reserva6);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertEquals(2, reservas.borrarReservas(aula1));
+		assertEquals(3, reservas.getNumReservas());
+		assertEquals(reserva3, reservas.getReservas().get(0));
+		assertEquals(reserva4, reservas.getReservas().get(1));
+		assertEquals(reserva6, reservas.getReservas().get(2));
+		assertTrue(reservas.getReservasAula(aula1).isEmpty());
+		assertTrue(reservas.consultarDisponibilidad(aula1, permanencia1));
+		assertEquals(0, reservas.borrarReservas(aula1));
+		assertEquals(1, reservas.borrarReservas(profesor2));
+		assertTrue(reservas.getReservasPermanencia(permanencia3).isEmpty());
+		assertEquals(1, reservas.borrarReservas(r -> r.getPermanencia().equals(permanencia2)));
+		assertEquals(1, reservas.borrarReservas(profesor1));
+		assertEquals(0, reservas.borrarReservas(aula2));
+		assertEquals(0, reservas.getNumReservas());
+		try {
+			reservas.insertar(reserva1);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertEquals(reserva1, reservas.getReservasPermanencia(permanencia1).get(0));
+		try {
+			reservas.borrarReservas((Aula) null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se pueden anular las reservas de un aula nula.", e.getMessage());
+		}
+		try {
+			reservas.borrarReservas((Profesor) null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se pueden anular las reservas de un profesor nulo.", e.getMessage());
+		}
+		try {
+			reservas.borrarReservas((Predicate<Reserva>) null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se pueden anular reservas con una condición nula.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void borrarReservasComoBorrarCadaUnaTest() {
+		Random azar = new Random(2021);
+		Aula[] aulas = {aula1, aula2, aula3};
+		Profesor[] profesores = {profesor1, profesor2};
+		LocalDate origen = LocalDate.of(2019, 9, 1);
+		for(int vuelta = 0; vuelta < 20; vuelta++) {
+			Reservas enBloque = new Reservas();
+			Reservas unaAUna = new Reservas();
+			enBloque.setComprobacionIndices(true);
+			for(int i = 0; i < 300; i++) {
+				Reserva r = new Reserva(profesores[azar.nextInt(2)], aulas[azar.nextInt(3)],
+						new Permanencia(origen.plusDays(azar.nextInt(100)), Tramo.values()[azar.nextInt(2)]));
+				enBloque.reservarSiDisponible(r);
+				unaAUna.reservarSiDisponible(r);
+			}
+			List<Reserva> borrar;
+			int borradas;
+			if(vuelta % 3 == 0) {
+				borrar = unaAUna.getReservasAula(aulas[vuelta % 3]);
+				borradas = enBloque.borrarReservas(aulas[vuelta % 3]);
+			} else if(vuelta % 3 == 1) {
+				borrar = unaAUna.getReservasProfesor(profesores[vuelta % 2]);
+				borradas = enBloque.borrarReservas(profesores[vuelta % 2]);
+			} else {
+				borrar = new ArrayList<Reserva>();
+				for(Reserva r : unaAUna.getReservas()) {
+					if(r.getPermanencia().getDia().getDayOfMonth() % 2 == 0)
+						borrar.add(r);
+				}
+				borradas = enBloque.borrarReservas(r -> r.getPermanencia().getDia().getDayOfMonth() % 2 == 0);
+			}
+			try {
+				for(Reserva r : borrar)
+					unaAUna.borrar(r);
+			} catch (OperationNotSupportedException e) {
+				fail(ERROR_NO_EXCEPCION);
+			}
+			assertEquals(borrar.size(), borradas);
+			assertEquals(unaAUna.getNumReservas(), enBloque.getNumReservas());
+			assertEquals(unaAUna.getReservas(), enBloque.getReservas());
+			for(Aula aula : aulas)
+				assertEquals(unaAUna.getReservasAula(aula), enBloque.getReservasAula(aula));
+			for(Profesor profesor : profesores)
+				assertEquals(unaAUna.getReservasProfesor(profesor), enBloque.getReservasProfesor(profesor));
+			Permanencia desde = new Permanencia(origen, Tramo.MANANA);
+			Permanencia hasta = new Permanencia(origen.plusDays(100), Tramo.TARDE);
+			assertEquals(unaAUna.getReservas(desde, hasta), enBloque.getReservas(desde, hasta));
+			assertEquals(unaAUna.getNumPermanenciasLibres(aula1, desde, hasta), enBloque.getNumPermanenciasLibres(aula1, desde, hasta));
+		}
+	}
+
 	@Test
 	public void borrarInsertarTest() {
 		Reservas reservas = insertarCuatro();
@@ -285,6 +397,22 @@ public class ReservasTest {
 		assertEquals(reserva3.toString(), representacion.get(2));
 		assertEquals(reserva4.toString(), representacion.get(3));
 	}
+
+	@Test
+	public void representarEnSalidaTest() {
+		Reservas reservas = new Reservas();
+		try {
+			for(int i = 0; i < 200; i++)
+				reservas.insertar(new Reserva(i % 2 == 0 ? profesor1 : profesor2, i % 3 == 0 ? aula1 : aula2,
+						new Permanencia(DIA1.plusDays(i), Tramo.TARDE)));
+			StringWriter salida = new StringWriter();
+			assertEquals(200, reservas.representar(salida));
+			assertTrue(salida.getBuffer().length() > 16384);
+			assertEquals(String.join(System.lineSeparator(), reservas.representar()) + System.lineSeparator(), salida.toString());
+		} catch (OperationNotSupportedException | IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
 	
 	@Test
 	public void getReservasProfesorTest() {
@@ -332,6 +460,20 @@ public class ReservasTest {
 		assertTrue(reservas.consultarDisponibilidad(aula, permanencia));
 	}
 	
+	@Test
+	public void consultarDisponibilidadTrasBorrarTest() {
+		Reservas reservas = insertarCuatro();
+		try {
+			reservas.borrar(new Reserva(profesor2, aula1, permanencia1));
+			assertTrue(reservas.consultarDisponibilidad(aula1, permanencia1));
+			assertFalse(reservas.consultarDisponibilidad(aula1, permanencia2));
+			reservas.insertar(reserva5);
+			assertFalse(reservas.consultarDisponibilidad(aula1, permanencia1));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+	
 	@Test
 	public void consultarDisponibilidadNoValidoTest() {
 		Reservas reservas = insertarCuatro();
@@ -348,4 +490,358 @@ public class ReservasTest {
 			assertEquals("No se puede consultar la disponibilidad de una permanencia nula.", e.getMessage());
 		}
 	}
+	
+	@Test
+	public void comprobacionIndicesTest() {
+		Reservas reservas = new Reservas();
+		reservas.setComprobacionIndices(true);
+		try {
+			reservas.insertar(reserva1);
+			reservas.insertar(reserva2);
+			reservas.insertar(reserva3);
+			reservas.insertar(reserva4);
+			reservas.borrar(reserva2);
+			reservas.borrar(new Reserva(profesor2, aula2, permanencia1));
+			reservas.insertar(reserva2);
+			reservas.comprobarIndices();
+			Reservas copia = new Reservas(reservas);
+			copia.comprobarIndices();
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} catch (IllegalStateException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertEquals(3, reservas.getNumReservas());
+		List<Reserva> reservasProfesor = reservas.getReservasProfesor(profesor1);
+		assertEquals(reserva1, reservasProfesor.get(0));
+		assertEquals(reserva4, reservasProfesor.get(1));
+		assertEquals(reserva2, reservasProfesor.get(2));
+		assertEquals(1, reservas.getReservasAula(aula2).size());
+		assertEquals(1, reservas.getReservasPermanencia(permanencia1).size());
+	}
+	
+	@Test
+	public void reservarSiDisponibleTest() {
+		Reservas reservas = new Reservas();
+		reservas.setComprobacionIndices(true);
+		assertEquals(ResultadoReserva.RESERVADA, reservas.reservarSiDisponible(reserva1));
+		assertEquals(ResultadoReserva.OCUPADA, reservas.reservarSiDisponible(reserva5));
+		assertEquals(ResultadoReserva.RESERVADA, reservas.reservarSiDisponible(reserva3));
+		assertEquals(2, reservas.getNumReservas());
+		assertEquals(profesor1, reservas.buscar(reserva5).getProfesor());
+		assertFalse(reservas.consultarDisponibilidad(aula2, permanencia1));
+		try {
+			reservas.reservarSiDisponible(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede realizar una reserva nula.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void insertarReservasTest() {
+		Reservas reservas = new Reservas();
+		reservas.setComprobacionIndices(true);
+		try {
+			assertEquals(0, reservas.insertarReservas(Collections.<Reserva>emptyList()));
+			assertEquals(2, reservas.insertarReservas(Arrays.asList(reserva1, reserva4)));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			reservas.insertarReservas(Arrays.asList(reserva2, reserva3, reserva5));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("La reserva " + reserva5 + " ya existe.", e.getMessage());
+		}
+		Reserva repetida = new Reserva(profesor2, aula1, permanencia2);
+		try {
+			reservas.insertarReservas(Arrays.asList(reserva2, reserva3, repetida));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("El lote contiene dos veces la reserva " + repetida + ".", e.getMessage());
+		}
+		try {
+			reservas.insertarReservas(Arrays.asList(reserva2, null));
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede realizar una reserva nula.", e.getMessage());
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			reservas.insertarReservas(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede realizar un lote de reservas nulo.", e.getMessage());
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertEquals(2, reservas.getNumReservas());
+		assertTrue(reservas.consultarDisponibilidad(aula1, permanencia2));
+		assertTrue(reservas.consultarDisponibilidad(aula2, permanencia1));
+		assertEquals(1, reservas.getReservasAula(aula1).size());
+	}
+
+	@Test
+	public void cargarTest() {
+		Aula[] aulas = {aula1, aula2};
+		Profesor[] profesores = {profesor1, profesor2};
+		Reserva reserva6 = new Reserva(profesor2, aula1, permanencia2);
+		Reservas reservas = new Reservas();
+		reservas.setComprobacionIndices(true);
+		assertEquals(4, reservas.cargar(aulas, profesores, new int[] {0, 1, 1, 0}, new int[] {0, 0, 0, 1},
+				new long[] {permanencia1.getClave(), permanencia2.getClave(), permanencia1.getClave(), permanencia2.getClave()}));
+		assertEquals(Arrays.asList(reserva1, reserva4, reserva3, reserva6), reservas.getReservas());
+		assertEquals(Arrays.asList(reserva1, reserva3), reservas.getReservasPermanencia(permanencia1));
+		assertEquals(Arrays.asList(reserva6), reservas.getReservasProfesor(profesor2));
+		assertEquals(Arrays.asList(reserva1, reserva6), reservas.getReservasAula(aula1, permanencia1, permanencia2));
+		assertFalse(reservas.consultarDisponibilidad(aula2, permanencia2));
+		assertTrue(reservas.consultarDisponibilidad(aula1, permanencia3));
+		Reserva cargada = reservas.buscar(reserva4);
+		assertTrue(cargada.getAula() == aula2 && cargada.getProfesor() == profesor1);
+		assertTrue(reservas.getReservasPermanencia(permanencia1).get(1).getPermanencia()
+				== reservas.getReservasPermanencia(permanencia1).get(0).getPermanencia());
+		try {
+			reservas.insertar(reserva5);
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("La reserva ya existe.", e.getMessage());
+		}
+		try {
+			reservas.insertar(new Reserva(profesor2, aula3, permanencia3));
+			reservas.borrar(reserva4);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertEquals(4, reservas.getNumReservas());
+		try {
+			reservas.cargar(aulas, profesores, new int[0], new int[0], new long[0]);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalStateException e) {
+			assertEquals("Sólo se pueden cargar reservas en una colección vacía.", e.getMessage());
+		}
+		Reservas vacias = new Reservas();
+		try {
+			vacias.cargar(aulas, profesores, new int[] {0, 0}, new int[] {0, 1},
+					new long[] {permanencia1.getClave(), permanencia1.getClave()});
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La reserva " + reserva5 + " está repetida.", e.getMessage());
+		}
+		try {
+			vacias.cargar(aulas, profesores, new int[] {0}, new int[0], new long[] {permanencia1.getClave()});
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("Cada reserva a cargar debe tener un aula, un profesor y una permanencia.", e.getMessage());
+		}
+		try {
+			vacias.cargar(null, profesores, new int[0], new int[0], new long[0]);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se pueden cargar reservas nulas.", e.getMessage());
+		}
+		assertEquals(0, vacias.getNumReservas());
+		assertTrue(vacias.consultarDisponibilidad(aula1, permanencia1));
+	}
+
+	@Test
+	public void disponibilidadIntervaloTest() {
+		Reservas reservas = insertarCuatro();
+		Permanencia inicio = new Permanencia(DIA1, Tramo.MANANA);
+		Permanencia fin = new Permanencia(DIA2, Tramo.TARDE);
+		assertFalse(reservas.consultarDisponibilidad(aula1, inicio, fin));
+		assertTrue(reservas.consultarDisponibilidad(aula1, new Permanencia(DIA1, Tramo.TARDE), new Permanencia(DIA2.minusDays(1), Tramo.TARDE)));
+		assertTrue(reservas.consultarDisponibilidad(aula3, inicio, fin));
+		assertEquals(new Permanencia(DIA1, Tramo.TARDE), reservas.getPrimeraPermanenciaLibre(aula1, inicio, fin));
+		assertNull(reservas.getPrimeraPermanenciaLibre(aula1, inicio, inicio));
+		assertEquals(inicio, reservas.getPrimeraPermanenciaLibre(aula3, inicio, fin));
+		assertEquals(62 - 2, reservas.getNumPermanenciasLibres(aula1, inicio, fin));
+		assertEquals(62, reservas.getNumPermanenciasLibres(aula3, inicio, fin));
+		List<Permanencia> libres = reservas.getPermanenciasLibres(aula1, inicio, new Permanencia(DIA1.plusDays(1), Tramo.MANANA));
+		assertEquals(2, libres.size());
+		assertEquals(new Permanencia(DIA1, Tramo.TARDE), libres.get(0));
+		assertEquals(new Permanencia(DIA1.plusDays(1), Tramo.MANANA), libres.get(1));
+		try {
+			reservas.borrar(reserva1);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertEquals(inicio, reservas.getPrimeraPermanenciaLibre(aula1, inicio, fin));
+		try {
+			reservas.consultarDisponibilidad(aula1, fin, inicio);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La permanencia inicial no puede ser posterior a la final.", e.getMessage());
+		}
+		try {
+			reservas.getNumPermanenciasLibres(null, inicio, fin);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede consultar la disponibilidad de un aula nula.", e.getMessage());
+		}
+		try {
+			reservas.getPermanenciasLibres(aula1, inicio, null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede consultar la disponibilidad de una permanencia nula.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void disponibilidadIntervaloComoConsultaPuntualTest() {
+		Reservas reservas = new Reservas();
+		reservas.setComprobacionIndices(true);
+		Random azar = new Random(2019);
+		LocalDate origen = LocalDate.of(1965, 3, 1);
+		int numFranjas = 10000;
+		try {
+			for(int i = 0; i < 3000; i++) {
+				Reserva r = new Reserva(profesor1, azar.nextBoolean() ? aula1 : aula2, new Permanencia(
+						origen.plusDays(azar.nextInt(numFranjas / 2)), Tramo.values()[azar.nextInt(2)]));
+				if(reservas.buscar(r) == null)
+					reservas.insertar(r);
+				else
+					reservas.borrar(r);
+			}
+			reservas.setComprobacionIndices(false);
+			for(int i = 0; i < 6000; i++)
+				reservas.reservarSiDisponible(new Reserva(profesor1, aula1, new Permanencia(
+						origen.plusDays(2000 + i / 2), Tramo.values()[i % 2])));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		for(int i = 0; i < 300; i++) {
+			long a = new Permanencia(origen.minusDays(5), Tramo.MANANA).getClave() + azar.nextInt(numFranjas + 20);
+			long b = a + (i % 3 == 0 ? azar.nextInt(6) : azar.nextInt(numFranjas));
+			Permanencia desde = new Permanencia(a);
+			Permanencia hasta = new Permanencia(b);
+			List<Permanencia> esperadas = new ArrayList<Permanencia>();
+			for(long c = a; c <= b; c++) {
+				if(reservas.consultarDisponibilidad(aula1, new Permanencia(c)))
+					esperadas.add(new Permanencia(c));
+			}
+			assertEquals(esperadas, reservas.getPermanenciasLibres(aula1, desde, hasta));
+			assertEquals(esperadas.size(), reservas.getNumPermanenciasLibres(aula1, desde, hasta));
+			assertEquals(esperadas.size() == b - a + 1, reservas.consultarDisponibilidad(aula1, desde, hasta));
+			assertEquals(esperadas.isEmpty() ? null : esperadas.get(0), reservas.getPrimeraPermanenciaLibre(aula1, desde, hasta));
+		}
+	}
+
+	@Test
+	public void getReservasIntervaloTest() {
+		Reservas reservas = insertarCuatro();
+		try {
+			reservas.insertar(new Reserva(profesor2, aula3, permanencia3));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		Permanencia inicio = new Permanencia(DIA1, Tramo.MANANA);
+		Permanencia fin = new Permanencia(DIA3, Tramo.TARDE);
+		List<Reserva> intervalo = reservas.getReservas(inicio, fin);
+		assertEquals(3, intervalo.size());
+		assertEquals(reserva1, intervalo.get(0));
+		assertEquals(reserva3, intervalo.get(1));
+		assertEquals(new Reserva(profesor2, aula3, permanencia3), intervalo.get(2));
+		assertEquals(5, reservas.getReservas(permanencia1, permanencia2).size());
+		assertTrue(reservas.getReservas(new Permanencia(DIA1, Tramo.TARDE), new Permanencia(DIA3.minusDays(1), Tramo.TARDE)).isEmpty());
+		List<Reserva> aula = reservas.getReservasAula(aula1, permanencia1, permanencia2);
+		assertEquals(2, aula.size());
+		assertEquals(reserva1, aula.get(0));
+		assertEquals(reserva2, aula.get(1));
+		assertTrue(reservas.getReservasAula(aula3, permanencia1, new Permanencia(DIA1, Tramo.TARDE)).isEmpty());
+		assertEquals(1, reservas.getReservasProfesor(profesor2, permanencia1, permanencia2).size());
+		assertEquals(4, reservas.getReservasProfesor(profesor1, inicio, permanencia2).size());
+		Iterator<Reserva> iterador = reservas.iterarReservas(inicio, fin);
+		for(Reserva r : intervalo)
+			assertEquals(r, iterador.next());
+		assertFalse(iterador.hasNext());
+		try {
+			iterador.next();
+			fail(ERROR_EXCEPCION);
+		} catch (NoSuchElementException e) {
+			assertTrue(true);
+		}
+		try {
+			reservas.getReservas(fin, inicio);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La permanencia inicial no puede ser posterior a la final.", e.getMessage());
+		}
+		try {
+			reservas.iterarReservas(null, fin);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se pueden comprobar las reservas entre permanencias nulas.", e.getMessage());
+		}
+		try {
+			reservas.getReservasAula(null, inicio, fin);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se pueden comprobar las reservas realizadas sobre un aula nula.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void getReservasIntervaloComoFiltroTest() {
+		Reservas reservas = new Reservas();
+		Random azar = new Random(2020);
+		Aula[] aulas = {aula1, aula2, aula3};
+		Profesor[] profesores = {profesor1, profesor2};
+		LocalDate origen = LocalDate.of(1969, 6, 1);
+		for(int i = 0; i < 5000; i++) {
+			Reserva r = new Reserva(profesores[azar.nextInt(2)], aulas[azar.nextInt(3)],
+					new Permanencia(origen.plusDays(azar.nextInt(3000)), Tramo.values()[azar.nextInt(2)]));
+			try {
+				if(azar.nextInt(4) == 0 && reservas.buscar(r) != null)
+					reservas.borrar(reservas.buscar(r));
+				else
+					reservas.reservarSiDisponible(r);
+			} catch (OperationNotSupportedException e) {
+				fail(ERROR_NO_EXCEPCION);
+			}
+		}
+		reservas.comprobarIndices();
+		List<Reserva> todas = reservas.getReservas();
+		todas.sort(Comparator.comparingLong(r -> r.getPermanencia().getClave()));
+		for(int i = 0; i < 100; i++) {
+			long a = new Permanencia(origen, Tramo.MANANA).getClave() - 10 + azar.nextInt(6000);
+			long b = a + azar.nextInt(i % 2 == 0 ? 10 : 3000);
+			Permanencia desde = new Permanencia(a);
+			Permanencia hasta = new Permanencia(b);
+			List<Reserva> esperadas = new ArrayList<Reserva>();
+			for(Reserva r : todas) {
+				if(r.getPermanencia().getClave() >= a && r.getPermanencia().getClave() <= b)
+					esperadas.add(r);
+			}
+			assertEquals(esperadas, reservas.getReservas(desde, hasta));
+			List<Reserva> iteradas = new ArrayList<Reserva>();
+			reservas.iterarReservas(desde, hasta).forEachRemaining(iteradas::add);
+			assertEquals(esperadas, iteradas);
+			Aula aula = aulas[i % 3];
+			Profesor profesor = profesores[i % 2];
+			List<Reserva> esperadasAula = new ArrayList<Reserva>();
+			List<Reserva> esperadasProfesor = new ArrayList<Reserva>();
+			for(Reserva r : esperadas) {
+				if(r.getAula().equals(aula))
+					esperadasAula.add(r);
+				if(r.getProfesor().equals(profesor))
+					esperadasProfesor.add(r);
+			}
+			assertEquals(esperadasAula, reservas.getReservasAula(aula, desde, hasta));
+			assertEquals(esperadasProfesor, reservas.getReservasProfesor(profesor, desde, hasta));
+		}
+		reservas.borrarReservas(aula3);
+		reservas.comprobarIndices();
+		Permanencia desde = new Permanencia(origen, Tramo.MANANA);
+		Permanencia hasta = new Permanencia(origen.plusDays(3000), Tramo.TARDE);
+		for(Profesor profesor : profesores) {
+			List<Reserva> esperadasProfesor = new ArrayList<Reserva>();
+			for(Reserva r : reservas.getReservas(desde, hasta)) {
+				if(r.getProfesor().equals(profesor))
+					esperadasProfesor.add(r);
+			}
+			assertEquals(esperadasProfesor, reservas.getReservasProfesor(profesor, desde, hasta));
+		}
+	}
 }
@@ -9,9 +9,9 @@ import org.junit.Test;
 
 public class AulaTest {
 
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
-	private static final String nombre = "Saln de actos";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+	private static final String nombre = "Salón de actos";
 
 	@Test
 	public void constructorUnParametroValidoTest() {
@@ -39,7 +39,7 @@ public class AulaTest {
 			aula = new Aula("");
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El nombre del aula no puede estar vaco.", e.getMessage());
+			assertEquals("El nombre del aula no puede estar vacío.", e.getMessage());
 			assertNull(aula);
 		}
 	}
@@ -79,7 +79,7 @@ public class AulaTest {
 	public void hasCodeTest() {
 		Aula aula = new Aula(nombre);
 		Aula aula1 = new Aula(nombre);
-		Aula aula2 = new Aula("Andrs");
+		Aula aula2 = new Aula("Andrés");
 		assertEquals(aula.hashCode(), aula.hashCode());
 		assertEquals(aula.hashCode(), aula1.hashCode());
 		assertNotEquals(aula.hashCode(), aula2.hashCode());
@@ -89,7 +89,7 @@ public class AulaTest {
 	public void equalTest() {
 		Aula aula = new Aula(nombre);
 		Aula aula1 = new Aula(nombre);
-		Aula aula2 = new Aula("Andrs");
+		Aula aula2 = new Aula("Andrés");
 		assertNotEquals(aula, null);
 		assertNotEquals(aula, "");
 		assertEquals(aula, aula);
@@ -100,7 +100,7 @@ public class AulaTest {
 	@Test
 	public void toStringTest() {
 		Aula aula = new Aula(nombre);
-		assertEquals("[nombre=Saln de actos]", aula.toString());
+		assertEquals("[nombre=Salón de actos]", aula.toString());
 	}
 
 }
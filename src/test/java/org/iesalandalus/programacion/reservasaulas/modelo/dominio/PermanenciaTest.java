@@ -3,6 +3,7 @@ package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
 import static org.junit.Assert.*;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
@@ -10,8 +11,8 @@ import org.junit.Test;
 
 public class PermanenciaTest {
 
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
 	
 	private LocalDate dia = LocalDate.of(2018, 12, 1); 
 	Permanencia permanencia = new Permanencia(dia, Tramo.MANANA);
@@ -43,7 +44,7 @@ public class PermanenciaTest {
 			permanencia = new Permanencia(null, Tramo.MANANA);
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El da de una permanencia no puede ser nulo.", e.getMessage());
+			assertEquals("El día de una permanencia no puede ser nulo.", e.getMessage());
 			assertNull(permanencia);
 		}
 	}
@@ -98,9 +99,35 @@ public class PermanenciaTest {
 		assertNotEquals(permanencia1.hashCode(), permanencia2.hashCode());
 	}
 	
+	@Test
+	public void claveTest() {
+		Permanencia permanencia1 = new Permanencia(dia, Tramo.MANANA);
+		Permanencia permanencia2 = new Permanencia(dia, Tramo.TARDE);
+		Permanencia permanencia3 = new Permanencia(dia.plusDays(1), Tramo.MANANA);
+		assertEquals(permanencia.getClave(), permanencia1.getClave());
+		assertTrue(permanencia1.getClave() < permanencia2.getClave());
+		assertTrue(permanencia2.getClave() < permanencia3.getClave());
+		assertEquals(Permanencia.calcularClave(dia, Tramo.TARDE), permanencia2.getClave());
+		assertEquals(permanencia2, new Permanencia(permanencia2.getClave()));
+		Permanencia antigua = new Permanencia(LocalDate.of(1960, 1, 1), Tramo.TARDE);
+		assertEquals(antigua, new Permanencia(antigua.getClave()));
+	}
+	
 	@Test
 	public void toStringTest() {
-		assertEquals("[dia=01/12/2018, tramo=Maana]", permanencia.toString());
+		assertEquals("[dia=01/12/2018, tramo=Mañana]", permanencia.toString());
+	}
+
+	@Test
+	public void representarTest() {
+		DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+		LocalDate[] dias = {LocalDate.of(5, 1, 9), LocalDate.of(999, 10, 31), LocalDate.of(2020, 2, 29),
+				LocalDate.of(9999, 12, 31), LocalDate.of(10000, 1, 1), LocalDate.of(-1, 6, 15)};
+		for(LocalDate d : dias) {
+			Permanencia p = new Permanencia(d, Tramo.TARDE);
+			assertEquals("[dia=" + d.format(formato) + ", tramo=Tarde]", p.toString());
+			assertEquals("x[dia=" + d.format(formato) + ", tramo=Tarde]", p.representar(new StringBuilder("x")).toString());
+		}
 	}
 
 }
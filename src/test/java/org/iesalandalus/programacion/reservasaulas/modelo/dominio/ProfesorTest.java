@@ -2,14 +2,17 @@ package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
 
 import static org.junit.Assert.*;
 
+import java.util.Random;
+import java.util.regex.Pattern;
+
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
 import org.junit.Test;
 
 public class ProfesorTest {
 
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
-	private static final String nombre = "Jos Ramn";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+	private static final String nombre = "José Ramón";
 	private static final String correo = "joseramon.jimenez@iesalandalus.org";
 	private static final String telefono = "950112233";
 	
@@ -64,7 +67,7 @@ public class ProfesorTest {
 			profesor = new Profesor("", correo);
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El nombre del profesor no puede estar vaco.", e.getMessage());
+			assertEquals("El nombre del profesor no puede estar vacío.", e.getMessage());
 			assertNull(profesor);
 		}
 		try {
@@ -78,7 +81,7 @@ public class ProfesorTest {
 			profesor = new Profesor(nombre, "");
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El correo del profesor no es vlido.", e.getMessage());
+			assertEquals("El correo del profesor no es válido.", e.getMessage());
 			assertNull(profesor);
 		}
 	}
@@ -90,7 +93,7 @@ public class ProfesorTest {
 			profesor = new Profesor(nombre, correo, "");
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El telfono del profesor no es vlido.", e.getMessage());
+			assertEquals("El teléfono del profesor no es válido.", e.getMessage());
 			assertNull(profesor);
 		}
 	}
@@ -131,7 +134,7 @@ public class ProfesorTest {
 	@Test
 	public void equalTest() {
 		Profesor profesor = new Profesor(nombre, correo, telefono);
-		Profesor profesor1 = new Profesor("Andrs", correo, telefono);
+		Profesor profesor1 = new Profesor("Andrés", correo, telefono);
 		assertNotEquals(profesor, null);
 		assertNotEquals(profesor, "");
 		assertEquals(profesor, profesor);
@@ -142,16 +145,57 @@ public class ProfesorTest {
 	@Test
 	public void hashCodeTest() {
 		Profesor profesor = new Profesor(nombre, correo, telefono);
-		Profesor profesor1 = new Profesor("Andrs", correo, telefono);
+		Profesor profesor1 = new Profesor("Andrés", correo, telefono);
 		assertEquals(profesor.hashCode(), profesor.hashCode());
 		assertEquals(profesorConTelefono.hashCode(), profesor.hashCode());
+		assertEquals(new Profesor(nombre, "otro@iesalandalus.org").hashCode(), profesor.hashCode());
 		assertNotEquals(profesor.hashCode(), profesor1.hashCode());
 	}
 	
 	@Test
 	public void toStringTest() {
-		assertEquals("[nombre=Jos Ramn, correo=joseramon.jimenez@iesalandalus.org, telefono=950112233]", profesorConTelefono.toString());
-		assertEquals("[nombre=Jos Ramn, correo=joseramon.jimenez@iesalandalus.org]", profesorSinTelefono.toString());
+		assertEquals("[nombre=José Ramón, correo=joseramon.jimenez@iesalandalus.org, telefono=950112233]", profesorConTelefono.toString());
+		assertEquals("[nombre=José Ramón, correo=joseramon.jimenez@iesalandalus.org]", profesorSinTelefono.toString());
+	}
+	
+	private static boolean esValido(String correo, String telefono) {
+		try {
+			new Profesor(nombre, correo, telefono);
+			return true;
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+	
+	private static String etiquetas(Random azar, String[] etiquetas) {
+		StringBuilder cadena = new StringBuilder(etiquetas[azar.nextInt(etiquetas.length)]);
+		for(int i = azar.nextInt(3); i > 0; i--)
+			cadena.append('.').append(etiquetas[azar.nextInt(etiquetas.length)]);
+		return cadena.toString();
+	}
+	
+	@Test
+	public void validacionComoExpresionRegularTest() {
+		Pattern erCorreo = Pattern.compile("^[a-z0-9]+(\\.[a-z0-9]+)*@[a-z]+(\\.[a-z]+)*(\\.[a-z]{1,4})$");
+		Pattern erTelefono = Pattern.compile("^[69][0-9]{8}$");
+		String[] etiquetasCorreo = {"a", "b9", "0", "es", "org", "abcde", "", "Z", "a-b", "a@b"};
+		String caracteresTelefono = "0569a";
+		Random azar = new Random(2019);
+		int validos = 0;
+		for(int i = 0; i < 100000; i++) {
+			String correoPrueba = etiquetas(azar, etiquetasCorreo);
+			if(azar.nextInt(8) != 0)
+				correoPrueba += "@" + etiquetas(azar, etiquetasCorreo);
+			boolean valido = erCorreo.matcher(correoPrueba).matches();
+			if(valido)
+				validos++;
+			assertEquals(correoPrueba, valido, esValido(correoPrueba, null));
+			StringBuilder telefonoAzar = new StringBuilder();
+			for(int j = 8 + azar.nextInt(3); j > 0; j--)
+				telefonoAzar.append(caracteresTelefono.charAt(azar.nextInt(caracteresTelefono.length())));
+			String telefonoPrueba = telefonoAzar.toString();
+			assertEquals(telefonoPrueba, erTelefono.matcher(telefonoPrueba).matches(), esValido(correo, telefonoPrueba));
+		}
+		assertTrue(validos > 1000);
 	}
-
 }
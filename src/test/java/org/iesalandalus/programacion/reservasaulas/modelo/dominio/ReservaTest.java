@@ -3,6 +3,7 @@ package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.time.LocalDate;
@@ -11,11 +12,11 @@ import org.junit.Test;
 
 public class ReservaTest {
 
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
-	private static final String nombreProfesor = "Jos Ramn";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+	private static final String nombreProfesor = "José Ramón";
 	private static final String correo = "joseramon.jimenez@iesalandalus.org";
-	private static final String nombreAula = "Saln de actos";
+	private static final String nombreAula = "Salón de actos";
 	private static final LocalDate dia = LocalDate.of(2018, 12, 1);
 	
 	Profesor profesor = new Profesor(nombreProfesor, correo);
@@ -95,6 +96,18 @@ public class ReservaTest {
 		assertEquals(permanencia, reserva.getPermanencia());
 	}
 	
+	@Test
+	public void compartirComponentesTest() {
+		Reserva reserva = new Reserva(profesor, aula, permanencia);
+		Reserva reserva1 = new Reserva(reserva);
+		assertTrue(profesor == reserva.getProfesor());
+		assertTrue(aula == reserva.getAula());
+		assertTrue(permanencia == reserva.getPermanencia());
+		assertTrue(reserva.getProfesor() == reserva1.getProfesor());
+		assertTrue(reserva.getAula() == reserva1.getAula());
+		assertTrue(reserva.getPermanencia() == reserva1.getPermanencia());
+	}
+	
 	@Test
 	public void equalTest() {
 		Reserva reserva = new Reserva(profesor, aula, permanencia);
@@ -114,14 +127,15 @@ public class ReservaTest {
 		Reserva reserva2 = new Reserva(profesor, new Aula("Aula"), permanencia);
 		assertEquals(reserva.hashCode(), reserva.hashCode());
 		assertEquals(reserva1.hashCode(), reserva.hashCode());
+		assertEquals(new Reserva(new Profesor("Andrés", correo), aula, permanencia).hashCode(), reserva.hashCode());
 		assertNotEquals(reserva.hashCode(), reserva2.hashCode());
 	}
 	
 	@Test
 	public void toStringTest() {
 		Reserva reserva = new Reserva(profesor, aula, permanencia);
-		String cadenaEsperada = "[profesor=[nombre=Jos Ramn, correo=joseramon.jimenez@iesalandalus.org]"
-				+ ", aula=[nombre=Saln de actos], permanencia=[dia=01/12/2018, tramo=Maana]]";
+		String cadenaEsperada = "[profesor=[nombre=José Ramón, correo=joseramon.jimenez@iesalandalus.org]"
+				+ ", aula=[nombre=Salón de actos], permanencia=[dia=01/12/2018, tramo=Mañana]]";
 		assertEquals(cadenaEsperada, reserva.toString());
 	}
 
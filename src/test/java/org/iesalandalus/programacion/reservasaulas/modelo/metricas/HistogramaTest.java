@@ -0,0 +1,104 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.metricas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HistogramaTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+
+	@Test
+	public void vacioTest() {
+		Histograma histograma = new Histograma();
+		assertEquals(0, histograma.getNumValores());
+		assertEquals(0, histograma.getMaximo());
+		assertEquals(0, histograma.getPercentil(99), 0);
+		assertEquals(0, histograma.getMedia(), 0);
+	}
+
+	@Test
+	public void valoresPequenosExactosTest() {
+		Histograma histograma = new Histograma();
+		for(int i = 1; i <= 50; i++)
+			histograma.anotar(i);
+		assertEquals(50, histograma.getNumValores());
+		assertEquals(50, histograma.getMaximo());
+		assertEquals(25, histograma.getPercentil(50));
+		assertEquals(50, histograma.getPercentil(100));
+		assertEquals(1, histograma.getPercentil(0));
+		assertEquals(25.5, histograma.getMedia(), 0.001);
+	}
+
+	@Test
+	public void percentilesAproximadosTest() {
+		Histograma histograma = new Histograma();
+		Random azar = new Random(18);
+		long[] valores = new long[100000];
+		for(int i = 0; i < valores.length; i++) {
+			valores[i] = (long) Math.exp(azar.nextDouble() * 25);
+			histograma.anotar(valores[i]);
+		}
+		Arrays.sort(valores);
+		for(double p : new double[] {10, 50, 90, 99, 99.9}) {
+			long real = valores[(int) Math.ceil(p / 100 * valores.length) - 1];
+			long aproximado = histograma.getPercentil(p);
+			assertTrue(p + ": " + aproximado + " frente a " + real, aproximado >= real && aproximado <= real * 1.035 + 1);
+		}
+		assertEquals(valores[valores.length - 1], histograma.getMaximo());
+		assertEquals(valores[valores.length - 1], histograma.getPercentil(100));
+	}
+
+	@Test
+	public void valoresFueraDeRangoTest() {
+		Histograma histograma = new Histograma();
+		histograma.anotar(-5);
+		histograma.anotar(Long.MAX_VALUE);
+		assertEquals(2, histograma.getNumValores());
+		assertEquals(0, histograma.getPercentil(50));
+		assertEquals(Histograma.VALOR_MAXIMO, histograma.getMaximo());
+		assertEquals(Histograma.VALOR_MAXIMO, histograma.getPercentil(100));
+		histograma.reiniciar();
+		assertEquals(0, histograma.getNumValores());
+		assertEquals(0, histograma.getMaximo());
+	}
+
+	@Test
+	public void percentilNoValidoTest() {
+		Histograma histograma = new Histograma();
+		try {
+			histograma.getPercentil(100.5);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El percentil debe estar entre 0 y 100.", e.getMessage());
+		}
+		try {
+			histograma.getPercentil(Double.NaN);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El percentil debe estar entre 0 y 100.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void anotarDesdeVariosHilosTest() throws InterruptedException {
+		Histograma histograma = new Histograma();
+		Thread[] hilos = new Thread[4];
+		for(int h = 0; h < hilos.length; h++) {
+			hilos[h] = new Thread(() -> {
+				for(int i = 0; i < 10000; i++)
+					histograma.anotar(i);
+			});
+			hilos[h].start();
+		}
+		for(Thread hilo : hilos)
+			hilo.join();
+		assertEquals(40000, histograma.getNumValores());
+		assertEquals(9999, histograma.getMaximo());
+	}
+}
@@ -0,0 +1,187 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.metricas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class MetricasTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	private static void llamar(MetricasOperacion operacion) {
+		operacion.terminar(operacion.iniciar());
+	}
+
+	@Test
+	public void constructorNoValidoTest() {
+		try {
+			new Metricas("");
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El nombre del componente medido no puede ser nulo ni vacío.", e.getMessage());
+		}
+		try {
+			new Metricas("Prueba", 12);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El muestreo debe ser una potencia de dos.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void operacionTest() {
+		Metricas metricas = new Metricas("Prueba", 1);
+		MetricasOperacion buscar = metricas.operacion("buscar");
+		assertSame(buscar, metricas.operacion("buscar"));
+		metricas.operacion("insertar");
+		assertEquals(2, metricas.getOperaciones().size());
+		assertEquals("insertar", metricas.getOperaciones().get(1).getNombre());
+		buscar.fallar(buscar.iniciar() - 1500);
+		assertEquals(1, buscar.getLlamadas());
+		assertEquals(1, buscar.getErrores());
+		assertEquals(1, buscar.getLatencias().getNumValores());
+		assertTrue(buscar.getMaximo() >= 1.5);
+		buscar.reiniciar();
+		assertEquals(0, buscar.getLlamadas());
+		assertEquals(0, buscar.getErrores());
+		try {
+			metricas.operacion(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El nombre de la operación no puede ser nulo ni vacío.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void muestreoTest() {
+		MetricasOperacion buscar = new Metricas("Prueba", 16).operacion("buscar");
+		for(int i = 0; i < 16000; i++)
+			llamar(buscar);
+		assertEquals(16000, buscar.getLlamadas());
+		long medidas = buscar.getLatencias().getNumValores();
+		assertTrue(String.valueOf(medidas), medidas > 500 && medidas < 1500);
+	}
+
+	@Test
+	public void llamadasDeVariosHilosTest() throws InterruptedException {
+		Metricas metricas = new Metricas("Prueba");
+		MetricasOperacion buscar = metricas.operacion("buscar");
+		for(int i = 0; i < 100; i++) {
+			Thread hilo = new Thread(() -> {
+				for(int j = 0; j < 10; j++)
+					llamar(buscar);
+				llamar(metricas.operacion("insertar"));
+			});
+			hilo.start();
+			hilo.join();
+		}
+		llamar(buscar);
+		assertEquals(1001, buscar.getLlamadas());
+		assertEquals(100, metricas.operacion("insertar").getLlamadas());
+		buscar.reiniciar();
+		llamar(buscar);
+		assertEquals(1, buscar.getLlamadas());
+	}
+
+	@Test
+	public void volcarTest() {
+		Metricas metricas = new Metricas("Prueba");
+		llamar(metricas.operacion("buscar"));
+		metricas.operacion("insertar");
+		StringBuilder salida = new StringBuilder();
+		try {
+			assertEquals(1, metricas.volcar(salida));
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertTrue(salida.toString().startsWith("Métricas de Prueba a "));
+		assertTrue(salida.toString().contains("buscar "));
+		assertFalse(salida.toString().contains("insertar"));
+		try {
+			metricas.volcar(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException | IOException e) {
+			assertEquals("No se puede escribir en una salida nula.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void volcadoPeriodicoTest() throws InterruptedException {
+		Metricas metricas = new Metricas("Prueba");
+		llamar(metricas.operacion("buscar"));
+		StringBuilder salida = new StringBuilder();
+		metricas.iniciarVolcado(salida, 10, TimeUnit.MILLISECONDS);
+		try {
+			metricas.iniciarVolcado(salida, 10, TimeUnit.MILLISECONDS);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalStateException e) {
+			assertEquals("Las métricas ya se están volcando.", e.getMessage());
+		}
+		long limite = System.currentTimeMillis() + 5000;
+		while(System.currentTimeMillis() < limite) {
+			synchronized(salida) {
+				if(salida.indexOf("buscar") >= 0)
+					break;
+			}
+			Thread.sleep(10);
+		}
+		try {
+			metricas.close();
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		synchronized(salida) {
+			assertTrue(salida.indexOf("buscar") >= 0);
+		}
+		try {
+			metricas.iniciarVolcado(salida, 0, TimeUnit.SECONDS);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El periodo de volcado debe ser positivo.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void jmxTest() {
+		MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+		Metricas metricas = new Metricas("PruebaJmx");
+		try {
+			ObjectName buscar = new ObjectName("org.iesalandalus.programacion.reservasaulas:type=PruebaJmx,operacion=buscar");
+			ObjectName insertar = new ObjectName("org.iesalandalus.programacion.reservasaulas:type=PruebaJmx,operacion=insertar");
+			llamar(metricas.operacion("buscar"));
+			metricas.registrarJmx();
+			metricas.operacion("insertar");
+			assertEquals(1L, servidor.getAttribute(buscar, "Llamadas"));
+			assertEquals(0L, servidor.getAttribute(insertar, "Errores"));
+			assertTrue(servidor.getAttribute(buscar, "Percentil99") instanceof Double);
+			servidor.invoke(buscar, "reiniciar", null, null);
+			assertEquals(0L, servidor.getAttribute(buscar, "Llamadas"));
+			Metricas repetidas = new Metricas("PruebaJmx");
+			repetidas.operacion("buscar");
+			try {
+				repetidas.registrarJmx();
+				fail(ERROR_EXCEPCION);
+			} catch (JMException e) {
+				assertTrue(servidor.isRegistered(buscar));
+			}
+			metricas.close();
+			assertFalse(servidor.isRegistered(buscar));
+			assertFalse(servidor.isRegistered(insertar));
+		} catch (JMException | IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+}
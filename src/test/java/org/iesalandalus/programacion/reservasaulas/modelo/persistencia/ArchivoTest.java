@@ -0,0 +1,283 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ResultadoReserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ArchivoTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	@Rule
+	public TemporaryFolder carpeta = new TemporaryFolder();
+
+	private final Profesor profesor1 = new Profesor("José Ramón", "a@b.cc", "950112233");
+	private final Profesor profesor2 = new Profesor("Andrés", "a@b.cc");
+	private final Aula aula1 = new Aula("Salón de actos 1");
+	private final Aula aula2 = new Aula("Salón de actos 2");
+	private final Aula aula3 = new Aula("Salón de actos 3");
+	private final Permanencia diciembre1 = new Permanencia(LocalDate.of(2018, 12, 3), Tramo.MANANA);
+	private final Permanencia diciembre2 = new Permanencia(LocalDate.of(2018, 12, 20), Tramo.TARDE);
+	private final Permanencia enero = new Permanencia(LocalDate.of(2019, 1, 15), Tramo.MANANA);
+	private final Permanencia febrero = new Permanencia(LocalDate.of(2019, 2, 4), Tramo.TARDE);
+	private final Reserva reserva1 = new Reserva(profesor1, aula1, diciembre1);
+	private final Reserva reserva2 = new Reserva(profesor2, aula2, diciembre1);
+	private final Reserva reserva3 = new Reserva(profesor2, aula1, diciembre2);
+	private final Reserva reserva4 = new Reserva(profesor1, aula2, enero);
+	private final Reserva reserva5 = new Reserva(profesor2, aula1, febrero);
+
+	private Path directorio() {
+		return carpeta.getRoot().toPath().resolve("archivo");
+	}
+
+	private ModeloReservasAulas modeloConReservas(ModeloReservasAulas modelo) throws OperationNotSupportedException {
+		modelo.insertarAula(aula1);
+		modelo.insertarAula(aula2);
+		modelo.insertarProfesor(profesor1);
+		modelo.insertarProfesor(profesor2);
+		modelo.realizarReserva(reserva5);
+		modelo.realizarReserva(reserva3);
+		modelo.realizarReserva(reserva1);
+		modelo.realizarReserva(reserva4);
+		modelo.realizarReserva(reserva2);
+		return modelo;
+	}
+
+	@Test
+	public void archivarYConsultarTest() {
+		try {
+			Archivo archivo = new Archivo(directorio());
+			assertNull(archivo.getCorte());
+			archivo.archivar(LocalDate.of(2019, 1, 1), Arrays.asList(reserva3, reserva1, reserva2));
+			archivo.archivar(LocalDate.of(2019, 2, 1), Collections.singletonList(reserva4));
+			assertEquals(LocalDate.of(2019, 2, 1), archivo.getCorte());
+			assertEquals(2, archivo.getNumSegmentos());
+
+			Archivo reabierto = new Archivo(directorio());
+			assertEquals(LocalDate.of(2019, 2, 1), reabierto.getCorte());
+			assertEquals(4, reabierto.getNumReservas());
+			assertEquals(Arrays.asList(reserva1, reserva3), reabierto.getReservasAula(aula1));
+			assertEquals(Arrays.asList(reserva1, reserva4), reabierto.getReservasProfesor(profesor1));
+			assertEquals("950112233", reabierto.getReservasProfesor(profesor1).get(0).getProfesor().getTelefono());
+			assertNull(reabierto.getReservasProfesor(profesor2).get(0).getProfesor().getTelefono());
+			assertEquals(Arrays.asList(reserva3, reserva4), reabierto.getReservas(diciembre2, febrero));
+			assertEquals(Arrays.asList(reserva2), reabierto.getReservasAula(aula2, diciembre1, diciembre2));
+			assertEquals(Arrays.asList(reserva3), reabierto.getReservasProfesor(profesor2, diciembre2, enero));
+			assertTrue(reabierto.getReservasAula(aula3).isEmpty());
+			assertFalse(reabierto.consultarDisponibilidad(aula1, diciembre2));
+			assertTrue(reabierto.consultarDisponibilidad(aula2, diciembre2));
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void archivarFueraDePeriodoTest() {
+		try {
+			Archivo archivo = new Archivo(directorio());
+			archivo.archivar(LocalDate.of(2019, 1, 1), Arrays.asList(reserva1));
+			try {
+				archivo.archivar(LocalDate.of(2019, 1, 1), Arrays.asList(reserva4));
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("La fecha de corte debe ser posterior al 2019-01-01.", e.getMessage());
+			}
+			try {
+				archivo.archivar(LocalDate.of(2019, 2, 1), Arrays.asList(reserva4, reserva3));
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("La reserva " + reserva3 + " no está en el periodo a archivar.", e.getMessage());
+			}
+			try {
+				archivo.archivar(LocalDate.of(2019, 2, 1), Arrays.asList(reserva5));
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("La reserva " + reserva5 + " no está en el periodo a archivar.", e.getMessage());
+			}
+			assertEquals(1, archivo.getNumSegmentos());
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void lecturaPerezosaTest() {
+		try {
+			Archivo archivo = new Archivo(directorio());
+			archivo.archivar(LocalDate.of(2019, 1, 1), Arrays.asList(reserva1, reserva2, reserva3));
+			Path segmento = directorio().resolve("segmento-000001.rsv");
+			try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+				canal.write(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }), canal.size() - 8);
+			}
+			Archivo danado = new Archivo(directorio());
+			assertEquals(3, danado.getNumReservas());
+			assertTrue(danado.getReservasAula(aula3).isEmpty());
+			assertTrue(danado.getReservas(enero, febrero).isEmpty());
+			try {
+				danado.getReservasAula(aula1);
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				assertTrue(e.getMessage() != null);
+			}
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void modeloArchivaTest() {
+		try {
+			ModeloReservasAulas modelo = modeloConReservas(new ModeloReservasAulas());
+			modelo.abrirArchivo(directorio());
+			assertNull(modelo.getCorteArchivo());
+			assertEquals(3, modelo.archivar(LocalDate.of(2019, 1, 1)));
+			assertEquals(LocalDate.of(2019, 1, 1), modelo.getCorteArchivo());
+			assertEquals(2, modelo.getNumReservas());
+			assertEquals(Arrays.asList(reserva5, reserva4), modelo.getReservas());
+			assertEquals(Arrays.asList(reserva1, reserva3, reserva5), modelo.getReservasAula(aula1));
+			assertEquals(Arrays.asList(reserva2, reserva3, reserva5), modelo.getReservasProfesor(profesor2));
+			assertEquals(Arrays.asList(reserva1, reserva2), modelo.getReservasPermanencia(diciembre1));
+			assertEquals(Arrays.asList(reserva3, reserva4), modelo.getReservas(diciembre2, enero));
+			assertEquals(Arrays.asList(reserva4), modelo.getReservasAula(aula2, enero, febrero));
+			assertFalse(modelo.consultarDisponibilidad(aula2, diciembre1));
+			assertTrue(modelo.consultarDisponibilidad(aula2, diciembre2));
+			assertEquals(Collections.emptyList(), modelo.getAulasDisponibles(diciembre1));
+			assertEquals(Arrays.asList(aula2), modelo.getAulasDisponibles(diciembre2));
+			Permanencia diciembre1Tarde = new Permanencia(LocalDate.of(2018, 12, 3), Tramo.TARDE);
+			assertFalse(modelo.consultarDisponibilidad(aula1, diciembre1, diciembre1Tarde));
+			assertTrue(modelo.consultarDisponibilidad(aula2, diciembre2, new Permanencia(LocalDate.of(2019, 1, 14), Tramo.TARDE)));
+			assertNull(modelo.getPrimeraPermanenciaLibre(aula1, diciembre1, diciembre1));
+			assertEquals(diciembre1Tarde, modelo.getPrimeraPermanenciaLibre(aula1, diciembre1, febrero));
+			assertEquals(1, modelo.getNumPermanenciasLibres(aula1, diciembre1, diciembre1Tarde));
+			assertEquals(Arrays.asList(diciembre1Tarde), modelo.getPermanenciasLibres(aula1, diciembre1, diciembre1Tarde));
+			assertEquals(modelo.getNumPermanenciasLibres(aula1, diciembre1, febrero),
+					modelo.getPermanenciasLibres(aula1, diciembre1, febrero).size());
+			assertFalse(modelo.getPermanenciasLibres(aula1, diciembre1, febrero).contains(diciembre2));
+			try {
+				modelo.realizarReserva(new Reserva(profesor1, aula2, diciembre2));
+				fail(ERROR_EXCEPCION);
+			} catch (OperationNotSupportedException e) {
+				assertEquals("No se pueden modificar las reservas anteriores al 2019-01-01, que ya están archivadas.",
+						e.getMessage());
+			}
+			assertEquals(ResultadoReserva.ARCHIVADA, modelo.reservarSiDisponible(new Reserva(profesor1, aula2, diciembre2)));
+			Reserva marzo = new Reserva(profesor1, aula2, new Permanencia(LocalDate.of(2019, 3, 4), Tramo.MANANA));
+			assertArrayEquals(new ResultadoReserva[] { ResultadoReserva.RESERVADA, ResultadoReserva.ARCHIVADA,
+					ResultadoReserva.OCUPADA }, modelo.reservarSiDisponibles(Arrays.asList(marzo,
+							new Reserva(profesor1, aula2, diciembre2), reserva4)));
+			assertEquals(3, modelo.getNumReservas());
+			modelo.anularReserva(marzo);
+			try {
+				modelo.anularReserva(reserva1);
+				fail(ERROR_EXCEPCION);
+			} catch (OperationNotSupportedException e) {
+				assertEquals("No se pueden modificar las reservas anteriores al 2019-01-01, que ya están archivadas.",
+						e.getMessage());
+			}
+			try {
+				modelo.archivar(LocalDate.of(2018, 12, 1));
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("La fecha de corte debe ser posterior al 2019-01-01.", e.getMessage());
+			}
+			modelo.borrarProfesor(profesor2);
+			assertEquals(Arrays.asList(reserva2, reserva3), modelo.getReservasProfesor(profesor2));
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			new ModeloReservasAulas().archivar(LocalDate.of(2019, 1, 1));
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalStateException e) {
+			assertEquals("El modelo no tiene archivo.", e.getMessage());
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void recuperarModeloArchivadoTest() {
+		Path diario = carpeta.getRoot().toPath().resolve("reservas.diario");
+		try {
+			ModeloReservasAulas modelo = modeloConReservas(new ModeloReservasAulas(diario));
+			modelo.abrirArchivo(directorio());
+			modelo.archivar(LocalDate.of(2019, 1, 1));
+			modelo.cerrar();
+
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(diario);
+			assertEquals(5, recuperado.getNumReservas());
+			recuperado.abrirArchivo(directorio());
+			assertEquals(2, recuperado.getNumReservas());
+			assertEquals(Arrays.asList(reserva1, reserva3, reserva5), recuperado.getReservasAula(aula1));
+			try {
+				recuperado.abrirArchivo(directorio());
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalStateException e) {
+				assertEquals("El modelo ya tiene un archivo.", e.getMessage());
+			}
+			recuperado.cerrar();
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void segmentoIlegibleEnModeloTest() {
+		try {
+			ModeloReservasAulas modelo = modeloConReservas(new ModeloReservasAulas());
+			modelo.abrirArchivo(directorio());
+			modelo.archivar(LocalDate.of(2019, 1, 1));
+			Path segmento = directorio().resolve("segmento-000001.rsv");
+			try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+				canal.write(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }), canal.size() - 8);
+			}
+			ModeloReservasAulas reabierto = modeloConReservas(new ModeloReservasAulas());
+			reabierto.abrirArchivo(directorio());
+			assertEquals(Arrays.asList(reserva4, reserva5), reabierto.getReservas(enero, febrero));
+			try {
+				reabierto.getReservasAula(aula1);
+				fail(ERROR_EXCEPCION);
+			} catch (UncheckedIOException e) {
+				assertEquals("No se pudieron leer las reservas archivadas.", e.getMessage());
+			}
+			try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+				canal.truncate(canal.size() - 4);
+			}
+			try {
+				new ModeloReservasAulas().abrirArchivo(directorio());
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				assertEquals("El segmento segmento-000001.rsv está incompleto o dañado.", e.getMessage());
+			}
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+}
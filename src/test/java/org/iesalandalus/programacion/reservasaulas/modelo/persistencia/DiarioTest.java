@@ -0,0 +1,325 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DiarioTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	@Rule
+	public TemporaryFolder carpeta = new TemporaryFolder();
+
+	private final Profesor profesor1 = new Profesor("José Ramón", "a@b.cc", "950112233");
+	private final Profesor profesor2 = new Profesor("Andrés", "a@b.cc");
+	private final Aula aula1 = new Aula("Salón de actos 1");
+	private final Aula aula2 = new Aula("Salón de actos 2");
+	private final Permanencia permanencia1 = new Permanencia(LocalDate.of(2018, 12, 1), Tramo.MANANA);
+	private final Permanencia permanencia2 = new Permanencia(LocalDate.of(2018, 12, 1), Tramo.TARDE);
+	private final Reserva reserva1 = new Reserva(profesor1, aula1, permanencia1);
+	private final Reserva reserva2 = new Reserva(profesor2, aula2, permanencia1);
+	private final Reserva reserva3 = new Reserva(profesor2, aula1, permanencia2);
+
+	private Path fichero() throws IOException {
+		return carpeta.getRoot().toPath().resolve("reservas.diario");
+	}
+
+	private void rellenar(ModeloReservasAulas modelo) throws OperationNotSupportedException {
+		modelo.insertarAula(aula1);
+		modelo.insertarAula(aula2);
+		modelo.insertarProfesor(profesor1);
+		modelo.insertarProfesor(profesor2);
+		modelo.realizarReserva(reserva1);
+		modelo.realizarReserva(reserva2);
+		modelo.realizarReserva(reserva3);
+	}
+
+	@Test
+	public void reproducirTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas(fichero());
+			rellenar(modelo);
+			modelo.anularReserva(reserva2);
+			modelo.borrarProfesor(profesor1);
+			modelo.cerrar();
+
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(fichero());
+			assertEquals(2, recuperado.getNumAulas());
+			assertEquals(1, recuperado.getNumProfesores());
+			assertNull(recuperado.buscarProfesor(profesor1));
+			assertEquals(1, recuperado.getNumReservas());
+			assertEquals(reserva3, recuperado.getReservas().get(0));
+			assertEquals(profesor2, recuperado.getReservas().get(0).getProfesor());
+			assertTrue(recuperado.consultarDisponibilidad(aula2, permanencia1));
+			recuperado.borrarAula(aula1);
+			recuperado.cerrar();
+
+			ModeloReservasAulas otraVez = new ModeloReservasAulas(fichero());
+			assertEquals(1, otraVez.getNumAulas());
+			assertEquals(0, otraVez.getNumReservas());
+			otraVez.cerrar();
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void reservasRecuperadasCompartenAulaYProfesorTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas(fichero());
+			rellenar(modelo);
+			modelo.realizarReserva(new Reserva(new Profesor("José Ramón", "a@b.cc", "950112233"), new Aula("Salón de actos 2"),
+					permanencia2));
+			modelo.cerrar();
+
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(fichero());
+			Aula aula = recuperado.buscarAula(aula1);
+			Profesor profesor = recuperado.buscarProfesor(profesor2);
+			assertSame(aula, recuperado.buscarReserva(reserva1).getAula());
+			assertSame(aula, recuperado.buscarReserva(reserva3).getAula());
+			assertSame(profesor, recuperado.buscarReserva(reserva2).getProfesor());
+			assertSame(profesor, recuperado.buscarReserva(reserva3).getProfesor());
+			Reserva otra = recuperado.buscarReserva(new Reserva(profesor1, aula2, permanencia2));
+			assertSame(recuperado.buscarAula(aula2), otra.getAula());
+			assertSame(recuperado.buscarProfesor(profesor1), otra.getProfesor());
+			recuperado.cerrar();
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void registroIncompletoTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas(fichero());
+			rellenar(modelo);
+			modelo.cerrar();
+			long tamano = Files.size(fichero());
+			try (FileChannel canal = FileChannel.open(fichero(), StandardOpenOption.WRITE)) {
+				canal.truncate(tamano - 3);
+			}
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(fichero());
+			assertEquals(2, recuperado.getNumReservas());
+			assertFalse(recuperado.consultarDisponibilidad(aula2, permanencia1));
+			assertTrue(recuperado.consultarDisponibilidad(aula1, permanencia2));
+			recuperado.realizarReserva(reserva3);
+			recuperado.cerrar();
+			ModeloReservasAulas otraVez = new ModeloReservasAulas(fichero());
+			assertEquals(3, otraVez.getNumReservas());
+			otraVez.cerrar();
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void loteIncompletoTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas(fichero());
+			modelo.realizarReserva(reserva1);
+			modelo.realizarReservas(Arrays.asList(reserva2, reserva3));
+			modelo.cerrar();
+
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(fichero());
+			assertEquals(3, recuperado.getNumReservas());
+			assertEquals(profesor2, recuperado.buscarReserva(reserva3).getProfesor());
+			recuperado.cerrar();
+			long tamano = Files.size(fichero());
+			try (FileChannel canal = FileChannel.open(fichero(), StandardOpenOption.WRITE)) {
+				canal.truncate(tamano - 3);
+			}
+			ModeloReservasAulas truncado = new ModeloReservasAulas(fichero());
+			assertEquals(1, truncado.getNumReservas());
+			assertTrue(truncado.consultarDisponibilidad(aula2, permanencia1));
+			assertTrue(truncado.consultarDisponibilidad(aula1, permanencia2));
+			truncado.cerrar();
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void ficheroNoValidoTest() {
+		ModeloReservasAulas modelo = null;
+		try {
+			Files.write(fichero(), "esto no es un diario".getBytes("UTF-8"));
+			modelo = new ModeloReservasAulas(fichero());
+			fail(ERROR_EXCEPCION);
+		} catch (IOException e) {
+			assertEquals("El fichero no es un diario de reservas válido.", e.getMessage());
+			assertNull(modelo);
+		}
+	}
+
+	@Test
+	public void operacionFallidaNoSeRegistraTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas(fichero());
+			rellenar(modelo);
+			try {
+				modelo.realizarReserva(new Reserva(profesor2, aula1, permanencia1));
+				fail(ERROR_EXCEPCION);
+			} catch (OperationNotSupportedException e) {
+				assertEquals("La reserva ya existe.", e.getMessage());
+			}
+			modelo.cerrar();
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(fichero());
+			assertEquals(3, recuperado.getNumReservas());
+			assertEquals(profesor1, recuperado.buscarReserva(reserva1).getProfesor());
+			assertEquals("950112233", recuperado.buscarProfesor(profesor1).getTelefono());
+			assertNull(recuperado.buscarProfesor(profesor2).getTelefono());
+			recuperado.cerrar();
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void confirmacionFallidaNoPierdeRegistrosTest() {
+		try {
+			CanalQueFalla canal = new CanalQueFalla(FileChannel.open(fichero(), StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE));
+			Diario diario = new Diario(canal);
+			diario.registrarInsertarAula(aula1);
+			diario.registrarInsertarProfesor(profesor1);
+			canal.fallar = true;
+			long fallido = diario.anotarRealizarReserva(reserva1);
+			try {
+				diario.confirmar(fallido);
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				assertEquals("Fallo simulado.", e.getMessage());
+			}
+			canal.fallar = false;
+			diario.registrarRealizarReserva(new Reserva(profesor1, aula1, permanencia2));
+			diario.confirmar(fallido);
+			diario.close();
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(fichero());
+			assertEquals(2, recuperado.getNumReservas());
+			assertEquals(reserva1, recuperado.getReservas().get(0));
+			recuperado.cerrar();
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	/**
+	 * Canal que delega en otro y que, mientras se le indica, hace fallar las escrituras en una posición después
+	 * de haber escrito sólo la mitad de los datos
+	 */
+	private static class CanalQueFalla extends FileChannel {
+
+		private final FileChannel canal;
+		private volatile boolean fallar;
+
+		private CanalQueFalla(FileChannel canal) {
+			this.canal = canal;
+		}
+
+		public int read(ByteBuffer dst) throws IOException {
+			return canal.read(dst);
+		}
+
+		public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+			return canal.read(dsts, offset, length);
+		}
+
+		public int write(ByteBuffer src) throws IOException {
+			return canal.write(src);
+		}
+
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			return canal.write(srcs, offset, length);
+		}
+
+		public long position() throws IOException {
+			return canal.position();
+		}
+
+		public FileChannel position(long newPosition) throws IOException {
+			canal.position(newPosition);
+			return this;
+		}
+
+		public long size() throws IOException {
+			return canal.size();
+		}
+
+		public FileChannel truncate(long size) throws IOException {
+			canal.truncate(size);
+			return this;
+		}
+
+		public void force(boolean metaData) throws IOException {
+			canal.force(metaData);
+		}
+
+		public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+			return canal.transferTo(position, count, target);
+		}
+
+		public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+			return canal.transferFrom(src, position, count);
+		}
+
+		public int read(ByteBuffer dst, long position) throws IOException {
+			return canal.read(dst, position);
+		}
+
+		public int write(ByteBuffer src, long position) throws IOException {
+			if(fallar) {
+				ByteBuffer mitad = src.duplicate();
+				mitad.limit(mitad.position() + mitad.remaining() / 2);
+				canal.write(mitad, position);
+				throw new IOException("Fallo simulado.");
+			}
+			return canal.write(src, position);
+		}
+
+		public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+			return canal.map(mode, position, size);
+		}
+
+		public FileLock lock(long position, long size, boolean shared) throws IOException {
+			return canal.lock(position, size, shared);
+		}
+
+		public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+			return canal.tryLock(position, size, shared);
+		}
+
+		protected void implCloseChannel() throws IOException {
+			canal.close();
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ImportadorCsvTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	@Rule
+	public TemporaryFolder carpeta = new TemporaryFolder();
+
+	private Path escribir(String nombre, String... lineas) throws IOException {
+		return Files.write(carpeta.getRoot().toPath().resolve(nombre), Arrays.asList(lineas), StandardCharsets.UTF_8);
+	}
+
+	private void importarAulasYProfesores(ImportadorCsv importador) throws IOException {
+		importador.importarAulas(escribir("aulas.csv", "Aula 1", "Aula 2"));
+		importador.importarProfesores(escribir("profesores.csv", "José Ramón;a@b.cc;950112233", "Andrés;a@b.cc"));
+	}
+
+	@Test
+	public void constructorNoValidoTest() {
+		try {
+			new ImportadorCsv(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede importar en un modelo nulo.", e.getMessage());
+		}
+		try {
+			new ImportadorCsv(new ModeloReservasAulas(), 0, 1);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El tamaño del lote y el número de hilos deben ser positivos.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void importarAulasYProfesoresTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas();
+			ImportadorCsv importador = new ImportadorCsv(modelo);
+			InformeImportacion informe = importador.importarAulas(escribir("aulas.csv",
+					"# aulas del centro", "Aula 1", "", "  Aula 2  ", "Aula 1", "Aula;3"));
+			assertEquals(4, informe.getNumFilas());
+			assertEquals(2, informe.getNumImportadas());
+			assertEquals(2, informe.getNumErroneas());
+			assertEquals(Arrays.asList("aulas.csv:5: El aula ya existe.",
+					"aulas.csv:6: La fila tiene 2 campos y debería tener 1."), informe.getErrores());
+			assertEquals("Aula 2", modelo.getAulas().get(1).getNombre());
+
+			informe = importador.importarProfesores(escribir("profesores.csv",
+					"José Ramón;a@b.cc;950112233", "Andrés;a@b.cc", "Ana;correo", "Luis;a@b.cc;123", "Pepe"));
+			assertEquals(2, informe.getNumImportadas());
+			assertEquals(Arrays.asList("profesores.csv:3: El correo del profesor no es válido.",
+					"profesores.csv:4: El teléfono del profesor no es válido.",
+					"profesores.csv:5: La fila tiene 1 campos y debería tener entre 2 y 3."), informe.getErrores());
+			assertEquals("950112233", modelo.getProfesores().get(0).getTelefono());
+			assertEquals(null, modelo.getProfesores().get(1).getTelefono());
+			assertEquals("profesores.csv: 2 de 5 filas importadas, 3 rechazadas", informe.toString());
+		} catch (IOException | IllegalArgumentException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void importarReservasTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas();
+			ImportadorCsv importador = new ImportadorCsv(modelo, 2, 2);
+			importarAulasYProfesores(importador);
+			InformeImportacion informe = importador.importarReservas(escribir("reservas.csv",
+					"José Ramón;Aula 1;01/12/2018;Mañana",
+					"Andrés;Aula 2;01/12/2018;tarde",
+					"Andrés;Aula 1;01/12/2018;MANANA",
+					"Nadie;Aula 1;02/12/2018;Mañana",
+					"Andrés;Aula 9;02/12/2018;Mañana",
+					"Andrés;Aula 1;2018-12-02;Mañana",
+					"Andrés;Aula 1;02/12/2018;Noche",
+					"Andrés;Aula 1;02/12/2018;Tarde"));
+			assertEquals(8, informe.getNumFilas());
+			assertEquals(3, informe.getNumImportadas());
+			assertEquals(Arrays.asList("reservas.csv:3: El aula ya está reservada en ese día y tramo.",
+					"reservas.csv:4: El profesor Nadie no existe.",
+					"reservas.csv:5: El aula Aula 9 no existe.",
+					"reservas.csv:6: El día 2018-12-02 no tiene el formato dd/mm/aaaa.",
+					"reservas.csv:7: El tramo Noche no es válido."), informe.getErrores());
+			List<Reserva> reservas = modelo.getReservas();
+			assertEquals(3, reservas.size());
+			assertEquals(new Permanencia(LocalDate.of(2018, 12, 1), Tramo.TARDE), reservas.get(1).getPermanencia());
+			assertEquals("950112233", reservas.get(0).getProfesor().getTelefono());
+			assertEquals(new Aula("Aula 1"), reservas.get(2).getAula());
+		} catch (IOException | IllegalArgumentException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void importarReservasArchivadasTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas();
+			modelo.abrirArchivo(carpeta.getRoot().toPath().resolve("archivo"));
+			modelo.archivar(LocalDate.of(2019, 1, 1));
+			ImportadorCsv importador = new ImportadorCsv(modelo, 2, 2);
+			importarAulasYProfesores(importador);
+			InformeImportacion informe = importador.importarReservas(escribir("reservas.csv",
+					"José Ramón;Aula 1;08/01/2019;Mañana",
+					"Andrés;Aula 2;01/12/2018;Tarde",
+					"Andrés;Aula 2;08/01/2019;Tarde"));
+			assertEquals(2, informe.getNumImportadas());
+			assertEquals(Arrays.asList("reservas.csv:2: El día ya está archivado y no admite reservas."),
+					informe.getErrores());
+			assertEquals(2, modelo.getNumReservas());
+		} catch (IOException | IllegalArgumentException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void importarReservasEnOrdenTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas();
+			ImportadorCsv importador = new ImportadorCsv(modelo, 7, 3);
+			importarAulasYProfesores(importador);
+			List<String> lineas = new ArrayList<String>();
+			LocalDate inicio = LocalDate.of(2019, 1, 1);
+			for(int i = 0; i < 500; i++)
+				lineas.add("Andrés;Aula " + (1 + i % 2) + ";" + String.format("%02d/%02d/%04d",
+						inicio.plusDays(i / 4).getDayOfMonth(), inicio.plusDays(i / 4).getMonthValue(),
+						inicio.plusDays(i / 4).getYear()) + ";" + (i % 4 < 2 ? "Mañana" : "Tarde"));
+			lineas.add(3, lineas.get(0));
+			InformeImportacion informe = importador.importarReservas(escribir("reservas.csv", lineas.toArray(new String[0])));
+			assertEquals(500, informe.getNumImportadas());
+			assertEquals(Arrays.asList("reservas.csv:4: El aula ya está reservada en ese día y tramo."), informe.getErrores());
+			List<Reserva> reservas = modelo.getReservas();
+			for(int i = 0; i < 500; i++)
+				assertEquals(lineas.get(i < 3 ? i : i + 1), reservas.get(i).getProfesor().getNombre() + ";"
+						+ reservas.get(i).getAula().getNombre() + ";" + String.format("%02d/%02d/%04d",
+						reservas.get(i).getPermanencia().getDia().getDayOfMonth(),
+						reservas.get(i).getPermanencia().getDia().getMonthValue(),
+						reservas.get(i).getPermanencia().getDia().getYear()) + ";" + reservas.get(i).getPermanencia().getTramo());
+		} catch (IOException | IllegalArgumentException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void importarReservasConDiarioTest() {
+		try {
+			Path diario = carpeta.getRoot().toPath().resolve("reservas.diario");
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario);
+			ImportadorCsv importador = new ImportadorCsv(modelo, 2, 1);
+			importarAulasYProfesores(importador);
+			importador.importarReservas(escribir("reservas.csv", "José Ramón;Aula 1;01/12/2018;Mañana",
+					"Andrés;Aula 2;01/12/2018;Tarde", "Andrés;Aula 2;01/12/2018;Tarde", "Andrés;Aula 2;02/12/2018;Tarde"));
+			modelo.cerrar();
+
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(diario);
+			assertEquals(2, recuperado.getNumAulas());
+			assertEquals(2, recuperado.getNumProfesores());
+			assertEquals(modelo.getReservas(), recuperado.getReservas());
+			assertEquals(3, recuperado.getNumReservas());
+			assertFalse(recuperado.consultarDisponibilidad(new Aula("Aula 2"), new Permanencia(LocalDate.of(2018, 12, 2), Tramo.TARDE)));
+			assertTrue(recuperado.consultarDisponibilidad(new Aula("Aula 1"), new Permanencia(LocalDate.of(2018, 12, 2), Tramo.TARDE)));
+			recuperado.cerrar();
+		} catch (IOException | IllegalArgumentException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void importarFicheroInexistenteTest() {
+		ImportadorCsv importador = new ImportadorCsv(new ModeloReservasAulas());
+		try {
+			importador.importarAulas(carpeta.getRoot().toPath().resolve("no existe.csv"));
+			fail(ERROR_EXCEPCION);
+		} catch (IOException e) {
+			assertTrue(true);
+		}
+		try {
+			importador.importarAulas(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException | IOException e) {
+			assertEquals("El fichero a importar no puede ser nulo.", e.getMessage());
+		}
+	}
+}
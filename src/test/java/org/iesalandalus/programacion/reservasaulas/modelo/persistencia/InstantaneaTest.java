@@ -0,0 +1,165 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Tramo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InstantaneaTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	@Rule
+	public TemporaryFolder carpeta = new TemporaryFolder();
+
+	private final Profesor profesor1 = new Profesor("José Ramón", "a@b.cc", "950112233");
+	private final Profesor profesor2 = new Profesor("Andrés", "a@b.cc");
+	private final Aula aula1 = new Aula("Salón de actos 1");
+	private final Aula aula2 = new Aula("Salón de actos 2");
+	private final Permanencia permanencia1 = new Permanencia(LocalDate.of(2018, 12, 1), Tramo.MANANA);
+	private final Permanencia permanencia2 = new Permanencia(LocalDate.of(2018, 12, 1), Tramo.TARDE);
+	private final Reserva reserva1 = new Reserva(profesor1, aula1, permanencia1);
+	private final Reserva reserva2 = new Reserva(profesor2, aula2, permanencia1);
+	private final Reserva reserva3 = new Reserva(profesor2, aula1, permanencia2);
+
+	private Path diario() {
+		return carpeta.getRoot().toPath().resolve("reservas.diario");
+	}
+
+	private Path instantanea() {
+		return carpeta.getRoot().toPath().resolve("reservas.instantanea");
+	}
+
+	@Test
+	public void guardarYCargarTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario(), instantanea());
+			modelo.insertarAula(aula1);
+			modelo.insertarAula(aula2);
+			modelo.insertarProfesor(profesor1);
+			modelo.insertarProfesor(profesor2);
+			modelo.realizarReserva(reserva1);
+			modelo.realizarReserva(reserva2);
+			modelo.guardarInstantanea();
+			assertEquals(16, Files.size(diario()));
+			modelo.realizarReserva(reserva3);
+			modelo.borrarProfesor(profesor1);
+			modelo.cerrar();
+
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(diario(), instantanea());
+			assertEquals(2, recuperado.getNumAulas());
+			assertEquals(1, recuperado.getNumProfesores());
+			assertNull(recuperado.buscarProfesor(profesor1));
+			assertEquals(2, recuperado.getNumReservas());
+			assertEquals(reserva2, recuperado.getReservas().get(0));
+			assertEquals(reserva3, recuperado.getReservas().get(1));
+			assertNull(recuperado.buscarReserva(reserva2).getProfesor().getTelefono());
+			assertFalse(recuperado.consultarDisponibilidad(aula1, permanencia2));
+			assertTrue(recuperado.consultarDisponibilidad(aula1, permanencia1));
+			recuperado.cerrar();
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void reservasSinAulaNiProfesorTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario(), instantanea());
+			modelo.realizarReserva(reserva1);
+			modelo.realizarReserva(new Reserva(new Profesor("José Ramón", "otro@b.cc"), aula2, permanencia1));
+			modelo.cerrar();
+
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(diario(), instantanea());
+			assertEquals(0, recuperado.getNumAulas());
+			assertEquals(0, recuperado.getNumProfesores());
+			assertEquals(2, recuperado.getNumReservas());
+			assertEquals("950112233", recuperado.buscarReserva(reserva1).getProfesor().getTelefono());
+			assertEquals("otro@b.cc", recuperado.getReservas().get(1).getProfesor().getCorreo());
+			recuperado.cerrar();
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void diarioAnteriorALaInstantaneaTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario());
+			modelo.insertarAula(aula1);
+			modelo.realizarReserva(reserva1);
+			Instantanea.guardar(instantanea(), 1, modelo.getAulas(), modelo.getProfesores(), modelo.getReservas());
+			modelo.cerrar();
+
+			ModeloReservasAulas recuperado = new ModeloReservasAulas(diario(), instantanea());
+			assertEquals(1, recuperado.getNumAulas());
+			assertEquals(1, recuperado.getNumReservas());
+			assertEquals(16, Files.size(diario()));
+			recuperado.cerrar();
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void instantaneaDanadaTest() {
+		ModeloReservasAulas modelo = null;
+		try {
+			modelo = new ModeloReservasAulas(diario(), instantanea());
+			modelo.insertarAula(aula1);
+			modelo.realizarReserva(reserva1);
+			modelo.cerrar();
+			try (FileChannel canal = FileChannel.open(instantanea(), StandardOpenOption.WRITE)) {
+				canal.truncate(Files.size(instantanea()) - 4);
+			}
+			modelo = null;
+		} catch (IOException | OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			modelo = new ModeloReservasAulas(diario(), instantanea());
+			fail(ERROR_EXCEPCION);
+		} catch (IOException e) {
+			assertEquals("La instantánea está incompleta o dañada.", e.getMessage());
+			assertNull(modelo);
+		}
+	}
+
+	@Test
+	public void guardarSinInstantaneaTest() {
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario());
+			try {
+				modelo.guardarInstantanea();
+				fail(ERROR_EXCEPCION);
+			} finally {
+				modelo.cerrar();
+			}
+		} catch (IllegalStateException e) {
+			assertEquals("El modelo no tiene fichero de instantánea.", e.getMessage());
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package org.iesalandalus.programacion.reservasaulas.vista.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.IModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ServidorHttpTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final int NUM_CLIENTES = 20;
+	private static final int PETICIONES_POR_CLIENTE = 10;
+
+	private ModeloReservasAulas modelo;
+	private ServidorHttp servidor;
+
+	/**
+	 * Respuesta recibida: el código HTTP y el cuerpo
+	 */
+	private static final class Recibida {
+		private final int codigo;
+		private final String cuerpo;
+
+		private Recibida(int codigo, String cuerpo) {
+			this.codigo = codigo;
+			this.cuerpo = cuerpo;
+		}
+	}
+
+	@Before
+	public void iniciar() throws IOException {
+		modelo = new ModeloReservasAulas();
+		servidor = new ServidorHttp(modelo, 0);
+		servidor.iniciar();
+	}
+
+	@After
+	public void detener() {
+		servidor.detener(0);
+	}
+
+	private Recibida pedir(String metodo, String ruta, String cuerpo) throws IOException {
+		HttpURLConnection conexion = (HttpURLConnection) new URL("http://localhost:" + servidor.getPuerto() + ruta).openConnection();
+		conexion.setRequestMethod(metodo);
+		if(cuerpo != null) {
+			conexion.setDoOutput(true);
+			try (OutputStream salida = conexion.getOutputStream()) {
+				salida.write(cuerpo.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		int codigo = conexion.getResponseCode();
+		InputStream entrada = codigo < 400 ? conexion.getInputStream() : conexion.getErrorStream();
+		ByteArrayOutputStream leido = new ByteArrayOutputStream();
+		if(entrada != null) {
+			try (InputStream e = entrada) {
+				byte[] bloque = new byte[4096];
+				int n;
+				while((n = e.read(bloque)) > 0)
+					leido.write(bloque, 0, n);
+			}
+		}
+		return new Recibida(codigo, new String(leido.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	private void prepararDatos() throws IOException {
+		assertEquals(201, pedir("POST", "/aulas", "{\"nombre\":\"Aula 1\"}").codigo);
+		assertEquals(201, pedir("POST", "/aulas", "{\"nombre\":\"Salón de actos\"}").codigo);
+		assertEquals(201, pedir("POST", "/profesores", "{\"nombre\":\"José Ramón\",\"correo\":\"a@b.cc\",\"telefono\":\"950112233\"}").codigo);
+	}
+
+	@Test
+	public void constructorNoValidoTest() throws IOException {
+		try {
+			new ServidorHttp(null, 0);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede servir un modelo nulo.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void aulasYProfesoresTest() throws IOException {
+		prepararDatos();
+		assertEquals("[{\"nombre\":\"Aula 1\"},{\"nombre\":\"Salón de actos\"}]", pedir("GET", "/aulas", null).cuerpo);
+		assertEquals("{\"nombre\":\"Salón de actos\"}", pedir("GET", "/aulas/Sal%C3%B3n%20de%20actos", null).cuerpo);
+		Recibida repetida = pedir("POST", "/aulas", "{\"nombre\":\"Aula 1\"}");
+		assertEquals(409, repetida.codigo);
+		assertEquals("{\"error\":\"El aula ya existe.\"}", repetida.cuerpo);
+		assertEquals(404, pedir("GET", "/aulas/Aula%202", null).codigo);
+		assertEquals(404, pedir("GET", "/aulas/Aula%202/reservas", null).codigo);
+		assertEquals(404, pedir("GET", "/profesores/Ana/reservas", null).codigo);
+		assertEquals(404, pedir("GET", "/aulas2", null).codigo);
+		assertEquals(405, pedir("PUT", "/aulas", "{}").codigo);
+		assertEquals("{\"nombre\":\"José Ramón\",\"correo\":\"a@b.cc\",\"telefono\":\"950112233\"}",
+				pedir("GET", "/profesores/Jos%C3%A9%20Ram%C3%B3n", null).cuerpo);
+		assertEquals(400, pedir("POST", "/profesores", "{\"nombre\":\"Ana\",\"correo\":\"correo\"}").codigo);
+		assertEquals(400, pedir("POST", "/profesores", "{\"nombre\":\"Ana\"").codigo);
+		assertEquals(204, pedir("DELETE", "/aulas/Aula%201", null).codigo);
+		Recibida borrada = pedir("DELETE", "/aulas/Aula%201", null);
+		assertEquals(404, borrada.codigo);
+		assertEquals("{\"error\":\"El aula Aula 1 no existe.\"}", borrada.cuerpo);
+		assertEquals(404, pedir("DELETE", "/profesores/Ana", null).codigo);
+		assertEquals(405, pedir("DELETE", "/aulas/Aula%202/reservas", null).codigo);
+		assertEquals(1, modelo.getNumAulas());
+	}
+
+	@Test
+	public void reservasTest() throws IOException {
+		prepararDatos();
+		String reserva = "{\"profesor\":\"José Ramón\",\"aula\":\"Aula 1\",\"dia\":\"07/01/2019\",\"tramo\":\"MANANA\"}";
+		Recibida realizada = pedir("POST", "/reservas", "{\"profesor\":\"José Ramón\",\"aula\":\"Aula 1\",\"dia\":\"07/01/2019\",\"tramo\":\"Mañana\"}");
+		assertEquals(201, realizada.codigo);
+		assertEquals(reserva, realizada.cuerpo);
+		assertEquals(409, pedir("POST", "/reservas", reserva).codigo);
+		assertEquals(404, pedir("POST", "/reservas", reserva.replace("Aula 1", "Aula 9")).codigo);
+		Recibida diaNoValido = pedir("POST", "/reservas", reserva.replace("07/01/2019", "31/02/2019"));
+		assertEquals(400, diaNoValido.codigo);
+		assertEquals("{\"error\":\"El día 31/02/2019 no tiene el formato dd/mm/aaaa.\"}", diaNoValido.cuerpo);
+		assertEquals("[" + reserva + "]", pedir("GET", "/reservas", null).cuerpo);
+		assertEquals("[" + reserva + "]", pedir("GET", "/aulas/Aula%201/reservas", null).cuerpo);
+		assertEquals("[" + reserva + "]", pedir("GET", "/profesores/Jos%C3%A9%20Ram%C3%B3n/reservas", null).cuerpo);
+		assertEquals("[]", pedir("GET", "/aulas/Sal%C3%B3n%20de%20actos/reservas", null).cuerpo);
+		assertEquals("[]", pedir("GET", "/reservas?dia=07/01/2019&tramo=TARDE", null).cuerpo);
+		assertEquals("{\"aula\":\"Aula 1\",\"disponible\":false}",
+				pedir("GET", "/disponibilidad?aula=Aula+1&dia=07/01/2019&tramo=MANANA", null).cuerpo);
+		assertEquals("{\"aulas\":[{\"nombre\":\"Salón de actos\"}]}",
+				pedir("GET", "/disponibilidad?dia=07/01/2019&tramo=MANANA", null).cuerpo);
+		assertEquals(400, pedir("GET", "/disponibilidad?aula=Aula+1&dia=07/01/2019", null).codigo);
+		assertEquals(204, pedir("DELETE", "/reservas?aula=Aula+1&dia=07/01/2019&tramo=MANANA", null).codigo);
+		assertEquals(404, pedir("DELETE", "/reservas?aula=Aula+1&dia=07/01/2019&tramo=MANANA", null).codigo);
+		assertEquals(0, modelo.getNumReservas());
+	}
+
+	@Test
+	public void cuerpoCortadoTest() throws IOException {
+		try (Socket socket = new Socket("localhost", servidor.getPuerto())) {
+			socket.setSoTimeout(10000);
+			OutputStream salida = socket.getOutputStream();
+			salida.write(("POST /aulas HTTP/1.1\r\nHost: localhost\r\nContent-Length: 100\r\n\r\n{\"nombre\":")
+					.getBytes(StandardCharsets.UTF_8));
+			salida.flush();
+			socket.shutdownOutput();
+			BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			assertEquals("HTTP/1.1 400 Bad Request", entrada.readLine());
+		}
+		assertEquals(0, modelo.getNumAulas());
+		assertEquals(200, pedir("GET", "/aulas", null).codigo);
+	}
+
+	@Test
+	public void errorInternoTest() throws IOException {
+		IModeloReservasAulas roto = (IModeloReservasAulas) Proxy.newProxyInstance(IModeloReservasAulas.class.getClassLoader(),
+				new Class<?>[] {IModeloReservasAulas.class}, (proxy, metodo, argumentos) -> {
+					throw new IllegalStateException("Detalle interno del modelo.");
+				});
+		ServidorHttp servidorRoto = new ServidorHttp(roto, 0);
+		servidorRoto.iniciar();
+		try {
+			HttpURLConnection conexion = (HttpURLConnection) new URL("http://localhost:" + servidorRoto.getPuerto() + "/aulas")
+					.openConnection();
+			assertEquals(500, conexion.getResponseCode());
+			try (InputStream e = conexion.getErrorStream()) {
+				byte[] cuerpo = new byte[4096];
+				int leidos = e.read(cuerpo);
+				assertEquals("{\"error\":\"Error interno del servidor.\"}", new String(cuerpo, 0, leidos, StandardCharsets.UTF_8));
+			}
+		} finally {
+			servidorRoto.detener(0);
+		}
+	}
+
+	@Test
+	public void jsonTest() {
+		StringBuilder salida = Json.cadena(new StringBuilder(), "a\"b\\c\nd\u0001");
+		assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", salida.toString());
+		Map<String, String> objeto = Json.objeto(" { \"a\" : \"x\\\"y\\u00e9\" , \"b\" : null } ");
+		assertEquals("x\"yé", objeto.get("a"));
+		assertEquals(1, objeto.size());
+		assertTrue(Json.objeto("{}").isEmpty());
+		try {
+			Json.objeto("{\"a\":\"x\"} sobra");
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El cuerpo de la petición no es un objeto JSON válido.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Comprueba que varios clientes simultáneos pueden consultar la disponibilidad y hacer y anular reservas sin
+	 * errores. La medida de rendimiento con más clientes está en CargaHttp
+	 */
+	@Test
+	public void clientesSimultaneosTest() throws Exception {
+		prepararDatos();
+		ExecutorService clientes = Executors.newFixedThreadPool(NUM_CLIENTES);
+		CyclicBarrier salida = new CyclicBarrier(NUM_CLIENTES + 1);
+		List<Future<Integer>> pendientes = new ArrayList<Future<Integer>>();
+		for(int c = 0; c < NUM_CLIENTES; c++) {
+			final String dia = String.format("%02d/%02d/2019", 1 + c % 28, 1 + c / 28);
+			pendientes.add(clientes.submit(new Callable<Integer>() {
+				public Integer call() throws Exception {
+					salida.await();
+					int fallos = 0;
+					for(int i = 0; i < PETICIONES_POR_CLIENTE; i++) {
+						Recibida recibida;
+						if(i % 5 == 1)
+							recibida = pedir("POST", "/reservas", "{\"profesor\":\"José Ramón\",\"aula\":\"Aula 1\",\"dia\":\""
+									+ dia + "\",\"tramo\":\"TARDE\"}");
+						else if(i % 5 == 3)
+							recibida = pedir("DELETE", "/reservas?aula=Aula+1&dia=" + dia + "&tramo=TARDE", null);
+						else
+							recibida = pedir("GET", "/disponibilidad?aula=Aula+1&dia=" + dia + "&tramo=TARDE", null);
+						if(recibida.codigo >= 300)
+							fallos++;
+					}
+					return fallos;
+				}
+			}));
+		}
+		salida.await();
+		int fallos = 0;
+		for(Future<Integer> pendiente : pendientes)
+			fallos += pendiente.get();
+		clientes.shutdown();
+		assertEquals(0, fallos);
+		assertEquals(0, modelo.getNumReservas());
+	}
+}